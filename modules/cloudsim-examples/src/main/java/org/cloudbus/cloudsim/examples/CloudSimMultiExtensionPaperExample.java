@@ -169,6 +169,7 @@ public class CloudSimMultiExtensionPaperExample {
 				Log.println("App #"+ app.appID + " " +(app.cList.get(1).getExecFinishTime() - app.cList.get(0).getExecStartTime()));
 			}
 
+			writer.close();
 			System.out.println("Result in "+writer.getFileAddress());
 		} catch (Exception e) {
 			e.printStackTrace();
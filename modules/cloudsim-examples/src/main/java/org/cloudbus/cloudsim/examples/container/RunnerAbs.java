@@ -11,6 +11,7 @@ import org.cloudbus.cloudsim.selectionPolicies.PowerSelectionPolicyMaximumCorrel
 import org.cloudbus.cloudsim.selectionPolicies.PowerSelectionPolicyMaximumCorrelation2;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMaximumUsage;
 import org.cloudbus.cloudsim.selectionPolicies.*;
+import org.cloudbus.cloudsim.util.AsyncOutputStream;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -147,7 +148,7 @@ public abstract class RunnerAbs {
 
             File file = new File(outputFolder + "/log/" + getExperimentName().substring(0, index) + "/" + this.getExperimentName(hostSelectionPolicy, vmAllocationPolicy, vmSelectionPolicy, containerSelectionPolicy, String.valueOf(getOverBookingFactor()), getRunTime()) + ".txt");
             file.createNewFile();
-            Log.setOutput(new FileOutputStream(file));
+            Log.setOutput(new AsyncOutputStream(new FileOutputStream(file)));
         }
 
     }
@@ -192,6 +193,7 @@ public abstract class RunnerAbs {
         }
 
         Log.println("Finished " + experimentName);
+        Log.flush();
     }
 
     protected String getExperimentName(String... args) {
@@ -256,6 +258,11 @@ public abstract class RunnerAbs {
         VmAllocationPolicy containerAllocationPolicy;
         if (Objects.equals(containerAllocationPolicyName, "Simple")) {
             containerAllocationPolicy = new VmAllocationPolicySimple(vmList); // DVFS policy without VM migrations
+        } else if (Objects.equals(containerAllocationPolicyName, "FirstFitDecreasing")) {
+            // places each submitted batch of containers at once, over an index of the VMs' available MIPS
+            containerAllocationPolicy = new VmAllocationPolicyBinPacking(vmList, VmAllocationPolicyBinPacking.Heuristic.FIRST_FIT_DECREASING);
+        } else if (Objects.equals(containerAllocationPolicyName, "BestFitDecreasing")) {
+            containerAllocationPolicy = new VmAllocationPolicyBinPacking(vmList, VmAllocationPolicyBinPacking.Heuristic.BEST_FIT_DECREASING);
         } else {
             SelectionPolicy<HostEntity> selectionPolicy = getContainerPlacementPolicy(containerAllocationPolicyName);
             containerAllocationPolicy = new VmAllocationWithSelectionPolicy(vmList, selectionPolicy); // DVFS policy without VM migrations
@@ -281,6 +288,9 @@ public abstract class RunnerAbs {
             case "Random":
                 selectionPolicy = new SelectionPolicyRandomSelection<>();
                 break;
+            case "ImageLocality":
+                selectionPolicy = new SelectionPolicyImageLocality<>();
+                break;
             default:
                 selectionPolicy = null;
                 System.out.println("The container placement policy is not defined");
@@ -34,7 +34,9 @@ import org.cloudbus.cloudsim.power.PowerVmAllocationPolicyMigrationAbstract;
 import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
 import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.ColumnarMetricsWriter;
 import org.cloudbus.cloudsim.util.MathUtil;
+import org.cloudbus.cloudsim.util.MetricsColumn;
 
 /**
  * The Class Helper.
@@ -366,6 +368,8 @@ public class Helper {
 
 				writeMetricHistory(hosts, vmAllocationPolicy, outputFolder + "/metrics/" + experimentName
 						+ "_metric");
+				writeMetricHistoryColumnar(hosts, vmAllocationPolicy, outputFolder + "/metrics/" + experimentName
+						+ "_metric.bin");
 			}
 
 			data.append("\n");
@@ -710,6 +714,51 @@ public class Helper {
 		}
 	}
 
+	/**
+	 * Writes the metric history of all the hosts to a single columnar binary file, with the
+	 * columns host, time, utilization, power and metric, which can be loaded back with a
+	 * {@link org.cloudbus.cloudsim.util.ColumnarMetricsReader}.
+	 * 
+	 * @param hosts the hosts
+	 * @param vmAllocationPolicy the vm allocation policy
+	 * @param outputPath the output path
+	 */
+	public static void writeMetricHistoryColumnar(
+			List<? extends Host> hosts,
+			PowerVmAllocationPolicyMigrationAbstract vmAllocationPolicy,
+			String outputPath) {
+		try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(outputPath,
+				new MetricsColumn("host", MetricsColumn.Type.INT),
+				new MetricsColumn("time", MetricsColumn.Type.DOUBLE),
+				new MetricsColumn("utilization", MetricsColumn.Type.DOUBLE),
+				new MetricsColumn("power", MetricsColumn.Type.DOUBLE),
+				new MetricsColumn("metric", MetricsColumn.Type.DOUBLE))) {
+			for (Host host : hosts) {
+				List<Double> timeData = vmAllocationPolicy.getTimeHistory(host.getId());
+				if (timeData == null) {
+					continue;
+				}
+				List<Double> utilizationData = vmAllocationPolicy.getUtilizationHistory(host.getId());
+				List<Double> metricData = vmAllocationPolicy.getMetricHistory(host.getId());
+
+				for (int i = 0; i < timeData.size(); i++) {
+					double utilization = utilizationData.get(i);
+					writer.setInt(0, host.getId());
+					writer.setDouble(1, timeData.get(i));
+					writer.setDouble(2, utilization);
+					if (host instanceof PowerHost powerHost) {
+						writer.setDouble(3, powerHost.getPower(Math.min(1, utilization)));
+					}
+					writer.setDouble(4, metricData.get(i));
+					writer.endRow();
+				}
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			System.exit(0);
+		}
+	}
+
 	/**
 	 * Prints the Cloudlet objects.
 	 * 
@@ -11,6 +11,7 @@ import org.cloudbus.cloudsim.core.CloudSim;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.power.*;
 import org.cloudbus.cloudsim.selectionPolicies.*;
+import org.cloudbus.cloudsim.util.AsyncOutputStream;
 
 /**
  * The Class RunnerAbstract.
@@ -122,7 +123,7 @@ public abstract class RunnerAbstract {
 			File file = new File(outputFolder + "/log/"
 					+ getExperimentName(workload, vmAllocationPolicy, vmSelectionPolicy, parameter) + ".txt");
 			file.createNewFile();
-			Log.setOutput(new FileOutputStream(file));
+			Log.setOutput(new AsyncOutputStream(new FileOutputStream(file)));
 		}
 	}
 
@@ -178,6 +179,7 @@ public abstract class RunnerAbstract {
 		}
 
 		Log.println("Finished " + experimentName);
+		Log.flush();
 	}
 
 	/**
@@ -30,6 +30,9 @@ import org.cloudbus.cloudsim.core.*;
  */
 public class Datacenter extends SimEntity {
 
+	/** The log of the migration completions, which can be sampled in large simulations. */
+	private static final Log.Site MIGRATION_COMPLETION_LOG = Log.site("Datacenter.migrationCompletion");
+
 	/** The characteristics. */
 	private DatacenterCharacteristics characteristics;
 
@@ -53,6 +56,9 @@ public class Datacenter extends SimEntity {
 	/** The scheduling delay to process each datacenter received event. */
 	private double schedulingInterval;
 
+	/** The location of the guests placed in the hosts. */
+	private final GuestDirectory guestDirectory = new GuestDirectory();
+
 	/**
 	 * Allocates a new Datacenter object.
 	 * 
@@ -192,6 +198,10 @@ public class Datacenter extends SimEntity {
             processVmCreate(ev, false);
         } else if (tag == CloudActionTags.VM_CREATE_ACK) {
             processVmCreate(ev, true);
+        } else if (tag == CloudActionTags.VM_CREATE_BATCH) {
+            processVmCreateBatch(ev, false);
+        } else if (tag == CloudActionTags.VM_CREATE_BATCH_ACK) {
+            processVmCreateBatch(ev, true);
         } else if (tag == CloudActionTags.VM_DESTROY) {
             processVmDestroy(ev, false);
         } else if (tag == CloudActionTags.VM_DESTROY_ACK) {
@@ -334,7 +344,7 @@ public class Datacenter extends SimEntity {
 			userId = data[1];
 			vmId = data[2];
 
-			status = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId).getCloudletScheduler()
+			status = getGuestDirectory().getGuest(vmId, userId).getCloudletScheduler()
 					.getCloudletStatus(cloudletId);
 		}
 
@@ -345,7 +355,7 @@ public class Datacenter extends SimEntity {
 				cloudletId = cl.getCloudletId();
 				userId = cl.getUserId();
 
-				status = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+				status = getGuestDirectory().getGuest(vmId, userId)
 						.getCloudletScheduler().getCloudletStatus(cloudletId);
 			} catch (Exception e) {
 				Log.printlnConcat(getName(), ": Error in processing CloudActionTags.CLOUDLET_STATUS");
@@ -405,25 +415,101 @@ public class Datacenter extends SimEntity {
 			result = getVmAllocationPolicy().allocateHostForGuest(guest);
 		}
 
+		double delay = 0;
+		if (result) {
+			delay = processGuestCreated(guest);
+		} else {
+			Log.printlnConcat(CloudSim.clock(), ": Datacenter.guestAllocator: Couldn't find a host for ", guest.getClassName(), " #", guest.getId());
+		}
+
 		if (ack) {
 			int[] data = new int[3];
 			data[0] = getId();
 			data[1] = guest.getId();
 			data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
-			send(guest.getUserId(), CloudSim.getMinTimeBetweenEvents(), CloudActionTags.VM_CREATE_ACK, data);
+			send(guest.getUserId(), Math.max(CloudSim.getMinTimeBetweenEvents(), delay), CloudActionTags.VM_CREATE_ACK, data);
 		}
+	}
 
-		if (result) {
-			getVmList().add(guest);
+	/**
+	 * Completes the creation of a guest that has just been allocated to a host: adds it to the
+	 * VM list, marks it as instantiated and starts processing its cloudlets. Every guest placed by
+	 * {@link #processVmCreate(SimEvent, boolean)} or {@link #processVmCreateBatch(SimEvent, boolean)}
+	 * goes through this method, so subclasses that change how a guest starts override it instead.
+	 *
+	 * @param guest the guest just allocated to a host
+	 * @return the delay after which the guest is ready, by which its creation ack is postponed
+	 */
+	protected double processGuestCreated(GuestEntity guest) {
+		getVmList().add(guest);
+
+		if (guest.isBeingInstantiated()) {
+			guest.setBeingInstantiated(false);
+		}
+
+		guest.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
+				.getAllocatedMipsForGuest(guest));
+		return 0;
+	}
+
+	/**
+	 * Process the event for an User/Broker who wants to create a list of VMs at once in this Datacenter.
+	 * Guests with a user-preferred host are allocated to it; the others are placed together by
+	 * {@link VmAllocationPolicy#allocateHostsForGuests(List)}; each placed guest is then completed by
+	 * {@link #processGuestCreated(GuestEntity)}. A single ack is sent back to the User/Broker once
+	 * the last guest is ready, whose data is an int array holding the datacenter id followed by a
+	 * (guest id, result) pair for each guest of the list.
+	 *
+	 * @param ev information about the event just happened, whose data is the list of guests
+	 * @param ack indicates if the event's sender expects to receive
+	 * an acknowledge message when the event finishes to be processed
+	 * @pre ev != null
+	 * @post $none
+	 */
+	@SuppressWarnings("unchecked")
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		List<GuestEntity> guests = (List<GuestEntity>) ev.getData();
+		if (guests.isEmpty()) {
+			return;
+		}
 
-			if (guest.isBeingInstantiated()) {
-				guest.setBeingInstantiated(false);
+		boolean[] results = new boolean[guests.size()];
+		List<GuestEntity> toPlace = new ArrayList<>(guests.size());
+		List<Integer> toPlaceIndices = new ArrayList<>(guests.size());
+		for (int i = 0; i < guests.size(); i++) {
+			GuestEntity guest = guests.get(i);
+			HostEntity userPreferredHost = guest.getHost();
+			if (userPreferredHost != null && getVmAllocationPolicy().getHostList().contains(userPreferredHost)) {
+				results[i] = getVmAllocationPolicy().allocateHostForGuest(guest, userPreferredHost);
+			} else {
+				toPlace.add(guest);
+				toPlaceIndices.add(i);
 			}
+		}
+		boolean[] placed = getVmAllocationPolicy().allocateHostsForGuests(toPlace);
+		for (int i = 0; i < placed.length; i++) {
+			results[toPlaceIndices.get(i)] = placed[i];
+		}
 
-			guest.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(guest).getGuestScheduler()
-					.getAllocatedMipsForGuest(guest));
-		} else {
-			Log.printlnConcat(CloudSim.clock(), ": Datacenter.guestAllocator: Couldn't find a host for ", guest.getClassName(), " #", guest.getId());
+		double delay = 0;
+		for (int i = 0; i < guests.size(); i++) {
+			GuestEntity guest = guests.get(i);
+			if (results[i]) {
+				delay = Math.max(delay, processGuestCreated(guest));
+			} else {
+				Log.printlnConcat(CloudSim.clock(), ": Datacenter.guestAllocator: Couldn't find a host for ", guest.getClassName(), " #", guest.getId());
+			}
+		}
+
+		if (ack) {
+			int[] data = new int[1 + 2 * guests.size()];
+			data[0] = getId();
+			for (int i = 0; i < guests.size(); i++) {
+				data[1 + 2 * i] = guests.get(i).getId();
+				data[2 + 2 * i] = results[i] ? CloudSimTags.TRUE : CloudSimTags.FALSE;
+			}
+			send(guests.getFirst().getUserId(), Math.max(CloudSim.getMinTimeBetweenEvents(), delay),
+					CloudActionTags.VM_CREATE_BATCH_ACK, data);
 		}
 	}
 
@@ -495,11 +581,11 @@ public class Datacenter extends SimEntity {
 			sendNow(ev.getSourceId(), CloudActionTags.VM_CREATE_ACK, data);
 		}
 
-		Log.formatLine(
+		MIGRATION_COMPLETION_LOG.println(Log.Level.INFO, () -> String.format(
 				"%.2f: Migration of VM #%d to Host #%d is completed",
 				CloudSim.clock(),
 				vm.getId(),
-				host.getId());
+				host.getId()));
 		vm.setInMigration(false);
 	}
 
@@ -574,7 +660,7 @@ public class Datacenter extends SimEntity {
 		int destId = receivedData[4];
 
 		// get the cloudlet
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+		Cloudlet cl = getGuestDirectory().getGuest(vmId, userId)
 				.getCloudletScheduler().cloudletCancel(cloudletId);
 
 		boolean failed = false;
@@ -596,7 +682,7 @@ public class Datacenter extends SimEntity {
 
 			// the cloudlet will migrate from one vm to another does the destination VM exist?
 			if (destId == getId()) {
-				GuestEntity vm = getVmAllocationPolicy().getHost(vmDestId, userId).getGuest(vmDestId,userId);
+				GuestEntity vm = getGuestDirectory().getGuest(vmDestId, userId);
 				if (vm == null) {
 					failed = true;
 				} else {
@@ -643,11 +729,9 @@ public class Datacenter extends SimEntity {
 
 			// checks whether this Cloudlet has finished or not
 			if (cl.isFinished()) {
-				String name = CloudSim.getEntityName(cl.getUserId());
-				Log.printlnConcat(getName(), ": Warning - ",cl.getClass().getSimpleName()," #", cl.getCloudletId(), " owned by ", name,
-						" is already completed/finished.");
-				Log.println("Therefore, it is not being executed again");
-				Log.println();
+				Log.println(Log.Level.WARN, () -> getName() + ": Warning - " + cl.getClass().getSimpleName() + " #" + cl.getCloudletId()
+						+ " owned by " + CloudSim.getEntityName(cl.getUserId()) + " is already completed/finished."
+						+ System.lineSeparator() + "Therefore, it is not being executed again" + System.lineSeparator());
 
 				// NOTE: If a Cloudlet has finished, then it won't be processed.
 				// So, if ack is required, this method sends back a result.
@@ -678,8 +762,7 @@ public class Datacenter extends SimEntity {
 			// time to transfer the files
 			double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
 
-			HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
-			GuestEntity vm = host.getGuest(vmId, userId);
+			GuestEntity vm = getGuestDirectory().getGuest(vmId, userId);
 			CloudletScheduler scheduler = vm.getCloudletScheduler();
 			double estimatedFinishTime = scheduler.cloudletSubmit(cl, fileTransferTime);
 
@@ -702,10 +785,10 @@ public class Datacenter extends SimEntity {
 				sendNow(cl.getUserId(), CloudActionTags.CLOUDLET_SUBMIT_ACK, data);
 			}
 		} catch (ClassCastException c) {
-			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "ClassCastException error.");
+			Log.println(Log.Level.ERROR, () -> getName() + ".processCloudletSubmit(): ClassCastException error.");
 			c.printStackTrace();
 		} catch (Exception e) {
-			Log.printlnConcat(getName(), ".processCloudletSubmit(): ", "Exception error.");
+			Log.println(Log.Level.ERROR, () -> getName() + ".processCloudletSubmit(): Exception error.");
 			e.printStackTrace();
 		}
 
@@ -747,7 +830,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletResume(int cloudletId, int userId, int vmId, boolean ack) {
-		double eventTime = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+		double eventTime = getGuestDirectory().getGuest(vmId, userId)
 				.getCloudletScheduler().cloudletResume(cloudletId);
 
 		boolean status = false;
@@ -780,7 +863,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletPause(int cloudletId, int userId, int vmId, boolean ack) {
-		boolean status = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+		boolean status = getGuestDirectory().getGuest(vmId, userId)
 				.getCloudletScheduler().cloudletPause(cloudletId);
 
 		if (ack) {
@@ -803,7 +886,7 @@ public class Datacenter extends SimEntity {
 	 * @post $none
 	 */
 	protected void processCloudletCancel(int cloudletId, int userId, int vmId) {
-		Cloudlet cl = getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId,userId)
+		Cloudlet cl = getGuestDirectory().getGuest(vmId, userId)
 				.getCloudletScheduler().cloudletCancel(cloudletId);
 		sendNow(userId, CloudActionTags.CLOUDLET_CANCEL, cl);
 	}
@@ -1032,6 +1115,15 @@ public class Datacenter extends SimEntity {
 		return vmAllocationPolicy;
 	}
 
+	/**
+	 * Gets the directory of the guests placed in the hosts of this datacenter.
+	 *
+	 * @return the guest directory
+	 */
+	public GuestDirectory getGuestDirectory() {
+		return guestDirectory;
+	}
+
 	/**
 	 * Sets the vm allocation policy.
 	 * 
@@ -76,6 +76,10 @@ public class DatacenterBroker extends SimEntity {
 	/** Next guest to which send the cloudlet */
 	private int guestIndex = 0;
 
+	/** Whether the VMs are sent to each datacenter in a single creation request,
+	 * acknowledged by a single message, instead of one request per VM. */
+	private boolean batchVmCreation;
+
 	/**
 	 * Created a new DatacenterBroker object.
 	 * 
@@ -161,6 +165,10 @@ public class DatacenterBroker extends SimEntity {
         } else if (tag == CloudActionTags.VM_CREATE_ACK) {
             processVmCreateAck(ev);
 
+            // Batch VM Creation answer
+        } else if (tag == CloudActionTags.VM_CREATE_BATCH_ACK) {
+            processVmCreateBatchAck(ev);
+
             // A finished cloudlet returned
         } else if (tag == CloudActionTags.CLOUDLET_RETURN) {
             processCloudletReturn(ev);
@@ -240,7 +248,52 @@ public class DatacenterBroker extends SimEntity {
 		}
 
 		incrementVmsAcks();
+		processVmCreateAcksReceived();
+	}
 
+	/**
+	 * Process the single ack received due to a request for the creation of a list of VMs.
+	 *
+	 * @param ev a SimEvent object, whose data holds the datacenter id followed by
+	 *           a (VM id, result) pair for each requested VM
+	 * @pre ev != null
+	 * @post $none
+	 * @see Datacenter#processVmCreateBatch(SimEvent, boolean)
+	 */
+	protected void processVmCreateBatchAck(SimEvent ev) {
+		int[] data = (int[]) ev.getData();
+		int datacenterId = data[0];
+
+		Map<Integer, GuestEntity> guestsById = new HashMap<>();
+		for (GuestEntity guest : getGuestList()) {
+			guestsById.putIfAbsent(guest.getId(), guest);
+		}
+
+		for (int i = 1; i < data.length; i += 2) {
+			int vmId = data[i];
+			GuestEntity guest = guestsById.get(vmId);
+
+			if (data[i + 1] == CloudSimTags.TRUE) {
+				getVmsToDatacentersMap().put(vmId, datacenterId);
+				getGuestsCreatedList().add(guest);
+				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": ", guest.getClassName(), " #", vmId,
+						" has been created in Datacenter #", datacenterId, ", ", guest.getHost().getClassName(), " #",
+						guest.getHost().getId());
+			} else {
+				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Creation of ", guest.getClassName(), " #", vmId,
+						" failed in Datacenter #", datacenterId);
+			}
+
+			incrementVmsAcks();
+		}
+		processVmCreateAcksReceived();
+	}
+
+	/**
+	 * Submits the cloudlets once all the requested VMs have been created. Otherwise, once all the
+	 * acks have been received, tries to create the remaining VMs in the next datacenter.
+	 */
+	protected void processVmCreateAcksReceived() {
 		// all the requested VMs have been created
 		if (getGuestsCreatedList().size() == getGuestList().size() - getVmsDestroyed()) {
 			submitCloudlets();
@@ -329,14 +382,22 @@ public class DatacenterBroker extends SimEntity {
 		// send as much vms as possible for this datacenter before trying the next one
 		int requestedVms = 0;
 		String datacenterName = CloudSim.getEntityName(datacenterId);
+		List<GuestEntity> batch = new ArrayList<>();
 		for (GuestEntity vm : getGuestList()) {
 			if (!getVmsToDatacentersMap().containsKey(vm.getId())) {
 				Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Trying to Create ", vm.getClassName(),
 						" #", vm.getId(), " in ", datacenterName);
-				sendNow(datacenterId, CloudActionTags.VM_CREATE_ACK, vm);
+				if (isBatchVmCreation()) {
+					batch.add(vm);
+				} else {
+					sendNow(datacenterId, CloudActionTags.VM_CREATE_ACK, vm);
+				}
 				requestedVms++;
 			}
 		}
+		if (!batch.isEmpty()) {
+			sendNow(datacenterId, CloudActionTags.VM_CREATE_BATCH_ACK, batch);
+		}
 
 		getDatacenterRequestedIdsList().add(datacenterId);
 
@@ -664,4 +725,26 @@ public class DatacenterBroker extends SimEntity {
 		this.datacenterRequestedIdsList = datacenterRequestedIdsList;
 	}
 
+	/**
+	 * Checks whether the VMs are sent to each datacenter in a single creation request.
+	 *
+	 * @return true if VM creation is batched; false otherwise
+	 */
+	public boolean isBatchVmCreation() {
+		return batchVmCreation;
+	}
+
+	/**
+	 * Sets whether the VMs are sent to each datacenter in a single creation request,
+	 * acknowledged by a single message, instead of one request per VM.
+	 * Batching lets the datacenter place all the VMs at once
+	 * (see {@link VmAllocationPolicy#allocateHostsForGuests(List)}) and
+	 * avoids one event per VM when submitting thousands of VMs.
+	 *
+	 * @param batchVmCreation true to batch VM creation; false otherwise
+	 */
+	public void setBatchVmCreation(boolean batchVmCreation) {
+		this.batchVmCreation = batchVmCreation;
+	}
+
 }
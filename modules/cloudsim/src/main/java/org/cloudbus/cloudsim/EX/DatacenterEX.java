@@ -46,15 +46,14 @@ public class DatacenterEX extends Datacenter {
     }
 
     /*
-     * Copied and modified from the superclass as we wanted to avoid setting the
-     * beingInstantiated flag, before the boot time.
+     * Copied and modified from the superclass as we wanted to delay the ack by the boot time.
      */
     @Override
     protected void processVmCreate(final SimEvent ev, final boolean ack) {
         GuestEntity vm = (GuestEntity) ev.getData();
 
         boolean result = getVmAllocationPolicy().allocateHostForGuest(vm);
-        double delay = delayDistribution.getDelay(vm);
+        double delay = result ? processGuestCreated(vm) : delayDistribution.getDelay(vm);
         if (ack) {
             int[] data = new int[3];
             data[0] = getId();
@@ -62,18 +61,24 @@ public class DatacenterEX extends Datacenter {
             data[2] = result ? CloudSimTags.TRUE : CloudSimTags.FALSE;
             send(vm.getUserId(), delay, CloudActionTags.VM_CREATE_ACK, data);
         }
+    }
 
-        if (result) {
-            send(getId(), delay, CloudSimEXTags.DATACENTER_BOOT_VM_TAG, vm);
-
-            getVmList().add(vm);
+    /*
+     * Copied and modified from the superclass as we wanted to avoid setting the
+     * beingInstantiated flag, before the boot time.
+     */
+    @Override
+    protected double processGuestCreated(final GuestEntity vm) {
+        double delay = delayDistribution.getDelay(vm);
+        send(getId(), delay, CloudSimEXTags.DATACENTER_BOOT_VM_TAG, vm);
 
-            // May not be instantiated yet
+        getVmList().add(vm);
 
-            vm.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getGuestScheduler()
-                    .getAllocatedMipsForGuest(vm));
-        }
+        // May not be instantiated yet
 
+        vm.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(vm).getGuestScheduler()
+                .getAllocatedMipsForGuest(vm));
+        return delay;
     }
 
     @Override
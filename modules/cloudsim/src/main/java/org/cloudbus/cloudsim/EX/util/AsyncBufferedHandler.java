@@ -0,0 +1,558 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.EX.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * A log handler that writes the records to a stream on a background thread,
+ * so that logging does not stall the simulation for the disk.
+ *
+ * <br/>
+ * <br/>
+ * The records are formatted when they are published - so that the formatter
+ * sees the simulation clock of the record - and their bytes are appended to
+ * one of two buffers. When it is full, the buffer is handed to the writer
+ * thread, and the records go to the other one in the meantime. If the other
+ * buffer fills up too before the writer is done, the {@link OverflowPolicy}
+ * of the handler decides what happens to the new records.
+ *
+ * <br/>
+ * <br/>
+ * Records larger than a buffer are handed to the writer on their own, waiting
+ * for it if needed. {@link #flush()} waits until all the published records are
+ * written. A record whose publishing thread is interrupted while waiting for
+ * the writer is dropped, and reported to the {@link ErrorManager}.
+ *
+ * @see InMemoryBufferredHandler
+ * @since CloudSim Toolkit 7.0
+ */
+public final class AsyncBufferedHandler extends Handler {
+
+    /**
+     * What to do with a record when both buffers are full.
+     */
+    public enum OverflowPolicy {
+        /** Wait until the writer is done with its buffer. */
+        BLOCK,
+        /** Drop the oldest records of the buffer to make room for the new one. */
+        DROP_OLDEST,
+        /**
+         * Once the buffer is half full while the writer is busy, keep only one
+         * record out of {@link AsyncBufferedHandler#getSampling()}, and drop the
+         * records that do not fit.
+         */
+        SAMPLE,
+        /**
+         * Append the records to a temporary memory-mapped file, which the
+         * writer empties once done with its buffer; no record is lost.
+         */
+        SPILL
+    }
+
+    /** The default number of records per record kept by {@link OverflowPolicy#SAMPLE}. */
+    public static final int DEFAULT_SAMPLING = 10;
+
+    /** The size of the segments of the spill file mapped in memory. */
+    private static final int SPILL_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    /** The maximum number of bytes of the spill file written at once. */
+    private static final int SPILL_CHUNK_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final OverflowPolicy policy;
+    private final Thread writer;
+
+    private final Object lock = new Object();
+
+    /** The buffer the records are appended to. */
+    private Buffer active;
+    /** The buffer being written, or null if the writer is idle. */
+    private Buffer pending;
+    /** The other buffer, when it is not being written. */
+    private Buffer free;
+    /** The records spilled to disk, or null if none has been. */
+    private SpillFile spill;
+
+    private int sampling = DEFAULT_SAMPLING;
+    /** The number of records considered for sampling since the last hand-off. */
+    private long sampleCount;
+    private long droppedCount;
+
+    private boolean headWritten;
+    private boolean flushRequested;
+    private boolean flushInProgress;
+    /** The number of flushes of the stream done by the writer. */
+    private long flushCount;
+    private boolean closed;
+
+    /**
+     * Constr.
+     *
+     * @param out
+     *            - the stream to write the records to. Closed with the
+     *            handler. Must not be null.
+     * @param bufferSize
+     *            - the size in bytes of each of the two buffers. Must be
+     *            positive.
+     * @param policy
+     *            - what to do with the records when both buffers are full.
+     *            Must not be null.
+     */
+    public AsyncBufferedHandler(final OutputStream out, final int bufferSize, final OverflowPolicy policy) {
+        super();
+        if (out == null || policy == null) {
+            throw new IllegalArgumentException("The stream and the overflow policy must not be null");
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("The size of the buffer must be positive");
+        }
+        this.out = out;
+        this.policy = policy;
+        active = new Buffer(bufferSize);
+        free = new Buffer(bufferSize);
+
+        writer = new Thread(this::run, "AsyncBufferedHandler");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(final LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+
+        byte[] bytes;
+        try {
+            bytes = getFormatter().format(record).getBytes(getCharset());
+        } catch (Exception e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            try {
+                if (!headWritten) {
+                    headWritten = true;
+                    appendText(getFormatter().getHead(this));
+                }
+                append(bytes);
+            } catch (InterruptedException e) {
+                droppedCount++;
+                Thread.currentThread().interrupt();
+                reportError("Interrupted while waiting for the writer, the record is dropped", e,
+                        ErrorManager.GENERIC_FAILURE);
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    private void append(final byte[] bytes) throws InterruptedException, IOException {
+        // The spilled records are older than the new ones
+        if (spill != null && !spill.isEmpty()) {
+            spill.append(bytes);
+            return;
+        }
+
+        if (bytes.length > active.data.length) {
+            awaitIdle();
+            handOff();
+            awaitIdle();
+            pending = new Buffer(bytes);
+            lock.notifyAll();
+            return;
+        }
+
+        if (!active.fits(bytes.length)) {
+            if (pending == null) {
+                handOff();
+            } else {
+                switch (policy) {
+                case BLOCK:
+                    awaitIdle();
+                    handOff();
+                    break;
+                case DROP_OLDEST:
+                    droppedCount += active.dropOldest(bytes.length);
+                    break;
+                case SAMPLE:
+                    droppedCount++;
+                    return;
+                case SPILL:
+                    if (spill == null) {
+                        spill = new SpillFile();
+                    }
+                    spill.append(bytes);
+                    return;
+                }
+            }
+        } else if (policy == OverflowPolicy.SAMPLE && pending != null && active.size > active.data.length / 2
+                && sampleCount++ % sampling != 0) {
+            droppedCount++;
+            return;
+        }
+        active.append(bytes);
+    }
+
+    private void appendText(final String txt) throws InterruptedException, IOException {
+        if (!txt.isEmpty()) {
+            append(txt.getBytes(getCharset()));
+        }
+    }
+
+    /**
+     * Hands the records of the active buffer to the writer, which must be idle.
+     */
+    private void handOff() {
+        if (active.count > 0) {
+            pending = active;
+            active = free;
+            free = null;
+            sampleCount = 0;
+            lock.notifyAll();
+        }
+    }
+
+    private void awaitIdle() throws InterruptedException {
+        while (pending != null) {
+            lock.wait();
+        }
+    }
+
+    /**
+     * Writes all the records published so far, and waits until they are.
+     */
+    @Override
+    public void flush() {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            // A flush in progress may have started before the last records
+            long target = flushCount + (flushInProgress ? 2 : 1);
+            flushRequested = true;
+            lock.notifyAll();
+            try {
+                while (flushCount < target && writer.isAlive()) {
+                    lock.wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SecurityException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+        }
+        flush();
+        synchronized (lock) {
+            if (headWritten) {
+                try {
+                    appendText(getFormatter().getTail(this));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (IOException e) {
+                    reportError(null, e, ErrorManager.WRITE_FAILURE);
+                }
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+        if (spill != null) {
+            try {
+                spill.close();
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.CLOSE_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * The loop of the writer thread.
+     */
+    private void run() {
+        while (true) {
+            Buffer buffer = null;
+            long spillFrom = 0;
+            long spillTo = 0;
+            boolean flush = false;
+
+            synchronized (lock) {
+                while (true) {
+                    if (pending != null) {
+                        buffer = pending;
+                        break;
+                    }
+                    boolean spilled = spill != null && !spill.isEmpty();
+                    if ((spilled || flushRequested || closed) && active.count > 0) {
+                        // The records of the active buffer come first
+                        handOff();
+                        continue;
+                    }
+                    if (spilled) {
+                        spillFrom = spill.readPosition;
+                        spillTo = Math.min(spill.writePosition, spillFrom + SPILL_CHUNK_SIZE);
+                        break;
+                    }
+                    if (flushRequested) {
+                        flushRequested = false;
+                        flushInProgress = true;
+                        flush = true;
+                        break;
+                    }
+                    if (closed) {
+                        return;
+                    }
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+
+            try {
+                if (buffer != null) {
+                    out.write(buffer.data, 0, buffer.size);
+                } else if (spillTo > spillFrom) {
+                    out.write(spill.read(spillFrom, spillTo));
+                } else if (flush) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+
+            synchronized (lock) {
+                if (buffer != null) {
+                    pending = null;
+                    if (!buffer.oversized) {
+                        buffer.clear();
+                        free = buffer;
+                    }
+                } else if (spillTo > spillFrom) {
+                    spill.readPosition = spillTo;
+                    if (spill.isEmpty()) {
+                        spill.readPosition = 0;
+                        spill.writePosition = 0;
+                    }
+                } else if (flush) {
+                    flushInProgress = false;
+                    flushCount++;
+                }
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private Charset getCharset() throws UnsupportedEncodingException {
+        return getEncoding() == null ? Charset.defaultCharset() : Charset.forName(getEncoding());
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return policy;
+    }
+
+    /**
+     * Returns how many records make one record kept by
+     * {@link OverflowPolicy#SAMPLE}.
+     *
+     * @return how many records make one record kept.
+     */
+    public int getSampling() {
+        synchronized (lock) {
+            return sampling;
+        }
+    }
+
+    /**
+     * Sets how many records make one record kept by
+     * {@link OverflowPolicy#SAMPLE}.
+     *
+     * @param sampling
+     *            - the number of records per record kept. Must be positive.
+     */
+    public void setSampling(final int sampling) {
+        if (sampling <= 0) {
+            throw new IllegalArgumentException("The sampling must be positive");
+        }
+        synchronized (lock) {
+            this.sampling = sampling;
+        }
+    }
+
+    /**
+     * Returns the number of records dropped because of the overflow policy, or
+     * because their publishing thread was interrupted while waiting for the
+     * writer.
+     *
+     * @return the number of records dropped.
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * The formatted bytes of consecutive records.
+     */
+    private static final class Buffer {
+        private final byte[] data;
+        private int size;
+        /** The offsets of the records. */
+        private int[] starts = new int[64];
+        private int count;
+        /** Whether this buffer holds a single record, larger than the buffers. */
+        private boolean oversized;
+
+        private Buffer(final int capacity) {
+            data = new byte[capacity];
+        }
+
+        private Buffer(final byte[] record) {
+            data = record;
+            size = record.length;
+            count = 1;
+            oversized = true;
+        }
+
+        private boolean fits(final int length) {
+            return size + length <= data.length;
+        }
+
+        private void append(final byte[] bytes) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = size;
+            System.arraycopy(bytes, 0, data, size, bytes.length);
+            size += bytes.length;
+        }
+
+        /**
+         * Drops the oldest records, until a given number of bytes fit.
+         *
+         * @return the number of records dropped.
+         */
+        private int dropOldest(final int length) {
+            int dropped = 0;
+            while (dropped < count && size - starts[dropped] + length > data.length) {
+                dropped++;
+            }
+            int from = dropped < count ? starts[dropped] : size;
+            System.arraycopy(data, from, data, 0, size - from);
+            for (int i = dropped; i < count; i++) {
+                starts[i - dropped] = starts[i] - from;
+            }
+            count -= dropped;
+            size -= from;
+            return dropped;
+        }
+
+        private void clear() {
+            size = 0;
+            count = 0;
+        }
+    }
+
+    /**
+     * A temporary file the records are appended to, mapped in memory segment
+     * by segment. Records are appended under the lock of the handler, and read
+     * by the writer without it; the two never touch the same bytes.
+     */
+    private static final class SpillFile implements Closeable {
+        private final FileChannel channel;
+        /** The mapped segments; replaced, not modified, when a segment is added. */
+        private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+        private long readPosition;
+        private long writePosition;
+
+        private SpillFile() throws IOException {
+            Path path = Files.createTempFile("cloudsim-log", ".spill");
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.DELETE_ON_CLOSE);
+        }
+
+        private boolean isEmpty() {
+            return readPosition == writePosition;
+        }
+
+        private void append(final byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                int segment = (int) (writePosition / SPILL_SEGMENT_SIZE);
+                int position = (int) (writePosition % SPILL_SEGMENT_SIZE);
+                if (segment == segments.length) {
+                    MappedByteBuffer[] extended = Arrays.copyOf(segments, segment + 1);
+                    extended[segment] = channel.map(FileChannel.MapMode.READ_WRITE,
+                            (long) segment * SPILL_SEGMENT_SIZE, SPILL_SEGMENT_SIZE);
+                    segments = extended;
+                }
+                int length = Math.min(bytes.length - offset, SPILL_SEGMENT_SIZE - position);
+                segments[segment].put(position, bytes, offset, length);
+                offset += length;
+                writePosition += length;
+            }
+        }
+
+        private byte[] read(final long from, final long to) {
+            MappedByteBuffer[] mapped = segments;
+            byte[] result = new byte[(int) (to - from)];
+            int offset = 0;
+            while (offset < result.length) {
+                long current = from + offset;
+                int position = (int) (current % SPILL_SEGMENT_SIZE);
+                int length = Math.min(result.length - offset, SPILL_SEGMENT_SIZE - position);
+                mapped[(int) (current / SPILL_SEGMENT_SIZE)].get(position, result, offset, length);
+                offset += length;
+            }
+            return result;
+        }
+
+        @Override
+        public void close() throws IOException {
+            segments = new MappedByteBuffer[0];
+            channel.close();
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package org.cloudbus.cloudsim.EX.util;
 
 import com.google.common.base.Function;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.apache.commons.io.output.NullOutputStream;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.CloudSim;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Date;
@@ -91,6 +93,22 @@ public class CustomLog {
      */
     private static final String BUFFER_SIZE_PROP_KEY = "BufferSize";
 
+    /**
+     * A key for an integer property, specifying the size in bytes of the two
+     * buffers of an {@link AsyncBufferedHandler}. If specified, the log is
+     * written on a background thread, the {@link #BUFFER_SIZE_PROP_KEY} is
+     * ignored, and the log file name is used as is, not as a
+     * {@link FileHandler} pattern.
+     */
+    public static final String ASYNC_BUFFER_SIZE_PROP_KEY = "AsyncBufferSize";
+
+    /**
+     * A key for the property specifying what to do with the log records when
+     * the asynchronous log cannot keep up. Must be a constant of
+     * {@link AsyncBufferedHandler.OverflowPolicy}; BLOCK by default.
+     */
+    public static final String OVERFLOW_POLICY_PROP_KEY = "OverflowPolicy";
+
     /**
      * The default log level used by this log, if not specified.
      */
@@ -104,6 +122,8 @@ public class CustomLog {
     private static Level granularityLevel = DEFAULT_LEVEL;
     private static Formatter formatter;
     private static int bufferSize = -1;
+    private static int asyncBufferSize = -1;
+    private static AsyncBufferedHandler.OverflowPolicy overflowPolicy = AsyncBufferedHandler.OverflowPolicy.BLOCK;
 
     /**
      * Prints the message passed as an object. Simply uses toString
@@ -570,6 +590,9 @@ public class CustomLog {
                 .getProperty(SHUT_STANDART_LOGGER_PROP_KEY, "false").trim());
         granularityLevel = Level.parse(props.getProperty(LOG_LEVEL_PROP_KEY, DEFAULT_LEVEL.getName()));
         bufferSize = Integer.parseInt(props.getProperty(BUFFER_SIZE_PROP_KEY, "-1").trim());
+        asyncBufferSize = Integer.parseInt(props.getProperty(ASYNC_BUFFER_SIZE_PROP_KEY, "-1").trim());
+        overflowPolicy = AsyncBufferedHandler.OverflowPolicy.valueOf(props.getProperty(OVERFLOW_POLICY_PROP_KEY,
+                AsyncBufferedHandler.OverflowPolicy.BLOCK.name()).trim());
 
         if (shutStandardMessages) {
             Log.setOutput(NullOutputStream.NULL_OUTPUT_STREAM);
@@ -611,11 +634,19 @@ public class CustomLog {
         }
 
         try {
-            Handler handler = fileName != null ? new FileHandler(fileName, append) : new ConsoleHandler();
+            Handler handler;
+            if (asyncBufferSize > 0) {
+                // Like the ConsoleHandler, do not close the standard error
+                OutputStream out = fileName != null ? new FileOutputStream(fileName, append)
+                        : CloseShieldOutputStream.wrap(System.err);
+                handler = new AsyncBufferedHandler(out, asyncBufferSize, overflowPolicy);
+            } else {
+                handler = fileName != null ? new FileHandler(fileName, append) : new ConsoleHandler();
+            }
             handler.setLevel(granularityLevel);
             handler.setFormatter(formatter);
 
-            Handler bufferedHandler = buffer(handler);
+            Handler bufferedHandler = asyncBufferSize > 0 ? handler : buffer(handler);
 
             LOGGER.addHandler(bufferedHandler);
             LOGGER.setLevel(granularityLevel);
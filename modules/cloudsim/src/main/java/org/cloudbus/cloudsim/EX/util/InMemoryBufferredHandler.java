@@ -16,6 +16,7 @@ import java.util.logging.*;
  * 
  * @author nikolay.grozev
  * 
+ * @see AsyncBufferedHandler
  */
 public class InMemoryBufferredHandler extends Handler {
 
@@ -4,13 +4,21 @@ import com.google.common.base.Function;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Primitives;
 
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.UndeclaredThrowableException;
 import java.text.DateFormat;
 import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 
@@ -18,6 +26,13 @@ import java.util.*;
  * consistent and well aligned text. Can be used to easily generate readable log
  * or CSV files.
  * 
+ * <br/>
+ * 
+ * The properties of a class, their getters and their headers are looked up
+ * once per class and set of properties. The getters are then called through
+ * accessors compiled with {@link LambdaMetafactory}, so that printing a line
+ * costs about as much as calling the getters directly.
+ * 
  * @author nikolay.grozev
  * 
  * @see {@link Textualize}
@@ -44,7 +59,32 @@ public class TextUtil {
 
     private static final String STANDARD_GET_REGEX = "get.+";
     private static final String BOOLGET_REGEX = "is.+";
-    private static final Map<Class<?>, List<Method>> GET_METHODS = new HashMap<>();
+
+    /** The symbols of {@link #DEC_FORMAT}, used to format doubles without it. */
+    private static final DecimalFormatSymbols DEC_SYMBOLS = DEC_FORMAT.getDecimalFormatSymbols();
+    /**
+     * The largest magnitude of the doubles formatted without {@link #DEC_FORMAT}
+     * - far enough from the precision of doubles for the rounding to be exact.
+     */
+    private static final double MAX_FAST_DOUBLE = 1e9;
+
+    /** The layouts of the lines, by class and properties. */
+    private static final Map<LayoutKey, Layout> LAYOUTS = new ConcurrentHashMap<>();
+    /** The text width of the enum types. */
+    private static final ClassValue<Integer> ENUM_TXT_SIZES = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Integer computeValue(final Class<?> type) {
+            int result = 0;
+            for (Enum<?> e : ((Class<? extends Enum<?>>) type).getEnumConstants()) {
+                int len = String.valueOf(e).length();
+                if (len > result) {
+                    result = len;
+                }
+            }
+            return result;
+        }
+    };
 
     /**
      * Converts the specified class to a single line of text. Convenient for
@@ -107,10 +147,7 @@ public class TextUtil {
             if (includeFieldNames) {
                 result.append(propName).append("=").append(txt);
             } else {
-                if (propName.length() > txt.length()) {
-                    txt = String.format("%" + propName.length() + "s", txt);
-                }
-                result.append(txt);
+                appendPadded(result, txt, propName.length());
             }
 
             result.append(i < objects.size() - 1 ? delimeter : "");
@@ -280,29 +317,24 @@ public class TextUtil {
     public static String getTxtLine(final Object obj, final String delimeter, final String[] properties,
             final boolean includeFieldNames) {
         StringBuilder result = new StringBuilder();
-        List<Method> methods = extractGetMethodsForClass(obj.getClass(), properties);
-        int i = 0;
-        for (Method m : methods) {
+        Property[] props = getLayout(obj.getClass(), properties).properties;
+        for (int i = 0; i < props.length; i++) {
+            Property prop = props[i];
             Object methodRes = null;
             try {
-                methodRes = m.invoke(obj);
+                methodRes = prop.get(obj);
             } catch (IllegalAccessException | IllegalArgumentException | InvocationTargetException e) {
                 methodRes = "ERR " + e.getMessage();
             }
 
-            String propName = getPropName(m);
             String mTxt = toString(methodRes);
             if (includeFieldNames) {
-                result.append(propName).append("=").append(mTxt);
+                result.append(prop.name).append("=").append(mTxt);
             } else {
-                if (propName.length() > mTxt.length()) {
-                    mTxt = String.format("%" + propName.length() + "s", mTxt);
-                }
-                result.append(mTxt);
+                appendPadded(result, mTxt, prop.name.length());
             }
 
-            result.append(i < methods.size() - 1 ? delimeter : "");
-            i++;
+            result.append(i < props.length - 1 ? delimeter : "");
         }
 
         return result.toString();
@@ -354,10 +386,7 @@ public class TextUtil {
                 if (includeFieldNames) {
                     result.append(propName).append("=").append(txt);
                 } else {
-                    if (propName.length() > txt.length()) {
-                        txt = String.format("%" + propName.length() + "s", txt);
-                    }
-                    result.append(txt);
+                    appendPadded(result, txt, propName.length());
                 }
 
                 result.append(i < virtualProps.size() - 1 ? delimeter : "");
@@ -517,21 +546,7 @@ public class TextUtil {
      * @return formated line of text, as described above.
      */
     public static String getCaptionLine(final Class<?> clazz, final String delimeter, final String[] properties) {
-        StringBuilder result = new StringBuilder();
-        List<Method> methods = extractGetMethodsForClass(clazz, properties);
-        int i = 0;
-        for (Method m : methods) {
-            String propEntry = getPropName(m);
-            Class<?> returnType = Primitives.wrap(m.getReturnType());
-
-            propEntry = formatHeader(propEntry, returnType);
-
-            result.append(propEntry);
-            result.append(i < methods.size() - 1 ? delimeter : "");
-            i++;
-        }
-
-        return result.toString();
+        return String.join(delimeter, getLayout(clazz, properties).headers);
     }
 
     /**
@@ -612,67 +627,74 @@ public class TextUtil {
     @SuppressWarnings("unchecked")
     private static String formatHeader(String header, final Class<?> entryType) {
         if (Double.class.equals(entryType) || Float.class.equals(entryType) && header.length() < SIZE_OF_DBL_STRINGS) {
-            header = String.format("%" + SIZE_OF_DBL_STRINGS + "s", header);
+            header = padLeft(header, SIZE_OF_DBL_STRINGS);
         } else if (Number.class.isAssignableFrom(entryType) && header.length() < SIZE_OF_INT_STRINGS) {
-            header = String.format("%" + SIZE_OF_INT_STRINGS + "s", header);
+            header = padLeft(header, SIZE_OF_INT_STRINGS);
         } else if (entryType != null && entryType.isEnum()) {
-            header = String.format("%" + getEnumTxtSize((Class<? extends Enum<?>>) entryType) + "s", header);
+            header = padLeft(header, getEnumTxtSize((Class<? extends Enum<?>>) entryType));
         } else if (String.class.isAssignableFrom(entryType)) {
             header = toString(header);
         }
         return header;
     }
 
+    /**
+     * Returns the layout of the lines of a class, computing it on first use.
+     */
+    private static Layout getLayout(final Class<?> clazz, final String[] properties) {
+        Layout layout = LAYOUTS.get(new LayoutKey(clazz, properties == null ? null : Arrays.asList(properties)));
+        if (layout == null) {
+            // The key must not share the array of the caller, which may change it
+            LayoutKey key = new LayoutKey(clazz, properties == null ? null : new ArrayList<>(Arrays.asList(properties)));
+            layout = LAYOUTS.computeIfAbsent(key, k -> new Layout(extractGetMethodsForClass(clazz, properties)));
+        }
+        return layout;
+    }
+
     private static List<Method> extractGetMethodsForClass(final Class<?> clazz1, final String[] properties) {
-        List<Method> methods = null;
+        List<Method> methods = new ArrayList<>();
         Class<?> clazz = clazz1;
 
         Textualize classAnnotation = clazz1.getAnnotation(Textualize.class);
         String[] allowedProps = properties != null ? properties : classAnnotation != null ? classAnnotation
                 .properties() : null;
 
-        if (!GET_METHODS.containsKey(clazz)) {
-            methods = new ArrayList<>();
-            do {
-                // Defined in the class methods (not inherited)
-                List<Method> clazzMethods = new LinkedList<>(Arrays.asList(clazz.getDeclaredMethods()));
-
-                // Remove duplicated methods with super classes
-                List<Method> copyofMethods = new ArrayList<>(methods);
-                for (Method method : copyofMethods)
-                    for (Method clazzMethod : clazzMethods) {
-                        if (clazzMethod.getName().equals(method.getName()))
-                            methods.remove(method);
-                    }
-
-                // Sort them by name... since getDeclaredMethods does not
-                // guarantee order
-                clazzMethods.sort(MethodsAlphaComparator.METHOD_CMP);
-
-                methods.addAll(clazzMethods);
-                clazz = clazz.getSuperclass();
-            } while (clazz != null);
-
-            // Filter methods that are not getters and are not in the annotation
-            // (if annotation is specified)
-            for (ListIterator<Method> iter = methods.listIterator(); iter.hasNext();) {
-                Method m = iter.next();
-                if (allowedProps != null && !isAllowedGetter(m, allowedProps)) {
-                    iter.remove();
-                } else if (classAnnotation == null && !isGetter(m)) {
-                    iter.remove();
+        do {
+            // Defined in the class methods (not inherited)
+            List<Method> clazzMethods = new LinkedList<>(Arrays.asList(clazz.getDeclaredMethods()));
+
+            // Remove duplicated methods with super classes
+            List<Method> copyofMethods = new ArrayList<>(methods);
+            for (Method method : copyofMethods)
+                for (Method clazzMethod : clazzMethods) {
+                    if (clazzMethod.getName().equals(method.getName()))
+                        methods.remove(method);
                 }
-            }
 
-            // Sort by the order defined in the annotation
-            if (allowedProps != null) {
-                methods.sort(new MethodsListIndexComparator(Arrays.asList(allowedProps)));
+            // Sort them by name... since getDeclaredMethods does not
+            // guarantee order
+            clazzMethods.sort(MethodsAlphaComparator.METHOD_CMP);
+
+            methods.addAll(clazzMethods);
+            clazz = clazz.getSuperclass();
+        } while (clazz != null);
+
+        // Filter methods that are not getters and are not in the annotation
+        // (if annotation is specified)
+        for (ListIterator<Method> iter = methods.listIterator(); iter.hasNext();) {
+            Method m = iter.next();
+            if (allowedProps != null && !isAllowedGetter(m, allowedProps)) {
+                iter.remove();
+            } else if (classAnnotation == null && !isGetter(m)) {
+                iter.remove();
             }
+        }
 
-            methods = Collections.unmodifiableList(methods);
-            GET_METHODS.put(clazz, methods);
+        // Sort by the order defined in the annotation
+        if (allowedProps != null) {
+            methods.sort(new MethodsListIndexComparator(Arrays.asList(allowedProps)));
         }
-        return GET_METHODS.get(clazz);
+        return methods;
     }
 
     private static String getPropName(final Method getter) {
@@ -711,41 +733,88 @@ public class TextUtil {
         if (obj == null) {
             result = "null";
         } else {
-            Class<?> clazz = Primitives.wrap(obj.getClass());
-            if (clazz.equals(Double.class) || clazz.equals(Float.class)) {
-                result = String.format("%" + SIZE_OF_DBL_STRINGS + "s", TextUtil.DEC_FORMAT.format(obj));
-            } else if (clazz.equals(Boolean.class)) {
+            Class<?> clazz = obj.getClass();
+            if (clazz == Double.class || clazz == Float.class) {
+                result = padLeft(formatDouble(((Number) obj).doubleValue()), SIZE_OF_DBL_STRINGS);
+            } else if (clazz == Boolean.class) {
                 result = String.valueOf(obj);
-            } else if (Number.class.isAssignableFrom(clazz)) {
-                result = String.format("%" + SIZE_OF_INT_STRINGS + "s", obj);
+            } else if (obj instanceof Number) {
+                result = obj instanceof Formattable ? String.format("%" + SIZE_OF_INT_STRINGS + "s", obj)
+                        : padLeft(obj.toString(), SIZE_OF_INT_STRINGS);
             } else if (obj instanceof Date) {
                 result = getDateFormat().format(obj);
-            } else if (obj instanceof Collection<?> || obj.getClass().isArray()) {
+            } else if (obj instanceof Collection<?> || clazz.isArray()) {
                 result = "[...]";
             } else if (obj instanceof Enum<?>) {
-                result = String.format("%" + getEnumTxtSize(((Enum<?>) obj).getDeclaringClass()) + "s",
-                        obj);
+                result = padLeft(String.valueOf(obj), getEnumTxtSize(((Enum<?>) obj).getDeclaringClass()));
             } else if (obj instanceof Class) {
                 result = ((Class<?>) obj).getSimpleName();
-                // If toString is not predefined ...
-            } else if (String.valueOf(obj).startsWith(obj.getClass().getCanonicalName() + "@")) {
-                result = "ref<" + obj.hashCode() + ">";
             } else {
-                result = String.format("%" + SIZE_OF_STRINGS + "s", obj);
+                String txt = String.valueOf(obj);
+                // If toString is not predefined ...
+                if (txt.startsWith(clazz.getCanonicalName() + "@")) {
+                    result = "ref<" + obj.hashCode() + ">";
+                } else if (obj instanceof Formattable) {
+                    result = String.format("%" + SIZE_OF_STRINGS + "s", obj);
+                } else {
+                    result = padLeft(txt, SIZE_OF_STRINGS);
+                }
             }
         }
         return result;
     }
 
-    private static int getEnumTxtSize(final Class<? extends Enum<?>> enumClass) {
-        int result = 0;
-        for (Enum<?> e : enumClass.getEnumConstants()) {
-            int len = String.valueOf(e).length();
-            if (len > result) {
-                result = len;
-            }
+    /**
+     * Formats a double as {@link #DEC_FORMAT} does. Unless the number is very
+     * large or close to halfway between two hundredths, it is rounded with
+     * plain arithmetic rather than {@link DecimalFormat}.
+     * 
+     * @param number
+     *            - the number to format.
+     * @return the formatted number.
+     */
+    static String formatDouble(final double number) {
+        double abs = Math.abs(number);
+        if (!(abs < MAX_FAST_DOUBLE) || DEC_SYMBOLS.getZeroDigit() != '0') {
+            return DEC_FORMAT.format(number);
         }
-        return result;
+        double scaled = abs * 100;
+        long hundredths = (long) scaled;
+        double fraction = scaled - hundredths;
+        if (Math.abs(fraction - 0.5) < 1e-4) {
+            // The rounding error of the scaling may decide the rounding
+            return DEC_FORMAT.format(number);
+        }
+        if (fraction > 0.5) {
+            hundredths++;
+        }
+
+        StringBuilder result = new StringBuilder(16);
+        // DecimalFormat keeps the sign of negative numbers rounded to zero
+        if (Double.doubleToRawLongBits(number) < 0) {
+            result.append(DEC_SYMBOLS.getMinusSign());
+        }
+        long cents = hundredths % 100;
+        result.append(hundredths / 100).append(DEC_SYMBOLS.getDecimalSeparator());
+        if (cents < 10) {
+            result.append('0');
+        }
+        return result.append(cents).toString();
+    }
+
+    private static String padLeft(final String txt, final int width) {
+        return txt.length() >= width ? txt : " ".repeat(width - txt.length()) + txt;
+    }
+
+    private static void appendPadded(final StringBuilder result, final String txt, final int width) {
+        for (int i = txt.length(); i < width; i++) {
+            result.append(' ');
+        }
+        result.append(txt);
+    }
+
+    private static int getEnumTxtSize(final Class<? extends Enum<?>> enumClass) {
+        return ENUM_TXT_SIZES.get(enumClass);
     }
 
     /**
@@ -807,4 +876,125 @@ public class TextUtil {
             return Integer.compare(properties.indexOf(prop1), properties.indexOf(prop2));
         }
     }
+
+    /**
+     * Identifies the layout of the lines of a class.
+     * 
+     * @param clazz
+     *            - the class.
+     * @param properties
+     *            - the properties requested, or null.
+     */
+    private record LayoutKey(Class<?> clazz, List<String> properties) {
+    }
+
+    /**
+     * The properties printed for a class, in order, and their headers.
+     */
+    private static final class Layout {
+        private final Property[] properties;
+        private final String[] headers;
+
+        private Layout(final List<Method> methods) {
+            properties = new Property[methods.size()];
+            headers = new String[methods.size()];
+            for (int i = 0; i < properties.length; i++) {
+                Method m = methods.get(i);
+                properties[i] = new Property(m);
+                headers[i] = formatHeader(properties[i].name, Primitives.wrap(m.getReturnType()));
+            }
+        }
+    }
+
+    /**
+     * Calls a getter. Implemented by the classes that
+     * {@link LambdaMetafactory} generates for the getters.
+     */
+    @FunctionalInterface
+    private interface Getter {
+        Object get(Object obj);
+    }
+
+    /**
+     * A property and the accessor of its getter.
+     */
+    private static final class Property {
+        private final String name;
+        private final Method method;
+        /** Calls the getter, or null to call it by reflection. */
+        private final Getter getter;
+
+        private Property(final Method method) {
+            this.name = getPropName(method);
+            this.method = method;
+            this.getter = compileGetter(method);
+        }
+
+        /**
+         * Calls the getter, reporting errors as {@link Method#invoke} does.
+         */
+        private Object get(final Object obj) throws IllegalAccessException, InvocationTargetException {
+            if (getter == null) {
+                return method.invoke(obj);
+            }
+            try {
+                return getter.get(obj);
+            } catch (RuntimeException | Error e) {
+                throw new InvocationTargetException(e);
+            }
+        }
+
+        /**
+         * Compiles an accessor calling a getter.
+         * 
+         * @return the accessor, or null if the getter is not accessible from
+         *         this class.
+         */
+        private static Getter compileGetter(final Method method) {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle handle;
+            try {
+                handle = lookup.unreflect(method);
+            } catch (IllegalAccessException e) {
+                return null;
+            }
+
+            if (!Modifier.isStatic(method.getModifiers()) && isVisible(method.getDeclaringClass())) {
+                try {
+                    CallSite site = LambdaMetafactory.metafactory(lookup, "get", MethodType.methodType(Getter.class),
+                            MethodType.methodType(Object.class, Object.class), handle,
+                            MethodType.methodType(Primitives.wrap(method.getReturnType()), method.getDeclaringClass()));
+                    return (Getter) site.getTarget().invokeExact();
+                } catch (Throwable e) {
+                    // Fall back to the method handle
+                }
+            }
+
+            if (Modifier.isStatic(method.getModifiers())) {
+                handle = MethodHandles.dropArguments(handle, 0, Object.class);
+            }
+            MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class));
+            return obj -> {
+                try {
+                    return generic.invokeExact(obj);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            };
+        }
+
+        /**
+         * Checks if the classes generated in this class's loader can refer to
+         * a class.
+         */
+        private static boolean isVisible(final Class<?> clazz) {
+            try {
+                return Class.forName(clazz.getName(), false, TextUtil.class.getClassLoader()) == clazz;
+            } catch (ClassNotFoundException | LinkageError e) {
+                return false;
+            }
+        }
+    }
 }
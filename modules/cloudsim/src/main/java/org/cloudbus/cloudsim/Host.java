@@ -9,6 +9,7 @@ package org.cloudbus.cloudsim;
 
 import java.util.*;
 
+import org.cloudbus.cloudsim.core.GuestDirectory;
 import org.cloudbus.cloudsim.core.GuestEntity;
 import org.cloudbus.cloudsim.core.HostEntity;
 import org.cloudbus.cloudsim.core.VirtualEntity;
@@ -60,9 +61,6 @@ public class Host implements HostEntity {
 	/** The datacenter where the host is placed. */
 	private Datacenter datacenter;
 
-	/** guest id -> overhead */
-	private Map<Integer, Integer> cachedVirtualizationOverhead;
-
 	/**
 	 * Instantiates a new host.
 	 * 
@@ -88,8 +86,6 @@ public class Host implements HostEntity {
 
 		setPeList(peList);
 		setFailed(false);
-
-		cachedVirtualizationOverhead = new HashMap<>();
 	}
 
 	/**
@@ -132,27 +128,36 @@ public class Host implements HostEntity {
 	public boolean isSuitableForVm(Vm vm) { return isSuitableForGuest(vm); }
 
 	/**
-	 * Find guest (which could be nested) and return its total virtualization overhead
+	 * Gets the total virtualization overhead of a guest (which could be nested) running in this host,
+	 * from the {@link GuestDirectory} of the datacenter.
+	 *
+	 * @param guestId guest to compute the total virtualization overhead
+	 * @return 0 if guest is not present
+	 */
+	public int getTotalVirtualizationOverhead(int guestId) {
+		GuestDirectory directory = GuestDirectory.of(this);
+		if (directory == null) {
+			return getTotalVirtualizationOverhead(guestId, getGuestList().iterator(), 0);
+		}
+		return directory.getTotalVirtualizationOverhead(this, guestId);
+	}
+
+	/**
+	 * Find guest (which could be nested) and return its total virtualization overhead,
+	 * walking the guest lists.
 	 *
 	 * @param guestId guest to compute the total virtualization overhead
 	 * @param it iterator to a guest list
 	 * @param acc accumulated virtualization overhead so far
 	 * @return 0 if guest is not present
+	 * @see #getTotalVirtualizationOverhead(int)
 	 */
 	public int getTotalVirtualizationOverhead(int guestId, Iterator<GuestEntity> it, int acc) {
-		if (cachedVirtualizationOverhead.containsKey(guestId)) {
-			return acc + cachedVirtualizationOverhead.get(guestId);
-		}
-
 		if (!it.hasNext()) {
 			return 0;
 		}
 
 		GuestEntity currGuest = it.next();
-		if (!cachedVirtualizationOverhead.containsKey(currGuest.getId())) {
-			cachedVirtualizationOverhead.put(currGuest.getId(), acc + currGuest.getVirtualizationOverhead());
-		}
-
 		if (currGuest.getId() == guestId) {
 			return acc + currGuest.getVirtualizationOverhead();
 		}
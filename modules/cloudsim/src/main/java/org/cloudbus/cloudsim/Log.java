@@ -10,10 +10,23 @@ package org.cloudbus.cloudsim;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.cloudbus.cloudsim.core.CloudSim;
 
 /**
  * Logger used for performing logging of the simulation process. It provides the ability to
  * substitute the output stream by any OutputStream subclass.
+ *
+ * <p>Messages have a {@link Level}; those below the {@link #setLevel(Level) level} of the logger
+ * are discarded, and the methods without a level print at {@link Level#INFO}. The methods taking
+ * a {@link Supplier} only build the message if it is printed, so that a disabled or filtered
+ * message costs neither formatting nor boxing of its arguments. The messages of a frequent call
+ * site can go through a {@link Site}, which can be configured to print only a sample of them.
+ * Writing to a file from a large simulation is best done through an
+ * {@link org.cloudbus.cloudsim.util.AsyncOutputStream}.</p>
  * 
  * @author Anton Beloglazov
  * @author Remo Andreoli
@@ -21,6 +34,18 @@ import java.io.OutputStream;
  */
 public class Log {
 
+	/** The severity of a message. */
+	public enum Level {
+		/** Detailed tracing of the simulation. */
+		DEBUG,
+		/** The regular output of the simulation. */
+		INFO,
+		/** Unexpected conditions the simulation recovers from. */
+		WARN,
+		/** Failures. */
+		ERROR
+	}
+
 	/** The Constant LINE_SEPARATOR. */
 	private static final String LINE_SEPARATOR = System.getProperty("line.separator");
 
@@ -30,6 +55,12 @@ public class Log {
 	/** Indicates if the logger is disabled or not. If set to true,
          the call for any print method has no effect. */
 	private static boolean disabled;
+
+	/** The lowest level of the messages printed. */
+	private static Level level = Level.INFO;
+
+	/** The call sites, by name. */
+	private static final Map<String, Site> sites = new ConcurrentHashMap<>();
 	
 	/** Buffer to avoid creating new string builder upon every print. */
 	private static final StringBuilder buffer = new StringBuilder();
@@ -40,12 +71,16 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void print(String message) {
-		if (!isDisabled()) {
-			try {
-				getOutput().write(message.getBytes());
-			} catch (IOException e) {
-				e.printStackTrace();
-			}
+		if (isEnabled(Level.INFO)) {
+			write(message);
+		}
+	}
+
+	private static void write(String message) {
+		try {
+			getOutput().write(message.getBytes());
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 	}
 
@@ -55,7 +90,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void print(Object message) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(String.valueOf(message));
 		}
 	}
@@ -66,7 +101,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void println(String message) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(message + LINE_SEPARATOR);
 		}
 	}
@@ -78,7 +113,7 @@ public class Log {
 	 * Prints an empty line.
 	 */
 	public static void println() {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(LINE_SEPARATOR);
 		}
 	}
@@ -93,7 +128,7 @@ public class Log {
 	 * @param messages the messages to print
 	 */
 	public static void printConcat(Object... messages) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			buffer.setLength(0); // Clear the buffer		    
             for (Object message : messages) {
                 buffer.append(message);
@@ -108,7 +143,7 @@ public class Log {
 	 * @param messages the messages to print
 	 */
 	public static void printlnConcat(Object... messages) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			buffer.setLength(0); // Clear the buffer		    
             for (Object message : messages) {
                 buffer.append(message);
@@ -127,7 +162,7 @@ public class Log {
 	 * @param message the message
 	 */
 	public static void println(Object message) {
-	    if (!isDisabled()) {
+	    if (isEnabled(Level.INFO)) {
 		println(String.valueOf(message));
 	    }
 	}
@@ -143,7 +178,7 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void format(String format, Object... args) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			print(String.format(format, args));
 		}
 	}
@@ -155,11 +190,57 @@ public class Log {
 	 * @param args the args
 	 */
 	public static void formatLine(String format, Object... args) {
-		if (!isDisabled()) {
+		if (isEnabled(Level.INFO)) {
 			println(String.format(format, args));
 		}
 	}
 
+	/**
+	 * Prints a message built only if it is printed.
+	 *
+	 * @param level the message level
+	 * @param message builds the message
+	 */
+	public static void print(Level level, Supplier<?> message) {
+		if (isEnabled(level)) {
+			write(String.valueOf(message.get()));
+		}
+	}
+
+	/**
+	 * Prints a message built only if it is printed, and a new line.
+	 *
+	 * @param level the message level
+	 * @param message builds the message
+	 */
+	public static void println(Level level, Supplier<?> message) {
+		if (isEnabled(level)) {
+			write(message.get() + LINE_SEPARATOR);
+		}
+	}
+
+	/**
+	 * Gets a call site, creating it on first use. Sites are meant to be kept in static fields
+	 * of the classes logging through them, and configured by name from anywhere.
+	 *
+	 * @param name the site name, usually the class and the event logged
+	 * @return the site
+	 */
+	public static Site site(String name) {
+		return sites.computeIfAbsent(name, Site::new);
+	}
+
+	/**
+	 * Writes the messages buffered by the output stream, if any.
+	 */
+	public static void flush() {
+		try {
+			getOutput().flush();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
 	/**
 	 * Sets the output stream.
 	 * 
@@ -199,6 +280,37 @@ public class Log {
 		return disabled;
 	}
 
+	/**
+	 * Sets the lowest level of the messages printed.
+	 *
+	 * @param _level the new level
+	 */
+	public static void setLevel(Level _level) {
+		if (_level == null) {
+			throw new IllegalArgumentException("The log level cannot be null");
+		}
+		level = _level;
+	}
+
+	/**
+	 * Gets the lowest level of the messages printed.
+	 *
+	 * @return the level
+	 */
+	public static Level getLevel() {
+		return level;
+	}
+
+	/**
+	 * Checks if the messages of a level are printed.
+	 *
+	 * @param _level the message level
+	 * @return true if the output is enabled and the level is not below that of the logger
+	 */
+	public static boolean isEnabled(Level _level) {
+		return !disabled && _level.compareTo(level) >= 0;
+	}
+
 	/**
 	 * Disables the output.
 	 */
@@ -213,4 +325,117 @@ public class Log {
 		setDisabled(false);
 	}
 
+	/**
+	 * A place in the code that logs a given kind of message, such as the start of a migration.
+	 * By default, a site prints all its messages; it can be configured to print one message out
+	 * of a given number, or at most a given number of messages per interval of simulation time.
+	 * The messages that are not printed are counted, and not built.
+	 */
+	public static final class Site {
+
+		private final String name;
+
+		/** Prints one message out of this number. */
+		private int sampling = 1;
+
+		/** The maximum number of messages printed per interval, or 0 for no limit. */
+		private int rateLimit;
+
+		/** The length of the interval of simulation time the rate limit applies to. */
+		private double interval;
+
+		private long messageCount;
+
+		private long suppressedCount;
+
+		/** The start of the current interval. */
+		private double intervalStart = Double.NEGATIVE_INFINITY;
+
+		/** The number of messages printed in the current interval. */
+		private int intervalCount;
+
+		private Site(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Makes the site print one message out of a given number, starting with the first one.
+		 *
+		 * @param sampling the number of messages per printed message, 1 to print them all
+		 */
+		public synchronized void setSampling(int sampling) {
+			if (sampling < 1) {
+				throw new IllegalArgumentException("The sampling must be at least 1: " + sampling);
+			}
+			this.sampling = sampling;
+		}
+
+		/**
+		 * Limits the number of messages the site prints per interval of simulation time.
+		 *
+		 * @param messages the maximum number of messages per interval, or 0 for no limit
+		 * @param interval the length of the interval (in seconds of simulation time)
+		 */
+		public synchronized void setRateLimit(int messages, double interval) {
+			if (messages < 0) {
+				throw new IllegalArgumentException("The number of messages cannot be negative: " + messages);
+			}
+			if (messages > 0 && !(interval > 0)) {
+				throw new IllegalArgumentException("The interval must be positive: " + interval);
+			}
+			this.rateLimit = messages;
+			this.interval = interval;
+			this.intervalStart = Double.NEGATIVE_INFINITY;
+		}
+
+		/**
+		 * Checks if the next message of a level is printed, and counts it. The caller must print
+		 * the message if it is.
+		 *
+		 * @param level the message level
+		 * @return true if the message is to be printed
+		 */
+		public synchronized boolean isEnabled(Level level) {
+			if (!Log.isEnabled(level)) {
+				return false;
+			}
+			if (messageCount++ % sampling != 0) {
+				suppressedCount++;
+				return false;
+			}
+			if (rateLimit > 0) {
+				double time = CloudSim.clock();
+				if (time < intervalStart || time >= intervalStart + interval) {
+					intervalStart = time;
+					intervalCount = 0;
+				}
+				if (intervalCount == rateLimit) {
+					suppressedCount++;
+					return false;
+				}
+				intervalCount++;
+			}
+			return true;
+		}
+
+		/**
+		 * Prints a message built only if it is printed, and a new line.
+		 *
+		 * @param level the message level
+		 * @param message builds the message
+		 */
+		public void println(Level level, Supplier<?> message) {
+			if (isEnabled(level)) {
+				write(message.get() + LINE_SEPARATOR);
+			}
+		}
+
+		public String getName() { return name; }
+
+		/**
+		 * @return the number of messages the site has not printed because of its sampling or
+		 * rate limit
+		 */
+		public synchronized long getSuppressedCount() { return suppressedCount; }
+	}
 }
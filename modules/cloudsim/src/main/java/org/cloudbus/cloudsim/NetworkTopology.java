@@ -15,9 +15,11 @@ import java.util.Map;
 
 import org.cloudbus.cloudsim.network.DelayMatrix_Float;
 import org.cloudbus.cloudsim.network.GraphReaderBrite;
+import org.cloudbus.cloudsim.network.SparseDelayMatrix;
 import org.cloudbus.cloudsim.network.TopologicalGraph;
 import org.cloudbus.cloudsim.network.TopologicalLink;
 import org.cloudbus.cloudsim.network.TopologicalNode;
+import org.cloudbus.cloudsim.network.TopologyCache;
 
 /**
  * Implements the network layer in CloudSim. It reads a file in the <a href="http://www.cs.bu.edu/brite/user_manual/node29.html">BRITE format</a>,
@@ -52,6 +54,25 @@ public class NetworkTopology {
          */
 	protected static DelayMatrix_Float delayMatrix = null;
 
+        /**
+         * The delays between the nodes of the network, computed on demand,
+         * used instead of {@link #delayMatrix} in sparse mode.
+         */
+	protected static SparseDelayMatrix sparseDelayMatrix = null;
+
+	/** Whether the sparse mode is enabled. */
+	private static boolean sparseTopology = false;
+
+	/** The number of sources whose delays are cached in sparse mode,
+	 * or 0 to use the default size for the topology. */
+	private static int sparseCacheSize = 0;
+
+	/** The cache of parsed topologies and their delays, or null to parse the BRITE file every time. */
+	private static TopologyCache topologyCache = null;
+
+	/** The model of the transfer time of payloads, or null if messages are only delayed by latency. */
+	private static NetworkTransferManager transferManager = null;
+
         /**
          * A matrix containing the bandwidth between every pair of nodes in the network.
          */
@@ -80,10 +101,25 @@ public class NetworkTopology {
 	public static void buildNetworkTopology(String fileName) {
 		Log.printlnConcat("Topology file: ", fileName);
 
-		// try to find the file
-		GraphReaderBrite reader = new GraphReaderBrite();
-
 		try {
+			if (topologyCache != null) {
+				// the delays are computed on demand in sparse mode
+				TopologyCache.Topology topology = topologyCache.load(fileName, !sparseTopology);
+				graph = topology.graph().toTopologicalGraph();
+				map = new HashMap<>();
+				if (topology.delayMatrix() != null) {
+					delayMatrix = topology.delayMatrix();
+					sparseDelayMatrix = null;
+					bwMatrix = createBwMatrix(graph, false);
+					networkEnabled = true;
+				} else {
+					generateMatrices();
+				}
+				return;
+			}
+
+			// try to find the file
+			GraphReaderBrite reader = new GraphReaderBrite();
 			graph = reader.readGraphFile(fileName);
 			map = new HashMap<>();
 			generateMatrices();
@@ -99,8 +135,20 @@ public class NetworkTopology {
 	 * Generates the matrices used internally to set latency and bandwidth between elements.
 	 */
 	private static void generateMatrices() {
+		if (sparseTopology) {
+			// only the adjacency list, the delays are computed on demand
+			sparseDelayMatrix = sparseCacheSize > 0
+					? new SparseDelayMatrix(graph, false, sparseCacheSize)
+					: new SparseDelayMatrix(graph, false);
+			delayMatrix = null;
+			bwMatrix = null;
+			networkEnabled = true;
+			return;
+		}
+
 		// creates the delay matrix
 		delayMatrix = new DelayMatrix_Float(graph, false);
+		sparseDelayMatrix = null;
 
 		// creates the bw matrix
 		bwMatrix = createBwMatrix(graph, false);
@@ -245,7 +293,9 @@ public class NetworkTopology {
 		if (networkEnabled) {
 			try {
 				// add the network latency
-				double delay = delayMatrix.getDelay(map.get(srcID), map.get(destID));
+				double delay = sparseTopology
+						? sparseDelayMatrix.getDelay(map.get(srcID), map.get(destID))
+						: delayMatrix.getDelay(map.get(srcID), map.get(destID));
 
 				return delay;
 			} catch (Exception e) {
@@ -255,6 +305,89 @@ public class NetworkTopology {
 		return 0.0;
 	}
 
+	/**
+	 * Enables or disables the sparse mode, which must be set before building the topology.
+	 * In sparse mode, only the links of the topology are stored, and the delays from a node
+	 * are computed (with Dijkstra's algorithm) the first time a mapped entity communicates,
+	 * instead of computing the delays and bandwidths between all pairs of nodes upfront.
+	 * It is meant for large BRITE topologies, where only a few nodes are mapped to entities.
+	 *
+	 * @param sparse true to enable the sparse mode; false otherwise
+	 * @param cacheSize the maximum number of nodes whose delays to every node are cached,
+	 * each taking 4 bytes per node of the topology
+	 * @see SparseDelayMatrix#getDefaultCacheSize(int)
+	 */
+	public static void setSparseTopology(boolean sparse, int cacheSize) {
+		if (cacheSize <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		sparseTopology = sparse;
+		sparseCacheSize = cacheSize;
+	}
+
+	/**
+	 * Enables or disables the sparse mode, as {@link #setSparseTopology(boolean, int)} does,
+	 * with the default cache size for the topology.
+	 *
+	 * @param sparse true to enable the sparse mode; false otherwise
+	 * @see SparseDelayMatrix#getDefaultCacheSize(int)
+	 */
+	public static void setSparseTopology(boolean sparse) {
+		sparseTopology = sparse;
+		sparseCacheSize = 0;
+	}
+
+	/**
+	 * Sets the directory where parsed BRITE topologies and their delay matrices are cached,
+	 * which must be set before building the topology. Later builds from an unchanged BRITE
+	 * file read the memory-mapped cache instead of parsing the file and computing the delays.
+	 *
+	 * @param directory the cache directory, or null to disable the cache
+	 * @see TopologyCache
+	 */
+	public static void setTopologyCacheDirectory(String directory) {
+		topologyCache = directory != null ? new TopologyCache(directory) : null;
+	}
+
+	/**
+	 * Gets the cache of parsed BRITE topologies.
+	 *
+	 * @return the cache, or null if it is disabled
+	 */
+	public static TopologyCache getTopologyCache() {
+		return topologyCache;
+	}
+
+	/**
+	 * Sets the model of the transfer time of the payloads sent between mapped entities,
+	 * such as cloudlet files and VM images, over the links of the topology.
+	 * It is set by the {@link NetworkTransferManager} constructor and cleared when
+	 * the simulation is initialised or finishes.
+	 *
+	 * @param manager the transfer manager, or null to only delay messages by the latency between nodes
+	 */
+	public static void setTransferManager(NetworkTransferManager manager) {
+		transferManager = manager;
+	}
+
+	/**
+	 * Gets the model of the transfer time of payloads of the current simulation.
+	 *
+	 * @return the transfer manager, or null if there is none
+	 */
+	public static NetworkTransferManager getTransferManager() {
+		return transferManager;
+	}
+
+	/**
+	 * Checks whether the sparse mode is enabled.
+	 *
+	 * @return true if the delays are computed on demand; false otherwise
+	 */
+	public static boolean isSparseTopology() {
+		return sparseTopology;
+	}
+
 	/**
 	 * Checks if the network simulation is working. If there were some problem during
 	 * creation of network (e.g., during parsing of BRITE file) that does not allow a proper
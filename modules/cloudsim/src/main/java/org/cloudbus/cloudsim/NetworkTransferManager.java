@@ -0,0 +1,304 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.cloudbus.cloudsim.core.CloudActionTags;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.network.FairShareFlowModel;
+import org.cloudbus.cloudsim.network.FairShareFlowModel.Flow;
+import org.cloudbus.cloudsim.network.TopologicalLink;
+
+/**
+ * Models the transfer time of large payloads sent between entities mapped to the nodes of
+ * the {@link NetworkTopology}, such as the input files of cloudlets or the images of VMs
+ * submitted to remote datacenters. Without it, messages are only delayed by the latency
+ * between the nodes, whatever their size.
+ *
+ * <p>The input file of submitted cloudlets, the output of returned cloudlets and the image
+ * of VMs to create are payloads. A message with a payload becomes a
+ * flow along the lowest-latency path of the topology. Each link has a capacity per
+ * direction equal to its bandwidth, shared among the flows crossing it according to
+ * max-min fairness ({@link FairShareFlowModel}), so concurrent transfers on the same path
+ * slow each other down. Once the payload is transferred, the message reaches its destination
+ * after the latency of the path, with its original source. Messages without payload,
+ * or between entities that are not mapped, are sent as before.</p>
+ *
+ * <p>Link bandwidths are in Mbit/s, as in BRITE files, and payload sizes in bytes.
+ * The paths are computed from the topology at the first transfer, so the topology must
+ * be complete by then.</p>
+ *
+ * @see NetworkTopology#setTransferManager(NetworkTransferManager)
+ * @since CloudSim Toolkit 7.0
+ */
+public final class NetworkTransferManager extends SimEntity {
+
+	/** The number of bits in a Mbit. */
+	private static final double BITS_PER_MBIT = 1_000_000;
+
+	/** The number of bytes in a MB, the unit of VM image sizes. */
+	private static final long BYTES_PER_MB = 1_000_000;
+
+	/** The flows of the transfers in progress, whose sizes are in Mbit. */
+	private final FairShareFlowModel<Transfer> flowModel = new FairShareFlowModel<>();
+
+	/** The first adjacency entry of each BRITE node; node i has the entries
+	 * from offsets[i] to offsets[i + 1] - 1. Null until the first transfer. */
+	private int[] offsets;
+
+	/** The source node of each adjacency entry. */
+	private int[] sources;
+
+	/** The destination node of each adjacency entry. */
+	private int[] targets;
+
+	/** The delay of each adjacency entry. */
+	private float[] delays;
+
+	/** The flow model link of each adjacency entry. */
+	private int[] links;
+
+	/** The adjacency entry reaching each node on the lowest-latency paths, indexed by source node. */
+	private final Map<Integer, int[]> predecessors = new HashMap<>();
+
+	/** The time of the pending update event, or {@link Double#MAX_VALUE} if there is none. */
+	private double nextUpdateTime = Double.MAX_VALUE;
+
+	/** The number of completed transfers. */
+	private long completedTransfers;
+
+	/**
+	 * Creates a transfer manager and sets it as the one of the {@link NetworkTopology}.
+	 *
+	 * @param name the entity name
+	 */
+	public NetworkTransferManager(String name) {
+		super(name);
+		NetworkTopology.setTransferManager(this);
+	}
+
+	/**
+	 * Sends a message as a transfer of its payload, if it has one and both
+	 * entities are mapped to nodes of the topology.
+	 *
+	 * @param srcId the id of the source entity
+	 * @param dstId the id of the destination entity
+	 * @param delay the delay before the transfer starts
+	 * @param tag the message tag
+	 * @param data the message data
+	 * @return true if the message is sent as a transfer; false if it has to be sent as usual
+	 */
+	public boolean transfer(int srcId, int dstId, double delay, CloudSimTags tag, Object data) {
+		if (!NetworkTopology.isNetworkEnabled() || NetworkTopology.map == null) {
+			return false;
+		}
+		long size = getPayloadSize(tag, data);
+		Integer srcNode = NetworkTopology.map.get(srcId);
+		Integer dstNode = NetworkTopology.map.get(dstId);
+		if (size <= 0 || srcNode == null || dstNode == null) {
+			return false;
+		}
+		if (offsets == null) {
+			createAdjacency();
+		}
+		if (srcNode >= offsets.length - 1 || dstNode >= offsets.length - 1) {
+			return false;
+		}
+		int[] pred = predecessors.computeIfAbsent(srcNode, this::shortestPaths);
+		if (srcNode.intValue() != dstNode && pred[dstNode] < 0) {
+			return false;
+		}
+
+		// the links of the path, from the destination back to the source
+		List<Integer> path = new ArrayList<>();
+		double latency = 0;
+		for (int node = dstNode; node != srcNode; node = sources[pred[node]]) {
+			path.add(links[pred[node]]);
+			latency += delays[pred[node]];
+		}
+		int[] pathLinks = path.stream().mapToInt(Integer::intValue).toArray();
+
+		Transfer transfer = new Transfer(srcId, dstId, tag, data, 8.0 * size / BITS_PER_MBIT, pathLinks, latency);
+		CloudSim.send(getId(), getId(), delay, CloudActionTags.NETWORK_TRANSFER_START, transfer);
+		return true;
+	}
+
+	/**
+	 * Gets the size of the payload of a message. A VM creation request carries the VM image,
+	 * whether or not it asks for an ack: the broker sends {@link CloudActionTags#VM_CREATE_ACK}
+	 * with the VM as data, while the ack of the datacenter is an int array without payload.
+	 *
+	 * @param tag the message tag
+	 * @param data the message data
+	 * @return the payload size in bytes, or 0 if the message has no payload
+	 */
+	private long getPayloadSize(CloudSimTags tag, Object data) {
+		if (data instanceof Cloudlet cloudlet) {
+			if (tag == CloudActionTags.CLOUDLET_SUBMIT || tag == CloudActionTags.CLOUDLET_SUBMIT_ACK) {
+				return cloudlet.getCloudletFileSize();
+			}
+			if (tag == CloudActionTags.CLOUDLET_RETURN) {
+				return cloudlet.getCloudletOutputSize();
+			}
+		} else if (data instanceof GuestEntity guest
+				&& (tag == CloudActionTags.VM_CREATE || tag == CloudActionTags.VM_CREATE_ACK)) {
+			return guest.getSize() * BYTES_PER_MB;
+		}
+		return 0;
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		CloudSimTags tag = ev.getTag();
+		if (tag == CloudActionTags.NETWORK_TRANSFER_START) {
+			Transfer transfer = (Transfer) ev.getData();
+			flowModel.startFlow(transfer, transfer.size, transfer.links, CloudSim.clock());
+			processUpdate();
+		} else if (tag == CloudActionTags.NETWORK_TRANSFER_UPDATE) {
+			if (CloudSim.clock() >= nextUpdateTime) {
+				nextUpdateTime = Double.MAX_VALUE;
+			}
+			processUpdate();
+		}
+	}
+
+	/**
+	 * Delivers the transfers completed until now, and schedules an update event at the
+	 * time the next transfer completes, unless an earlier event is already pending.
+	 */
+	private void processUpdate() {
+		for (Flow<Transfer> flow : flowModel.advance(CloudSim.clock())) {
+			Transfer transfer = flow.getData();
+			completedTransfers++;
+			CloudSim.send(transfer.srcId, transfer.dstId, transfer.latency, transfer.tag, transfer.data);
+		}
+
+		double next = flowModel.getNextCompletionTime();
+		if (next < nextUpdateTime) {
+			nextUpdateTime = next;
+			schedule(getId(), Math.max(0, next - CloudSim.clock()), CloudActionTags.NETWORK_TRANSFER_UPDATE);
+		}
+	}
+
+	/**
+	 * Creates the adjacency list of the topology, where each link with a positive bandwidth
+	 * is a flow model link in each direction.
+	 */
+	private void createAdjacency() {
+		List<TopologicalLink> edges = new ArrayList<>();
+		int n = NetworkTopology.graph.getNumberOfNodes();
+		Iterator<TopologicalLink> itr = NetworkTopology.graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			if (edge.getLinkBw() > 0) {
+				edges.add(edge);
+				n = Math.max(n, Math.max(edge.getSrcNodeID(), edge.getDestNodeID()) + 1);
+			}
+		}
+
+		offsets = new int[n + 1];
+		for (TopologicalLink edge : edges) {
+			offsets[edge.getSrcNodeID() + 1]++;
+			offsets[edge.getDestNodeID() + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		sources = new int[offsets[n]];
+		targets = new int[offsets[n]];
+		delays = new float[offsets[n]];
+		links = new int[offsets[n]];
+		int[] next = Arrays.copyOf(offsets, n);
+		for (TopologicalLink edge : edges) {
+			addEntry(next, edge.getSrcNodeID(), edge.getDestNodeID(), edge);
+			addEntry(next, edge.getDestNodeID(), edge.getSrcNodeID(), edge);
+		}
+	}
+
+	private void addEntry(int[] next, int src, int dest, TopologicalLink edge) {
+		int e = next[src]++;
+		sources[e] = src;
+		targets[e] = dest;
+		delays[e] = edge.getLinkDelay();
+		links[e] = flowModel.addLink(edge.getLinkBw());
+	}
+
+	/**
+	 * Computes the lowest-latency paths from a node with Dijkstra's algorithm.
+	 *
+	 * @param src the source node
+	 * @return the adjacency entry reaching each node, or -1 for the source and unreachable nodes
+	 */
+	private int[] shortestPaths(int src) {
+		int n = offsets.length - 1;
+		float[] dist = new float[n];
+		Arrays.fill(dist, Float.MAX_VALUE);
+		int[] pred = new int[n];
+		Arrays.fill(pred, -1);
+		dist[src] = 0;
+
+		// (distance, node) entries; the bits of non-negative floats keep their order
+		PriorityQueue<Long> queue = new PriorityQueue<>();
+		queue.add((long) src);
+		while (!queue.isEmpty()) {
+			long entry = queue.poll();
+			float d = Float.intBitsToFloat((int) (entry >>> 32));
+			int u = (int) entry;
+			if (d > dist[u]) {
+				continue;
+			}
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int v = targets[e];
+				float candidate = d + delays[e];
+				if (candidate < dist[v]) {
+					dist[v] = candidate;
+					pred[v] = e;
+					queue.add(((long) Float.floatToIntBits(candidate) << 32) | v);
+				}
+			}
+		}
+		return pred;
+	}
+
+	/**
+	 * Gets the number of transfers in progress.
+	 *
+	 * @return the number of transfers in progress
+	 */
+	public int getTransferCount() {
+		return flowModel.getFlowCount();
+	}
+
+	/**
+	 * Gets the number of completed transfers.
+	 *
+	 * @return the number of completed transfers
+	 */
+	public long getCompletedTransfers() {
+		return completedTransfers;
+	}
+
+	/**
+	 * A message whose payload is being transferred.
+	 */
+	private record Transfer(int srcId, int dstId, CloudSimTags tag, Object data,
+							double size, int[] links, double latency) {
+	}
+}
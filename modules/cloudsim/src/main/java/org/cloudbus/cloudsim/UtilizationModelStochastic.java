@@ -15,6 +15,9 @@ import java.io.ObjectOutputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * Implements a model, according to which a Cloudlet generates
@@ -38,10 +41,12 @@ public class UtilizationModelStochastic implements UtilizationModel {
 
 	/**
 	 * Instantiates a new utilization model stochastic.
+	 *
+	 * @see RandomStreams
 	 */
 	public UtilizationModelStochastic() {
 		setHistory(new HashMap<>());
-		setRandomGenerator(new Random());
+		setRandomGenerator(new Random(RandomStreams.nextStream("UtilizationModelStochastic").nextLong()));
 	}
 
 	/**
@@ -119,6 +124,16 @@ public class UtilizationModelStochastic implements UtilizationModel {
 		this.randomGenerator = randomGenerator;
 	}
 
+	/**
+	 * Sets the random generator, wrapped in a {@link Random} unless it is one; the
+	 * {@link Random#setSeed(long) setSeed} method of such a wrapper is not supported.
+	 * 
+	 * @param randomGenerator the new random generator
+	 */
+	public void setRandomGenerator(RandomGenerator randomGenerator) {
+		setRandomGenerator(Random.from(randomGenerator));
+	}
+
 	/**
 	 * Gets the random generator.
 	 * 
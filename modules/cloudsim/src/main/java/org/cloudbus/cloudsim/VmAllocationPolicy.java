@@ -123,6 +123,23 @@ public abstract class VmAllocationPolicy {
 	@Deprecated
 	public boolean allocateHostForVm(Vm vm, Host host) { return allocateHostForGuest(vm, host); }
 
+	/**
+	 * Allocates hosts for a batch of guests, such as all the VMs submitted by a broker at once.
+	 * The default implementation allocates the guests one by one, in the given order;
+	 * subclasses may override it to place the whole batch at once (e.g. by bin-packing).
+	 *
+	 * @param guests the guests to allocate a host to
+	 * @return an array whose i-th element is $true if the i-th guest has been allocated; $false otherwise
+	 * @see VmAllocationPolicyBinPacking
+	 */
+	public boolean[] allocateHostsForGuests(List<? extends GuestEntity> guests) {
+		boolean[] results = new boolean[guests.size()];
+		for (int i = 0; i < results.length; i++) {
+			results[i] = allocateHostForGuest(guests.get(i));
+		}
+		return results;
+	}
+
 	/**
 	 * Optimize allocation of the VMs according to current utilization.
 	 * 
@@ -0,0 +1,248 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * A VmAllocationPolicy that places batches of guests by bin-packing them on the hosts,
+ * using either the First Fit Decreasing or the Best Fit Decreasing heuristic.
+ *
+ * <p>Guests of a batch are sorted by decreasing requested MIPS (then RAM) and placed one
+ * after the other. Instead of scanning the whole host list for every guest, hosts are
+ * indexed by available MIPS: a max segment tree finds the first host with enough MIPS
+ * (First Fit), and a sorted set finds the host with the least MIPS that are still
+ * enough (Best Fit). The remaining constraints (PE capacity, RAM, bandwidth) are checked on
+ * the candidates returned by the index. Placing n guests on m hosts thus usually takes
+ * O(n log n + n log m) instead of O(n m).</p>
+ *
+ * <p>Guests allocated one at a time are placed with the same heuristic, without sorting.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class VmAllocationPolicyBinPacking extends VmAllocationPolicy {
+
+	/** The bin-packing heuristics. */
+	public enum Heuristic {
+		/** Places each guest on the first host that fits it, in host list order. */
+		FIRST_FIT_DECREASING,
+		/** Places each guest on the host with the least available MIPS that fits it. */
+		BEST_FIT_DECREASING
+	}
+
+	/** The heuristic used to place guests. */
+	private final Heuristic heuristic;
+
+	/**
+	 * Creates a new VmAllocationPolicyBinPacking object using First Fit Decreasing.
+	 *
+	 * @param list the list of hosts
+	 */
+	public VmAllocationPolicyBinPacking(List<? extends HostEntity> list) {
+		this(list, Heuristic.FIRST_FIT_DECREASING);
+	}
+
+	/**
+	 * Creates a new VmAllocationPolicyBinPacking object.
+	 *
+	 * @param list the list of hosts
+	 * @param heuristic the bin-packing heuristic
+	 */
+	public VmAllocationPolicyBinPacking(List<? extends HostEntity> list, Heuristic heuristic) {
+		super(list);
+		this.heuristic = heuristic;
+	}
+
+	public Heuristic getHeuristic() { return heuristic; }
+
+	@Override
+	public HostEntity findHostForGuest(GuestEntity guest) {
+		HostEntity selectedHost = null;
+		double minAvailable = Double.MAX_VALUE;
+		for (HostEntity host : getHostList()) {
+			if (!host.isSuitableForGuest(guest)) {
+				continue;
+			}
+			if (heuristic == Heuristic.FIRST_FIT_DECREASING) {
+				return host;
+			}
+			double available = host.getGuestScheduler().getAvailableMips();
+			if (available < minAvailable) {
+				minAvailable = available;
+				selectedHost = host;
+			}
+		}
+		return selectedHost;
+	}
+
+	@Override
+	public boolean[] allocateHostsForGuests(List<? extends GuestEntity> guests) {
+		List<HostEntity> hosts = getHostList();
+		double[] available = new double[hosts.size()];
+		for (int i = 0; i < available.length; i++) {
+			available[i] = hosts.get(i).getGuestScheduler().getAvailableMips();
+		}
+		HostIndex index = heuristic == Heuristic.FIRST_FIT_DECREASING
+				? new FirstFitIndex(available) : new BestFitIndex(available);
+
+		Integer[] order = new Integer[guests.size()];
+		double[] requestedMips = new double[order.length];
+		double[] requestedRam = new double[order.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+			requestedMips[i] = guests.get(i).getCurrentRequestedTotalMips();
+			requestedRam[i] = guests.get(i).getCurrentRequestedRam();
+		}
+		Arrays.sort(order, Comparator.<Integer>comparingDouble(i -> -requestedMips[i])
+				.thenComparingDouble(i -> -requestedRam[i]));
+
+		boolean[] results = new boolean[order.length];
+		for (int i : order) {
+			GuestEntity guest = guests.get(i);
+			for (int h = index.next(-1, requestedMips[i]); h != -1; h = index.next(h, requestedMips[i])) {
+				HostEntity host = hosts.get(h);
+				if (host.isSuitableForGuest(guest) && allocateHostForGuest(guest, host)) {
+					index.update(h, host.getGuestScheduler().getAvailableMips());
+					results[i] = true;
+					break;
+				}
+			}
+			if (!results[i]) {
+				Log.printlnConcat(CloudSim.clock(), ": VmAllocationPolicyBinPacking: Allocation of ", guest.getClassName(),
+						" #", guest.getId(), " is failed (No Suitable Host Found!)");
+			}
+		}
+		return results;
+	}
+
+	/**
+	 * An index of the hosts by available MIPS.
+	 */
+	private interface HostIndex {
+
+		/**
+		 * Gets the next candidate host, in the order defined by the heuristic.
+		 *
+		 * @param previous the index of the previous candidate, or -1 to get the first one
+		 * @param mips the requested MIPS
+		 * @return the index of the next host with at least the requested MIPS, or -1 if none
+		 */
+		int next(int previous, double mips);
+
+		/**
+		 * Updates the available MIPS of a host.
+		 *
+		 * @param host the host index
+		 * @param mips the available MIPS
+		 */
+		void update(int host, double mips);
+	}
+
+	/**
+	 * A max segment tree over the available MIPS of the hosts, in host list order.
+	 */
+	private static final class FirstFitIndex implements HostIndex {
+
+		/** The number of leaves. */
+		private final int size;
+
+		/** The tree nodes; node 1 is the root and node i has children 2i and 2i+1. */
+		private final double[] tree;
+
+		FirstFitIndex(double[] available) {
+			int n = 1;
+			while (n < available.length) {
+				n <<= 1;
+			}
+			size = n;
+			tree = new double[2 * n];
+			Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+			System.arraycopy(available, 0, tree, n, available.length);
+			for (int node = n - 1; node > 0; node--) {
+				tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+			}
+		}
+
+		@Override
+		public int next(int previous, double mips) {
+			return find(1, 0, size, previous + 1, mips);
+		}
+
+		@Override
+		public void update(int host, double mips) {
+			int node = size + host;
+			tree[node] = mips;
+			for (node >>= 1; node > 0; node >>= 1) {
+				tree[node] = Math.max(tree[2 * node], tree[2 * node + 1]);
+			}
+		}
+
+		/**
+		 * Finds the first leaf at or after a position whose value is at least a given one.
+		 */
+		private int find(int node, int low, int high, int from, double mips) {
+			if (high <= from || tree[node] < mips) {
+				return -1;
+			}
+			if (high - low == 1) {
+				return low;
+			}
+			int mid = (low + high) >>> 1;
+			int found = find(2 * node, low, mid, from, mips);
+			return found != -1 ? found : find(2 * node + 1, mid, high, from, mips);
+		}
+	}
+
+	/**
+	 * The hosts sorted by increasing available MIPS, then by host list order.
+	 */
+	private static final class BestFitIndex implements HostIndex {
+
+		private record Slot(int host, double mips) {}
+
+		private static final Comparator<Slot> ORDER =
+				Comparator.comparingDouble(Slot::mips).thenComparingInt(Slot::host);
+
+		private final NavigableSet<Slot> sorted = new TreeSet<>(ORDER);
+
+		/** The current slot of each host. */
+		private final Slot[] slots;
+
+		BestFitIndex(double[] available) {
+			slots = new Slot[available.length];
+			for (int i = 0; i < available.length; i++) {
+				slots[i] = new Slot(i, available[i]);
+				sorted.add(slots[i]);
+			}
+		}
+
+		@Override
+		public int next(int previous, double mips) {
+			Slot next = previous == -1
+					? sorted.ceiling(new Slot(-1, mips))
+					: sorted.higher(slots[previous]);
+			return next == null ? -1 : next.host();
+		}
+
+		@Override
+		public void update(int host, double mips) {
+			sorted.remove(slots[host]);
+			slots[host] = new Slot(host, mips);
+			sorted.add(slots[host]);
+		}
+	}
+}
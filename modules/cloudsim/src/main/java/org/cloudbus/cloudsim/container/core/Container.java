@@ -81,6 +81,12 @@ public class Container implements GuestEntity {
 
     private int virtualizationOverhead;
 
+    /** The image the container is instantiated from, or null if its pull is not modeled. */
+    private ContainerImage image;
+
+    /** The time at which the container starts, once its image is available in its VM. */
+    private double startTime;
+
     /**
      * Creates a new Container object.
      * @param id
@@ -309,5 +315,18 @@ public class Container implements GuestEntity {
 
     public boolean isBeingInstantiated() { return beingInstantiated; }
 
+    public ContainerImage getImage() { return image; }
+
+    /**
+     * Sets the image the container is instantiated from. The VM the container is placed in pulls
+     * the layers of the image it does not have, and the container runs no cloudlet until then.
+     *
+     * @param image the image, or null to start the container right away
+     */
+    public void setImage(ContainerImage image) { this.image = image; }
+
+    public double getStartTime() { return startTime; }
+    public void setStartTime(double startTime) { this.startTime = startTime; }
+
     public List<VmStateHistoryEntry> getStateHistory() { return stateHistory; }
 }
@@ -34,6 +34,13 @@ public enum ContainerCloudSimTags implements CloudSimTags {
      */
     CONTAINER_CREATE_ACK,
 
+    /**
+     * Denotes a list of containers submitted at once is created in the data center,
+     * with a single acknowledgement for the whole list.
+     * Invoked in the data center.
+     */
+    CONTAINER_CREATE_BATCH_ACK,
+
     /**
      * Denotes the containers are migrated to another Vm.
      * Invoked in the data center.
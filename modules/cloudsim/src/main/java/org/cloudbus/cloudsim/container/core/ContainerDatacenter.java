@@ -11,7 +11,9 @@ import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by sareh on 10/07/15.
@@ -36,6 +38,10 @@ public class ContainerDatacenter extends Datacenter {
      * The log address.
      */
     private String logAddress;
+    /**
+     * The bandwidth of the link between each VM and the container registry (in Mbit/s).
+     */
+    private double registryBandwidth = Double.POSITIVE_INFINITY;
 
 
     /**
@@ -97,35 +103,60 @@ public class ContainerDatacenter extends Datacenter {
         }
     }
 
+    /**
+     * Processes the submission of a list of containers. The whole list is placed at once by
+     * {@link VmAllocationPolicy#allocateHostsForGuests(List)} of the container allocation policy,
+     * then a single ack is sent back to the User/Broker, whose data is an int array holding the
+     * datacenter id followed by a (container id, result) pair for each container of the list.
+     * Finally, the processing of each VM that received containers is updated once.
+     *
+     * @param ev information about the event just happened, whose data is the list of containers
+     * @param ack indicates if the event's sender expects to receive an acknowledge message
+     */
     public void processContainerSubmit(SimEvent ev, boolean ack) {
         List<Container> containerList = (List<Container>) ev.getData();
+        if (containerList.isEmpty()) {
+            return;
+        }
 
-        for (Container container : containerList) {
-            boolean result = getContainerAllocationPolicy().allocateHostForGuest(container);
-            if (ack) {
-                int[] data = new int[3];
-                data[0] = getId();
-                data[1] = container.getId();
-                if (result) {
-                    data[2] = CloudSimTags.TRUE;
-                } else {
-                    data[2] = CloudSimTags.FALSE;
-                }
+        boolean[] results = getContainerAllocationPolicy().allocateHostsForGuests(containerList);
 
-                send(ev.getSourceId(), CloudSim.getMinTimeBetweenEvents(), ContainerCloudSimTags.CONTAINER_CREATE_ACK, data);
+        if (ack) {
+            int[] data = new int[1 + 2 * containerList.size()];
+            data[0] = getId();
+            for (int i = 0; i < containerList.size(); i++) {
+                data[1 + 2 * i] = containerList.get(i).getId();
+                data[2 + 2 * i] = results[i] ? CloudSimTags.TRUE : CloudSimTags.FALSE;
             }
-            if (result) {
+            send(ev.getSourceId(), CloudSim.getMinTimeBetweenEvents(), ContainerCloudSimTags.CONTAINER_CREATE_BATCH_ACK, data);
+        }
+
+        // the containers placed on each VM, in submission order
+        Map<HostEntity, List<Container>> placedContainers = new LinkedHashMap<>();
+        for (int i = 0; i < containerList.size(); i++) {
+            Container container = containerList.get(i);
+            if (results[i]) {
                 getContainerList().add(container);
 
                 if (container.isBeingInstantiated()) {
                     container.setBeingInstantiated(false);
                 }
 
-                container.updateCloudletsProcessing(CloudSim.clock(), getContainerAllocationPolicy().getHost(container).getGuestScheduler().getAllocatedMipsForGuest(container));
+                HostEntity vm = getContainerAllocationPolicy().getHost(container);
+                container.setStartTime(CloudSim.clock() + pullImage(container, vm, CloudSim.clock()));
+                placedContainers.computeIfAbsent(vm, k -> new ArrayList<>()).add(container);
             } else {
                 Log.println(String.format("Datacenter.containerAllocator: Couldn't find a vm to host the container #%s", container.getUid()));
             }
         }
+
+        // the MIPS allocated to the containers of a VM are only known once they are all placed
+        for (Map.Entry<HostEntity, List<Container>> entry : placedContainers.entrySet()) {
+            VmScheduler scheduler = entry.getKey().getGuestScheduler();
+            for (Container container : entry.getValue()) {
+                container.updateCloudletsProcessing(CloudSim.clock(), scheduler.getAllocatedMipsForGuest(container));
+            }
+        }
     }
 
     /**
@@ -142,7 +173,6 @@ public class ContainerDatacenter extends Datacenter {
         int vmId = 0;
         int containerId = 0;
         Cloudlet.CloudletStatus status;
-        HostEntity containerVm;
 
         try {
             // if a sender using cloudletXXX() methods
@@ -153,8 +183,8 @@ public class ContainerDatacenter extends Datacenter {
             containerId = data[3];
             //Log.printLine("Data Center is processing the cloudletStatus Event ");
 
-            containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId);
-            status = containerVm.getGuest(containerId, userId).getCloudletScheduler().getCloudletStatus(cloudletId);
+            status = getGuestDirectory().getGuest(vmId, containerId, userId).getCloudletScheduler()
+                    .getCloudletStatus(cloudletId);
         }
 
         // if a sender using normal send() methods
@@ -163,10 +193,11 @@ public class ContainerDatacenter extends Datacenter {
                 Cloudlet cl = (Cloudlet) ev.getData();
                 cloudletId = cl.getCloudletId();
                 userId = cl.getUserId();
+                vmId = cl.getGuestId();
                 containerId = cl.getContainerId();
 
-                containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId);
-                status = containerVm.getGuest(containerId, userId).getCloudletScheduler().getCloudletStatus(cloudletId);
+                status = getGuestDirectory().getGuest(vmId, containerId, userId).getCloudletScheduler()
+                        .getCloudletStatus(cloudletId);
             } catch (Exception e) {
                 Log.printlnConcat(getName(), ": Error in processing CloudActionTags.CLOUDLET_STATUS");
                 Log.println(e.getMessage());
@@ -215,6 +246,13 @@ public class ContainerDatacenter extends Datacenter {
             containerVm.setInWaiting(false);
 
         }
+        // the target VM pulls the image when the migration starts, so it is only pulled here if missing
+        if (container.getImage() != null && containerVm instanceof ContainerVm vm
+                && vm.getImageCache().getMissingSize(container.getImage()) > 0) {
+            container.setStartTime(CloudSim.clock() + pullImage(container, vm, CloudSim.clock()));
+        } else {
+            container.setStartTime(CloudSim.clock());
+        }
 
         if (ack) {
             int[] data = new int[3];
@@ -312,11 +350,9 @@ public class ContainerDatacenter extends Datacenter {
         int vmDestId = array[4];
         int containerDestId = array[5];
         int destId = array[6];
-        HostEntity containerVm;
 
         // get the cloudlet
-        containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId);
-        Cloudlet cl = containerVm.getGuest(containerId, userId)
+        Cloudlet cl = getGuestDirectory().getGuest(vmId, containerId, userId)
                                  .getCloudletScheduler().cloudletCancel(cloudletId);
 
         boolean failed = false;
@@ -338,13 +374,13 @@ public class ContainerDatacenter extends Datacenter {
 
             // the cloudlet will migrate from one vm to another does the destination VM exist?
             if (destId == getId()) {
-                containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmDestId, userId).getGuest(vmDestId, userId);
-                if (containerVm == null) {
+                GuestEntity container = getGuestDirectory().getGuest(vmDestId, containerDestId, userId);
+                if (container == null) {
                     failed = true;
                 } else {
                     // time to transfer the files
                     double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
-                    containerVm.getGuest(containerDestId, userId).getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
+                    container.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
                 }
             } else {// the cloudlet will migrate from one resource to another
                 CloudActionTags newTag = ((tag == CloudActionTags.CLOUDLET_MOVE_ACK) ? CloudActionTags.CLOUDLET_SUBMIT_ACK
@@ -407,20 +443,22 @@ public class ContainerDatacenter extends Datacenter {
                 return;
             }
 
+            Container container = getGuestDirectory().getGuest(cl.getGuestId(), cl.getContainerId(), cl.getUserId());
+
+            // the cloudlet is submitted again once the container has started
+            if (container != null && container.getStartTime() > CloudSim.clock()) {
+                send(getId(), container.getStartTime() - CloudSim.clock(),
+                        ack ? CloudActionTags.CLOUDLET_SUBMIT_ACK : CloudActionTags.CLOUDLET_SUBMIT, cl);
+                return;
+            }
+
             // process this Cloudlet to this CloudResource
             cl.setResourceParameter(getId(), getCharacteristics().getCostPerSecond(), getCharacteristics()
                     .getCostPerBw());
 
-            int userId = cl.getUserId();
-            int vmId = cl.getGuestId();
-            int containerId = cl.getContainerId();
-
             // time to transfer the files
             double fileTransferTime = predictFileTransferTime(cl.getRequiredFiles());
 
-            HostEntity host = getVmAllocationPolicy().getHost(vmId, userId);
-            VirtualEntity vm = (VirtualEntity) host.getGuest(vmId, userId);
-            Container container = (Container) vm.getGuest(containerId, userId);
             double estimatedFinishTime = container.getCloudletScheduler().cloudletSubmit(cl, fileTransferTime);
 
             // if this cloudlet is in the exec queue
@@ -459,9 +497,7 @@ public class ContainerDatacenter extends Datacenter {
      * @post $none
      */
     protected void processCloudletResume(int cloudletId, int userId, int vmId, int containerId, boolean ack) {
-        double eventTime = ((VirtualEntity) getVmAllocationPolicy().getHost(vmId, userId)
-                            .getGuest(vmId, userId))
-                            .getGuest(containerId, userId)
+        double eventTime = getGuestDirectory().getGuest(vmId, containerId, userId)
                             .getCloudletScheduler().cloudletResume(cloudletId);
 
         boolean status = false;
@@ -496,8 +532,7 @@ public class ContainerDatacenter extends Datacenter {
      * @post $none
      */
     protected void processCloudletPause(int cloudletId, int userId, int vmId, int containerId, boolean ack) {
-        VirtualEntity containerVm = (VirtualEntity) getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId);
-        boolean status = containerVm.getGuest(containerId, userId)
+        boolean status = getGuestDirectory().getGuest(vmId, containerId, userId)
                 .getCloudletScheduler().cloudletPause(cloudletId);
 
         if (ack) {
@@ -523,8 +558,7 @@ public class ContainerDatacenter extends Datacenter {
      * @post $none
      */
     protected void processCloudletCancel(int cloudletId, int userId, int vmId, int containerId) {
-        HostEntity containerVm = (HostEntity) getVmAllocationPolicy().getHost(vmId, userId).getGuest(vmId, userId);
-        Cloudlet cl = containerVm.getGuest(containerId, userId)
+        Cloudlet cl = getGuestDirectory().getGuest(vmId, containerId, userId)
                 .getCloudletScheduler().cloudletCancel(cloudletId);
         sendNow(userId, CloudActionTags.CLOUDLET_CANCEL, cl);
     }
@@ -580,6 +614,44 @@ public class ContainerDatacenter extends Datacenter {
     public void setLogAddress(String logAddress) {
         this.logAddress = logAddress;
     }
+
+    /**
+     * Gets the bandwidth of the link between each VM and the container registry, over which the
+     * VMs pull the image layers of their containers.
+     *
+     * @return the bandwidth (in Mbit/s), infinite by default
+     */
+    public double getRegistryBandwidth() {
+        return registryBandwidth;
+    }
+
+    public void setRegistryBandwidth(double registryBandwidth) {
+        if (registryBandwidth <= 0) {
+            throw new IllegalArgumentException("The registry bandwidth must be positive: " + registryBandwidth);
+        }
+        this.registryBandwidth = registryBandwidth;
+    }
+
+    /**
+     * Makes a VM pull the layers of the image of a container that it does not have.
+     *
+     * @param container the container
+     * @param vm the VM the container is placed in
+     * @param time the time at which the pull starts
+     * @return the time needed for the image to be available in the VM, 0 if the container has no image
+     * @see ContainerVm#pullImage(ContainerImage, double, double)
+     */
+    protected double pullImage(Container container, HostEntity vm, double time) {
+        if (container.getImage() == null || !(vm instanceof ContainerVm containerVm)) {
+            return 0;
+        }
+        double delay = containerVm.pullImage(container.getImage(), time, getRegistryBandwidth()) - time;
+        if (delay > 0) {
+            Log.formatLine("%.2f: Container #%d waits %.2f seconds for its image to be pulled by Vm #%d",
+                    CloudSim.clock(), container.getId(), delay, vm.getId());
+        }
+        return delay;
+    }
 }
 
 
@@ -121,6 +121,8 @@ public class ContainerDatacenterBroker extends DatacenterBroker {
             processNewVmCreate((GuestMapping)ev.getData());
         } else if (tag == ContainerCloudSimTags.CONTAINER_CREATE_ACK) {
             processContainerCreate(ev);
+        } else if (tag == ContainerCloudSimTags.CONTAINER_CREATE_BATCH_ACK) {
+            processContainerCreateBatch(ev);
             // VM Creation answer
         } else if (tag == CloudActionTags.VM_CREATE_ACK) {
             processVmCreateAck(ev);
@@ -132,12 +134,52 @@ public class ContainerDatacenterBroker extends DatacenterBroker {
 
     public void processContainerCreate(SimEvent ev) {
         int[] data = (int[]) ev.getData();
-        int datacenterId = data[0];
         int containerId = data[1];
         int result = data[2];
 
+        Container container = VmList.getById(getContainerList(), containerId);
+        if (container == null) {
+            Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Ack received for unknown Container #", containerId);
+            return;
+        }
+        processContainerCreateResult(container, result);
+        processContainerCreateAcksReceived();
+    }
+
+    /**
+     * Processes the single ack sent by the datacenter for a list of containers, whose data
+     * is the datacenter id followed by a (container id, result) pair for each container.
+     *
+     * @param ev a SimEvent object
+     */
+    protected void processContainerCreateBatch(SimEvent ev) {
+        int[] data = (int[]) ev.getData();
+
+        Map<Integer, Container> containersById = new HashMap<>();
+        for (Container container : getContainerList()) {
+            containersById.putIfAbsent(container.getId(), container);
+        }
+
+        for (int i = 1; i < data.length; i += 2) {
+            Container container = containersById.get(data[i]);
+            if (container == null) {
+                Log.printlnConcat(CloudSim.clock(), ": ", getName(), ": Ack received for unknown Container #", data[i]);
+                continue;
+            }
+            processContainerCreateResult(container, data[i + 1]);
+        }
+        processContainerCreateAcksReceived();
+    }
+
+    /**
+     * Records the result of the creation of a container.
+     *
+     * @param guest the container
+     * @param result {@link CloudSimTags#TRUE} if the container has been created
+     */
+    protected void processContainerCreateResult(GuestEntity guest, int result) {
+        int containerId = guest.getId();
         if (result == CloudSimTags.TRUE) {
-            GuestEntity guest = VmList.getById(getContainerList(), containerId);
             HostEntity vm = guest.getHost();
 
             getContainersToVmsMap().put(containerId, vm.getId());
@@ -154,12 +196,17 @@ public class ContainerDatacenterBroker extends DatacenterBroker {
         }
 
         incrementContainersAcks();
+    }
+
+    /**
+     * Submits the cloudlets once the acks of all the containers have been received.
+     */
+    protected void processContainerCreateAcksReceived() {
         if (getContainersAcks() == getContainerList().size()) {
             //Log.print(getContainersCreatedList().size() + "vs asli"+getContainerList().size());
             submitCloudlets();
             getContainerList().clear();
         }
-
     }
 
     protected void processNewVmCreate(GuestMapping map) {
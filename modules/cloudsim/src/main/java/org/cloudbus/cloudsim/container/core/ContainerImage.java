@@ -0,0 +1,73 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.core;
+
+import java.util.List;
+
+/**
+ * The image a container is instantiated from: a stack of layers, which a VM pulls from the
+ * container registry unless it has them in its {@link ContainerImageCache layer cache}.
+ * Images built from the same base share the layers of the base, identified by their digest.
+ *
+ * @see Container#setImage(ContainerImage)
+ * @since CloudSim Toolkit 7.0
+ */
+public class ContainerImage {
+
+    /**
+     * A layer of an image.
+     *
+     * @param digest the layer digest, which identifies the layer across images
+     * @param size the layer size (in MB)
+     */
+    public record Layer(String digest, long size) {
+        public Layer {
+            if (digest == null) {
+                throw new IllegalArgumentException("The layer digest cannot be null");
+            }
+            if (size < 0) {
+                throw new IllegalArgumentException("The layer size cannot be negative: " + size);
+            }
+        }
+    }
+
+    /** The image name. */
+    private final String name;
+
+    /** The layers, from the base one up. */
+    private final List<Layer> layers;
+
+    /**
+     * Creates a new image.
+     *
+     * @param name the image name
+     * @param layers the layers, from the base one up
+     */
+    public ContainerImage(String name, List<Layer> layers) {
+        this.name = name;
+        this.layers = List.copyOf(layers);
+    }
+
+    public String getName() { return name; }
+
+    public List<Layer> getLayers() { return layers; }
+
+    /**
+     * Gets the image size.
+     *
+     * @return the sum of the layer sizes (in MB)
+     */
+    public long getSize() {
+        long size = 0;
+        for (Layer layer : layers) {
+            size += layer.size();
+        }
+        return size;
+    }
+}
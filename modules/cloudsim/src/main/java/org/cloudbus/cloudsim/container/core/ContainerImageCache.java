@@ -0,0 +1,194 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.core;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The image layers stored on the disk of a {@link ContainerVm}, up to a given capacity.
+ *
+ * <p>The layers of an image that are not in the cache are pulled from the container registry,
+ * one after the other, over a link of bounded bandwidth: a pull that is requested while the
+ * link is busy starts once the previous pulls are over, and a container needing a layer that is
+ * still being pulled for another container waits for it. When the disk is full, the least
+ * recently used layers are evicted, except those of the images of the containers running in the
+ * VM; a layer that does not fit in the cache is pulled but not kept.</p>
+ *
+ * @see ContainerVm#getImageCache()
+ * @since CloudSim Toolkit 7.0
+ */
+public class ContainerImageCache {
+
+    /** A layer in the cache. */
+    private static final class CachedLayer {
+        private final long size;
+        /** The time at which the layer is pulled. */
+        private final double availableTime;
+
+        private CachedLayer(long size, double availableTime) {
+            this.size = size;
+            this.availableTime = availableTime;
+        }
+    }
+
+    /** The disk space available to the layers (in MB). */
+    private final long capacity;
+
+    /** The disk space used by the layers (in MB). */
+    private long usedSize;
+
+    /** The layers by digest, from the least recently used one. */
+    private final Map<String, CachedLayer> layers = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** The time at which the link to the registry is free. */
+    private double linkAvailableTime;
+
+    /** The total size of the pulled layers (in MB). */
+    private long pulledSize;
+
+    private int hitCount;
+
+    private int missCount;
+
+    /**
+     * Creates an empty cache.
+     *
+     * @param capacity the disk space available to the layers (in MB)
+     */
+    public ContainerImageCache(long capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("The cache capacity cannot be negative: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Pulls the layers of an image that are not in the cache.
+     *
+     * @param image the image
+     * @param time the time at which the pull is requested
+     * @param bandwidth the bandwidth of the link to the registry (in Mbit/s)
+     * @param pinnedLayers the digests of the layers that cannot be evicted
+     * @return the time at which all the layers of the image are available
+     */
+    public double pull(ContainerImage image, double time, double bandwidth, Set<String> pinnedLayers) {
+        if (bandwidth <= 0) {
+            throw new IllegalArgumentException("The registry bandwidth must be positive: " + bandwidth);
+        }
+        Set<String> pinned = new HashSet<>(pinnedLayers);
+        for (ContainerImage.Layer layer : image.getLayers()) {
+            pinned.add(layer.digest());
+        }
+
+        double readyTime = time;
+        double pullTime = Math.max(time, linkAvailableTime);
+        boolean pulled = false;
+        for (ContainerImage.Layer layer : image.getLayers()) {
+            CachedLayer cachedLayer = layers.get(layer.digest());
+            if (cachedLayer != null) {
+                hitCount++;
+                readyTime = Math.max(readyTime, cachedLayer.availableTime);
+                continue;
+            }
+            missCount++;
+            pulled = true;
+            pullTime += layer.size() * 8 / bandwidth;
+            pulledSize += layer.size();
+            readyTime = Math.max(readyTime, pullTime);
+            if (evict(layer.size(), pinned)) {
+                layers.put(layer.digest(), new CachedLayer(layer.size(), pullTime));
+                usedSize += layer.size();
+            }
+        }
+        if (pulled) {
+            linkAvailableTime = pullTime;
+        }
+        return readyTime;
+    }
+
+    /**
+     * Evicts the least recently used layers until there is room for a new one, unless there
+     * cannot be enough room.
+     *
+     * @param size the size of the new layer
+     * @param pinnedLayers the digests of the layers that cannot be evicted
+     * @return true if there is room for the layer
+     */
+    private boolean evict(long size, Set<String> pinnedLayers) {
+        long pinnedSize = 0;
+        for (Map.Entry<String, CachedLayer> entry : layers.entrySet()) {
+            if (pinnedLayers.contains(entry.getKey())) {
+                pinnedSize += entry.getValue().size;
+            }
+        }
+        if (pinnedSize + size > capacity) {
+            return false;
+        }
+
+        Iterator<Map.Entry<String, CachedLayer>> iterator = layers.entrySet().iterator();
+        while (usedSize + size > capacity && iterator.hasNext()) {
+            Map.Entry<String, CachedLayer> entry = iterator.next();
+            if (!pinnedLayers.contains(entry.getKey())) {
+                usedSize -= entry.getValue().size;
+                iterator.remove();
+            }
+        }
+        return usedSize + size <= capacity;
+    }
+
+    /**
+     * Gets the size of the layers of an image that are not in the cache, that is, the amount of
+     * data to pull to run a container of the image.
+     *
+     * @param image the image
+     * @return the size to pull (in MB)
+     */
+    public long getMissingSize(ContainerImage image) {
+        long size = 0;
+        for (ContainerImage.Layer layer : image.getLayers()) {
+            if (!layers.containsKey(layer.digest())) {
+                size += layer.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Checks whether a layer is in the cache, without counting as a use of the layer.
+     *
+     * @param digest the layer digest
+     * @return true if the layer is in the cache
+     */
+    public boolean contains(String digest) {
+        return layers.containsKey(digest);
+    }
+
+    public long getCapacity() { return capacity; }
+
+    public long getUsedSize() { return usedSize; }
+
+    /**
+     * @return the total size of the pulled layers (in MB)
+     */
+    public long getPulledSize() { return pulledSize; }
+
+    /**
+     * @return the number of layers found in the cache when pulling images
+     */
+    public int getHitCount() { return hitCount; }
+
+    /**
+     * @return the number of layers pulled from the registry
+     */
+    public int getMissCount() { return missCount; }
+}
@@ -14,7 +14,9 @@ import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Vm represents a VM: it runs inside a Host, sharing hostList with other VMs. It processes
@@ -64,6 +66,11 @@ public class ContainerVm extends Vm {
      */
     private final List<GuestEntity> containersMigratingIn = new ArrayList<>();
 
+    /**
+     * The image layers stored on the disk of the VM.
+     */
+    private ContainerImageCache imageCache;
+
     /**
      * Creates a new VMCharacteristics object.
      * @param id
@@ -99,6 +106,7 @@ public class ContainerVm extends Vm {
 
         setGuestRamProvisioner(containerRamProvisioner);
         setGuestBwProvisioner(containerBwProvisioner);
+        setImageCache(new ContainerImageCache(size));
     }
 
 
@@ -416,4 +424,46 @@ public class ContainerVm extends Vm {
     public void setInWaiting(boolean inWaiting) {
         this.inWaiting = inWaiting;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the image layers stored on the disk of the VM, which by default can take up the
+     * whole VM size.
+     *
+     * @return the image layer cache
+     */
+    public ContainerImageCache getImageCache() {
+        return imageCache;
+    }
+
+    public void setImageCache(ContainerImageCache imageCache) {
+        this.imageCache = imageCache;
+    }
+
+    /**
+     * Pulls the layers of an image that the VM does not have, keeping those of the images of
+     * its containers, including the ones migrating in.
+     *
+     * @param image the image
+     * @param time the time at which the pull is requested
+     * @param bandwidth the bandwidth of the link to the registry (in Mbit/s)
+     * @return the time at which the image is available in the VM
+     */
+    public double pullImage(ContainerImage image, double time, double bandwidth) {
+        Set<String> pinnedLayers = new HashSet<>();
+        for (GuestEntity guest : getGuestList()) {
+            pinLayers(guest, pinnedLayers);
+        }
+        for (GuestEntity guest : getGuestsMigratingIn()) {
+            pinLayers(guest, pinnedLayers);
+        }
+        return getImageCache().pull(image, time, bandwidth, pinnedLayers);
+    }
+
+    private static void pinLayers(GuestEntity guest, Set<String> pinnedLayers) {
+        if (guest instanceof Container container && container.getImage() != null) {
+            for (ContainerImage.Layer layer : container.getImage().getLayers()) {
+                pinnedLayers.add(layer.digest());
+            }
+        }
+    }
+}
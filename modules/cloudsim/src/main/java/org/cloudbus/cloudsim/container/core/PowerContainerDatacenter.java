@@ -266,9 +266,8 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
 
         setPower(getPower() + timeFrameDatacenterEnergy);
 
-        String[]msg ={Double.toString(currentTime),Double.toString(getPower())};
         try {
-            getDatacenterEnergyWriter().writeTofile(msg);
+            getDatacenterEnergyWriter().writeRow(currentTime, getPower());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -345,6 +344,27 @@ public class PowerContainerDatacenter extends ContainerDatacenter {
         setCloudletSubmitted(CloudSim.clock());
     }
 
+    /**
+     * Writes the rows still buffered by the result writers and closes them.
+     */
+    @Override
+    public void shutdownEntity() {
+        super.shutdownEntity();
+        closeWriter(getContainerMigrationWriter());
+        closeWriter(getVmMigrationWriter());
+        closeWriter(getDatacenterEnergyWriter());
+    }
+
+    protected void closeWriter(CustomCSVWriter writer) {
+        try {
+            if (writer != null) {
+                writer.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * Gets the power.
      *
@@ -96,6 +96,9 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                             }
                             incrementContainerMigrationCount();
                             targetVm.addMigratingInGuest(container);
+                            // the container starts once the target VM has pulled its image
+                            double pullStartDelay = migrate.NewEventRequired() ? vmStartupDelay : 0;
+                            double pullDelay = pullImage(container, targetVm, currentTime + pullStartDelay);
 
 
                             if (migrate.NewEventRequired()) {
@@ -118,7 +121,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
                                     send(
                                             getId(),
-                                            containerStartupDelay + vmStartupDelay
+                                            containerStartupDelay + vmStartupDelay + pullDelay
                                             , ContainerCloudSimTags.CONTAINER_MIGRATE,
                                             migrate);
 
@@ -132,7 +135,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 //                                    it would be 100.4
                                     send(
                                             getId(),
-                                            containerStartupDelay + vmStartupDelay
+                                            containerStartupDelay + vmStartupDelay + pullDelay
                                             , ContainerCloudSimTags.CONTAINER_MIGRATE,
                                             migrate);
 
@@ -143,7 +146,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                             } else {
                                 send(
                                         getId(),
-                                        containerStartupDelay,
+                                        containerStartupDelay + pullDelay,
                                         ContainerCloudSimTags.CONTAINER_MIGRATE,
                                         migrate);
 
@@ -194,15 +197,13 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
                 Log.printlnConcat(CloudSim.clock(), ": The Number Container of Migrations is:  ", getContainerMigrationCount() - previousContainerMigrationCount);
                 Log.printlnConcat(CloudSim.clock(), ": The Number of VM Migrations is:  ", getVmMigrationCount() - previousVmMigrationCount);
-                String[] vmMig = {Double.toString(CloudSim.clock()), Integer.toString(getVmMigrationCount() - previousVmMigrationCount)};                   // <--declared statement
-                String[] msg = {Double.toString(CloudSim.clock()), Integer.toString(getContainerMigrationCount() - previousContainerMigrationCount)};                   // <--declared statement
                 try {
-                    getContainerMigrationWriter().writeTofile(msg);
+                    getContainerMigrationWriter().writeRow(CloudSim.clock(), getContainerMigrationCount() - previousContainerMigrationCount);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
                 try {
-                    getVmMigrationWriter().writeTofile(vmMig);
+                    getVmMigrationWriter().writeRow(CloudSim.clock(), getVmMigrationCount() - previousVmMigrationCount);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -210,9 +211,8 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
                 int numberOfNewVms = getNewlyCreatedVms();
                 getNewlyCreatedVmsList().add(numberOfNewVms);
-                String[] msg1 = {Double.toString(CloudSim.clock()), Integer.toString(numberOfNewVms)};                   // <--declared statement
                 try {
-                    getNewlyCreatedVmWriter().writeTofile(msg1);
+                    getNewlyCreatedVmWriter().writeRow(CloudSim.clock(), numberOfNewVms);
                 } catch (IOException e) {
                     e.printStackTrace();
                 }
@@ -231,6 +231,12 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
 
     }
 
+    @Override
+    public void shutdownEntity() {
+        super.shutdownEntity();
+        closeWriter(getNewlyCreatedVmWriter());
+    }
+
     @Override
     protected void processVmCreate(SimEvent ev, boolean ack) {
 
@@ -248,15 +254,7 @@ public class PowerContainerDatacenterCM extends PowerContainerDatacenter {
                 send(2, CloudSim.getMinTimeBetweenEvents(), ContainerCloudSimTags.VM_NEW_CREATE, data);
                 Log.println(String.format("%s VM ID #%d is created on Host #%d", CloudSim.clock(), containerVm.getId(), host.getId()));
                 incrementNewlyCreatedVmsCount();
-                getVmList().add(containerVm);
-
-
-                if (containerVm.isBeingInstantiated()) {
-                    containerVm.setBeingInstantiated(false);
-                }
-
-                containerVm.updateCloudletsProcessing(CloudSim.clock(), getVmAllocationPolicy().getHost(containerVm).getGuestScheduler()
-                        .getAllocatedMipsForGuest(containerVm));
+                processGuestCreated(containerVm);
             }
 
         } else {
@@ -45,6 +45,14 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
     protected long vmBw;
     protected long vmSize;
     protected double[] vmMips;
+    /**
+     * The generator choosing the switched off hosts to power on.
+     */
+    private final RandomGen random = new RandomGen();
+    /**
+     * The utilization values computed during a consolidation round.
+     */
+    private final UtilizationCache utilizationCache = new UtilizationCache();
 
     public PowerContainerVmAllocationPolicyMigrationAbstractContainerAdded(List<? extends HostEntity> hostList,
                                                                            SelectionPolicy<GuestEntity> vmSelectionPolicy, SelectionPolicy<PowerGuestEntity> containerSelectionPolicy,
@@ -63,6 +71,15 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
 
     @Override
     public List<GuestMapping> optimizeAllocation(List<? extends GuestEntity> vmList) {
+        utilizationCache.start();
+        try {
+            return optimizeContainerAllocation();
+        } finally {
+            utilizationCache.stop();
+        }
+    }
+
+    private List<GuestMapping> optimizeContainerAllocation() {
 
         ExecutionTimeMeasurer.start("optimizeAllocationTotal");
 
@@ -187,7 +204,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
     private List<GuestMapping> getNewContainerPlacement(List<? extends GuestEntity> containersToMigrate, Set<? extends Host> excludedHosts) {
         List<GuestMapping> migrationMap = new LinkedList<>();
 
-        VmList.sortByCpuUtilization(containersToMigrate);
+        sortByCpuUtilization(containersToMigrate);
         for (GuestEntity container : containersToMigrate) {
             GuestMapping allocationMap = findHostForGuest(container, excludedHosts, false);
 
@@ -335,7 +352,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
                 if(switchedOffHostsList.isEmpty()){
                     return newMigrationMap;
                 }
-                int hostIndex = new RandomGen().getNum(switchedOffHostsList.size());
+                int hostIndex = random.getNum(switchedOffHostsList.size());
                 previouseHost = switchedOffHostsList.get(hostIndex);
                 switchedOffHostsList.remove(previouseHost);
                 previouseVm = createVMinHost(previouseHost, true);
@@ -483,7 +500,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
             }
             double utilization = host.getUtilizationOfCpu();
             if (utilization > 0 && utilization < minUtilization
-                    && !areAllVmsMigratingOutOrAnyVmMigratingIn(host) && !areAllContainersMigratingOutOrAnyContainersMigratingIn(host)) {
+                    && !areAllGuestsMigratingOutOrAnyGuestMigratingIn(host)) {
                 minUtilization = utilization;
                 underUtilizedHostList.add(host);
             }
@@ -539,11 +556,14 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
 
     protected boolean isVmOverUtilized(ContainerVm vm) {
         boolean isOverUtilized = true;
-        double util = 0;
 //        Log.printConcatLine("Checking if the vm is over utilized or not!");
-        for (GuestEntity container : vm.getGuestList()) {
-            util += container.getTotalUtilizationOfCpuMips(CloudSim.clock());
-        }
+        double util = utilizationCache.get(UtilizationCache.Kind.NESTED_GUESTS_CPU_MIPS, vm, vm, () -> {
+            double containersUtil = 0;
+            for (GuestEntity container : vm.getGuestList()) {
+                containersUtil += container.getTotalUtilizationOfCpuMips(CloudSim.clock());
+            }
+            return containersUtil;
+        });
         if (util > vm.getHost().getTotalMips() / vm.getHost().getNumberOfPes() * vm.getNumberOfPes()) {
             return false;
         }
@@ -612,13 +632,65 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
      */
     protected boolean isHostOverUtilizedAfterContainerAllocation(PowerHost host, ContainerVm vm, Container container) {
         boolean isHostOverUtilizedAfterAllocation = true;
+        long mark = utilizationCache.mark(host);
         if (vm.guestCreate(container)) {
             isHostOverUtilizedAfterAllocation = isHostOverUtilized(host);
             vm.guestDestroy(container);
         }
+        utilizationCache.undone(host, mark);
         return isHostOverUtilizedAfterAllocation;
     }
 
+    /**
+     * Gets the utilization of the CPU in MIPS for the current potentially allocated VMs.
+     * During a consolidation round, the value is computed again only once the guests of the
+     * host have changed.
+     *
+     * @param host the host
+     * @return the utilization of the CPU in MIPS
+     */
+    @Override
+    protected double getUtilizationOfCpuMips(PowerHost host) {
+        return utilizationCache.get(UtilizationCache.Kind.HOST_CPU_MIPS, host, host,
+                () -> super.getUtilizationOfCpuMips(host));
+    }
+
+    /**
+     * Gets the current CPU utilization of a guest in MIPS.
+     * During a consolidation round, the value is computed again only once the guests of the
+     * host the guest runs on have changed.
+     *
+     * @param guest the guest
+     * @return the utilization of the CPU in MIPS
+     */
+    protected double getGuestUtilizationOfCpuMips(GuestEntity guest) {
+        return utilizationCache.get(UtilizationCache.Kind.GUEST_CPU_MIPS, guest, guest.getHost(),
+                () -> guest.getTotalUtilizationOfCpuMips(CloudSim.clock()));
+    }
+
+    /**
+     * Sorts guests by decreasing CPU utilization, as {@link VmList#sortByCpuUtilization(List)}
+     * does, computing the utilization of each guest once.
+     *
+     * @param guests the guests
+     */
+    protected void sortByCpuUtilization(List<? extends GuestEntity> guests) {
+        guests.sort((a, b) -> Double.compare(getGuestUtilizationOfCpuMips(b), getGuestUtilizationOfCpuMips(a)));
+    }
+
+    /**
+     * Checks whether all the VMs or containers of a host are migrating out or any of them is
+     * migrating in, in which case the host is not considered as under-utilized.
+     *
+     * @param host the host
+     * @return true, if the guests of the host are in migration
+     */
+    protected boolean areAllGuestsMigratingOutOrAnyGuestMigratingIn(PowerHost host) {
+        return utilizationCache.get(UtilizationCache.Kind.HOST_IN_MIGRATION, host, host,
+                () -> areAllVmsMigratingOutOrAnyVmMigratingIn(host)
+                        || areAllContainersMigratingOutOrAnyContainersMigratingIn(host) ? 1 : 0) != 0;
+    }
+
 
     /**
      * Save allocation.
@@ -10,7 +10,6 @@ package org.cloudbus.cloudsim.container.resourceAllocatorMigrationEnabled;
 import org.cloudbus.cloudsim.Host;
 import org.cloudbus.cloudsim.container.core.*;
 import org.cloudbus.cloudsim.core.PowerGuestEntity;
-import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicy;
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.GuestEntity;
@@ -49,7 +48,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
             HostEntity host = getHostSelectionPolicy().select(getHostList(), container, excludedHost1);
             boolean findVm = false;
             List<ContainerVm> vmList = host.getGuestList();
-            VmList.sortByCpuUtilization(vmList);
+            sortByCpuUtilization(vmList);
             for (int i = 0; i < vmList.size(); i++) {
                 ContainerVm vm = vmList.get(vmList.size() - 1 - i);
                 if(checkForVM){
@@ -190,7 +189,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
             List<? extends GuestEntity> containersToMigrate,
             Set<? extends HostEntity> excludedHosts) {
         List<GuestMapping> migrationMap = new LinkedList<>();
-        VmList.sortByCpuUtilization(containersToMigrate);
+        sortByCpuUtilization(containersToMigrate);
         for (GuestEntity container : containersToMigrate) {
             GuestMapping allocatedMap = findHostForGuest(container, excludedHosts, true);
             if (allocatedMap != null && allocatedMap.vm() != null && allocatedMap.host() != null) {
@@ -236,7 +235,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
 
         boolean findVm = false;
 
-        VmList.sortByCpuUtilization(vmList);
+        sortByCpuUtilization(vmList);
         for (int i = 0; i < vmList.size(); i++) {
 
             ContainerVm vm = vmList.get(vmList.size() - 1 - i);
@@ -70,7 +70,7 @@ public abstract class PowerContainerVmAllocationPolicyMigrationAbstractContainer
                 continue;
             }
             double utilization = host.getUtilizationOfCpu();
-            if (!areAllVmsMigratingOutOrAnyVmMigratingIn(host) && utilization < getUnderUtilizationThr() && !areAllContainersMigratingOutOrAnyContainersMigratingIn(host)) {
+            if (utilization < getUnderUtilizationThr() && !areAllGuestsMigratingOutOrAnyGuestMigratingIn(host)) {
                 underUtilizedHostList.add(host);
             }
         }
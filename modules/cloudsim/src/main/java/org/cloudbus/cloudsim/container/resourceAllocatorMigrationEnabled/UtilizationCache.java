@@ -0,0 +1,177 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.resourceAllocatorMigrationEnabled;
+
+import org.cloudbus.cloudsim.core.GuestDirectory;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.core.HostEntity;
+
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Caches, for the duration of a consolidation round, the utilization values that the container
+ * migration policies derive from the guests of the hosts, so that they are not computed again
+ * each time a host or a VM is considered for a container.
+ *
+ * <p>Each value is tied to the physical host the keyed entity runs on, and is valid as long as
+ * no guest is placed on or removed from that host, which the
+ * {@link GuestDirectory#getModificationCount(HostEntity) modification count} of the host tells.
+ * A tentative placement thus invalidates the values of the host it touches only; a placement
+ * that is undone right away, to check the state of the host after it, can be
+ * {@link #undone(HostEntity, long) declared} so as to keep them.</p>
+ *
+ * <p>The simulation clock does not advance during a round: the cache must be
+ * {@link #stop() stopped} at the end of the round, after which the values are computed every
+ * time again.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+final class UtilizationCache {
+
+    /** The cached values. */
+    enum Kind {
+        /** The CPU MIPS allocated by a host to its guests, including the migrating in ones. */
+        HOST_CPU_MIPS,
+        /** Whether all the guests of a host are migrating out or any guest is migrating in. */
+        HOST_IN_MIGRATION,
+        /** The CPU MIPS used by a guest. */
+        GUEST_CPU_MIPS,
+        /** The CPU MIPS used by the guests of a VM. */
+        NESTED_GUESTS_CPU_MIPS
+    }
+
+    private record Entry(HostEntity host, long epoch, double value) {}
+
+    /** The state of a physical host, as last seen by the cache. */
+    private static final class HostState {
+        /** The modification count of the host. */
+        private long modificationCount;
+        /** The number of times the guests of the host changed. */
+        private long epoch;
+
+        private HostState(long modificationCount) {
+            this.modificationCount = modificationCount;
+        }
+    }
+
+    private final Map<Kind, Map<Object, Entry>> entries = new EnumMap<>(Kind.class);
+
+    private final Map<HostEntity, HostState> hosts = new IdentityHashMap<>();
+
+    private boolean enabled;
+
+    UtilizationCache() {
+        for (Kind kind : Kind.values()) {
+            entries.put(kind, new IdentityHashMap<>());
+        }
+    }
+
+    /**
+     * Starts caching values, for a new consolidation round.
+     */
+    void start() {
+        clear();
+        enabled = true;
+    }
+
+    /**
+     * Stops caching values and discards the cached ones.
+     */
+    void stop() {
+        enabled = false;
+        clear();
+    }
+
+    private void clear() {
+        for (Map<Object, Entry> map : entries.values()) {
+            map.clear();
+        }
+        hosts.clear();
+    }
+
+    /**
+     * Gets a value, computing it if it is not cached or is no longer valid.
+     *
+     * @param kind the kind of value
+     * @param key the entity the value is about, a host or a guest
+     * @param host the host entity the value depends on, physical or virtual
+     * @param value computes the value
+     * @return the value
+     */
+    double get(Kind kind, Object key, HostEntity host, DoubleSupplier value) {
+        HostEntity physicalHost = physicalHost(host);
+        GuestDirectory directory = enabled && physicalHost != null ? GuestDirectory.of(physicalHost) : null;
+        if (directory == null) {
+            return value.getAsDouble();
+        }
+        long epoch = sync(physicalHost, directory).epoch;
+        Map<Object, Entry> map = entries.get(kind);
+        Entry entry = map.get(key);
+        if (entry != null && entry.host() == physicalHost && entry.epoch() == epoch) {
+            return entry.value();
+        }
+        double result = value.getAsDouble();
+        map.put(key, new Entry(physicalHost, epoch, result));
+        return result;
+    }
+
+    /**
+     * Marks the state of a host before a placement that will be undone.
+     *
+     * @param host the host entity, physical or virtual
+     * @return the mark to give to {@link #undone(HostEntity, long)}, or -1 if values are not cached
+     */
+    long mark(HostEntity host) {
+        HostEntity physicalHost = physicalHost(host);
+        GuestDirectory directory = enabled && physicalHost != null ? GuestDirectory.of(physicalHost) : null;
+        return directory == null ? -1 : sync(physicalHost, directory).modificationCount;
+    }
+
+    /**
+     * Declares that the guests of a host are back in the state they were when it was marked, so
+     * that the values cached before remain valid.
+     *
+     * @param host the host entity, physical or virtual
+     * @param mark the mark returned by {@link #mark(HostEntity)}
+     */
+    void undone(HostEntity host, long mark) {
+        if (mark == -1) {
+            return;
+        }
+        HostEntity physicalHost = physicalHost(host);
+        HostState state = hosts.get(physicalHost);
+        GuestDirectory directory = GuestDirectory.of(physicalHost);
+        if (state != null && directory != null && state.modificationCount == mark) {
+            state.modificationCount = directory.getModificationCount(physicalHost);
+        }
+    }
+
+    private HostState sync(HostEntity physicalHost, GuestDirectory directory) {
+        long modificationCount = directory.getModificationCount(physicalHost);
+        HostState state = hosts.get(physicalHost);
+        if (state == null) {
+            state = new HostState(modificationCount);
+            hosts.put(physicalHost, state);
+        } else if (state.modificationCount != modificationCount) {
+            state.modificationCount = modificationCount;
+            state.epoch++;
+        }
+        return state;
+    }
+
+    private static HostEntity physicalHost(HostEntity host) {
+        while (host instanceof GuestEntity guest) {
+            host = guest.getHost();
+        }
+        return host;
+    }
+}
@@ -1,21 +1,43 @@
 package org.cloudbus.cloudsim.container.utils;
 
-import com.opencsv.CSVWriter;
-import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.util.AsyncOutputStream;
 
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
+ * Writes rows of comma-separated values to a file, without quotes; separators, line feeds and
+ * double quotes inside values are escaped with a double quote.
+ *
+ * <p>The file is kept open, and each row is written to an {@link AsyncOutputStream}, which
+ * buffers the rows and writes them on a background thread. Buffered rows reach the file on
+ * {@link #flush()} and {@link #close()}, and when the JVM exits; the datacenters using a writer
+ * close it when the simulation finishes.</p>
+ *
+ * <p>Write errors happen on the background thread: they are thrown by the next call to
+ * {@link #writeTofile(String[])}, {@link #writeRow(double...)}, {@link #flush()} or {@link #close()}.</p>
+ *
  * Created by sareh on 30/07/15.
  * Modified by Remo Andreoli, Jun 2024.
  */
-public class CustomCSVWriter {
+public class CustomCSVWriter implements Closeable {
     String fileAddress;
     boolean newFileCreated = false;
 
-    CSVWriter writer;
+    /** The row being formatted. */
+    private final StringBuilder row = new StringBuilder();
+
+    /** The bytes of the row being written. */
+    private byte[] rowBytes = new byte[256];
+
+    /** The open file, or null until the first row is written. */
+    private AsyncOutputStream out;
+
+    private boolean closed;
 
     public CustomCSVWriter(String fileAddress) throws IOException {
         File f = new File(fileAddress);
@@ -36,22 +58,134 @@ public class CustomCSVWriter {
         writeTofile(entries, true);
     }
 
+    /**
+     * Writes a row.
+     *
+     * @param entries the values of the row; null values are written as empty values
+     * @param appendMode false to truncate the file before writing the row
+     * @throws IOException if a previous write failed
+     */
     public void writeTofile(String[] entries, boolean appendMode) throws IOException {
-        // feed in your array (or convert your data to an array)
-        try {
-            writer = new CSVWriter(new FileWriter(fileAddress, appendMode),
-                    ',',
-                    CSVWriter.NO_QUOTE_CHARACTER,
-                    CSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                    CSVWriter.DEFAULT_LINE_END);
-
-        } catch (IOException e) {
-            Log.printlnConcat("Couldn't find the file to write to: ", fileAddress);
+        checkOpen();
+        if (!appendMode) {
+            // the rows written so far are discarded anyway
+            if (out != null) {
+                out.close();
+            }
+            out = new AsyncOutputStream(new FileOutputStream(fileAddress, false));
+        }
+
+        for (int i = 0; i < entries.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            if (entries[i] != null) {
+                appendEscaped(entries[i]);
+            }
         }
+        endRow();
+    }
+
+    /**
+     * Writes a row of numbers, formatted as by {@link Double#toString(double)}.
+     *
+     * @param values the values of the row
+     * @throws IOException if a previous write failed
+     */
+    public void writeRow(double... values) throws IOException {
+        checkOpen();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            row.append(values[i]);
+        }
+        endRow();
+    }
 
-        writer.writeNext(entries);
-        writer.flush();
-        writer.close();
+    /**
+     * Writes a row made of a time and a count, such as a number of migrations.
+     *
+     * @param time the time, formatted as by {@link Double#toString(double)}
+     * @param count the count
+     * @throws IOException if a previous write failed
+     */
+    public void writeRow(double time, long count) throws IOException {
+        checkOpen();
+        row.append(time).append(',').append(count);
+        endRow();
+    }
+
+    private void appendEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n') {
+                row.append('"');
+            }
+            row.append(c);
+        }
+    }
+
+    private void endRow() throws IOException {
+        row.append('\n');
+        int length = row.length();
+        if (rowBytes.length < length) {
+            rowBytes = Arrays.copyOf(rowBytes, Math.max(length, 2 * rowBytes.length));
+        }
+        for (int i = 0; i < length; i++) {
+            char c = row.charAt(i);
+            if (c >= 0x80) {
+                // not ASCII: encoded as a whole
+                byte[] bytes = row.toString().getBytes(StandardCharsets.UTF_8);
+                row.setLength(0);
+                getOutput().write(bytes);
+                return;
+            }
+            rowBytes[i] = (byte) c;
+        }
+        row.setLength(0);
+        getOutput().write(rowBytes, 0, length);
+    }
+
+    private AsyncOutputStream getOutput() throws IOException {
+        if (out == null) {
+            out = new AsyncOutputStream(new FileOutputStream(fileAddress, true));
+        }
+        return out;
+    }
+
+    /**
+     * Writes the buffered rows to the file, and waits until they are written.
+     *
+     * @throws IOException if writing fails
+     */
+    public void flush() throws IOException {
+        checkOpen();
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    /**
+     * Writes the buffered rows to the file and closes it. Closing a closed writer has no effect.
+     *
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (out != null) {
+            out.close();
+        }
+    }
+
+    private void checkOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Writer closed: " + fileAddress);
+        }
     }
 
     public boolean fileExistedAlready() {
@@ -61,7 +195,3 @@ public class CustomCSVWriter {
     public String getFileAddress() { return fileAddress; }
     public void setFileAddress(String fileAddress) { this.fileAddress = fileAddress; }
 }
-
-
-
-
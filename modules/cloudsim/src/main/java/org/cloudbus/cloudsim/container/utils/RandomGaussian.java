@@ -1,6 +1,9 @@
 package org.cloudbus.cloudsim.container.utils;
 
 import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * The class is generated to produce an integer with a gaussian/normal distribution
@@ -12,7 +15,7 @@ public class RandomGaussian {
     Random random;
 
     public RandomGaussian() {
-        setRandom(new Random());
+        setRandom(new Random(RandomStreams.nextStream("RandomGaussian").nextLong()));
 
     }
 
@@ -20,6 +23,16 @@ public class RandomGaussian {
         this.random = random;
     }
 
+    /**
+     * Sets the generator to draw from, wrapped in a {@link Random} unless it is one; the
+     * {@link Random#setSeed(long) setSeed} method of such a wrapper is not supported.
+     *
+     * @param random the generator
+     */
+    public void setRandom(RandomGenerator random) {
+        setRandom(Random.from(random));
+    }
+
     public Random getRandom() {
         return this.random;
     }
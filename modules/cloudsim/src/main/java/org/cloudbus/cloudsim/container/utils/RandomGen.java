@@ -1,16 +1,19 @@
 package org.cloudbus.cloudsim.container.utils;
 
 import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * Created by sareh on 13/08/15.
+ * Seeded from {@link RandomStreams}, so that runs with the same master seed make the same choices.
  */
 public class RandomGen {
     Random random;
 
     public RandomGen() {
-        setRandom(new Random());
-//        random.setSeed(123456789);
+        setRandom(new Random(RandomStreams.nextStream("RandomGen").nextLong()));
     }
 
     public Random getRandom() {
@@ -21,6 +24,16 @@ public class RandomGen {
         this.random = random;
     }
 
+    /**
+     * Sets the generator to draw from, wrapped in a {@link Random} unless it is one; the
+     * {@link Random#setSeed(long) setSeed} method of such a wrapper is not supported.
+     *
+     * @param random the generator
+     */
+    public void setRandom(RandomGenerator random) {
+        setRandom(Random.from(random));
+    }
+
     public int getNum(int i){
 
         return getRandom().nextInt(i);
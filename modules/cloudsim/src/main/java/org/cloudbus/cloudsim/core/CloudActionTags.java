@@ -190,6 +190,18 @@ public enum CloudActionTags implements CloudSimTags {
 	 */
 	VM_CREATE_ACK,
 
+	/**
+	 * Denotes a request to create a list of VMs at once in a {@link Datacenter}
+	 * without acknowledgement information sent by the Datacenter.
+	 */
+	VM_CREATE_BATCH,
+
+	/**
+	 * Denotes a request to create a list of VMs at once in a {@link Datacenter}
+	 * with a single acknowledgement sent by the Datacenter for the whole list.
+	 */
+	VM_CREATE_BATCH_ACK,
+
 	/**
 	 * Denotes a request to destroy a new VM in a {@link Datacenter}.
 	 * without acknowledgement information sent by the Datacener.
@@ -245,6 +257,12 @@ public enum CloudActionTags implements CloudSimTags {
 	 */
 	VM_BROKER_EVENT,
 
+	/**
+	 * Denotes an internal event generated in a {@link Datacenter}
+	 * when the memory transfer of some migrating VMs may have completed.
+	 */
+	VM_MIGRATE_TRANSFER,
+
 	NETWORK_PKT_UP,
 
 	NETWORK_PKT_FORWARD,
@@ -253,5 +271,23 @@ public enum CloudActionTags implements CloudSimTags {
 
 	NETWORK_PKT_DOWN,
 
-    NETWORK_PKT_REACHED_HOST
+    NETWORK_PKT_REACHED_HOST,
+
+	/**
+	 * Denotes an internal event generated in a NetworkDatacenter using a flow-level network
+	 * when the transmission of some packets may have completed.
+	 */
+	NETWORK_FLOW_UPDATE,
+
+	/**
+	 * Denotes an internal event generated in a {@link org.cloudbus.cloudsim.NetworkTransferManager}
+	 * when the transfer of a payload starts.
+	 */
+	NETWORK_TRANSFER_START,
+
+	/**
+	 * Denotes an internal event generated in a {@link org.cloudbus.cloudsim.NetworkTransferManager}
+	 * when the transfer of some payloads may have completed.
+	 */
+	NETWORK_TRANSFER_UPDATE
 }
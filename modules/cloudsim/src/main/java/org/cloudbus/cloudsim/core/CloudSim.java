@@ -18,6 +18,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.cloudbus.cloudsim.Log;
+import org.cloudbus.cloudsim.NetworkTopology;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 import org.cloudbus.cloudsim.core.predicates.PredicateAny;
 import org.cloudbus.cloudsim.core.predicates.PredicateNone;
@@ -340,6 +341,7 @@ public class CloudSim {
 		waitPredicates = new HashMap<>();
 		clock = 0;
 		running = false;
+		NetworkTopology.setTransferManager(null);
 	}
 
 	// The two standard predicates
@@ -808,6 +810,7 @@ public class CloudSim {
 		future = null;
 		clock = 0L;
 		running = false;
+		NetworkTopology.setTransferManager(null);
 
 		waitPredicates = null;
 		paused = false;
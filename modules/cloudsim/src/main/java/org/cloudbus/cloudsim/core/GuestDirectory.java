@@ -0,0 +1,325 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import org.cloudbus.cloudsim.Datacenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A directory of the guest entities placed in the hosts of a datacenter, at any nesting level
+ * (e.g., containers in VMs in hosts), giving in constant time the guest of a given id, the
+ * physical host it runs on and its total virtualization overhead, instead of walking the guest
+ * lists of the hosts.
+ *
+ * <p>The directory is kept up to date by the {@link HostEntity} methods that place and remove
+ * guests ({@link HostEntity#guestCreate(GuestEntity)}, {@link HostEntity#guestDestroy(GuestEntity)},
+ * {@link HostEntity#guestDestroyAll()}), which every creation, destruction and migration goes
+ * through; when a guest hosting other guests moves, its nested guests move with it.</p>
+ *
+ * <p>Guests are identified by id and user. The ids of the guests running directly in the
+ * physical hosts (VMs) and of nested guests (containers) may overlap, as in
+ * container datacenters: {@link #getGuest(int, int)} looks for a VM first, and
+ * {@link #getGuest(int, int, int)} looks for a guest in a given VM.</p>
+ *
+ * @see org.cloudbus.cloudsim.Datacenter#getGuestDirectory()
+ * @since CloudSim Toolkit 7.0
+ */
+public class GuestDirectory {
+
+    /**
+     * The location of a guest entity.
+     */
+    public static final class Location {
+        private final GuestEntity guest;
+        private final HostEntity directHost;
+        private final HostEntity host;
+        private final int totalVirtualizationOverhead;
+
+        private Location(GuestEntity guest, HostEntity directHost, HostEntity host, int totalVirtualizationOverhead) {
+            this.guest = guest;
+            this.directHost = directHost;
+            this.host = host;
+            this.totalVirtualizationOverhead = totalVirtualizationOverhead;
+        }
+
+        /**
+         * @return the guest
+         */
+        public GuestEntity getGuest() {
+            return guest;
+        }
+
+        /**
+         * @return the host entity the guest runs in: a physical host or, for a nested guest, another guest
+         */
+        public HostEntity getDirectHost() {
+            return directHost;
+        }
+
+        /**
+         * @return the physical host the guest runs on
+         */
+        public HostEntity getHost() {
+            return host;
+        }
+
+        /**
+         * @return the sum of the virtualization overheads of the guest and of the guests it is nested in
+         */
+        public int getTotalVirtualizationOverhead() {
+            return totalVirtualizationOverhead;
+        }
+    }
+
+    /** The location of each placed guest. */
+    private final Map<GuestEntity, Location> locations = new IdentityHashMap<>();
+
+    /** The guests running directly in the physical hosts, by user and id. */
+    private final Map<Long, Location> vms = new HashMap<>();
+
+    /** The nested guests, by user and id. */
+    private final Map<Long, Location> nestedGuests = new HashMap<>();
+
+    /** The guests running directly in the physical hosts, by physical host id and guest id. */
+    private final Map<Long, Location> vmsByHost = new HashMap<>();
+
+    /** The nested guests, by physical host id and guest id. */
+    private final Map<Long, Location> nestedGuestsByHost = new HashMap<>();
+
+    /** The number of placements and removals of guests, by physical host. */
+    private final Map<HostEntity, Long> modificationCounts = new IdentityHashMap<>();
+
+    /** The listeners notified of the guests removed from their host. */
+    private final List<Consumer<Location>> removalListeners = new ArrayList<>();
+
+    /**
+     * Gets the directory of the datacenter a host entity belongs to.
+     *
+     * @param host the host entity, physical or virtual
+     * @return the directory, or null if the host is not (yet) in a datacenter
+     */
+    public static GuestDirectory of(HostEntity host) {
+        while (host instanceof GuestEntity guest) {
+            host = guest.getHost();
+        }
+        if (host == null) {
+            return null;
+        }
+        Datacenter datacenter = host.getDatacenter();
+        return datacenter == null ? null : datacenter.getGuestDirectory();
+    }
+
+    private static long key(int high, int low) {
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Records that a guest has been placed in its {@link GuestEntity#getHost() host}, along with
+     * the guests nested in it.
+     *
+     * @param guest the guest
+     */
+    public void guestPlaced(GuestEntity guest) {
+        HostEntity directHost = guest.getHost();
+        if (directHost == null) {
+            return;
+        }
+        Location parent = null;
+        if (directHost instanceof GuestEntity hostGuest) {
+            parent = locations.get(hostGuest);
+            if (parent == null) {
+                // indexed when the host guest is placed
+                return;
+            }
+        }
+        guestRemoved(guest);
+
+        HostEntity host = parent == null ? directHost : parent.getHost();
+        int overhead = (parent == null ? 0 : parent.getTotalVirtualizationOverhead())
+                + guest.getVirtualizationOverhead();
+        Location location = new Location(guest, directHost, host, overhead);
+        locations.put(guest, location);
+        (parent == null ? vms : nestedGuests).put(key(guest.getUserId(), guest.getId()), location);
+        (parent == null ? vmsByHost : nestedGuestsByHost).put(key(host.getId(), guest.getId()), location);
+        modificationCounts.merge(host, 1L, Long::sum);
+
+        if (guest instanceof VirtualEntity vm) {
+            for (GuestEntity nested : vm.getGuestList()) {
+                if (nested.getHost() == vm) {
+                    guestPlaced(nested);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records that a guest has been removed from its host, along with the guests nested in it.
+     *
+     * @param guest the guest
+     */
+    public void guestRemoved(GuestEntity guest) {
+        Location location = locations.remove(guest);
+        if (location == null) {
+            return;
+        }
+        boolean nested = location.getDirectHost() instanceof GuestEntity;
+        (nested ? nestedGuests : vms).remove(key(guest.getUserId(), guest.getId()), location);
+        (nested ? nestedGuestsByHost : vmsByHost).remove(key(location.getHost().getId(), guest.getId()), location);
+        modificationCounts.merge(location.getHost(), 1L, Long::sum);
+        for (Consumer<Location> listener : removalListeners) {
+            listener.accept(location);
+        }
+
+        if (guest instanceof VirtualEntity vm) {
+            for (GuestEntity nestedGuest : vm.getGuestList()) {
+                guestRemoved(nestedGuest);
+            }
+        }
+    }
+
+    /**
+     * Records that a guest has been removed from a given host, unless the guest has already
+     * been placed elsewhere.
+     *
+     * @param host the host the guest is removed from
+     * @param guest the guest
+     */
+    public void guestRemoved(HostEntity host, GuestEntity guest) {
+        Location location = locations.get(guest);
+        if (location != null && location.getDirectHost() == host) {
+            guestRemoved(guest);
+        }
+    }
+
+    /**
+     * Adds a listener notified, with its last location, of every guest removed from its host:
+     * destroyed, or moved to another host (in which case it is then placed again).
+     *
+     * @param listener the listener
+     */
+    public void addRemovalListener(Consumer<Location> listener) {
+        removalListeners.add(listener);
+    }
+
+    /**
+     * Gets the location of a guest.
+     *
+     * @param guest the guest
+     * @return the location, or null if the guest is not placed in this datacenter
+     */
+    public Location getLocation(GuestEntity guest) {
+        return locations.get(guest);
+    }
+
+    /**
+     * Gets the location of a guest, looking for a guest running directly in a physical host
+     * first, then for a nested guest.
+     *
+     * @param guestId the guest id
+     * @param userId the id of the guest's owner
+     * @return the location, or null if there is no such guest
+     */
+    public Location getLocation(int guestId, int userId) {
+        long key = key(userId, guestId);
+        Location location = vms.get(key);
+        return location != null ? location : nestedGuests.get(key);
+    }
+
+    /**
+     * Gets the location of a guest nested in another guest, such as a container in a VM.
+     *
+     * @param hostGuestId the id of the guest hosting the guest
+     * @param guestId the guest id
+     * @param userId the id of the guests' owner
+     * @return the location, or null if there is no such guest in the host guest
+     */
+    public Location getLocation(int hostGuestId, int guestId, int userId) {
+        Location location = nestedGuests.get(key(userId, guestId));
+        if (location != null && location.getDirectHost() instanceof GuestEntity hostGuest
+                && hostGuest.getId() == hostGuestId && hostGuest.getUserId() == userId) {
+            return location;
+        }
+        return null;
+    }
+
+    /**
+     * Gets a guest, looking for a guest running directly in a physical host first, then for a
+     * nested guest.
+     *
+     * @param guestId the guest id
+     * @param userId the id of the guest's owner
+     * @param <T> the guest type
+     * @return the guest, or null if there is no such guest
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends GuestEntity> T getGuest(int guestId, int userId) {
+        Location location = getLocation(guestId, userId);
+        return location == null ? null : (T) location.getGuest();
+    }
+
+    /**
+     * Gets a guest nested in another guest, such as a container in a VM.
+     *
+     * @param hostGuestId the id of the guest hosting the guest
+     * @param guestId the guest id
+     * @param userId the id of the guests' owner
+     * @param <T> the guest type
+     * @return the guest, or null if there is no such guest in the host guest
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends GuestEntity> T getGuest(int hostGuestId, int guestId, int userId) {
+        Location location = getLocation(hostGuestId, guestId, userId);
+        return location == null ? null : (T) location.getGuest();
+    }
+
+    /**
+     * Gets the total virtualization overhead of a guest running, possibly nested, in a given
+     * physical host, looking for a guest running directly in the host first, then for a
+     * nested guest.
+     *
+     * @param host the physical host
+     * @param guestId the guest id
+     * @return the overhead, 0 if the guest is not in the host
+     */
+    public int getTotalVirtualizationOverhead(HostEntity host, int guestId) {
+        long key = key(host.getId(), guestId);
+        Location location = vmsByHost.get(key);
+        if (location == null) {
+            location = nestedGuestsByHost.get(key);
+        }
+        return location == null ? 0 : location.getTotalVirtualizationOverhead();
+    }
+
+    /**
+     * Gets the number of times a guest was placed on or removed from a physical host, at any
+     * nesting level. The count changes whenever the guests running on the host change, so
+     * values derived from them can be cached along with the count.
+     *
+     * @param host the physical host
+     * @return the modification count of the host
+     */
+    public long getModificationCount(HostEntity host) {
+        return modificationCounts.getOrDefault(host, 0L);
+    }
+
+    /**
+     * Gets the number of placed guests.
+     *
+     * @return the number of guests
+     */
+    public int size() {
+        return locations.size();
+    }
+}
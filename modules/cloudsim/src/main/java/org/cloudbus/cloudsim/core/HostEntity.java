@@ -80,6 +80,11 @@ public interface HostEntity extends CoreAttributes {
         setStorage(getStorage() - guest.getSize());
         getGuestList().add(guest);
         guest.setHost(this);
+
+        GuestDirectory directory = GuestDirectory.of(this);
+        if (directory != null) {
+            directory.guestPlaced(guest);
+        }
         return true;
     }
 
@@ -92,6 +97,10 @@ public interface HostEntity extends CoreAttributes {
      */
     default void guestDestroy(GuestEntity guest) {
         if (guest != null) {
+            GuestDirectory directory = GuestDirectory.of(this);
+            if (directory != null) {
+                directory.guestRemoved(this, guest);
+            }
             guestDeallocate(guest);
             getGuestList().remove(guest);
             //Log.printlnConcat(getClassName()," # ",getId()," guestDestroy: ", guest.getClassName()," #", guest.getId(), " is deleted from the list");
@@ -127,7 +136,11 @@ public interface HostEntity extends CoreAttributes {
         getGuestBwProvisioner().deallocateBwForAllGuests();
         getGuestScheduler().deallocatePesForAllGuests();
 
+        GuestDirectory directory = GuestDirectory.of(this);
         for (GuestEntity guest : getGuestList()) {
+            if (directory != null) {
+                directory.guestRemoved(this, guest);
+            }
             guest.setHost(null);
             setStorage(getStorage() + guest.getSize());
         }
@@ -10,6 +10,7 @@ package org.cloudbus.cloudsim.core;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.NetworkTopology;
+import org.cloudbus.cloudsim.NetworkTransferManager;
 import org.cloudbus.cloudsim.core.predicates.Predicate;
 
 import java.util.Iterator;
@@ -550,6 +551,11 @@ public abstract class SimEntity implements Cloneable {
 
 		int srcId = getId();
 		if (dstId != srcId) {// only delay messages between different entities
+			// payloads are transferred over the topology links, which adds the network delay
+			NetworkTransferManager transfers = NetworkTopology.getTransferManager();
+			if (transfers != null && transfers.transfer(srcId, dstId, delay, cloudSimTag, data)) {
+				return;
+			}
 			delay += getNetworkDelay(srcId, dstId);
 		}
 
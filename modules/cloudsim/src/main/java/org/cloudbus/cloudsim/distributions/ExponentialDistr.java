@@ -9,6 +9,7 @@
 package org.cloudbus.cloudsim.distributions;
 
 import org.apache.commons.math3.distribution.ExponentialDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the 
@@ -30,7 +31,7 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 * @param mean the mean for the distribution.
 	 */
 	public ExponentialDistr(long seed, double mean) {
-		this(mean);
+		numGen = new ExponentialDistribution(mean);
 		numGen.reseedRandomGenerator(seed);
 	}
 
@@ -38,9 +39,10 @@ public class ExponentialDistr implements ContinuousDistribution {
 	 * Creates a new exponential pseudo random number generator.
 	 * 
 	 * @param mean the mean for the distribution.
+	 * @see RandomStreams
 	 */
 	public ExponentialDistr(double mean) {
-		numGen = new ExponentialDistribution(mean);
+		numGen = new ExponentialDistribution(new StreamRandomGenerator("ExponentialDistr"), mean);
 	}
 
 	@Override
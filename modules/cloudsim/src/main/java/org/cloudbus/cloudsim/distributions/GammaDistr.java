@@ -12,6 +12,7 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 import org.apache.commons.math3.distribution.GammaDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the
@@ -33,7 +34,7 @@ public class GammaDistr implements ContinuousDistribution {
 	 * @param scale the scale
 	 */
 	public GammaDistr(Random seed, int shape, double scale) {
-		this(shape, scale);
+		numGen = new GammaDistribution(shape, scale);
 		numGen.reseedRandomGenerator(seed.nextLong());
 	}
 
@@ -42,9 +43,10 @@ public class GammaDistr implements ContinuousDistribution {
 	 * 
 	 * @param shape the shape
 	 * @param scale the scale
+	 * @see RandomStreams
 	 */
 	public GammaDistr(int shape, double scale) {
-		numGen = new GammaDistribution(shape, scale);
+		numGen = new GammaDistribution(new StreamRandomGenerator("GammaDistr"), shape, scale);
 	}
 
 	@Override
@@ -11,6 +11,7 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 import org.apache.commons.math3.distribution.LogNormalDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the
@@ -34,7 +35,7 @@ public class LognormalDistr implements ContinuousDistribution {
 	 * @param scale the scale
 	 */
 	public LognormalDistr(Random seed, double shape, double scale) {
-		this(shape, scale);
+		numGen = new LogNormalDistribution(scale, shape);
 		numGen.reseedRandomGenerator(seed.nextLong());
 	}
 
@@ -43,9 +44,10 @@ public class LognormalDistr implements ContinuousDistribution {
 	 * 
 	 * @param shape the shape
 	 * @param scale the scale
+	 * @see RandomStreams
 	 */
 	public LognormalDistr(double shape, double scale) {
-		numGen = new LogNormalDistribution(scale, shape);
+		numGen = new LogNormalDistribution(new StreamRandomGenerator("LognormalDistr"), scale, shape);
 	}
 
 	@Override
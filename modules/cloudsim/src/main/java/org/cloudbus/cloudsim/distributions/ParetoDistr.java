@@ -12,6 +12,7 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 import org.apache.commons.math3.distribution.ParetoDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the
@@ -33,7 +34,7 @@ public class ParetoDistr implements ContinuousDistribution {
 	 * @param location the location
 	 */
 	public ParetoDistr(Random seed, double shape, double location) {
-		this(shape, location);
+		numGen = new ParetoDistribution(location, shape);
 		numGen.reseedRandomGenerator(seed.nextLong());
 	}
 
@@ -42,9 +43,10 @@ public class ParetoDistr implements ContinuousDistribution {
 	 * 
 	 * @param shape the shape
 	 * @param location the location
+	 * @see RandomStreams
 	 */
 	public ParetoDistr(double shape, double location) {
-		numGen = new ParetoDistribution(location, shape);
+		numGen = new ParetoDistribution(new StreamRandomGenerator("ParetoDistr"), location, shape);
 	}
 
 	@Override
@@ -0,0 +1,94 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.distributions;
+
+import java.util.SplittableRandom;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.cloudbus.cloudsim.util.RandomStreams;
+
+/**
+ * Lets the Commons Math distributions draw from a {@link RandomStreams} stream instead of
+ * their default Mersenne-Twister-like generator, which is slower to create and is seeded
+ * from the clock.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+final class StreamRandomGenerator implements RandomGenerator {
+
+	private SplittableRandom random;
+
+	/**
+	 * Creates a generator drawing from the next stream of a given name.
+	 *
+	 * @param name the stream name
+	 */
+	StreamRandomGenerator(String name) {
+		random = RandomStreams.nextStream(name);
+	}
+
+	@Override
+	public void setSeed(int seed) {
+		setSeed((long) seed);
+	}
+
+	@Override
+	public void setSeed(int[] seed) {
+		long value = 0;
+		for (int s : seed) {
+			value = 31 * value + s;
+		}
+		setSeed(value);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		random = new SplittableRandom(seed);
+	}
+
+	@Override
+	public void nextBytes(byte[] bytes) {
+		random.nextBytes(bytes);
+	}
+
+	@Override
+	public int nextInt() {
+		return random.nextInt();
+	}
+
+	@Override
+	public int nextInt(int n) {
+		return random.nextInt(n);
+	}
+
+	@Override
+	public long nextLong() {
+		return random.nextLong();
+	}
+
+	@Override
+	public boolean nextBoolean() {
+		return random.nextBoolean();
+	}
+
+	@Override
+	public float nextFloat() {
+		return random.nextFloat();
+	}
+
+	@Override
+	public double nextDouble() {
+		return random.nextDouble();
+	}
+
+	@Override
+	public double nextGaussian() {
+		return random.nextGaussian();
+	}
+}
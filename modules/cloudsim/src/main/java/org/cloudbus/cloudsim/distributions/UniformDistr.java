@@ -11,6 +11,7 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 import org.apache.commons.math3.distribution.UniformRealDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the 
@@ -30,9 +31,10 @@ public class UniformDistr implements ContinuousDistribution {
 	 * 
 	 * @param min minimum value
 	 * @param max maximum value
+	 * @see RandomStreams
 	 */
 	public UniformDistr(double min, double max) {
-		numGen = new UniformRealDistribution(min, max);
+		numGen = new UniformRealDistribution(new StreamRandomGenerator("UniformDistr"), min, max);
 	}
 
 	/**
@@ -43,7 +45,7 @@ public class UniformDistr implements ContinuousDistribution {
 	 * @param seed simulation seed to be used
 	 */
 	public UniformDistr(double min, double max, long seed) {
-		this(min, max);
+		numGen = new UniformRealDistribution(min, max);
 		numGen.reseedRandomGenerator(seed);
 	}
 
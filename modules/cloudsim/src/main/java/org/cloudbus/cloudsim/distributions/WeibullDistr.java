@@ -12,6 +12,7 @@ package org.cloudbus.cloudsim.distributions;
 import java.util.Random;
 
 import org.apache.commons.math3.distribution.WeibullDistribution;
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the 
@@ -33,7 +34,7 @@ public class WeibullDistr implements ContinuousDistribution {
 	 * @param beta the beta
 	 */
 	public WeibullDistr(Random seed, double alpha, double beta) {
-		this(alpha, beta);
+		numGen = new WeibullDistribution(alpha, beta);
 		numGen.reseedRandomGenerator(seed.nextLong());
 	}
 
@@ -42,9 +43,10 @@ public class WeibullDistr implements ContinuousDistribution {
 	 * 
 	 * @param alpha the alpha
 	 * @param beta the beta
+	 * @see RandomStreams
 	 */
 	public WeibullDistr(double alpha, double beta) {
-		numGen = new WeibullDistribution(alpha, beta);
+		numGen = new WeibullDistribution(new StreamRandomGenerator("WeibullDistr"), alpha, beta);
 	}
 
 	@Override
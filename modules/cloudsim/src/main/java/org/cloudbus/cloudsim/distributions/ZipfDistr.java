@@ -10,6 +10,9 @@ mulation) Toolkit for Modeling and Simulation of Clouds
 package org.cloudbus.cloudsim.distributions;
 
 import java.util.Random;
+import java.util.random.RandomGenerator;
+
+import org.cloudbus.cloudsim.util.RandomStreams;
 
 /**
  * A pseudo random number generator following the
@@ -21,7 +24,7 @@ import java.util.Random;
 public class ZipfDistr implements ContinuousDistribution {
 
 	/** The internal random number generator. */
-	private final Random numGen;
+	private final RandomGenerator numGen;
 
 	/** The shape. */
 	private final double shape;
@@ -51,12 +54,13 @@ public class ZipfDistr implements ContinuousDistribution {
 	 * 
 	 * @param shape the shape
 	 * @param population the population
+	 * @see RandomStreams
 	 */
 	public ZipfDistr(double shape, int population) {
 		if (shape <= 0.0) {
 			throw new IllegalArgumentException("Mean must be greated than 0.0 and population greater than 0");
 		}
-		numGen = new Random(System.currentTimeMillis());
+		numGen = RandomStreams.nextStream("ZipfDistr");
 		this.shape = shape;
 		computeDen(shape, population);
 	}
@@ -0,0 +1,139 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+
+/**
+ * A network topological graph stored in primitive arrays, one per node and link attribute,
+ * instead of one {@link TopologicalNode} and {@link TopologicalLink} object per node and link.
+ * It is filled by {@link GraphReaderBrite#readCompactGraph(String)} and by the
+ * {@link TopologyCache}, and can be converted to a {@link TopologicalGraph}.
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class CompactTopologicalGraph {
+
+	/** The initial capacity of the node and link arrays. */
+	private static final int INITIAL_CAPACITY = 16;
+
+	private int nodeNum;
+
+	private int[] nodeIds = new int[INITIAL_CAPACITY];
+
+	private int[] nodeX = new int[INITIAL_CAPACITY];
+
+	private int[] nodeY = new int[INITIAL_CAPACITY];
+
+	private int linkNum;
+
+	private int[] linkSrc = new int[INITIAL_CAPACITY];
+
+	private int[] linkDest = new int[INITIAL_CAPACITY];
+
+	private float[] linkDelay = new float[INITIAL_CAPACITY];
+
+	private float[] linkBw = new float[INITIAL_CAPACITY];
+
+	/**
+	 * Adds a node.
+	 *
+	 * @param nodeID the node id
+	 * @param x the x coordinate of the node
+	 * @param y the y coordinate of the node
+	 */
+	public void addNode(int nodeID, int x, int y) {
+		if (nodeNum == nodeIds.length) {
+			int length = Math.max(INITIAL_CAPACITY, 2 * nodeNum);
+			nodeIds = Arrays.copyOf(nodeIds, length);
+			nodeX = Arrays.copyOf(nodeX, length);
+			nodeY = Arrays.copyOf(nodeY, length);
+		}
+		nodeIds[nodeNum] = nodeID;
+		nodeX[nodeNum] = x;
+		nodeY[nodeNum] = y;
+		nodeNum++;
+	}
+
+	/**
+	 * Adds a link.
+	 *
+	 * @param srcNode the source node id
+	 * @param destNode the destination node id
+	 * @param delay the link delay
+	 * @param bw the link bandwidth
+	 */
+	public void addLink(int srcNode, int destNode, float delay, float bw) {
+		if (linkNum == linkSrc.length) {
+			int length = Math.max(INITIAL_CAPACITY, 2 * linkNum);
+			linkSrc = Arrays.copyOf(linkSrc, length);
+			linkDest = Arrays.copyOf(linkDest, length);
+			linkDelay = Arrays.copyOf(linkDelay, length);
+			linkBw = Arrays.copyOf(linkBw, length);
+		}
+		linkSrc[linkNum] = srcNode;
+		linkDest[linkNum] = destNode;
+		linkDelay[linkNum] = delay;
+		linkBw[linkNum] = bw;
+		linkNum++;
+	}
+
+	/**
+	 * Creates a graph from arrays, which are used without copy.
+	 */
+	CompactTopologicalGraph(int[] nodeIds, int[] nodeX, int[] nodeY,
+							int[] linkSrc, int[] linkDest, float[] linkDelay, float[] linkBw) {
+		this.nodeNum = nodeIds.length;
+		this.nodeIds = nodeIds;
+		this.nodeX = nodeX;
+		this.nodeY = nodeY;
+		this.linkNum = linkSrc.length;
+		this.linkSrc = linkSrc;
+		this.linkDest = linkDest;
+		this.linkDelay = linkDelay;
+		this.linkBw = linkBw;
+	}
+
+	public CompactTopologicalGraph() {
+	}
+
+	/**
+	 * Converts the graph to a {@link TopologicalGraph}.
+	 *
+	 * @return the graph
+	 */
+	public TopologicalGraph toTopologicalGraph() {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int i = 0; i < nodeNum; i++) {
+			graph.addNode(new TopologicalNode(nodeIds[i], Integer.toString(nodeIds[i]), nodeX[i], nodeY[i]));
+		}
+		for (int i = 0; i < linkNum; i++) {
+			graph.addLink(new TopologicalLink(linkSrc[i], linkDest[i], linkDelay[i], linkBw[i]));
+		}
+		return graph;
+	}
+
+	public int getNumberOfNodes() { return nodeNum; }
+
+	public int getNumberOfLinks() { return linkNum; }
+
+	public int getNodeID(int index) { return nodeIds[index]; }
+
+	public int getNodeX(int index) { return nodeX[index]; }
+
+	public int getNodeY(int index) { return nodeY[index]; }
+
+	public int getLinkSrc(int index) { return linkSrc[index]; }
+
+	public int getLinkDest(int index) { return linkDest[index]; }
+
+	public float getLinkDelay(int index) { return linkDelay[index]; }
+
+	public float getLinkBw(int index) { return linkBw[index]; }
+}
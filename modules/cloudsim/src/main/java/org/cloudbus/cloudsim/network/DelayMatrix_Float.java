@@ -8,6 +8,7 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.nio.FloatBuffer;
 import java.util.Iterator;
 
 /**
@@ -20,9 +21,15 @@ import java.util.Iterator;
 public class DelayMatrix_Float {
 
 	/**
-	 * Matrix holding delay information between any two nodes.
+	 * Matrix holding delay information between any two nodes, in row-major order.
 	 */
-	protected float[][] mDelayMatrix = null;
+	protected float[] mDelayMatrix = null;
+
+	/**
+	 * The delays, in row-major order, when they are read from a memory-mapped
+	 * {@link TopologyCache} file instead of being stored in {@link #mDelayMatrix}.
+	 */
+	protected FloatBuffer mMappedDelayMatrix = null;
 
 	/**
 	 * Number of nodes in the distance-aware-topology.
@@ -50,6 +57,17 @@ public class DelayMatrix_Float {
 		calculateShortestPath();
 	}
 
+	/**
+	 * Creates a delay matrix from already computed delays, which are used without copy.
+	 *
+	 * @param delays the delays between every pair of nodes, in row-major order
+	 * @param nodeNum the number of nodes
+	 */
+	DelayMatrix_Float(FloatBuffer delays, int nodeNum) {
+		mMappedDelayMatrix = delays;
+		mTotalNodeNum = nodeNum;
+	}
+
 	/**
          * Gets the delay between two nodes.
          * 
@@ -59,11 +77,21 @@ public class DelayMatrix_Float {
 	 */
 	public float getDelay(int srcID, int destID) {
 		// check the nodeIDs against internal array-boundarys
-		if (srcID > mTotalNodeNum || destID > mTotalNodeNum) {
+		if (srcID >= mTotalNodeNum || destID >= mTotalNodeNum) {
 			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
 		}
 
-		return mDelayMatrix[srcID][destID];
+		int index = srcID * mTotalNodeNum + destID;
+		return mDelayMatrix != null ? mDelayMatrix[index] : mMappedDelayMatrix.get(index);
+	}
+
+	/**
+	 * Gets the number of nodes in the matrix.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeNum() {
+		return mTotalNodeNum;
 	}
 
 	/**
@@ -79,14 +107,8 @@ public class DelayMatrix_Float {
 		// number of nodes inside the network
 		mTotalNodeNum = graph.getNumberOfNodes();
 
-		mDelayMatrix = new float[mTotalNodeNum][mTotalNodeNum];
-
-		// cleanup the complete distance-matrix with "0"s
-		for (int row = 0; row < mTotalNodeNum; ++row) {
-			for (int col = 0; col < mTotalNodeNum; ++col) {
-				mDelayMatrix[row][col] = Float.MAX_VALUE;
-			}
-		}
+		// "0"s stand for missing links
+		mDelayMatrix = new float[mTotalNodeNum * mTotalNodeNum];
 
 		Iterator<TopologicalLink> itr = graph.getLinkIterator();
 
@@ -94,11 +116,11 @@ public class DelayMatrix_Float {
 		while (itr.hasNext()) {
 			edge = itr.next();
 
-			mDelayMatrix[edge.getSrcNodeID()][edge.getDestNodeID()] = edge.getLinkDelay();
+			mDelayMatrix[edge.getSrcNodeID() * mTotalNodeNum + edge.getDestNodeID()] = edge.getLinkDelay();
 
 			if (!directed) {
 				// according to aproximity of symmetry to all communication-paths
-				mDelayMatrix[edge.getDestNodeID()][edge.getSrcNodeID()] = edge.getLinkDelay();
+				mDelayMatrix[edge.getDestNodeID() * mTotalNodeNum + edge.getSrcNodeID()] = edge.getLinkDelay();
 			}
 
 		}
@@ -111,7 +133,9 @@ public class DelayMatrix_Float {
 		FloydWarshall_Float floyd = new FloydWarshall_Float();
 
 		floyd.initialize(mTotalNodeNum);
-		mDelayMatrix = floyd.allPairsShortestPaths(mDelayMatrix);
+		// only the delays are needed
+		floyd.setTrackPredecessors(false);
+		floyd.allPairsShortestPaths(mDelayMatrix);
 	}
 
 	@Override
@@ -129,10 +153,11 @@ public class DelayMatrix_Float {
 			buffer.append("\n").append(row);
 
 			for (int col = 0; col < mTotalNodeNum; ++col) {
-				if (mDelayMatrix[row][col] == Float.MAX_VALUE) {
+				float delay = getDelay(row, col);
+				if (delay == Float.MAX_VALUE) {
 					buffer.append("\t" + "-");
 				} else {
-					buffer.append("\t").append(mDelayMatrix[row][col]);
+					buffer.append("\t").append(delay);
 				}
 			}
 		}
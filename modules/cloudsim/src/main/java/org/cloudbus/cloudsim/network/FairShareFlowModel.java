@@ -0,0 +1,525 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A flow-level model of data transfers that share a set of capacity-limited links.
+ *
+ * <p>Each flow transfers a given amount of data over a fixed path of links. The
+ * bandwidth of every link is shared among the flows crossing it according to
+ * <a href="https://en.wikipedia.org/wiki/Max-min_fairness">max-min fairness</a>,
+ * computed by progressive filling. Rates are recomputed only when a flow starts or
+ * finishes (or a link capacity changes); between these events every flow progresses
+ * at a constant rate, so the model only needs to be woken up at
+ * {@link #getNextCompletionTime()}.</p>
+ *
+ * <p>Size and capacity units are up to the user, as long as they are consistent
+ * (e.g. MB and MB/s).</p>
+ *
+ * @param <T> the type of the object carried by each flow
+ * @since CloudSim Toolkit 7.0
+ */
+public class FairShareFlowModel<T> {
+
+	/** The relative amount of data below which a flow is considered completed,
+	 * to absorb floating-point errors in the completion time. */
+	private static final double COMPLETION_TOLERANCE = 1e-9;
+
+	/** The capacity of each link, indexed by link id. */
+	private double[] capacity = new double[0];
+
+	/** The amount of data transmitted over each link so far, indexed by link id. */
+	private double[] transmitted = new double[0];
+
+	/** The flows crossing each link, indexed by link id. */
+	private final List<Set<Flow<T>>> linkFlows = new ArrayList<>();
+
+	/** The active flows, in starting order. */
+	private final Set<Flow<T>> flows = new LinkedHashSet<>();
+
+	/** The time flows have been progressed to. */
+	private double lastUpdateTime;
+
+	/** Whether rates have to be recomputed. */
+	private boolean dirty;
+
+	/** Working arrays for progressive filling, indexed by link id. */
+	private double[] remainingCapacity = new double[0];
+	private int[] unfrozenFlows = new int[0];
+
+	/** The progressive filling pass each link was last initialised for, indexed by link id. */
+	private int[] linkPass = new int[0];
+
+	/** The current progressive filling pass. */
+	private int pass;
+
+	/** A binary min-heap of the fair share of the links with unfrozen flows,
+	 * ordered by share and then by link id; entries for a share that has since
+	 * changed are skipped when they reach the top. */
+	private double[] heapShares = new double[16];
+	private int[] heapLinks = new int[16];
+	private int heapSize;
+
+	/** The flows frozen by the current progressive filling step. */
+	private final List<Flow<T>> frozenFlows = new ArrayList<>();
+
+	/**
+	 * Adds a link.
+	 *
+	 * @param linkCapacity the link capacity, in size units per time unit
+	 * @return the id of the new link
+	 */
+	public int addLink(double linkCapacity) {
+		int link = linkFlows.size();
+		if (link == capacity.length) {
+			int length = Math.max(16, capacity.length * 2);
+			capacity = Arrays.copyOf(capacity, length);
+			transmitted = Arrays.copyOf(transmitted, length);
+			remainingCapacity = new double[length];
+			unfrozenFlows = new int[length];
+			linkPass = Arrays.copyOf(linkPass, length);
+		}
+		capacity[link] = linkCapacity;
+		linkFlows.add(new LinkedHashSet<>());
+		return link;
+	}
+
+	/**
+	 * Gets the number of links.
+	 *
+	 * @return the number of links
+	 */
+	public int getLinkCount() {
+		return linkFlows.size();
+	}
+
+	/**
+	 * Gets the capacity of a link.
+	 *
+	 * @param link the link id
+	 * @return the link capacity
+	 */
+	public double getLinkCapacity(int link) {
+		return capacity[link];
+	}
+
+	/**
+	 * Changes the capacity of a link at a given time.
+	 *
+	 * @param link the link id
+	 * @param linkCapacity the new link capacity
+	 * @param time the current time
+	 * @return the flows completed until the given time
+	 */
+	public List<Flow<T>> setLinkCapacity(int link, double linkCapacity, double time) {
+		List<Flow<T>> completed = advance(time);
+		capacity[link] = linkCapacity;
+		dirty = true;
+		recomputeRates();
+		return completed;
+	}
+
+	/**
+	 * Gets the total rate of the flows crossing a link.
+	 *
+	 * @param link the link id
+	 * @return the link load
+	 */
+	public double getLinkLoad(int link) {
+		double load = 0;
+		for (Flow<T> flow : linkFlows.get(link)) {
+			load += flow.getRate();
+		}
+		return load;
+	}
+
+	/**
+	 * Gets the amount of data transmitted over a link, by all the flows crossing it,
+	 * until a given time, without progressing the flows.
+	 *
+	 * @param link the link id
+	 * @param time the current time, not before the last flow update
+	 * @return the transmitted amount of data
+	 */
+	public double getLinkTransmitted(int link, double time) {
+		double amount = transmitted[link];
+		double elapsed = time - lastUpdateTime;
+		if (elapsed > 0) {
+			for (Flow<T> flow : linkFlows.get(link)) {
+				amount += flow.rate == Double.POSITIVE_INFINITY ? flow.remaining
+						: Math.min(flow.remaining, flow.rate * elapsed);
+			}
+		}
+		return amount;
+	}
+
+	/**
+	 * Gets the number of flows crossing a link.
+	 *
+	 * @param link the link id
+	 * @return the number of flows
+	 */
+	public int getLinkFlowCount(int link) {
+		return linkFlows.get(link).size();
+	}
+
+	/**
+	 * Starts a new flow at a given time. Flows are progressed until that time first.
+	 *
+	 * @param data the object carried by the flow
+	 * @param size the amount of data to transfer
+	 * @param links the ids of the links crossed by the flow; a flow crossing no links
+	 *              completes immediately
+	 * @param time the current time
+	 * @return the new flow
+	 */
+	public Flow<T> startFlow(T data, double size, int[] links, double time) {
+		progress(time);
+		Flow<T> flow = new Flow<>(data, size, links.clone(), time);
+		flows.add(flow);
+		for (int link : flow.links) {
+			linkFlows.get(link).add(flow);
+		}
+		dirty = true;
+		recomputeRates();
+		return flow;
+	}
+
+	/**
+	 * Aborts a flow before its completion.
+	 *
+	 * @param flow the flow
+	 * @param time the current time
+	 * @return true if the flow was active; false otherwise
+	 */
+	public boolean abortFlow(Flow<T> flow, double time) {
+		progress(time);
+		if (!flows.contains(flow)) {
+			return false;
+		}
+		remove(flow);
+		dirty = true;
+		recomputeRates();
+		return true;
+	}
+
+	/**
+	 * Progresses all flows until a given time and removes the completed ones.
+	 * Rates are recomputed if some flow has completed.
+	 *
+	 * @param time the current time
+	 * @return the flows completed until the given time, in starting order
+	 */
+	public List<Flow<T>> advance(double time) {
+		progress(time);
+		List<Flow<T>> completed = new ArrayList<>();
+		Iterator<Flow<T>> it = flows.iterator();
+		while (it.hasNext()) {
+			Flow<T> flow = it.next();
+			if (flow.rate == Double.POSITIVE_INFINITY || flow.remaining <= flow.size * COMPLETION_TOLERANCE) {
+				flow.remaining = 0;
+				flow.finishTime = time;
+				it.remove();
+				for (int link : flow.links) {
+					linkFlows.get(link).remove(flow);
+				}
+				completed.add(flow);
+			}
+		}
+		if (!completed.isEmpty()) {
+			dirty = true;
+		}
+		recomputeRates();
+		return completed;
+	}
+
+	/**
+	 * Gets the time the next flow completes, if rates do not change in the meantime.
+	 *
+	 * @return the next completion time, or {@link Double#MAX_VALUE} if there are no active flows
+	 */
+	public double getNextCompletionTime() {
+		double next = Double.MAX_VALUE;
+		for (Flow<T> flow : flows) {
+			double time = flow.rate == Double.POSITIVE_INFINITY ? lastUpdateTime
+					: lastUpdateTime + flow.remaining / flow.rate;
+			if (time < next) {
+				next = time;
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Gets the active flows, in starting order.
+	 *
+	 * @return the active flows
+	 */
+	public Set<Flow<T>> getFlows() {
+		return flows;
+	}
+
+	/**
+	 * Gets the number of active flows.
+	 *
+	 * @return the number of active flows
+	 */
+	public int getFlowCount() {
+		return flows.size();
+	}
+
+	/**
+	 * Progresses all flows at their current rates until a given time.
+	 *
+	 * @param time the current time
+	 */
+	private void progress(double time) {
+		double elapsed = time - lastUpdateTime;
+		if (elapsed <= 0) {
+			return;
+		}
+		for (Flow<T> flow : flows) {
+			double amount = flow.rate == Double.POSITIVE_INFINITY ? flow.remaining
+					: Math.min(flow.remaining, flow.rate * elapsed);
+			flow.remaining -= amount;
+			for (int link : flow.links) {
+				transmitted[link] += amount;
+			}
+		}
+		lastUpdateTime = time;
+	}
+
+	/**
+	 * Removes a flow from the model.
+	 *
+	 * @param flow the flow
+	 */
+	private void remove(Flow<T> flow) {
+		flows.remove(flow);
+		for (int link : flow.links) {
+			linkFlows.get(link).remove(flow);
+		}
+	}
+
+	/**
+	 * Computes the max-min fair rate of every flow by progressive filling:
+	 * the most constrained link (the one with the lowest fair share among its
+	 * unassigned flows) is repeatedly saturated, fixing the rate of its flows.
+	 *
+	 * <p>Only the links crossed by active flows are considered. They are kept in a
+	 * heap by fair share, and freezing a flow only updates the share of its own links,
+	 * so a pass costs O(P log P), P being the total length of the flow paths.</p>
+	 */
+	private void recomputeRates() {
+		if (!dirty) {
+			return;
+		}
+		dirty = false;
+
+		pass++;
+		heapSize = 0;
+		int unassigned = 0;
+		for (Flow<T> flow : flows) {
+			if (flow.links.length == 0) {
+				flow.rate = Double.POSITIVE_INFINITY;
+				flow.assigned = true;
+				continue;
+			}
+			flow.assigned = false;
+			unassigned++;
+			for (int link : flow.links) {
+				if (linkPass[link] != pass) {
+					linkPass[link] = pass;
+					remainingCapacity[link] = capacity[link];
+					unfrozenFlows[link] = linkFlows.get(link).size();
+					pushShare(link);
+				}
+			}
+		}
+
+		while (unassigned > 0) {
+			int bottleneck = heapLinks[0];
+			double minShare = heapShares[0];
+			popShare();
+			if (unfrozenFlows[bottleneck] == 0 || minShare != share(bottleneck)) {
+				continue; // stale entry
+			}
+
+			for (Flow<T> flow : linkFlows.get(bottleneck)) {
+				if (flow.assigned) {
+					continue;
+				}
+				flow.rate = minShare;
+				flow.assigned = true;
+				unassigned--;
+				for (int link : flow.links) {
+					remainingCapacity[link] -= minShare;
+					unfrozenFlows[link]--;
+				}
+				frozenFlows.add(flow);
+			}
+			// the share of the other links of the frozen flows has changed
+			for (Flow<T> flow : frozenFlows) {
+				for (int link : flow.links) {
+					if (unfrozenFlows[link] > 0) {
+						pushShare(link);
+					}
+				}
+			}
+			frozenFlows.clear();
+		}
+	}
+
+	/**
+	 * Gets the current fair share of a link with unfrozen flows.
+	 *
+	 * @param link the link id
+	 * @return the fair share
+	 */
+	private double share(int link) {
+		return Math.max(0, remainingCapacity[link]) / unfrozenFlows[link];
+	}
+
+	/**
+	 * Checks whether a heap entry comes before another one.
+	 */
+	private boolean before(int i, int j) {
+		return heapShares[i] < heapShares[j] || heapShares[i] == heapShares[j] && heapLinks[i] < heapLinks[j];
+	}
+
+	private void swap(int i, int j) {
+		double share = heapShares[i];
+		heapShares[i] = heapShares[j];
+		heapShares[j] = share;
+		int link = heapLinks[i];
+		heapLinks[i] = heapLinks[j];
+		heapLinks[j] = link;
+	}
+
+	/**
+	 * Adds the current fair share of a link to the heap.
+	 *
+	 * @param link the link id
+	 */
+	private void pushShare(int link) {
+		if (heapSize == heapShares.length) {
+			heapShares = Arrays.copyOf(heapShares, heapSize * 2);
+			heapLinks = Arrays.copyOf(heapLinks, heapSize * 2);
+		}
+		int i = heapSize++;
+		heapShares[i] = share(link);
+		heapLinks[i] = link;
+		while (i > 0 && before(i, (i - 1) / 2)) {
+			swap(i, (i - 1) / 2);
+			i = (i - 1) / 2;
+		}
+	}
+
+	/**
+	 * Removes the lowest share from the heap.
+	 */
+	private void popShare() {
+		heapSize--;
+		heapShares[0] = heapShares[heapSize];
+		heapLinks[0] = heapLinks[heapSize];
+		int i = 0;
+		while (true) {
+			int smallest = i;
+			int left = 2 * i + 1;
+			int right = left + 1;
+			if (left < heapSize && before(left, smallest)) {
+				smallest = left;
+			}
+			if (right < heapSize && before(right, smallest)) {
+				smallest = right;
+			}
+			if (smallest == i) {
+				return;
+			}
+			swap(i, smallest);
+			i = smallest;
+		}
+	}
+
+	/**
+	 * A data transfer over a path of links.
+	 *
+	 * @param <T> the type of the object carried by the flow
+	 */
+	public static class Flow<T> {
+
+		/** The object carried by the flow. */
+		private final T data;
+
+		/** The amount of data to transfer. */
+		private final double size;
+
+		/** The links crossed by the flow. */
+		private final int[] links;
+
+		/** The time the flow started. */
+		private final double startTime;
+
+		/** The time the flow finished, or -1 if it is still active. */
+		private double finishTime = -1;
+
+		/** The amount of data still to be transferred. */
+		private double remaining;
+
+		/** The current transfer rate. */
+		private double rate;
+
+		/** Whether the rate has been fixed during progressive filling. */
+		private boolean assigned;
+
+		private Flow(T data, double size, int[] links, double startTime) {
+			this.data = data;
+			this.size = size;
+			this.links = links;
+			this.startTime = startTime;
+			this.remaining = size;
+		}
+
+		public T getData() {
+			return data;
+		}
+
+		public double getSize() {
+			return size;
+		}
+
+		public double getRemaining() {
+			return remaining;
+		}
+
+		public double getRate() {
+			return rate;
+		}
+
+		public double getStartTime() {
+			return startTime;
+		}
+
+		public double getFinishTime() {
+			return finishTime;
+		}
+
+		public int[] getLinks() {
+			return links.clone();
+		}
+	}
+
+}
@@ -8,9 +8,20 @@
 
 package org.cloudbus.cloudsim.network;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
 /**
  * FloydWarshall algorithm to calculate the predecessor matrix 
  * and the delay between all pairs of nodes.
+ * <p>
+ * The matrices are stored in flat row-major arrays and processed in square tiles
+ * (blocked Floyd-Warshall): for each diagonal tile, the tile itself is updated first,
+ * then the tiles of its row and column, then all the other tiles. The tiles of the last
+ * two phases are independent and are updated in parallel on a {@link ForkJoinPool}.
+ * Predecessor tracking can be disabled when only the delays are needed.
  * 
  * @author Rahul Simha
  * @author Weishuai Yang
@@ -19,25 +30,27 @@ package org.cloudbus.cloudsim.network;
  */
 public class FloydWarshall_Float {
 
+	/** The default tile size, such that a few tiles fit in the CPU caches. */
+	public static final int DEFAULT_BLOCK_SIZE = 64;
+
 	/**
 	 * Number of vertices (nodes).
 	 */
 	private int numVertices;
 
 	/**
-	 * Matrices used in dynamic programming.
+	 * The predecessor matrix, in row-major order, or null if predecessors are not tracked.
 	 */
-	private float[][] Dk, Dk_minus_one;
+	private int[] pred;
 
-	/**
-	 * The predecessor matrix. Matrix used by dynamic programming.
-	 */
-	private int[][] Pk;
-        
-        /**
-         * Matrix used by dynamic programming.
-         */
-        private int[][] Pk_minus_one;
+	/** Whether the predecessor matrix is computed. */
+	private boolean trackPredecessors = true;
+
+	/** The tile size. */
+	private int blockSize = DEFAULT_BLOCK_SIZE;
+
+	/** The pool the tiles are updated on, or null to use the common pool. */
+	private ForkJoinPool pool;
 
 	/**
 	 * Initialization the matrix.
@@ -47,23 +60,7 @@ public class FloydWarshall_Float {
 	 */
 	public void initialize(int numVertices) {
 		this.numVertices = numVertices;
-
-		// Initialize Dk matrices.
-		Dk = new float[numVertices][];
-		Dk_minus_one = new float[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Dk[i] = new float[numVertices];
-			Dk_minus_one[i] = new float[numVertices];
-		}
-
-		// Initialize Pk matrices.
-		Pk = new int[numVertices][];
-		Pk_minus_one = new int[numVertices][];
-		for (int i = 0; i < numVertices; i++) {
-			Pk[i] = new int[numVertices];
-			Pk_minus_one[i] = new int[numVertices];
-		}
-
+		pred = null;
 	}
 
 	/**
@@ -73,65 +70,193 @@ public class FloydWarshall_Float {
 	 * @return the delay matrix
 	 */
 	public float[][] allPairsShortestPaths(float[][] adjMatrix) {
-		// Dk_minus_one = weights when k = -1
-		for (int i = 0; i < numVertices; i++) {
-			for (int j = 0; j < numVertices; j++) {
-				if (adjMatrix[i][j] != 0) {
-					Dk_minus_one[i][j] = adjMatrix[i][j];
-					Pk_minus_one[i][j] = i;
-				} else {
-					Dk_minus_one[i][j] = Float.MAX_VALUE;
-					Pk_minus_one[i][j] = -1;
-				}
-				// NOTE: we have set the value to infinity and will exploit
-				// this to avoid a comparison.
-			}
+		int n = numVertices;
+		float[] dist = new float[n * n];
+		for (int i = 0; i < n; i++) {
+			System.arraycopy(adjMatrix[i], 0, dist, i * n, n);
 		}
 
-		// Now iterate over k.
+		allPairsShortestPaths(dist);
+
+		float[][] result = new float[n][];
+		for (int i = 0; i < n; i++) {
+			result[i] = Arrays.copyOfRange(dist, i * n, (i + 1) * n);
+		}
+		return result;
+	}
 
-		for (int k = 0; k < numVertices; k++) {
+	/**
+	 * Calculates the delay between all pairs of nodes, in place.
+	 *
+	 * @param matrix the original delay matrix in row-major order, where 0 means that there is
+	 *               no link between two nodes; on return, the delay between all pairs of nodes,
+	 *               {@link Float#MAX_VALUE} for disconnected nodes
+	 * @return the given matrix
+	 */
+	public float[] allPairsShortestPaths(float[] matrix) {
+		int n = numVertices;
+		if (matrix.length != n * n) {
+			throw new IllegalArgumentException("The matrix must have " + n + "x" + n + " elements");
+		}
 
-			// Compute Dk[i][j], for each i,j
+		pred = trackPredecessors ? new int[n * n] : null;
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < n; j++) {
+				int ij = i * n + j;
+				boolean linked = matrix[ij] != 0 && i != j;
+				if (!linked) {
+					matrix[ij] = i == j ? 0 : Float.MAX_VALUE;
+				}
+				if (pred != null) {
+					pred[ij] = linked ? i : -1;
+				}
+			}
+		}
 
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					if (i != j) {
+		int blocks = (n + blockSize - 1) / blockSize;
+		for (int kb = 0; kb < blocks; kb++) {
+			final int k = kb;
+			// phase 1: the diagonal tile
+			updateTile(matrix, k, k, k);
 
-						// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j].
-						if (Dk_minus_one[i][j] <= Dk_minus_one[i][k] + Dk_minus_one[k][j]) {
-							Dk[i][j] = Dk_minus_one[i][j];
-							Pk[i][j] = Pk_minus_one[i][j];
-						} else {
-							Dk[i][j] = Dk_minus_one[i][k] + Dk_minus_one[k][j];
-							Pk[i][j] = Pk_minus_one[k][j];
-						}
+			// phase 2: the tiles of the row and of the column of the diagonal tile
+			runInParallel(2 * blocks, t -> {
+				int b = t >> 1;
+				if (b != k) {
+					if ((t & 1) == 0) {
+						updateTile(matrix, k, b, k);
 					} else {
-						Pk[i][j] = -1;
+						updateTile(matrix, b, k, k);
 					}
 				}
-			}
+			});
 
-			// Now store current Dk into D_k-1
-			for (int i = 0; i < numVertices; i++) {
-				for (int j = 0; j < numVertices; j++) {
-					Dk_minus_one[i][j] = Dk[i][j];
-					Pk_minus_one[i][j] = Pk[i][j];
+			// phase 3: all the other tiles
+			runInParallel(blocks * blocks, t -> {
+				int ib = t / blocks;
+				int jb = t % blocks;
+				if (ib != k && jb != k) {
+					updateTile(matrix, ib, jb, k);
 				}
-			}
+			});
+		}
+
+		return matrix;
+	}
 
-		} // end-outermost-for
+	/**
+	 * Relaxes the paths of a tile through the nodes of a diagonal tile.
+	 *
+	 * @param dist the delay matrix
+	 * @param ib the row of the tile
+	 * @param jb the column of the tile
+	 * @param kb the index of the diagonal tile
+	 */
+	private void updateTile(float[] dist, int ib, int jb, int kb) {
+		int n = numVertices;
+		int iEnd = Math.min(n, (ib + 1) * blockSize);
+		int jStart = jb * blockSize;
+		int jEnd = Math.min(n, jStart + blockSize);
+		int kEnd = Math.min(n, (kb + 1) * blockSize);
 
-		return Dk;
+		for (int k = kb * blockSize; k < kEnd; k++) {
+			int kRow = k * n;
+			for (int i = ib * blockSize; i < iEnd; i++) {
+				int iRow = i * n;
+				float dik = dist[iRow + k];
+				if (dik == Float.MAX_VALUE) {
+					continue;
+				}
+				for (int j = jStart; j < jEnd; j++) {
+					// D_k[i][j] = min ( D_k-1[i][j], D_k-1[i][k] + D_k-1[k][j] )
+					float candidate = dik + dist[kRow + j];
+					if (candidate < dist[iRow + j]) {
+						dist[iRow + j] = candidate;
+						if (pred != null) {
+							pred[iRow + j] = pred[kRow + j];
+						}
+					}
+				}
+			}
+		}
+	}
 
+	private void runInParallel(int size, IntConsumer task) {
+		ForkJoinPool p = pool != null ? pool : ForkJoinPool.commonPool();
+		p.submit(() -> IntStream.range(0, size).parallel().forEach(task)).join();
 	}
 
 	/**
 	 * Gets predecessor matrix.
 	 * 
-	 * @return predecessor matrix
+	 * @return predecessor matrix, or null if predecessors are not tracked
 	 */
 	public int[][] getPK() {
-		return Pk;
+		if (pred == null) {
+			return null;
+		}
+		int n = numVertices;
+		int[][] result = new int[n][];
+		for (int i = 0; i < n; i++) {
+			result[i] = Arrays.copyOfRange(pred, i * n, (i + 1) * n);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the predecessor of a node on the shortest path from another node.
+	 *
+	 * @param srcID the source node
+	 * @param destID the destination node
+	 * @return the node before the destination on the path, or -1 if there is no path
+	 */
+	public int getPredecessor(int srcID, int destID) {
+		if (pred == null) {
+			throw new IllegalStateException("Predecessors are not tracked");
+		}
+		return pred[srcID * numVertices + destID];
+	}
+
+	public boolean isTrackPredecessors() {
+		return trackPredecessors;
+	}
+
+	/**
+	 * Enables or disables the computation of the predecessor matrix, which doubles
+	 * the memory and the time needed.
+	 *
+	 * @param trackPredecessors true to compute the predecessor matrix
+	 */
+	public void setTrackPredecessors(boolean trackPredecessors) {
+		this.trackPredecessors = trackPredecessors;
+	}
+
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	public void setBlockSize(int blockSize) {
+		if (blockSize <= 0) {
+			throw new IllegalArgumentException("Block size must be positive");
+		}
+		this.blockSize = blockSize;
+	}
+
+	/**
+	 * Gets the pool the tiles are updated on.
+	 *
+	 * @return the pool, or null if the common pool is used
+	 */
+	public ForkJoinPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Sets the pool the tiles are updated on.
+	 *
+	 * @param pool the pool, or null to use the common pool
+	 */
+	public void setPool(ForkJoinPool pool) {
+		this.pool = pool;
 	}
 }
@@ -8,10 +8,11 @@
 
 package org.cloudbus.cloudsim.network;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.StringTokenizer;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 
 /**
  * A file reader for the special BRITE-format. A BRITE file is structured as
@@ -33,176 +34,258 @@ public class GraphReaderBrite implements GraphReaderIF {
 
 	private static final int PARSE_EDGES = 2;
 
-	private int state = PARSE_NOTHING;
+	private static final byte[] NODES_SECTION = "Nodes:".getBytes(StandardCharsets.US_ASCII);
 
-        /**
-         * The network Topological Graph.
-         */
-	private TopologicalGraph graph = null;
+	private static final byte[] EDGES_SECTION = "Edges:".getBytes(StandardCharsets.US_ASCII);
 
-	@Override
-	public TopologicalGraph readGraphFile(String filename) throws IOException {
+	/** Maximum number of fields parsed from a line: 3 for nodes and 6 for edges. */
+	private static final int MAX_FIELDS = 6;
 
-		graph = new TopologicalGraph();
-
-		// lets read the file
-		FileReader fr = new FileReader(filename);
-		BufferedReader br = new BufferedReader(fr);
-
-		String lineSep = System.getProperty("line.separator");
-		String nextLine = null;
-		StringBuilder sb = new StringBuilder();
-
-		while ((nextLine = br.readLine()) != null) {
-			sb.append(nextLine);
-			//
-			// note:
-			// BufferedReader strips the EOL character.
-			//
-			sb.append(lineSep);
-
-			// functionality to diferentiate between all the parsing-states
-			// state that should just find the start of node-declaration
-			if (state == PARSE_NOTHING) {
-				if (nextLine.contains("Nodes:")) {
-					// Log.printLine("found start of Nodes... switch to parse nodes!");
-					state = PARSE_NODES;
-				}
-			}
+	/** The maximum number of significant digits accumulated when parsing a float. */
+	private static final int MAX_FLOAT_DIGITS = 18;
 
-			// the state to retrieve all node-information
-			else if (state == PARSE_NODES) {
-				// perform the parsing of this node-line
-				parseNodeString(nextLine);
-			}
-
-			// the state to retrieve all edges-information
-			else if (state == PARSE_EDGES) {
-				parseEdgesString(nextLine);
-			}
+	/** The powers of ten that are exact doubles. */
+	private static final double[] POWERS_OF_TEN = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+			1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
 
-		}
+	/** The bits of a double mantissa that are below the precision of a float. */
+	private static final long FLOAT_ROUNDING_BITS = (1L << 29) - 1;
 
-		br.close();
+	/** The value of the {@link #FLOAT_ROUNDING_BITS} of a double halfway between two floats. */
+	private static final long FLOAT_HALFWAY = 1L << 28;
 
-		// Log.printLine("read file successfully...");
-		// Log.printLine(sb.toString());
+	/** How close to halfway between two floats, in double ulps, a parsed value is rounded
+	 * by the standard parser; the error of the fast path is a few ulps at most. */
+	private static final long FLOAT_HALFWAY_MARGIN = 16;
 
-		return graph;
+	@Override
+	public TopologicalGraph readGraphFile(String filename) throws IOException {
+		return readCompactGraph(filename).toTopologicalGraph();
 	}
 
-        /**
-         * Parses nodes inside a line from the BRITE file.
-         * 
-         * @param nodeLine A line read from the file
-         */
-	private void parseNodeString(String nodeLine) {
-		StringTokenizer tokenizer = new StringTokenizer(nodeLine);
-
-		// number of node parameters to parse (counts at linestart)
-		int parameters = 3;
+	/**
+	 * Reads a BRITE file into primitive arrays. The file is streamed through a byte buffer
+	 * and the fields are parsed in place, without creating a string per line.
+	 *
+	 * @param filename Name of the file to read
+	 * @return The created graph
+	 * @throws IOException when the file cannot be accessed
+	 */
+	public CompactTopologicalGraph readCompactGraph(String filename) throws IOException {
+		CompactTopologicalGraph graph = new CompactTopologicalGraph();
+		int state = PARSE_NOTHING;
+
+		byte[] buffer = new byte[1 << 16];
+		byte[] line = new byte[256];
+		int lineLength = 0;
+		int[] starts = new int[MAX_FIELDS];
+		int[] ends = new int[MAX_FIELDS];
+
+		try (InputStream in = new FileInputStream(filename)) {
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				for (int i = 0; i < read; i++) {
+					if (buffer[i] != '\n') {
+						if (lineLength == line.length) {
+							line = Arrays.copyOf(line, 2 * lineLength);
+						}
+						line[lineLength++] = buffer[i];
+					} else {
+						state = parseLine(graph, state, line, lineLength, starts, ends);
+						lineLength = 0;
+					}
+				}
+			}
+			// the last line may have no line separator
+			parseLine(graph, state, line, lineLength, starts, ends);
+		}
 
-		// first test to step to the next parsing-state (edges)
-		if (nodeLine.contains("Edges:")) {
-			// Log.printLine("found start of Edges... switch to parse edges!");
-			state = PARSE_EDGES;
+		return graph;
+	}
 
-			return;
+	/**
+	 * Parses a line according to the parsing state.
+	 *
+	 * @return the parsing state for the next line
+	 */
+	private static int parseLine(CompactTopologicalGraph graph, int state, byte[] line, int length,
+								 int[] starts, int[] ends) {
+		if (state == PARSE_NOTHING) {
+			// just find the start of node-declaration
+			return contains(line, length, NODES_SECTION) ? PARSE_NODES : PARSE_NOTHING;
+		}
+		if (state == PARSE_NODES && contains(line, length, EDGES_SECTION)) {
+			return PARSE_EDGES;
 		}
 
-		// test against an empty line
-		if (!tokenizer.hasMoreElements()) {
-			// Log.printLine("this line contains no tokens...");
-			return;
+		int fields = tokenize(line, length, starts, ends);
+		if (fields == 0) {
+			// empty line
+			return state;
 		}
+		if (state == PARSE_NODES) {
+			// NodeID, xpos, ypos, indegree, outdegree, ASid, type(router/AS)
+			graph.addNode(parseInt(line, starts, ends, fields, 0),
+					parseInt(line, starts, ends, fields, 1),
+					parseInt(line, starts, ends, fields, 2));
+		} else {
+			// EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, AS_from, AS_to, type
+			graph.addLink(parseInt(line, starts, ends, fields, 1),
+					parseInt(line, starts, ends, fields, 2),
+					parseFloat(line, starts, ends, fields, 4),
+					(int) parseFloat(line, starts, ends, fields, 5));
+		}
+		return state;
+	}
 
-		// parse this string-line to read all node-parameters
-		// NodeID, xpos, ypos, indegree, outdegree, ASid, type(router/AS)
+	/**
+	 * Splits a line into whitespace-separated fields, up to {@link #MAX_FIELDS}.
+	 *
+	 * @return the number of fields found
+	 */
+	private static int tokenize(byte[] line, int length, int[] starts, int[] ends) {
+		int fields = 0;
+		int i = 0;
+		while (fields < MAX_FIELDS) {
+			while (i < length && isWhitespace(line[i])) {
+				i++;
+			}
+			if (i == length) {
+				break;
+			}
+			starts[fields] = i;
+			while (i < length && !isWhitespace(line[i])) {
+				i++;
+			}
+			ends[fields++] = i;
+		}
+		return fields;
+	}
 
-		int nodeID = 0;
-		String nodeLabel = "";
-		int xPos = 0;
-		int yPos = 0;
+	private static boolean isWhitespace(byte b) {
+		return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+	}
 
-		for (int actualParam = 0; tokenizer.hasMoreElements() && actualParam < parameters; actualParam++) {
-			String token = tokenizer.nextToken();
-			switch (actualParam) {
-				case 0 -> {    // Log.printLine("nodeID: "+token);
-					// Log.printLine("nodeLabel: "+token);
-					nodeID = Integer.parseInt(token);
-					nodeLabel = Integer.toString(nodeID);
+	private static boolean contains(byte[] line, int length, byte[] pattern) {
+		outer:
+		for (int i = 0; i + pattern.length <= length; i++) {
+			for (int j = 0; j < pattern.length; j++) {
+				if (line[i + j] != pattern[j]) {
+					continue outer;
 				}
-				case 1 ->    // Log.printLine("x-Pos: "+token);
-						xPos = Integer.parseInt(token);
-				case 2 ->    // Log.printLine("y-Pos: "+token);
-						yPos = Integer.parseInt(token);
 			}
+			return true;
 		}
-
-		// instanciate an new node-object with previous parsed parameters
-		TopologicalNode topoNode = new TopologicalNode(nodeID, nodeLabel, xPos, yPos);
-		graph.addNode(topoNode);
-
+		return false;
 	}
 
-        /**
-         * Parses edges inside a line from the BRITE file.
-         * 
-         * @param nodeLine A line read from the file
-         */
-	private void parseEdgesString(String nodeLine) {
-		StringTokenizer tokenizer = new StringTokenizer(nodeLine);
-
-		// number of node parameters to parse (counts at linestart)
-		int parameters = 6;
-
-		// test against an empty line
-		if (!tokenizer.hasMoreElements()) {
-			// Log.printLine("this line contains no tokens...");
-			return;
+	/**
+	 * Parses an integer field; missing fields are 0. The digits are read in place; only
+	 * malformed fields, which the standard parser reports, are converted to a string.
+	 */
+	private static int parseInt(byte[] line, int[] starts, int[] ends, int fields, int field) {
+		if (field >= fields) {
+			return 0;
 		}
+		int i = starts[field];
+		int end = ends[field];
+		boolean negative = line[i] == '-';
+		if (negative || line[i] == '+') {
+			i++;
+		}
+		if (i == end) {
+			return parseIntSlow(line, starts[field], end);
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			int digit = line[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return parseIntSlow(line, starts[field], end);
+			}
+			value = 10 * value + digit;
+			if (value > -(long) Integer.MIN_VALUE) {
+				return parseIntSlow(line, starts[field], end);
+			}
+		}
+		value = negative ? -value : value;
+		if (value > Integer.MAX_VALUE) {
+			return parseIntSlow(line, starts[field], end);
+		}
+		return (int) value;
+	}
 
-		// parse this string-line to read all node-parameters
-		// EdgeID, fromNode, toNode, euclideanLength, linkDelay, linkBandwith, AS_from, AS_to, type
-
-		// int edgeID = 0;
-		int fromNode = 0;
-		int toNode = 0;
-		// float euclideanLength = 0;
-		float linkDelay = 0;
-		int linkBandwith = 0;
-
-		for (int actualParam = 0; tokenizer.hasMoreElements() && actualParam < parameters; actualParam++) {
-			String token = tokenizer.nextToken();
-			switch (actualParam) {
-				case 0:	// Log.printLine("edgeID: "+token);
-						// edgeID = Integer.valueOf(token);
-					break;
-
-				case 1:	// Log.printLine("fromNode: "+token);
-					fromNode = Integer.parseInt(token);
-					break;
-
-				case 2:	// Log.printLine("toNode: "+token);
-					toNode = Integer.parseInt(token);
-					break;
-
-				case 3:	// Log.printLine("euclideanLength: "+token);
-						// euclideanLength = Float.valueOf(token);
-					break;
-
-				case 4:	// Log.printLine("linkDelay: "+token);
-					linkDelay = Float.parseFloat(token);
-					break;
+	private static int parseIntSlow(byte[] line, int start, int end) {
+		return Integer.parseInt(new String(line, start, end - start, StandardCharsets.US_ASCII));
+	}
 
-				case 5:	// Log.printLine("linkBandwith: "+token);
-					linkBandwith = Float.valueOf(token).intValue();
-					break;
-			}// switch-END
-		}// for-END
+	/**
+	 * Parses a float field; missing fields are 0.
+	 *
+	 * <p>Plain decimal fields are read in place: up to {@link #MAX_FLOAT_DIGITS} significant
+	 * digits are accumulated into a long, which is divided by a power of ten. The result is a
+	 * double within a few ulps of the exact value, so rounding it to a float gives the correctly
+	 * rounded float, as {@link Float#parseFloat(String)} does, unless it is almost halfway between
+	 * two floats. Such values, exponent forms, values out of the normal float range and malformed
+	 * fields are left to the standard parser.</p>
+	 */
+	private static float parseFloat(byte[] line, int[] starts, int[] ends, int fields, int field) {
+		if (field >= fields) {
+			return 0;
+		}
+		int i = starts[field];
+		int end = ends[field];
+		boolean negative = line[i] == '-';
+		if (negative || line[i] == '+') {
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int scale = 0;
+		boolean fraction = false;
+		boolean anyDigit = false;
+		for (; i < end; i++) {
+			if (line[i] == '.' && !fraction) {
+				fraction = true;
+				continue;
+			}
+			int digit = line[i] - '0';
+			if (digit < 0 || digit > 9) {
+				return parseFloatSlow(line, starts[field], end);
+			}
+			anyDigit = true;
+			if (digits < MAX_FLOAT_DIGITS) {
+				mantissa = 10 * mantissa + digit;
+				if (mantissa != 0) {
+					digits++;
+				}
+				if (fraction) {
+					scale++;
+				}
+			} else if (!fraction) {
+				// too many integer digits
+				return parseFloatSlow(line, starts[field], end);
+			}
+			// further fraction digits are below the double precision
+		}
+		if (!anyDigit || scale >= POWERS_OF_TEN.length) {
+			return parseFloatSlow(line, starts[field], end);
+		}
 
-		graph.addLink(new TopologicalLink(fromNode, toNode, linkDelay, linkBandwith));
+		double value = mantissa / POWERS_OF_TEN[scale];
+		if (value != 0 && (value < 2 * Float.MIN_NORMAL || value > Float.MAX_VALUE)) {
+			return parseFloatSlow(line, starts[field], end);
+		}
+		long roundingBits = Double.doubleToRawLongBits(value) & FLOAT_ROUNDING_BITS;
+		if (Math.abs(roundingBits - FLOAT_HALFWAY) <= FLOAT_HALFWAY_MARGIN) {
+			return parseFloatSlow(line, starts[field], end);
+		}
+		float result = (float) value;
+		return negative ? -result : result;
+	}
 
+	private static float parseFloatSlow(byte[] line, int start, int end) {
+		return Float.parseFloat(new String(line, start, end - start, StandardCharsets.US_ASCII));
 	}
 
 }
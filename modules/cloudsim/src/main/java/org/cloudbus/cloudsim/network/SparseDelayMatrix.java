@@ -0,0 +1,293 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A sparse alternative to {@link DelayMatrix_Float} for large topologies. Instead of
+ * computing the delay between every pair of nodes upfront (O(n^3) time, O(n^2) memory),
+ * it stores the links as an adjacency list, and computes the delays from a node with
+ * Dijkstra's algorithm the first time they are requested, i.e. only for the nodes
+ * mapped to simulation entities that actually communicate. The delays from the most
+ * recently used sources are kept in a bounded LRU cache, which takes up to
+ * 4 * nodeNum bytes per cached source.
+ *
+ * <p>Delays follow the conventions of {@link DelayMatrix_Float}: links with a zero delay are
+ * ignored, the delay from a node to itself is 0, and the delay between disconnected nodes
+ * is {@link Float#MAX_VALUE}. Unlike the dense matrix, where the last of several links
+ * between the same nodes overwrites the others, the shortest of them is used.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class SparseDelayMatrix {
+
+	/** The maximum number of sources whose delays are cached by default. */
+	public static final int DEFAULT_CACHE_SIZE = 1024;
+
+	/** The memory budget of the default cache, in bytes. */
+	public static final long DEFAULT_CACHE_BYTES = 64L * 1024 * 1024;
+
+	/** Number of nodes in the topology. */
+	private final int nodeNum;
+
+	/** The first entry of each node in {@link #targets} and {@link #delays}; node i has
+	 * the entries from offsets[i] to offsets[i + 1] - 1. */
+	private final int[] offsets;
+
+	/** The destination node of each adjacency entry. */
+	private final int[] targets;
+
+	/** The delay of each adjacency entry. */
+	private final float[] delays;
+
+	/** The delays from the most recently used sources to every node, by source node. */
+	private final Map<Integer, float[]> cache;
+
+	/** Whether delays are symmetrical, so that the delays from a destination can be used. */
+	private final boolean symmetric;
+
+	/** The number of single-source computations, for statistics. */
+	private long computations;
+
+	/**
+	 * Creates a sparse delay matrix with the default cache size for the number of nodes
+	 * of the graph (see {@link #getDefaultCacheSize(int)}).
+	 *
+	 * @param graph the network topological graph
+	 * @param directed indicates if an directed matrix should be computed (true) or not (false)
+	 */
+	public SparseDelayMatrix(TopologicalGraph graph, boolean directed) {
+		this(graph, directed, getDefaultCacheSize(graph.getNumberOfNodes()));
+	}
+
+	/**
+	 * Creates a sparse delay matrix.
+	 *
+	 * @param graph the network topological graph
+	 * @param directed indicates if an directed matrix should be computed (true) or not (false)
+	 * @param cacheSize the maximum number of sources whose delays are cached; the cache takes
+	 * up to 4 * cacheSize * nodeNum bytes
+	 */
+	public SparseDelayMatrix(TopologicalGraph graph, boolean directed, int cacheSize) {
+		if (cacheSize <= 0) {
+			throw new IllegalArgumentException("Cache size must be positive");
+		}
+		symmetric = !directed;
+
+		int n = graph.getNumberOfNodes();
+		int[] degrees = new int[0];
+		Iterator<TopologicalLink> itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			n = Math.max(n, Math.max(edge.getSrcNodeID(), edge.getDestNodeID()) + 1);
+			if (degrees.length < n) {
+				degrees = Arrays.copyOf(degrees, Math.max(n, 2 * degrees.length));
+			}
+			if (edge.getLinkDelay() != 0) {
+				degrees[edge.getSrcNodeID()]++;
+				if (!directed) {
+					degrees[edge.getDestNodeID()]++;
+				}
+			}
+		}
+		nodeNum = n;
+
+		// compressed adjacency list
+		offsets = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			offsets[i + 1] = offsets[i] + (i < degrees.length ? degrees[i] : 0);
+		}
+		targets = new int[offsets[n]];
+		delays = new float[offsets[n]];
+		int[] next = Arrays.copyOf(offsets, n);
+		itr = graph.getLinkIterator();
+		while (itr.hasNext()) {
+			TopologicalLink edge = itr.next();
+			if (edge.getLinkDelay() != 0) {
+				int e = next[edge.getSrcNodeID()]++;
+				targets[e] = edge.getDestNodeID();
+				delays[e] = edge.getLinkDelay();
+				if (!directed) {
+					e = next[edge.getDestNodeID()]++;
+					targets[e] = edge.getSrcNodeID();
+					delays[e] = edge.getLinkDelay();
+				}
+			}
+		}
+
+		cache = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Integer, float[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets the default cache size for a topology: as many sources as fit in
+	 * {@link #DEFAULT_CACHE_BYTES}, at least one and at most {@link #DEFAULT_CACHE_SIZE}.
+	 * For instance, 335 sources are cached for 50,000 nodes.
+	 *
+	 * @param nodeNum the number of nodes in the topology
+	 * @return the number of sources whose delays are cached by default
+	 */
+	public static int getDefaultCacheSize(int nodeNum) {
+		long rowBytes = (long) Float.BYTES * Math.max(nodeNum, 1);
+		return Math.clamp(DEFAULT_CACHE_BYTES / rowBytes, 1, DEFAULT_CACHE_SIZE);
+	}
+
+	/**
+	 * Gets the delay between two nodes.
+	 *
+	 * @param srcID the id of the source node
+	 * @param destID the id of the destination node
+	 * @return the delay between the given two nodes
+	 */
+	public float getDelay(int srcID, int destID) {
+		if (srcID < 0 || destID < 0 || srcID >= nodeNum || destID >= nodeNum) {
+			throw new ArrayIndexOutOfBoundsException("srcID or destID is higher than highest stored node-ID!");
+		}
+
+		float[] fromSrc = cache.get(srcID);
+		if (fromSrc != null) {
+			return fromSrc[destID];
+		}
+		if (symmetric) {
+			float[] fromDest = cache.get(destID);
+			if (fromDest != null) {
+				return fromDest[srcID];
+			}
+		}
+
+		fromSrc = shortestPaths(srcID);
+		cache.put(srcID, fromSrc);
+		return fromSrc[destID];
+	}
+
+	/**
+	 * Computes the delays from a node to every node, with Dijkstra's algorithm.
+	 *
+	 * @param src the source node
+	 * @return the delays, indexed by destination node
+	 */
+	private float[] shortestPaths(int src) {
+		computations++;
+		float[] dist = new float[nodeNum];
+		Arrays.fill(dist, Float.MAX_VALUE);
+		dist[src] = 0;
+
+		// binary heap of (distance, node) entries, with lazy deletion of outdated entries
+		float[] heapDist = new float[16];
+		int[] heapNode = new int[16];
+		int size = 0;
+		heapDist[size] = 0;
+		heapNode[size++] = src;
+
+		while (size > 0) {
+			float d = heapDist[0];
+			int u = heapNode[0];
+			size--;
+			siftDown(heapDist, heapNode, size, heapDist[size], heapNode[size]);
+			if (d > dist[u]) {
+				continue;
+			}
+
+			for (int e = offsets[u]; e < offsets[u + 1]; e++) {
+				int v = targets[e];
+				float candidate = d + delays[e];
+				if (candidate < dist[v]) {
+					dist[v] = candidate;
+					if (size == heapDist.length) {
+						heapDist = Arrays.copyOf(heapDist, 2 * size);
+						heapNode = Arrays.copyOf(heapNode, 2 * size);
+					}
+					siftUp(heapDist, heapNode, size++, candidate, v);
+				}
+			}
+		}
+		return dist;
+	}
+
+	private static void siftUp(float[] heapDist, int[] heapNode, int i, float d, int node) {
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (heapDist[parent] <= d) {
+				break;
+			}
+			heapDist[i] = heapDist[parent];
+			heapNode[i] = heapNode[parent];
+			i = parent;
+		}
+		heapDist[i] = d;
+		heapNode[i] = node;
+	}
+
+	private static void siftDown(float[] heapDist, int[] heapNode, int size, float d, int node) {
+		if (size == 0) {
+			return;
+		}
+		int i = 0;
+		int half = size >>> 1;
+		while (i < half) {
+			int child = 2 * i + 1;
+			if (child + 1 < size && heapDist[child + 1] < heapDist[child]) {
+				child++;
+			}
+			if (d <= heapDist[child]) {
+				break;
+			}
+			heapDist[i] = heapDist[child];
+			heapNode[i] = heapNode[child];
+			i = child;
+		}
+		heapDist[i] = d;
+		heapNode[i] = node;
+	}
+
+	/**
+	 * Gets the number of nodes in the topology.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeNum() {
+		return nodeNum;
+	}
+
+	/**
+	 * Gets the number of links stored in the adjacency list, counting both directions
+	 * of undirected links.
+	 *
+	 * @return the number of adjacency entries
+	 */
+	public int getAdjacencyNum() {
+		return targets.length;
+	}
+
+	/**
+	 * Gets the number of sources whose delays are currently cached.
+	 *
+	 * @return the number of cached sources
+	 */
+	public int getCachedSourceNum() {
+		return cache.size();
+	}
+
+	/**
+	 * Gets the number of single-source shortest path computations done so far.
+	 *
+	 * @return the number of computations
+	 */
+	public long getComputations() {
+		return computations;
+	}
+}
@@ -0,0 +1,263 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * An on-disk cache of BRITE topologies, so that repeated experiments on the same topology
+ * skip both parsing the file and computing the delays between every pair of nodes.
+ * The first time a BRITE file is loaded, it is parsed with
+ * {@link GraphReaderBrite#readCompactGraph(String)}, its delay matrix is computed, and both
+ * are written to a binary file in the cache directory, named after the BRITE file and its
+ * checksum. Later loads of the unchanged file memory-map the binary file: the nodes and
+ * links are copied to arrays, and the delays are read from the mapped file.
+ *
+ * <p>The binary file contains, in little-endian order, a header (magic number, format
+ * version, checksum and length of the BRITE file, number of nodes, links, and delay matrix
+ * nodes), the node ids and coordinates, the link sources, destinations, delays and
+ * bandwidths, then the delay matrix in row-major order. Delay matrices that do not fit in
+ * a 2 GB file (around 23,000 nodes) are not cached.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class TopologyCache {
+
+	/** The "CSTP" magic number starting a cache file. */
+	private static final int MAGIC = 0x43535450;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 40;
+
+	/**
+	 * A topology loaded from the cache.
+	 *
+	 * @param graph the topological graph
+	 * @param delayMatrix the delays between every pair of nodes, or null if they were not requested
+	 */
+	public record Topology(CompactTopologicalGraph graph, DelayMatrix_Float delayMatrix) {
+	}
+
+	/** The directory of the cache files. */
+	private final Path directory;
+
+	/** The number of loads served from a cache file. */
+	private int hits;
+
+	/** The number of loads which parsed the BRITE file. */
+	private int misses;
+
+	/**
+	 * Creates a cache of topologies.
+	 *
+	 * @param directory the directory of the cache files, created if needed
+	 */
+	public TopologyCache(String directory) {
+		if (directory == null) {
+			throw new IllegalArgumentException("Cache directory cannot be null");
+		}
+		this.directory = Paths.get(directory);
+	}
+
+	/**
+	 * Loads a BRITE topology, from the cache if the file did not change since it was cached.
+	 *
+	 * @param briteFile the name of the BRITE file
+	 * @param withDelays whether the (undirected) delay matrix is needed
+	 * @return the topology
+	 * @throws IOException when the BRITE file or the cache cannot be accessed
+	 */
+	public Topology load(String briteFile, boolean withDelays) throws IOException {
+		Path source = Paths.get(briteFile);
+		long length = Files.size(source);
+		long checksum = checksum(source);
+		Path cacheFile = directory.resolve(
+				source.getFileName() + "." + Long.toHexString(checksum) + ".topo");
+
+		Topology cached = Files.exists(cacheFile) ? read(cacheFile, checksum, length, withDelays) : null;
+		if (cached != null) {
+			hits++;
+			return cached;
+		}
+
+		misses++;
+		CompactTopologicalGraph graph = new GraphReaderBrite().readCompactGraph(briteFile);
+		DelayMatrix_Float delayMatrix = withDelays
+				? new DelayMatrix_Float(graph.toTopologicalGraph(), false)
+				: null;
+		Files.createDirectories(directory);
+		write(cacheFile, checksum, length, graph, delayMatrix);
+		return new Topology(graph, delayMatrix);
+	}
+
+	/**
+	 * Reads a cache file.
+	 *
+	 * @return the topology, or null if the file is not valid for the BRITE file or lacks the delays
+	 */
+	private static Topology read(Path cacheFile, long checksum, long length, boolean withDelays) throws IOException {
+		MappedByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(cacheFile, StandardOpenOption.READ)) {
+			if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+				return null;
+			}
+			// the mapping stays valid after the channel is closed
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+		}
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+		if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+				|| buffer.getLong(8) != checksum || buffer.getLong(16) != length) {
+			return null;
+		}
+		int nodeNum = buffer.getInt(24);
+		int linkNum = buffer.getInt(28);
+		int delayNodeNum = buffer.getInt(32);
+		long expectedSize = HEADER_SIZE + 4L * (3L * nodeNum + 4L * linkNum + (long) delayNodeNum * delayNodeNum);
+		if (buffer.capacity() != expectedSize || (withDelays && delayNodeNum == 0)) {
+			return null;
+		}
+
+		int offset = HEADER_SIZE;
+		int[] nodeIds = new int[nodeNum];
+		int[] nodeX = new int[nodeNum];
+		int[] nodeY = new int[nodeNum];
+		offset = get(buffer, offset, nodeIds);
+		offset = get(buffer, offset, nodeX);
+		offset = get(buffer, offset, nodeY);
+		int[] linkSrc = new int[linkNum];
+		int[] linkDest = new int[linkNum];
+		float[] linkDelay = new float[linkNum];
+		float[] linkBw = new float[linkNum];
+		offset = get(buffer, offset, linkSrc);
+		offset = get(buffer, offset, linkDest);
+		offset = get(buffer, offset, linkDelay);
+		offset = get(buffer, offset, linkBw);
+		CompactTopologicalGraph graph = new CompactTopologicalGraph(
+				nodeIds, nodeX, nodeY, linkSrc, linkDest, linkDelay, linkBw);
+
+		DelayMatrix_Float delayMatrix = null;
+		if (withDelays) {
+			FloatBuffer delays = buffer.slice(offset, 4 * delayNodeNum * delayNodeNum)
+					.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+			delayMatrix = new DelayMatrix_Float(delays, delayNodeNum);
+		}
+		return new Topology(graph, delayMatrix);
+	}
+
+	/**
+	 * Writes a cache file, through a temporary file so that a partially written
+	 * file is never read.
+	 */
+	private static void write(Path cacheFile, long checksum, long length,
+							  CompactTopologicalGraph graph, DelayMatrix_Float delayMatrix) throws IOException {
+		int nodeNum = graph.getNumberOfNodes();
+		int linkNum = graph.getNumberOfLinks();
+		int delayNodeNum = delayMatrix != null ? delayMatrix.getNodeNum() : 0;
+		long size = HEADER_SIZE + 4L * (3L * nodeNum + 4L * linkNum + (long) delayNodeNum * delayNodeNum);
+		if (size > Integer.MAX_VALUE) {
+			// too large to be mapped, only the graph is cached
+			delayNodeNum = 0;
+			size = HEADER_SIZE + 4L * (3L * nodeNum + 4L * linkNum);
+		}
+
+		Path tempFile = Files.createTempFile(cacheFile.getParent(), cacheFile.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile,
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+				buffer.order(ByteOrder.LITTLE_ENDIAN);
+				buffer.putInt(MAGIC).putInt(VERSION).putLong(checksum).putLong(length)
+						.putInt(nodeNum).putInt(linkNum).putInt(delayNodeNum).putInt(0);
+
+				IntBuffer ints = buffer.asIntBuffer();
+				for (int i = 0; i < nodeNum; i++) {
+					ints.put(i, graph.getNodeID(i));
+					ints.put(nodeNum + i, graph.getNodeX(i));
+					ints.put(2 * nodeNum + i, graph.getNodeY(i));
+				}
+				int linkOffset = 3 * nodeNum;
+				for (int i = 0; i < linkNum; i++) {
+					ints.put(linkOffset + i, graph.getLinkSrc(i));
+					ints.put(linkOffset + linkNum + i, graph.getLinkDest(i));
+				}
+				FloatBuffer floats = buffer.asFloatBuffer();
+				linkOffset += 2 * linkNum;
+				for (int i = 0; i < linkNum; i++) {
+					floats.put(linkOffset + i, graph.getLinkDelay(i));
+					floats.put(linkOffset + linkNum + i, graph.getLinkBw(i));
+				}
+				if (delayNodeNum > 0) {
+					floats.put(linkOffset + 2 * linkNum, delayMatrix.mDelayMatrix);
+				}
+				buffer.force();
+			}
+			Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	private static int get(ByteBuffer buffer, int offset, int[] values) {
+		buffer.slice(offset, 4 * values.length).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(values);
+		return offset + 4 * values.length;
+	}
+
+	private static int get(ByteBuffer buffer, int offset, float[] values) {
+		buffer.slice(offset, 4 * values.length).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(values);
+		return offset + 4 * values.length;
+	}
+
+	/**
+	 * Computes the CRC-32C checksum of a file.
+	 */
+	private static long checksum(Path file) throws IOException {
+		CRC32C crc = new CRC32C();
+		byte[] buffer = new byte[1 << 16];
+		try (InputStream in = Files.newInputStream(file)) {
+			int read;
+			while ((read = in.read(buffer)) >= 0) {
+				crc.update(buffer, 0, read);
+			}
+		}
+		return crc.getValue();
+	}
+
+	/**
+	 * Gets the number of loads served from a cache file.
+	 *
+	 * @return the number of cache hits
+	 */
+	public int getHits() {
+		return hits;
+	}
+
+	/**
+	 * Gets the number of loads which parsed the BRITE file.
+	 *
+	 * @return the number of cache misses
+	 */
+	public int getMisses() {
+		return misses;
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.List;
+
+/**
+ * Builds a k-ary fat-tree: k pods of k/2 edge and k/2 aggregate switches, and (k/2)^2 core
+ * switches, all with k ports of the same bandwidth.
+ * Each edge switch is connected to k/2 hosts and to all the aggregate switches of its pod;
+ * the i-th aggregate switch of each pod is connected to the i-th group of k/2 core switches.
+ * The topology has k^3/4 hosts, with full bisection bandwidth; traffic between pods is
+ * spread over the (k/2)^2 equal-cost paths by the {@link RoutingTable}.
+ *
+ * <p>Core switches are {@link Switch.SwitchLevel#ROOT_LEVEL} switches.
+ * Hosts are connected in order: pod by pod, edge switch by edge switch.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class FatTreeTopologyBuilder extends NetworkTopologyBuilder {
+
+	/** The number of ports of each switch. */
+	private final int k;
+
+	/** The bandwidth of each link (bits/sec). */
+	private final long bw;
+
+	/**
+	 * Creates a fat-tree topology.
+	 *
+	 * @param k the number of ports of each switch, a positive even number
+	 * @param switchingDelay the switching delay of the switches
+	 * @param bw the bandwidth of each link
+	 */
+	public FatTreeTopologyBuilder(int k, double switchingDelay, long bw) {
+		super(switchingDelay);
+		if (k < 2 || k % 2 != 0) {
+			throw new IllegalArgumentException("The number of ports must be a positive even number");
+		}
+		if (bw <= 0) {
+			throw new IllegalArgumentException("Bandwidth must be positive");
+		}
+		this.k = k;
+		this.bw = bw;
+	}
+
+	@Override
+	public int getHostCount() {
+		return k * k * k / 4;
+	}
+
+	@Override
+	public int getSwitchCount() {
+		return getCoreSwitchCount() + 2 * getPodSwitchCount();
+	}
+
+	private int getCoreSwitchCount() {
+		return k * k / 4;
+	}
+
+	/** Gets the number of edge (or aggregate) switches, over all pods. */
+	private int getPodSwitchCount() {
+		return k * k / 2;
+	}
+
+	@Override
+	void createSwitches(NetworkDatacenter dc, List<Switch> switchList) {
+		int half = k / 2;
+		for (int c = 0; c < getCoreSwitchCount(); c++) {
+			switchList.add(new Switch(dc.getName() + "_Core" + c, k, Switch.SwitchLevel.ROOT_LEVEL,
+					switchingDelay, bw, bw, dc));
+		}
+		for (int p = 0; p < k; p++) {
+			for (int a = 0; a < half; a++) {
+				switchList.add(new Switch(dc.getName() + "_Aggr" + p + "_" + a, k, Switch.SwitchLevel.AGGR_LEVEL,
+						switchingDelay, bw, bw, dc));
+			}
+		}
+		for (int p = 0; p < k; p++) {
+			for (int e = 0; e < half; e++) {
+				switchList.add(new Switch(dc.getName() + "_Edge" + p + "_" + e, k, Switch.SwitchLevel.EDGE_LEVEL,
+						switchingDelay, bw, bw, dc));
+			}
+		}
+	}
+
+	@Override
+	void connect(NetworkDatacenter dc, List<Switch> switchList, List<NetworkHost> hostList) {
+		int half = k / 2;
+		int firstAggr = getCoreSwitchCount();
+		int firstEdge = firstAggr + getPodSwitchCount();
+
+		for (int p = 0; p < k; p++) {
+			for (int a = 0; a < half; a++) {
+				Switch aggr = switchList.get(firstAggr + p * half + a);
+				for (int c = 0; c < half; c++) {
+					dc.connectSwitches(aggr, switchList.get(a * half + c));
+				}
+			}
+
+			for (int e = 0; e < half; e++) {
+				Switch edge = switchList.get(firstEdge + p * half + e);
+				for (int a = 0; a < half; a++) {
+					dc.connectSwitches(edge, switchList.get(firstAggr + p * half + a));
+				}
+				int firstHost = (p * half + e) * half;
+				for (int h = 0; h < half; h++) {
+					dc.connectHost(edge, hostList.get(firstHost + h));
+				}
+			}
+		}
+	}
+
+	public int getK() {
+		return k;
+	}
+
+	public long getBw() {
+		return bw;
+	}
+}
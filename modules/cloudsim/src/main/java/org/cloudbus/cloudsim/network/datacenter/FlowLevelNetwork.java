@@ -0,0 +1,185 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.network.FairShareFlowModel;
+import org.cloudbus.cloudsim.network.FairShareFlowModel.Flow;
+
+/**
+ * A flow-level model of the switch network of a {@link NetworkDatacenter}, used in place
+ * of the per-packet forwarding of the {@link Switch} entities.
+ *
+ * <p>Each packet sent between two hosts becomes a flow crossing the ports of the switches
+ * on its path (edge, aggregate and root level), plus the virtual NIC of the sender guest.
+ * Ports are shared among the flows crossing them according to max-min fairness, and rates
+ * are recomputed only when a flow starts or finishes, instead of generating events at
+ * each switch for each packet. Once transmitted, a packet reaches the receiver host after
+ * the switching delays of the crossed switches and the virtualization overheads.
+ * Unlike the packet-level model, where a packet is stored and forwarded as a whole at each
+ * hop, data is pipelined across the hops, so a transfer takes as long as its bottleneck
+ * share allows.</p>
+ *
+ * <p>Paths follow the same routing as the switches (see {@link RoutingTable}): up
+ * until a switch connected to the receiver edge switch is found, then down.
+ * Bandwidths are in bits per second, the unit used by the packet-level model.</p>
+ *
+ * @see NetworkDatacenter#setFlowLevelNetwork(boolean)
+ * @since CloudSim Toolkit 7.0
+ */
+public class FlowLevelNetwork {
+
+	/** The flows of the packets in transit, whose sizes are in bits. */
+	private final FairShareFlowModel<NetworkPacket> flowModel = new FairShareFlowModel<>();
+
+	/** The link of the virtual NIC of each guest, indexed by guest id. */
+	private final Map<Integer, Integer> guestLinks = new HashMap<>();
+
+	/** The link of each switch port, indexed by switch id and neighbour
+	 * (switch id, or -1 - host id for ports connected to hosts). */
+	private final Map<Long, Integer> portLinks = new HashMap<>();
+
+	/** The delay after transmission until each packet in transit reaches its receiver host. */
+	private final Map<NetworkPacket, Double> latencies = new HashMap<>();
+
+	/**
+	 * Starts the transmission of a packet between two hosts.
+	 *
+	 * @param npkt the packet
+	 * @param senderHost the sender host
+	 * @param receiverHost the receiver host
+	 * @param senderBw the bandwidth of the sender guest
+	 * @param receiverOverhead the virtualization overhead to reach the receiver guest
+	 * @param routingTable the routing table used to select the switches on the path
+	 * @param time the current time
+	 * @return the packets whose transmission completed until the given time
+	 */
+	public List<NetworkPacket> startTransmission(NetworkPacket npkt, NetworkHost senderHost,
+			NetworkHost receiverHost, double senderBw, double receiverOverhead, RoutingTable routingTable, double time) {
+		List<NetworkPacket> completed = getPackets(flowModel.advance(time));
+
+		List<Integer> path = new ArrayList<>();
+		path.add(guestLinks.computeIfAbsent(npkt.getSenderGuestId(), id -> flowModel.addLink(senderBw)));
+
+		Switch srcEdge = senderHost.getSwitch();
+		Switch dstEdge = receiverHost.getSwitch();
+		double latency = npkt.pkt.accumulatedVirtualizationOverhead + receiverOverhead + srcEdge.switchingDelay;
+
+		if (srcEdge != dstEdge) {
+			int sender = npkt.getSenderGuestId();
+			int receiver = npkt.getReceiverGuestId();
+			Switch srcAggr = routingTable.selectUplink(srcEdge, sender, receiver);
+			path.add(getPortLink(srcEdge, srcAggr.getId(), srcEdge.uplinkBw));
+			latency += srcAggr.switchingDelay;
+
+			if (routingTable.isDownlink(srcAggr, dstEdge.getId())) {
+				path.add(getPortLink(srcAggr, dstEdge.getId(), srcAggr.downlinkBw));
+			} else {
+				Switch root = routingTable.selectUplink(srcAggr, sender, receiver);
+				Switch dstAggr = routingTable.selectDownlink(root, dstEdge.getId(), sender, receiver);
+				path.add(getPortLink(srcAggr, root.getId(), srcAggr.uplinkBw));
+				path.add(getPortLink(root, dstAggr.getId(), root.downlinkBw));
+				path.add(getPortLink(dstAggr, dstEdge.getId(), dstAggr.downlinkBw));
+				latency += root.switchingDelay + dstAggr.switchingDelay;
+			}
+			latency += dstEdge.switchingDelay;
+		}
+		path.add(getPortLink(dstEdge, -1 - receiverHost.getId(), dstEdge.downlinkBw));
+
+		npkt.receiverHostId = receiverHost.getId();
+		latencies.put(npkt, latency);
+		flowModel.startFlow(npkt, 8.0 * npkt.pkt.data,
+				path.stream().mapToInt(Integer::intValue).toArray(), time);
+		return completed;
+	}
+
+	/**
+	 * Progresses the transmissions until a given time.
+	 *
+	 * @param time the current time
+	 * @return the packets whose transmission completed until the given time, in starting order
+	 */
+	public List<NetworkPacket> advance(double time) {
+		return getPackets(flowModel.advance(time));
+	}
+
+	/**
+	 * Gets the time the next transmission completes, if no other packet is sent in the meantime.
+	 *
+	 * @return the next completion time, or {@link Double#MAX_VALUE} if there are no packets in transit
+	 */
+	public double getNextCompletionTime() {
+		return flowModel.getNextCompletionTime();
+	}
+
+	/**
+	 * Gets the delay between the end of the transmission of a packet and its arrival at
+	 * the receiver host, and forgets the packet.
+	 *
+	 * @param npkt a packet whose transmission completed
+	 * @return the delay
+	 */
+	public double removeLatency(NetworkPacket npkt) {
+		Double latency = latencies.remove(npkt);
+		return latency == null ? 0 : latency;
+	}
+
+	/**
+	 * Gets the number of packets being transmitted.
+	 *
+	 * @return the number of packets being transmitted
+	 */
+	public int getPacketCount() {
+		return flowModel.getFlowCount();
+	}
+
+	/**
+	 * Gets the underlying flow model.
+	 *
+	 * @return the flow model, whose sizes are in bits and rates in bits per second
+	 */
+	public FairShareFlowModel<NetworkPacket> getFlowModel() {
+		return flowModel;
+	}
+
+	/**
+	 * Gets the links of the switch ports used so far.
+	 *
+	 * @return the link ids, indexed by switch id (high 32 bits) and neighbour (low 32 bits)
+	 */
+	Map<Long, Integer> getPortLinks() {
+		return portLinks;
+	}
+
+	/**
+	 * Gets the link of a switch port, creating it on first use.
+	 *
+	 * @param sw the switch
+	 * @param neighbour the id of the switch connected to the port, or -1 - host id for hosts
+	 * @param bw the port bandwidth
+	 * @return the link id
+	 */
+	private int getPortLink(Switch sw, int neighbour, double bw) {
+		long key = ((long) sw.getId() << 32) | (neighbour & 0xFFFFFFFFL);
+		return portLinks.computeIfAbsent(key, k -> flowModel.addLink(bw));
+	}
+
+	private static List<NetworkPacket> getPackets(List<Flow<NetworkPacket>> flows) {
+		List<NetworkPacket> packets = new ArrayList<>(flows.size());
+		for (Flow<NetworkPacket> flow : flows) {
+			packets.add(flow.getData());
+		}
+		return packets;
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.List;
+
+/**
+ * Builds a two-tier leaf-spine topology, where every leaf switch is connected to its hosts
+ * and to every spine switch. Leaves are {@link Switch.SwitchLevel#EDGE_LEVEL} switches and
+ * spines {@link Switch.SwitchLevel#AGGR_LEVEL} switches; traffic between leaves is spread
+ * over the spines by the {@link RoutingTable}.
+ *
+ * <p>The oversubscription ratio is the ratio between the bandwidth of the host ports of a
+ * leaf and the bandwidth of its spine ports: with a ratio of 3, the hosts of a leaf can
+ * send 3 times as much as its uplinks can carry. Spine ports have the bandwidth of the
+ * leaf uplinks. Hosts are connected in order, leaf by leaf.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class LeafSpineTopologyBuilder extends NetworkTopologyBuilder {
+
+	private final int leafCount;
+
+	private final int spineCount;
+
+	private final int hostsPerLeaf;
+
+	/** The bandwidth of the host links (bits/sec). */
+	private final long hostBw;
+
+	/** The bandwidth of the leaf-spine links (bits/sec). */
+	private final long uplinkBw;
+
+	/**
+	 * Creates a leaf-spine topology.
+	 *
+	 * @param leafCount the number of leaf switches
+	 * @param spineCount the number of spine switches
+	 * @param hostsPerLeaf the number of hosts connected to each leaf switch
+	 * @param hostBw the bandwidth of the host links
+	 * @param oversubscription the oversubscription ratio of the leaf switches, at least 1
+	 *                         for non-blocking leaves
+	 * @param switchingDelay the switching delay of the switches
+	 */
+	public LeafSpineTopologyBuilder(int leafCount, int spineCount, int hostsPerLeaf, long hostBw,
+									double oversubscription, double switchingDelay) {
+		super(switchingDelay);
+		if (leafCount <= 0 || spineCount <= 0 || hostsPerLeaf <= 0) {
+			throw new IllegalArgumentException("The number of leaves, spines and hosts per leaf must be positive");
+		}
+		if (hostBw <= 0 || oversubscription <= 0) {
+			throw new IllegalArgumentException("Bandwidth and oversubscription ratio must be positive");
+		}
+		this.leafCount = leafCount;
+		this.spineCount = spineCount;
+		this.hostsPerLeaf = hostsPerLeaf;
+		this.hostBw = hostBw;
+		this.uplinkBw = Math.max(1, Math.round(hostsPerLeaf * (double) hostBw / (oversubscription * spineCount)));
+	}
+
+	@Override
+	public int getHostCount() {
+		return leafCount * hostsPerLeaf;
+	}
+
+	@Override
+	public int getSwitchCount() {
+		return leafCount + spineCount;
+	}
+
+	@Override
+	void createSwitches(NetworkDatacenter dc, List<Switch> switchList) {
+		for (int s = 0; s < spineCount; s++) {
+			switchList.add(new Switch(dc.getName() + "_Spine" + s, leafCount, Switch.SwitchLevel.AGGR_LEVEL,
+					switchingDelay, uplinkBw, uplinkBw, dc));
+		}
+		for (int l = 0; l < leafCount; l++) {
+			switchList.add(new Switch(dc.getName() + "_Leaf" + l, hostsPerLeaf + spineCount,
+					Switch.SwitchLevel.EDGE_LEVEL, switchingDelay, hostBw, uplinkBw, dc));
+		}
+	}
+
+	@Override
+	void connect(NetworkDatacenter dc, List<Switch> switchList, List<NetworkHost> hostList) {
+		for (int l = 0; l < leafCount; l++) {
+			Switch leaf = switchList.get(spineCount + l);
+			for (int s = 0; s < spineCount; s++) {
+				dc.connectSwitches(leaf, switchList.get(s));
+			}
+			for (int h = 0; h < hostsPerLeaf; h++) {
+				dc.connectHost(leaf, hostList.get(l * hostsPerLeaf + h));
+			}
+		}
+	}
+
+	public int getLeafCount() {
+		return leafCount;
+	}
+
+	public int getSpineCount() {
+		return spineCount;
+	}
+
+	public int getHostsPerLeaf() {
+		return hostsPerLeaf;
+	}
+
+	public long getHostBw() {
+		return hostBw;
+	}
+
+	public long getUplinkBw() {
+		return uplinkBw;
+	}
+}
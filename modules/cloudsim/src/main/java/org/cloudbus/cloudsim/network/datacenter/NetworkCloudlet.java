@@ -9,7 +9,6 @@
 package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 
 import org.cloudbus.cloudsim.Cloudlet;
@@ -106,17 +105,17 @@ public class NetworkCloudlet extends Cloudlet implements Comparable<NetworkCloud
 			}
 		}
 		if (st.getType() == TaskStage.TaskStageStatus.WAIT_RECV) {
-			Iterator<HostPacket> iter = nic.getReceivedPkts().iterator();
-			HostPacket pkt;
-			if (iter.hasNext()) {
-				pkt = iter.next();
-				// Assumption: packet will not arrive in the same cycle
-				if (pkt.receiverGuestId == getGuestId()) {
-					pkt.recvTime = CloudSim.clock();
-					st.setTime(CloudSim.clock() - pkt.sendTime);
-					goToNextStage();
-					iter.remove();
+			// consume the packets already received for the consecutive receive stages
+			while (currStageNum < stages.size()
+					&& (st = stages.get(currStageNum)).getType() == TaskStage.TaskStageStatus.WAIT_RECV) {
+				HostPacket pkt = nic.pollReceivedPkt(st.getTargetCloudlet().getCloudletId());
+				if (pkt == null) {
+					nic.setAwaitedSenderCloudletId(st.getTargetCloudlet().getCloudletId());
+					break;
 				}
+				pkt.recvTime = CloudSim.clock();
+				st.setTime(CloudSim.clock() - pkt.sendTime);
+				goToNextStage();
 			}
 
 			return false;
@@ -186,5 +185,12 @@ public class NetworkCloudlet extends Cloudlet implements Comparable<NetworkCloud
 			nic.getPktsToSend().add(pkt);
 			currStageNum++;
 		}
+
+		// let the NIC tell whether a received packet has to wake this cloudlet up
+		if (currStageNum < stages.size() && stages.get(currStageNum).getType() == TaskStage.TaskStageStatus.WAIT_RECV) {
+			nic.setAwaitedSenderCloudletId(stages.get(currStageNum).getTargetCloudlet().getCloudletId());
+		} else {
+			nic.setAwaitedSenderCloudletId(NetworkInterfaceCard.NONE);
+		}
 	}
 }
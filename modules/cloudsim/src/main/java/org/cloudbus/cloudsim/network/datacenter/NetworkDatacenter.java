@@ -67,9 +67,24 @@ public class NetworkDatacenter extends Datacenter {
 	 */
 	public Map<Integer, Integer> VmtoHostlist;
 
+	/** The forwarding state used by the switches to route packets. */
+	private final RoutingTable routingTable = new RoutingTable();
+
+	/** Whether the routing table is notified of the guests removed from their host. */
+	private boolean routingTableListening;
+
 	/** Total data transmitted through the network of this datacenter (in bytes) */
 	public double totalDataTransfer = 0;
 
+	/** The flow-level model of the switch network, or null if packets are forwarded by the switches. */
+	private FlowLevelNetwork flowLevelNetwork;
+
+	/** The time of the pending flow update event, if any. */
+	private double nextFlowUpdateTime = Double.MAX_VALUE;
+
+	/** The collector of network statistics, or null if they are not collected. */
+	private NetworkTelemetry telemetry;
+
 	/**
 	 * Instantiates a new NetworkDatacenter object.
 	 * 
@@ -107,10 +122,36 @@ public class NetworkDatacenter extends Datacenter {
 
 	public Map<Integer, Switch> getSwitchList() { return SwitchList; }
 
+	public RoutingTable getRoutingTable() { return routingTable; }
+
 	@Override
 	protected void processVmCreate(SimEvent ev, boolean ack) {
 		super.processVmCreate(ev, ack);
-		GuestEntity guest = (GuestEntity) ev.getData();
+		registerGuest((GuestEntity) ev.getData());
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void processVmCreateBatch(SimEvent ev, boolean ack) {
+		super.processVmCreateBatch(ev, ack);
+		for (GuestEntity guest : (List<GuestEntity>) ev.getData()) {
+			registerGuest(guest);
+		}
+	}
+
+	@Override
+	protected void processVmMigrate(SimEvent ev, boolean ack) {
+		super.processVmMigrate(ev, ack);
+		registerGuest(((VmAllocationPolicy.GuestMapping) ev.getData()).vm());
+	}
+
+	/**
+	 * Records the switch and the physical host of a guest, if it has been created,
+	 * as well as those of the guests nested in it.
+	 *
+	 * @param guest the guest
+	 */
+	private void registerGuest(GuestEntity guest) {
 		HostEntity host = guest.getHost();
 
 		if (host != null) {
@@ -121,9 +162,157 @@ public class NetworkDatacenter extends Datacenter {
 
 			VmToSwitchid.put(guest.getId(), ((NetworkedEntity) host).getSwitch().getId());
 			VmtoHostlist.put(guest.getId(), host.getId());
+			routingTable.setGuestHost(guest.getId(), host.getId());
+			if (!routingTableListening) {
+				// destroyed and migrated guests leave the routing table
+				getGuestDirectory().addRemovalListener(
+						location -> routingTable.removeGuest(location.getGuest().getId(), location.getHost().getId()));
+				routingTableListening = true;
+			}
+
+			if (guest instanceof VirtualEntity vm) {
+				for (GuestEntity nested : vm.getGuestList()) {
+					registerGuest(nested);
+				}
+			}
+		}
+	}
+
+	@Override
+	public void processEvent(SimEvent ev) {
+		if (telemetry != null) {
+			telemetry.sampleIfDue(this, CloudSim.clock());
+		}
+		super.processEvent(ev);
+	}
+
+	@Override
+	public void shutdownEntity() {
+		if (telemetry != null) {
+			telemetry.sample(this, CloudSim.clock());
+		}
+		super.shutdownEntity();
+	}
+
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev.getTag() == CloudActionTags.NETWORK_FLOW_UPDATE) {
+			processFlowUpdate();
+		} else if (ev.getTag() == CloudActionTags.NETWORK_PKT_REACHED_HOST) {
+			processPacketReachedHost(ev);
+		} else {
+			super.processOtherEvent(ev);
+		}
+	}
+
+	/**
+	 * Sends a packet to another host through the flow-level network.
+	 *
+	 * @param npkt the packet
+	 * @param senderHost the sender host
+	 * @param senderBw the bandwidth of the sender guest
+	 * @see #setFlowLevelNetwork(boolean)
+	 */
+	public void sendPacket(NetworkPacket npkt, NetworkHost senderHost, double senderBw) {
+		int receiverGuestId = npkt.getReceiverGuestId();
+		Switch dstEdge = getSwitchList().get(routingTable.getEdgeSwitch(receiverGuestId));
+		NetworkHost receiverHost = dstEdge.hostList.get(routingTable.getHost(receiverGuestId));
+		int receiverOverhead = receiverHost.getTotalVirtualizationOverhead(receiverGuestId);
+
+		deliverPackets(flowLevelNetwork.startTransmission(npkt, senderHost, receiverHost, senderBw,
+				receiverOverhead, routingTable, CloudSim.clock()));
+		scheduleFlowUpdate();
+	}
+
+	/**
+	 * Progresses the packets in transit in the flow-level network.
+	 */
+	protected void processFlowUpdate() {
+		if (CloudSim.clock() >= nextFlowUpdateTime) {
+			nextFlowUpdateTime = Double.MAX_VALUE;
+		}
+		deliverPackets(flowLevelNetwork.advance(CloudSim.clock()));
+		scheduleFlowUpdate();
+	}
+
+	/**
+	 * Stores a packet in the NIC of the receiver cloudlet, and updates the cloudlets
+	 * processing so that the receiver can move on.
+	 *
+	 * @param ev the event whose data is the packet
+	 */
+	protected void processPacketReachedHost(SimEvent ev) {
+		NetworkPacket npkt = (NetworkPacket) ev.getData();
+		NetworkHost hs = getSwitchList().get(routingTable.getHostEdgeSwitch(npkt.receiverHostId)).hostList.get(npkt.receiverHostId);
+		if (telemetry != null) {
+			telemetry.recordPacketArrival(npkt.pkt, CloudSim.clock());
+		}
+		// wake the receiver cloudlet up only if it is waiting for this packet
+		if (hs.getNics().get(npkt.pkt.receiverCloudletId).receivePacket(npkt.pkt)) {
+			updateCloudletProcessing();
+		}
+	}
+
+	/**
+	 * Schedules the arrival of the packets whose transmission completed at the receiver hosts.
+	 *
+	 * @param packets the packets
+	 */
+	private void deliverPackets(List<NetworkPacket> packets) {
+		for (NetworkPacket npkt : packets) {
+			send(getId(), flowLevelNetwork.removeLatency(npkt), CloudActionTags.NETWORK_PKT_REACHED_HOST, npkt);
+		}
+	}
+
+	/**
+	 * Schedules a flow update event at the time the next transmission completes,
+	 * unless an earlier event is already pending. Stale events are harmless, as
+	 * they only progress the transmissions.
+	 */
+	private void scheduleFlowUpdate() {
+		double next = flowLevelNetwork.getNextCompletionTime();
+		if (next < nextFlowUpdateTime) {
+			nextFlowUpdateTime = next;
+			schedule(getId(), Math.max(0, next - CloudSim.clock()), CloudActionTags.NETWORK_FLOW_UPDATE);
 		}
 	}
 
+	/**
+	 * Checks whether packets between hosts are modelled as flows instead of being forwarded by the switches.
+	 *
+	 * @return true if the flow-level network is used; false otherwise
+	 */
+	public boolean isFlowLevelNetwork() {
+		return flowLevelNetwork != null;
+	}
+
+	/**
+	 * Sets whether packets between hosts are modelled as flows sharing the switch ports
+	 * with max-min fairness ({@link FlowLevelNetwork}), instead of being forwarded
+	 * packet by packet by the {@link Switch} entities. The flow-level network generates
+	 * far fewer events when cloudlets exchange lots of data.
+	 * It must be set before the simulation starts.
+	 *
+	 * @param flowLevel true to use the flow-level network; false otherwise
+	 */
+	public void setFlowLevelNetwork(boolean flowLevel) {
+		flowLevelNetwork = flowLevel ? new FlowLevelNetwork() : null;
+	}
+
+	public FlowLevelNetwork getFlowLevelNetwork() { return flowLevelNetwork; }
+
+	/**
+	 * Sets the collector of the statistics of the switch network: port throughput and
+	 * queue occupancy over time, and packet latencies.
+	 *
+	 * @param telemetry the collector, or null to stop collecting statistics
+	 */
+	public void setTelemetry(NetworkTelemetry telemetry) {
+		this.telemetry = telemetry;
+	}
+
+	public NetworkTelemetry getTelemetry() { return telemetry; }
+
 	@Override
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 		super.processCloudletSubmit(ev, ack);
@@ -170,10 +359,8 @@ public class NetworkDatacenter extends Datacenter {
 			throw new IllegalArgumentException("Switch is not at the edge level");
 		}
 
-		sw.hostList.put(netHost.getId(), netHost);
 		sendNow(sw.getId(), CloudActionTags.NETWORK_ATTACH_HOST, netHost);
-		HostToSwitchid.put(netHost.getId(), sw.getId());
-		netHost.setSwitch(sw);
+		connectHost(sw, netHost);
 	}
 
 	public void attachSwitchToSwitch(Switch sw1, Switch sw2) {
@@ -190,16 +377,13 @@ public class NetworkDatacenter extends Datacenter {
 			if (sw2.level != Switch.SwitchLevel.AGGR_LEVEL) {
 				throw new IllegalArgumentException("Edge switch can only be attached to Aggregate switch");
 			} else {
-				sw1.uplinkSwitches.add(sw2);
-				sw2.downlinkSwitches.add(sw1);
+				connectSwitches(sw1, sw2);
 			}
 		} else if (sw1.level == Switch.SwitchLevel.AGGR_LEVEL) {
 			if (sw2.level == Switch.SwitchLevel.ROOT_LEVEL) {
-				sw1.uplinkSwitches.add(sw2);
-				sw2.downlinkSwitches.add(sw1);
+				connectSwitches(sw1, sw2);
 			} else if (sw2.level == Switch.SwitchLevel.EDGE_LEVEL) {
-				sw1.downlinkSwitches.add(sw2);
-				sw2.uplinkSwitches.add(sw1);
+				connectSwitches(sw2, sw1);
 			} else {
 				throw new IllegalArgumentException("Cannot attach to switch of same level");
 			}
@@ -207,9 +391,34 @@ public class NetworkDatacenter extends Datacenter {
 			if (sw2.level != Switch.SwitchLevel.AGGR_LEVEL) {
 				throw new IllegalArgumentException("Root switch can only be attached to Aggregate switch");
 			} else {
-				sw1.downlinkSwitches.add(sw2);
-				sw2.uplinkSwitches.add(sw1);
+				connectSwitches(sw2, sw1);
 			}
 		}
 	}
+
+	/**
+	 * Connects a host to an edge switch, without validation and without notifying the switch
+	 * through an event, as done when building a whole topology.
+	 *
+	 * @param sw the edge switch
+	 * @param netHost the host
+	 */
+	void connectHost(Switch sw, NetworkHost netHost) {
+		sw.hostList.put(netHost.getId(), netHost);
+		HostToSwitchid.put(netHost.getId(), sw.getId());
+		routingTable.attachHost(netHost.getId(), sw);
+		netHost.setSwitch(sw);
+	}
+
+	/**
+	 * Connects a switch to an upper level switch, without validation.
+	 *
+	 * @param lower the lower level switch
+	 * @param upper the upper level switch
+	 */
+	void connectSwitches(Switch lower, Switch upper) {
+		lower.uplinkSwitches.add(upper);
+		upper.downlinkSwitches.add(lower);
+		routingTable.attachSwitch(lower, upper);
+	}
 }
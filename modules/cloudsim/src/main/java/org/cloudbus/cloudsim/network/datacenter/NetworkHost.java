@@ -10,12 +10,13 @@ package org.cloudbus.cloudsim.network.datacenter;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.*;
-import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
@@ -46,6 +47,17 @@ public class NetworkHost extends Host implements NetworkedEntity {
 	private Map<Integer, NetworkInterfaceCard> nics;
 	private Map<Integer, List<NetworkPacket>> sendPktExternally;
 
+	/** The guests running in the host, indexed by id. */
+	private final Map<Integer, GuestEntity> guestIndex = new HashMap<>();
+
+	/** The size of the guest list and the {@link GuestDirectory#getModificationCount(HostEntity)
+	 * modification count} of the host when the guest index was built. */
+	private int guestIndexSize = -1;
+	private long guestIndexModificationCount = -1;
+
+	/** The number of times the guest index was built. */
+	private int guestIndexBuildCount;
+
 	public NetworkHost(
 			int id,
 			RamProvisioner ramProvisioner,
@@ -73,17 +85,22 @@ public class NetworkHost extends Host implements NetworkedEntity {
          * VM hosted on other machine.
 	 */
     public void sendPackets() {
-		boolean flag = false;
+		Set<GuestEntity> wokenGuests = null;
 
 		for (NetworkInterfaceCard nic : nics.values()) {
 			for (HostPacket hpkt : nic.getPktsToSend()) {
-				GuestEntity receiver = VmList.getById(this.getGuestList(), hpkt.receiverGuestId);
+				GuestEntity receiver = getGuestById(hpkt.receiverGuestId);
 				if (receiver != null) { // send locally to Vm, no network delay
-					flag = true;
 					hpkt.recvTime = CloudSim.clock();
 
-					// insert the packet in received list on destination guest
-					nics.get(hpkt.receiverCloudletId).getReceivedPkts().add(hpkt);
+					// insert the packet in received list on destination guest,
+					// and wake it up only if its cloudlet is waiting for this sender
+					if (nics.get(hpkt.receiverCloudletId).receivePacket(hpkt)) {
+						if (wokenGuests == null) {
+							wokenGuests = new LinkedHashSet<>();
+						}
+						wokenGuests.add(receiver);
+					}
 				} else {
 					sendPktExternally.computeIfAbsent(hpkt.senderGuestId, k -> new ArrayList<>())
 									 .add(new NetworkPacket(getId(), hpkt));
@@ -94,7 +111,7 @@ public class NetworkHost extends Host implements NetworkedEntity {
 
 		// send to edge switch, since destination guest is hosted on another host
 		for (Integer guestId : sendPktExternally.keySet()) {
-			GuestEntity sender = VmList.getById(this.getGuestList(), guestId);
+			GuestEntity sender = getGuestById(guestId);
 			if (sender == null) {
 				throw new RuntimeException("senderVm not found! is it nested?");
 			}
@@ -104,21 +121,68 @@ public class NetworkHost extends Host implements NetworkedEntity {
 				double avband = (double) sender.getBw() / sendPktExternally.get(guestId).size();
 				double delay = (8 * npkt.pkt.data / avband) + npkt.pkt.accumulatedVirtualizationOverhead;
 
-				((NetworkDatacenter) getDatacenter()).totalDataTransfer += npkt.pkt.data;
+				NetworkDatacenter dc = (NetworkDatacenter) getDatacenter();
+				dc.totalDataTransfer += npkt.pkt.data;
 
-				// send to switch with delay
-				CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudActionTags.NETWORK_PKT_UP, npkt);
+				if (dc.isFlowLevelNetwork()) {
+					// the guest bandwidth is shared by the flows, no need for a fixed delay
+					dc.sendPacket(npkt, this, sender.getBw());
+				} else {
+					// send to switch with delay
+					CloudSim.send(getDatacenter().getId(), sw.getId(), delay, CloudActionTags.NETWORK_PKT_UP, npkt);
+				}
 			}
 		}
 		sendPktExternally.clear();
 
-		if (flag) {
-			for (GuestEntity guest : super.getGuestList()) {
+		if (wokenGuests != null) {
+			for (GuestEntity guest : wokenGuests) {
 				guest.updateCloudletsProcessing(CloudSim.clock(), getGuestScheduler().getAllocatedMipsForGuest(guest));
 			}
 		}
 	}
 
+	/**
+	 * Gets a guest running in the host by id, in constant time. The index is rebuilt
+	 * only when the guest list changes, as told by its size and by the modification
+	 * count of the host in the datacenter {@link GuestDirectory}.
+	 *
+	 * @param guestId the guest id
+	 * @return the guest, or null if it does not run in the host
+	 */
+	protected GuestEntity getGuestById(int guestId) {
+		List<GuestEntity> guestList = getGuestList();
+		GuestDirectory directory = GuestDirectory.of(this);
+		long modificationCount = directory == null ? -1 : directory.getModificationCount(this);
+		if (guestList.size() != guestIndexSize || modificationCount != guestIndexModificationCount) {
+			guestIndex.clear();
+			for (GuestEntity g : guestList) {
+				guestIndex.put(g.getId(), g);
+			}
+			guestIndexSize = guestList.size();
+			guestIndexModificationCount = modificationCount;
+			guestIndexBuildCount++;
+		}
+		GuestEntity guest = guestIndex.get(guestId);
+		return guest != null && isIndexedGuestValid(guest) ? guest : null;
+	}
+
+	/**
+	 * Gets the number of times the guest index was built.
+	 *
+	 * @return the build count
+	 */
+	int getGuestIndexBuildCount() {
+		return guestIndexBuildCount;
+	}
+
+	/**
+	 * Checks whether an indexed guest still runs in the host, or is migrating to it.
+	 */
+	private boolean isIndexedGuestValid(GuestEntity guest) {
+		return guest.getHost() == this || guest.isInMigration();
+	}
+
 	public Map<Integer, NetworkInterfaceCard> getNics() {
 		return nics;
 	}
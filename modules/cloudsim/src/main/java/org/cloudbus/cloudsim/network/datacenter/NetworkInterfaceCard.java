@@ -11,21 +11,89 @@ import java.util.*;
 
 /**
  * This class represents a communication interface between host entities and networked cloudlets.
+ * Received packets are queued by sender cloudlet, so that a cloudlet waiting for the data of
+ * a given cloudlet finds it in constant time, whatever the number of other senders.
  * @TODO: this needs to include the guest entities too, eventually
  *
  * @author Remo Andreoli
  * @since CloudSim Toolkit 7.0
  */
 public class NetworkInterfaceCard {
+    /** Marks that the cloudlet is not waiting for any packet. */
+    public static final int NONE = -1;
+
     private final List<HostPacket> pktsToSend;
 
-    private final List<HostPacket> receivedPkts;
+    /** The received packets not consumed yet, indexed by sender cloudlet id, in arrival order. */
+    private final Map<Integer, Deque<HostPacket>> receivedPkts;
+
+    /** The number of received packets not consumed yet. */
+    private int receivedPktCount;
+
+    /** The id of the cloudlet whose packet the owner cloudlet is waiting for, or {@link #NONE}. */
+    private int awaitedSenderCloudletId = NONE;
 
     public NetworkInterfaceCard() {
         pktsToSend = new LinkedList<>();
-        receivedPkts = new LinkedList<>();
+        receivedPkts = new HashMap<>();
     }
 
     public List<HostPacket> getPktsToSend() { return pktsToSend; }
-    public List<HostPacket> getReceivedPkts() { return receivedPkts; }
+
+    /**
+     * Stores a packet received by the owner cloudlet.
+     *
+     * @param pkt the packet
+     * @return true if the owner cloudlet is waiting for a packet of the sender cloudlet,
+     * i.e. it has to be woken up; false otherwise
+     */
+    public boolean receivePacket(HostPacket pkt) {
+        receivedPkts.computeIfAbsent(pkt.senderCloudletId, k -> new ArrayDeque<>()).add(pkt);
+        receivedPktCount++;
+        return pkt.senderCloudletId == awaitedSenderCloudletId;
+    }
+
+    /**
+     * Removes the oldest packet received from a cloudlet.
+     *
+     * @param senderCloudletId the id of the sender cloudlet
+     * @return the packet, or null if no packet of the sender cloudlet was received
+     */
+    public HostPacket pollReceivedPkt(int senderCloudletId) {
+        Deque<HostPacket> pkts = receivedPkts.get(senderCloudletId);
+        if (pkts == null) {
+            return null;
+        }
+        HostPacket pkt = pkts.poll();
+        if (pkts.isEmpty()) {
+            receivedPkts.remove(senderCloudletId);
+        }
+        receivedPktCount--;
+        return pkt;
+    }
+
+    /**
+     * Gets the received packets not consumed yet, in reception order.
+     *
+     * @return a read-only snapshot of the received packets
+     * @deprecated the packets are queued by sender cloudlet: use {@link #receivePacket(HostPacket)}
+     * and {@link #pollReceivedPkt(int)} instead
+     */
+    @Deprecated
+    public List<HostPacket> getReceivedPkts() {
+        List<HostPacket> pkts = new ArrayList<>(receivedPktCount);
+        for (Deque<HostPacket> senderPkts : receivedPkts.values()) {
+            pkts.addAll(senderPkts);
+        }
+        pkts.sort(Comparator.comparingDouble(pkt -> pkt.recvTime));
+        return Collections.unmodifiableList(pkts);
+    }
+
+    public int getReceivedPktCount() { return receivedPktCount; }
+
+    public int getAwaitedSenderCloudletId() { return awaitedSenderCloudletId; }
+
+    public void setAwaitedSenderCloudletId(int awaitedSenderCloudletId) {
+        this.awaitedSenderCloudletId = awaitedSenderCloudletId;
+    }
 }
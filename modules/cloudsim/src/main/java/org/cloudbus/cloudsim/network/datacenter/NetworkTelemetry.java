@@ -0,0 +1,346 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.network.FairShareFlowModel;
+import org.cloudbus.cloudsim.util.LogLinearHistogram;
+
+/**
+ * Collects statistics about the switch network of a {@link NetworkDatacenter}: the
+ * throughput and queue occupancy of every switch port, as time series, and the latency of
+ * the packets sent between hosts, as a fixed-memory histogram.
+ *
+ * <p>Ports are sampled at most once per sampling interval, when the datacenter or a switch
+ * processes an event, and when the datacenter shuts down; no event is scheduled for
+ * sampling, so an idle network is not sampled. Each sample covers the time since the
+ * previous one: the bytes transmitted, the throughput and utilization of the port, and
+ * the current, peak and average queue occupancy.
+ * In the flow-level network ({@link FlowLevelNetwork}), ports have no queues: the number
+ * of flows crossing a port is reported instead of the number of queued packets.</p>
+ *
+ * <p>Each packet carries the data of a send stage of a cloudlet, so it is a flow: its
+ * completion time, or latency, is the time from its sending by the sender cloudlet to its
+ * arrival at the receiver host. The start and finish of every flow are recorded, along with
+ * the histogram of their completion times. Packets between guests of the same host do not
+ * cross the network and are not recorded.</p>
+ *
+ * <p>The port samples and the flows are kept up to a maximum number each; beyond it, the
+ * oldest ones are discarded, and counted as dropped. The histogram covers all the flows.</p>
+ *
+ * @see NetworkDatacenter#setTelemetry(NetworkTelemetry)
+ * @since CloudSim Toolkit 7.0
+ */
+public class NetworkTelemetry {
+
+	/**
+	 * The statistics of a switch port over a sampling interval.
+	 *
+	 * @param time the sampling time
+	 * @param switchId the id of the switch
+	 * @param destinationId the id of the switch or host connected to the port
+	 * @param bytes the bytes transmitted during the interval
+	 * @param throughput the transmission rate over the interval (bits/sec)
+	 * @param utilization the throughput divided by the port bandwidth
+	 * @param queuedPackets the number of queued packets (flows in the flow-level network) at the sampling time
+	 * @param queuedBytes the number of queued bytes at the sampling time
+	 * @param peakQueuedBytes the highest number of queued bytes during the interval
+	 * @param averageQueuedBytes the time-weighted average number of queued bytes during the interval
+	 */
+	public record PortSample(double time, int switchId, int destinationId, long bytes, double throughput,
+							 double utilization, int queuedPackets, long queuedBytes, long peakQueuedBytes,
+							 double averageQueuedBytes) {
+	}
+
+	/**
+	 * The start and finish of a flow sent between hosts.
+	 *
+	 * @param senderGuestId the id of the sender guest
+	 * @param receiverGuestId the id of the receiver guest
+	 * @param bytes the bytes sent
+	 * @param startTime the time the sender cloudlet sent the flow
+	 * @param finishTime the time the flow reached the receiver host
+	 */
+	public record FlowRecord(int senderGuestId, int receiverGuestId, long bytes, double startTime,
+							 double finishTime) {
+
+		/**
+		 * Gets the completion time of the flow.
+		 *
+		 * @return the time from its start to its finish
+		 */
+		public double completionTime() {
+			return finishTime - startTime;
+		}
+	}
+
+	/** The default maximum number of port samples and of flows kept. */
+	public static final int DEFAULT_MAX_RECORDS = 100_000;
+
+	/** The minimum time between samples. */
+	private final double samplingInterval;
+
+	/** The time of the next sample. */
+	private double nextSampleTime;
+
+	/** The time of the previous sample. */
+	private double lastSampleTime;
+
+	/** The maximum number of port samples and of flows kept. */
+	private final int maxRecords;
+
+	/** The latest port samples, in time order. */
+	private final ArrayDeque<PortSample> samples = new ArrayDeque<>();
+
+	/** The number of port samples discarded to keep at most {@link #maxRecords}. */
+	private long droppedSamples;
+
+	/** The latest flows, in finishing order. */
+	private final ArrayDeque<FlowRecord> flows = new ArrayDeque<>();
+
+	/** The number of flows discarded to keep at most {@link #maxRecords}. */
+	private long droppedFlows;
+
+	/** The bytes transmitted by each port at the previous sample, by port key. */
+	private final Map<Long, Long> lastTransmittedBytes = new HashMap<>();
+
+	/** The latencies of the packets sent between hosts, which are the completion times of their flows. */
+	private final LogLinearHistogram packetLatencies = new LogLinearHistogram();
+
+	/** The bytes received by hosts from the network. */
+	private long receivedBytes;
+
+	/**
+	 * Creates a telemetry collector that keeps up to {@link #DEFAULT_MAX_RECORDS} port
+	 * samples and flows.
+	 *
+	 * @param samplingInterval the minimum time between two samples of the ports
+	 */
+	public NetworkTelemetry(double samplingInterval) {
+		this(samplingInterval, DEFAULT_MAX_RECORDS);
+	}
+
+	/**
+	 * Creates a telemetry collector.
+	 *
+	 * @param samplingInterval the minimum time between two samples of the ports
+	 * @param maxRecords the maximum number of port samples, and of flows, kept
+	 */
+	public NetworkTelemetry(double samplingInterval, int maxRecords) {
+		if (samplingInterval <= 0) {
+			throw new IllegalArgumentException("Sampling interval must be positive");
+		}
+		if (maxRecords <= 0) {
+			throw new IllegalArgumentException("Maximum number of records must be positive");
+		}
+		this.samplingInterval = samplingInterval;
+		this.maxRecords = maxRecords;
+	}
+
+	/**
+	 * Records the arrival of a packet at its receiver host.
+	 *
+	 * @param pkt the packet
+	 * @param time the arrival time
+	 */
+	void recordPacketArrival(HostPacket pkt, double time) {
+		packetLatencies.record(time - pkt.sendTime);
+		receivedBytes += pkt.data;
+		if (flows.size() == maxRecords) {
+			flows.removeFirst();
+			droppedFlows++;
+		}
+		flows.addLast(new FlowRecord(pkt.senderGuestId, pkt.receiverGuestId, pkt.data, pkt.sendTime, time));
+	}
+
+	/**
+	 * Samples the ports of a datacenter, if the sampling interval has elapsed.
+	 *
+	 * @param dc the datacenter
+	 * @param time the current time
+	 */
+	void sampleIfDue(NetworkDatacenter dc, double time) {
+		if (time >= nextSampleTime) {
+			sample(dc, time);
+		}
+	}
+
+	/**
+	 * Samples the ports of a datacenter.
+	 *
+	 * @param dc the datacenter
+	 * @param time the current time
+	 */
+	public void sample(NetworkDatacenter dc, double time) {
+		double interval = time - lastSampleTime;
+		if (interval <= 0 && !samples.isEmpty()) {
+			return;
+		}
+
+		FlowLevelNetwork flowLevelNetwork = dc.getFlowLevelNetwork();
+		if (flowLevelNetwork != null) {
+			FairShareFlowModel<NetworkPacket> flowModel = flowLevelNetwork.getFlowModel();
+			for (Map.Entry<Long, Integer> entry : flowLevelNetwork.getPortLinks().entrySet()) {
+				int link = entry.getValue();
+				// the ports towards hosts are keyed by -1 - host id
+				long key = entry.getKey();
+				int destinationId = (int) key < 0 ? -1 - (int) key : (int) key;
+				long transmitted = Math.round(flowModel.getLinkTransmitted(link, time) / 8);
+				addSample(time, interval, key, (int) (key >> 32), destinationId, transmitted,
+						flowModel.getLinkCapacity(link), flowModel.getLinkFlowCount(link), 0, 0, 0);
+			}
+		} else {
+			for (Switch sw : dc.getSwitchList().values()) {
+				samplePorts(sw, sw.uplinkPorts, false, time, interval);
+				samplePorts(sw, sw.downlinkPorts, false, time, interval);
+				samplePorts(sw, sw.hostPorts, true, time, interval);
+			}
+		}
+
+		lastSampleTime = time;
+		nextSampleTime = time + samplingInterval;
+	}
+
+	private void samplePorts(Switch sw, Map<Integer, Switch.Port> ports, boolean hostPorts, double time,
+							 double interval) {
+		for (Switch.Port port : ports.values()) {
+			// host ids and switch ids may overlap: the ports towards hosts are keyed by -1 - host id
+			int destinationKey = hostPorts ? -1 - port.getDestinationId() : port.getDestinationId();
+			long key = ((long) sw.getId() << 32) | (destinationKey & 0xFFFFFFFFL);
+			addSample(time, interval, key, sw.getId(), port.getDestinationId(), port.getTransmittedBytes(time),
+					port.getBw(), port.getQueuedPackets(), port.getQueuedBytes(), port.getPeakQueuedBytes(), port.getAverageQueuedBytes(time));
+			port.resetQueueStatistics(time);
+		}
+	}
+
+	private void addSample(double time, double interval, long key, int switchId, int destinationId,
+						   long transmittedBytes, double bw, int queuedPackets, long queuedBytes,
+						   long peakQueuedBytes, double averageQueuedBytes) {
+		Long last = lastTransmittedBytes.put(key, transmittedBytes);
+		long bytes = transmittedBytes - (last == null ? 0 : last);
+		double throughput = interval > 0 ? 8.0 * bytes / interval : 0;
+		if (samples.size() == maxRecords) {
+			samples.removeFirst();
+			droppedSamples++;
+		}
+		samples.addLast(new PortSample(time, switchId, destinationId, bytes, throughput,
+				bw > 0 ? throughput / bw : 0, queuedPackets, queuedBytes, peakQueuedBytes, averageQueuedBytes));
+	}
+
+	/**
+	 * Writes the port samples as CSV, with a header line.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void writeCsv(Appendable out) throws IOException {
+		out.append("time,switch,destination,bytes,throughput,utilization,queuedPackets,queuedBytes,"
+				+ "peakQueuedBytes,averageQueuedBytes\n");
+		for (PortSample sample : samples) {
+			out.append(Double.toString(sample.time())).append(',')
+					.append(Integer.toString(sample.switchId())).append(',')
+					.append(Integer.toString(sample.destinationId())).append(',')
+					.append(Long.toString(sample.bytes())).append(',')
+					.append(Double.toString(sample.throughput())).append(',')
+					.append(Double.toString(sample.utilization())).append(',')
+					.append(Integer.toString(sample.queuedPackets())).append(',')
+					.append(Long.toString(sample.queuedBytes())).append(',')
+					.append(Long.toString(sample.peakQueuedBytes())).append(',')
+					.append(Double.toString(sample.averageQueuedBytes())).append('\n');
+		}
+	}
+
+	/**
+	 * Writes the flows as CSV, with a header line.
+	 *
+	 * @param out where to write
+	 * @throws IOException if writing fails
+	 */
+	public void writeFlowsCsv(Appendable out) throws IOException {
+		out.append("senderGuest,receiverGuest,bytes,startTime,finishTime,completionTime\n");
+		for (FlowRecord flow : flows) {
+			out.append(Integer.toString(flow.senderGuestId())).append(',')
+					.append(Integer.toString(flow.receiverGuestId())).append(',')
+					.append(Long.toString(flow.bytes())).append(',')
+					.append(Double.toString(flow.startTime())).append(',')
+					.append(Double.toString(flow.finishTime())).append(',')
+					.append(Double.toString(flow.completionTime())).append('\n');
+		}
+	}
+
+	/**
+	 * Gets the latest port samples, in time order.
+	 *
+	 * @return the port samples
+	 */
+	public List<PortSample> getSamples() {
+		return Collections.unmodifiableList(new ArrayList<>(samples));
+	}
+
+	/**
+	 * Gets the number of port samples discarded because the maximum number was reached.
+	 *
+	 * @return the number of dropped samples
+	 */
+	public long getDroppedSamples() {
+		return droppedSamples;
+	}
+
+	/**
+	 * Gets the latest flows sent between hosts, in finishing order.
+	 *
+	 * @return the flows
+	 */
+	public List<FlowRecord> getFlows() {
+		return Collections.unmodifiableList(new ArrayList<>(flows));
+	}
+
+	/**
+	 * Gets the number of flows discarded because the maximum number was reached.
+	 *
+	 * @return the number of dropped flows
+	 */
+	public long getDroppedFlows() {
+		return droppedFlows;
+	}
+
+	/**
+	 * Gets the histogram of the latencies of the packets sent between hosts, which are the
+	 * completion times of their flows. It covers all the flows, including the dropped ones.
+	 *
+	 * @return the latency histogram, in seconds
+	 */
+	public LogLinearHistogram getPacketLatencies() {
+		return packetLatencies;
+	}
+
+	/**
+	 * Gets the bytes received by hosts from the network.
+	 *
+	 * @return the received bytes
+	 */
+	public long getReceivedBytes() {
+		return receivedBytes;
+	}
+
+	public int getMaxRecords() {
+		return maxRecords;
+	}
+
+	public double getSamplingInterval() {
+		return samplingInterval;
+	}
+}
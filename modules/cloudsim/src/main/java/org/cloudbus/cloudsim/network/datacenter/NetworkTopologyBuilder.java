@@ -0,0 +1,123 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/**
+ * Builds a whole switch network for a {@link NetworkDatacenter} in bulk, as an alternative to
+ * wiring switches one by one with {@link NetworkDatacenter#registerSwitch(Switch)},
+ * {@link NetworkDatacenter#attachSwitchToHost(Switch, NetworkHost)} and
+ * {@link NetworkDatacenter#attachSwitchToSwitch(Switch, Switch)}.
+ * Links are recorded directly, without validation nor one event per attached host,
+ * and the routing table is sized once for the whole topology.
+ *
+ * <p>A topology is used in two steps: {@link #createHosts(IntFunction)} creates the hosts
+ * of the datacenter characteristics, then {@link #build(NetworkDatacenter)} creates the
+ * switches and connects them to the hosts of the datacenter, in order.</p>
+ *
+ * @see FatTreeTopologyBuilder
+ * @see LeafSpineTopologyBuilder
+ * @since CloudSim Toolkit 7.0
+ */
+public abstract class NetworkTopologyBuilder {
+
+	/** The switching delay of the switches. */
+	protected final double switchingDelay;
+
+	protected NetworkTopologyBuilder(double switchingDelay) {
+		if (switchingDelay < 0) {
+			throw new IllegalArgumentException("Switching delay cannot be negative");
+		}
+		this.switchingDelay = switchingDelay;
+	}
+
+	/**
+	 * Gets the number of hosts of the topology.
+	 *
+	 * @return the number of hosts
+	 */
+	public abstract int getHostCount();
+
+	/**
+	 * Gets the number of switches of the topology.
+	 *
+	 * @return the number of switches
+	 */
+	public abstract int getSwitchCount();
+
+	/**
+	 * Creates the hosts of the topology.
+	 *
+	 * @param hostFactory creates a host given its id, from 0 to {@link #getHostCount()} - 1
+	 * @return the hosts, in id order
+	 * @param <T> the host type
+	 */
+	public <T extends NetworkHost> List<T> createHosts(IntFunction<T> hostFactory) {
+		int hostCount = getHostCount();
+		List<T> hostList = new ArrayList<>(hostCount);
+		for (int i = 0; i < hostCount; i++) {
+			hostList.add(hostFactory.apply(i));
+		}
+		return hostList;
+	}
+
+	/**
+	 * Creates the switches of the topology and connects them to the hosts of a datacenter.
+	 *
+	 * @param dc the datacenter, whose host list has {@link #getHostCount()} hosts
+	 * @return the switches, in creation order
+	 */
+	public List<Switch> build(NetworkDatacenter dc) {
+		List<NetworkHost> hostList = dc.getHostList();
+		if (hostList.size() != getHostCount()) {
+			throw new IllegalArgumentException("The datacenter has " + hostList.size()
+					+ " hosts, whereas the topology has " + getHostCount());
+		}
+
+		List<Switch> switchList = new ArrayList<>(getSwitchCount());
+		createSwitches(dc, switchList);
+
+		int maxSwitchId = 0;
+		for (Switch sw : switchList) {
+			dc.registerSwitch(sw);
+			maxSwitchId = Math.max(maxSwitchId, sw.getId());
+		}
+		int maxHostId = 0;
+		for (NetworkHost host : hostList) {
+			maxHostId = Math.max(maxHostId, host.getId());
+		}
+		dc.getRoutingTable().ensureCapacity(maxSwitchId, maxHostId);
+
+		connect(dc, switchList, hostList);
+		return switchList;
+	}
+
+	/**
+	 * Creates the switches of the topology.
+	 *
+	 * @param dc the datacenter
+	 * @param switchList the list to add the switches to
+	 */
+	abstract void createSwitches(NetworkDatacenter dc, List<Switch> switchList);
+
+	/**
+	 * Connects the switches to each other and to the hosts, through
+	 * {@link NetworkDatacenter#connectSwitches(Switch, Switch)} and
+	 * {@link NetworkDatacenter#connectHost(Switch, NetworkHost)}.
+	 *
+	 * @param dc the datacenter
+	 * @param switchList the switches, in creation order
+	 * @param hostList the hosts
+	 */
+	abstract void connect(NetworkDatacenter dc, List<Switch> switchList, List<NetworkHost> hostList);
+
+}
@@ -17,6 +17,7 @@ import org.cloudbus.cloudsim.lists.VmList;
 import org.cloudbus.cloudsim.provisioners.BwProvisioner;
 import org.cloudbus.cloudsim.provisioners.RamProvisioner;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
@@ -54,7 +55,9 @@ public class NetworkVm extends Vm implements NetworkedEntity {
         // and introduce an (optional) virtualization overhead to simulate the pass-through the virtual network
         // (nested) guest -> host
         for (NetworkInterfaceCard nic : getNics().values()) {
-            for (HostPacket hpkt : nic.getPktsToSend()) {
+            Iterator<HostPacket> iter = nic.getPktsToSend().iterator();
+            while (iter.hasNext()) {
+                HostPacket hpkt = iter.next();
                 GuestEntity sender = VmList.getById(getGuestList(), hpkt.senderGuestId);
                 if (sender != null && hpkt.senderGuestId != getId()) {
                     hpkt.senderGuestId = getId();
@@ -62,17 +65,12 @@ public class NetworkVm extends Vm implements NetworkedEntity {
 
                 // Nested virtualization edge-case, but locally routed packet
                 if (VmList.getById(this.getGuestList(), hpkt.receiverGuestId) != null) {
-                    getNics().get(hpkt.receiverCloudletId).getReceivedPkts().add(hpkt);
-                    nic.getPktsToSend().remove(hpkt);
+                    getNics().get(hpkt.receiverCloudletId).receivePacket(hpkt);
+                    iter.remove();
+                    continue;
                 }
 
                 hpkt.accumulatedVirtualizationOverhead += getVirtualizationOverhead();
-
-                // Nested virtualization edge-case, but locally routed packet
-                if (VmList.getById(this.getGuestList(), hpkt.receiverGuestId) != null) {
-                    getNics().get(hpkt.receiverCloudletId).getReceivedPkts().add(hpkt);
-                    nic.getPktsToSend().remove(hpkt);
-                }
             }
         }
     }
@@ -0,0 +1,264 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * The forwarding state of the switch network of a {@link NetworkDatacenter}, compiled into
+ * dense arrays indexed by id: guest to host, host to edge switch, and for each switch its
+ * uplink switches and the set of its downlink switches. It is updated incrementally as
+ * hosts and switches are attached and guests are created or migrated, so that switches
+ * route each packet in constant time instead of searching the topology.
+ *
+ * <p>When a switch has several uplinks (or a root switch reaches the receiver edge switch
+ * through several aggregate switches), the next hop is chosen by hashing the
+ * sender and receiver guests (ECMP): all packets between two guests follow the same path,
+ * while different pairs are spread over the available paths.</p>
+ *
+ * <p>Ids are assumed to be non-negative and reasonably dense, as is the case for guest,
+ * host and entity ids in CloudSim.</p>
+ *
+ * @see NetworkDatacenter#getRoutingTable()
+ * @since CloudSim Toolkit 7.0
+ */
+public class RoutingTable {
+
+	/** Marks an unknown entry. */
+	public static final int NONE = -1;
+
+	private static final Switch[] NO_SWITCHES = new Switch[0];
+
+	/** The physical host of each guest, indexed by guest id. */
+	private int[] guestHost = new int[0];
+
+	/** The edge switch of each host, indexed by host id. */
+	private int[] hostEdge = new int[0];
+
+	/** The uplink switches of each switch, indexed by switch id. */
+	private Switch[][] uplinks = new Switch[0][];
+
+	/** The ids of the downlink switches of each switch, indexed by switch id. */
+	private BitSet[] downlinks = new BitSet[0];
+
+	/**
+	 * Pre-sizes the tables, so that attaching a whole topology does not grow them incrementally.
+	 *
+	 * @param maxSwitchId the largest switch id
+	 * @param maxHostId the largest host id
+	 */
+	public void ensureCapacity(int maxSwitchId, int maxHostId) {
+		hostEdge = ensureCapacity(hostEdge, maxHostId);
+		growSwitches(maxSwitchId);
+	}
+
+	/**
+	 * Records that a host is attached to an edge switch.
+	 *
+	 * @param hostId the host id
+	 * @param edge the edge switch
+	 */
+	public void attachHost(int hostId, Switch edge) {
+		hostEdge = ensureCapacity(hostEdge, hostId);
+		hostEdge[hostId] = edge.getId();
+	}
+
+	/**
+	 * Records that a switch is connected to an upper level switch.
+	 *
+	 * @param lower the lower level switch
+	 * @param upper the upper level switch
+	 */
+	public void attachSwitch(Switch lower, Switch upper) {
+		growSwitches(Math.max(lower.getId(), upper.getId()));
+
+		Switch[] lowerUplinks = uplinks[lower.getId()];
+		lowerUplinks = Arrays.copyOf(lowerUplinks, lowerUplinks.length + 1);
+		lowerUplinks[lowerUplinks.length - 1] = upper;
+		uplinks[lower.getId()] = lowerUplinks;
+
+		if (downlinks[upper.getId()] == null) {
+			downlinks[upper.getId()] = new BitSet();
+		}
+		downlinks[upper.getId()].set(lower.getId());
+	}
+
+	/**
+	 * Records the physical host where a guest is placed, after its creation or migration.
+	 *
+	 * @param guestId the guest id
+	 * @param hostId the physical host id
+	 */
+	public void setGuestHost(int guestId, int hostId) {
+		guestHost = ensureCapacity(guestHost, guestId);
+		guestHost[guestId] = hostId;
+	}
+
+	/**
+	 * Forgets the placement of a guest.
+	 *
+	 * @param guestId the guest id
+	 */
+	public void removeGuest(int guestId) {
+		if (guestId < guestHost.length) {
+			guestHost[guestId] = NONE;
+		}
+	}
+
+	/**
+	 * Forgets the placement of a guest on a given host, unless the guest id has since been
+	 * recorded on another host, such as that of a guest of another kind with the same id.
+	 *
+	 * @param guestId the guest id
+	 * @param hostId the physical host id
+	 */
+	public void removeGuest(int guestId, int hostId) {
+		if (getHost(guestId) == hostId) {
+			guestHost[guestId] = NONE;
+		}
+	}
+
+	/**
+	 * Gets the physical host of a guest.
+	 *
+	 * @param guestId the guest id
+	 * @return the host id, or {@link #NONE} if unknown
+	 */
+	public int getHost(int guestId) {
+		return guestId < guestHost.length ? guestHost[guestId] : NONE;
+	}
+
+	/**
+	 * Gets the edge switch a host is attached to.
+	 *
+	 * @param hostId the host id
+	 * @return the switch id, or {@link #NONE} if unknown
+	 */
+	public int getHostEdgeSwitch(int hostId) {
+		return hostId >= 0 && hostId < hostEdge.length ? hostEdge[hostId] : NONE;
+	}
+
+	/**
+	 * Gets the edge switch of the physical host of a guest.
+	 *
+	 * @param guestId the guest id
+	 * @return the switch id, or {@link #NONE} if unknown
+	 */
+	public int getEdgeSwitch(int guestId) {
+		return getHostEdgeSwitch(getHost(guestId));
+	}
+
+	/**
+	 * Checks whether a switch is directly connected to a lower level switch.
+	 *
+	 * @param sw the switch
+	 * @param switchId the id of the lower level switch
+	 * @return true if the switches are connected; false otherwise
+	 */
+	public boolean isDownlink(Switch sw, int switchId) {
+		BitSet set = sw.getId() < downlinks.length ? downlinks[sw.getId()] : null;
+		return set != null && switchId >= 0 && set.get(switchId);
+	}
+
+	/**
+	 * Selects the uplink switch a packet leaves a switch through.
+	 *
+	 * @param sw the switch
+	 * @param senderGuestId the id of the sender guest
+	 * @param receiverGuestId the id of the receiver guest
+	 * @return the uplink switch, or null if the switch has no uplinks
+	 */
+	public Switch selectUplink(Switch sw, int senderGuestId, int receiverGuestId) {
+		Switch[] candidates = sw.getId() < uplinks.length ? uplinks[sw.getId()] : NO_SWITCHES;
+		if (candidates.length == 0) {
+			return null;
+		}
+		return candidates[Math.floorMod(pathHash(sw, senderGuestId, receiverGuestId), candidates.length)];
+	}
+
+	/**
+	 * Selects the downlink switch of a root switch a packet is sent to in order to
+	 * reach an edge switch, among the aggregate switches connected to both.
+	 *
+	 * @param root the root switch
+	 * @param edgeId the id of the receiver edge switch
+	 * @param senderGuestId the id of the sender guest
+	 * @param receiverGuestId the id of the receiver guest
+	 * @return the aggregate switch, or null if the edge switch cannot be reached
+	 */
+	public Switch selectDownlink(Switch root, int edgeId, int senderGuestId, int receiverGuestId) {
+		Switch[] candidates = edgeId >= 0 && edgeId < uplinks.length ? uplinks[edgeId] : NO_SWITCHES;
+		int reachable = 0;
+		for (Switch aggr : candidates) {
+			if (isDownlink(root, aggr.getId())) {
+				reachable++;
+			}
+		}
+		if (reachable == 0) {
+			return null;
+		}
+
+		int selected = Math.floorMod(pathHash(root, senderGuestId, receiverGuestId), reachable);
+		for (Switch aggr : candidates) {
+			if (isDownlink(root, aggr.getId()) && selected-- == 0) {
+				return aggr;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Hashes the sender and receiver of a packet to select one of several equal-cost paths.
+	 *
+	 * @param senderGuestId the id of the sender guest
+	 * @param receiverGuestId the id of the receiver guest
+	 * @return the hash
+	 */
+	public static int flowHash(int senderGuestId, int receiverGuestId) {
+		int h = 31 * senderGuestId + receiverGuestId;
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		return h;
+	}
+
+	/**
+	 * Hashes a flow at a given switch. Salting the flow hash with the switch id keeps the
+	 * choices of consecutive switches independent: otherwise, the flows sent to a switch
+	 * through a given uplink would all leave it through the same uplink (hash polarization).
+	 */
+	private static int pathHash(Switch sw, int senderGuestId, int receiverGuestId) {
+		int h = flowHash(senderGuestId, receiverGuestId) + sw.getId() * 0x9e3779b9;
+		h ^= h >>> 15;
+		h *= 0x2c1b3c6d;
+		h ^= h >>> 12;
+		return h;
+	}
+
+	private void growSwitches(int id) {
+		if (id >= uplinks.length) {
+			int length = Math.max(id + 1, 2 * uplinks.length);
+			int oldLength = uplinks.length;
+			uplinks = Arrays.copyOf(uplinks, length);
+			downlinks = Arrays.copyOf(downlinks, length);
+			Arrays.fill(uplinks, oldLength, length, NO_SWITCHES);
+		}
+	}
+
+	private static int[] ensureCapacity(int[] array, int index) {
+		if (index < array.length) {
+			return array;
+		}
+		int oldLength = array.length;
+		int[] grown = Arrays.copyOf(array, Math.max(index + 1, 2 * oldLength));
+		Arrays.fill(grown, oldLength, grown.length, NONE);
+		return grown;
+	}
+}
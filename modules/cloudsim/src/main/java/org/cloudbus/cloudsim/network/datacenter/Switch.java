@@ -8,15 +8,18 @@
 
 package org.cloudbus.cloudsim.network.datacenter;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
 
 import org.cloudbus.cloudsim.Log;
 import org.cloudbus.cloudsim.core.*;
-import org.cloudbus.cloudsim.core.predicates.PredicateType;
 
 /**
  * This class represents a Network Switch in a Datacenter network.
@@ -53,25 +56,32 @@ public class Switch extends SimEntity {
 	public SwitchLevel level;
 
         /**
-         * Map of packets sent to switches on the uplink,
+         * Map of the ports connected to switches on the uplink,
          * where each key is a switch id and the corresponding
-         * value is the packets sent to that switch.
+         * value is the port the packets to that switch are queued in.
          */
-	public Map<Integer, List<NetworkPacket>> pktsToUplinkSwitches;
+	public Map<Integer, Port> uplinkPorts;
 
         /**
-         * Map of packets sent to switches on the downlink,
+         * Map of the ports connected to switches on the downlink,
          * where each key is a switch id and the corresponding
-         * value is the packets sent to that switch.
+         * value is the port the packets to that switch are queued in.
          */
-	public Map<Integer, List<NetworkPacket>> pktsToDownlinkSwitches;
+	public Map<Integer, Port> downlinkPorts;
 
 	/**
-	 * Map of packets sent to hosts connected in the switch,
+	 * Map of the ports connected to hosts,
 	 * where each key is a host id and the corresponding
-	 * value is the packets sent to that host.
+	 * value is the port the packets to that host are queued in.
 	 */
-	public Map<Integer, List<NetworkPacket>> pktsToHosts;
+	public Map<Integer, Port> hostPorts;
+
+	/** The non-empty ports, ordered by the departure time of their head-of-line packet. */
+	private final PriorityQueue<Port> busyPorts =
+			new PriorityQueue<>(Comparator.comparingDouble(Port::getHeadDepartureTime));
+
+	/** The time of the earliest pending forward event, if any. */
+	private double nextForwardTime = Double.MAX_VALUE;
 
         /**
          * List of uplink switches.
@@ -126,10 +136,10 @@ public class Switch extends SimEntity {
 		this.dc = dc;
 
 		hostList = new HashMap<>();
-		pktsToHosts = new HashMap<>();
+		hostPorts = new HashMap<>();
 
-		pktsToDownlinkSwitches = new HashMap<>();
-		pktsToUplinkSwitches = new HashMap<>();
+		downlinkPorts = new HashMap<>();
+		uplinkPorts = new HashMap<>();
 
 		downlinkSwitches = new ArrayList<>();
 		uplinkSwitches = new ArrayList<>();
@@ -144,6 +154,10 @@ public class Switch extends SimEntity {
 	@Override
 	public void processEvent(SimEvent ev) {
 		CloudSimTags tag = ev.getTag();
+		NetworkTelemetry telemetry = dc != null ? dc.getTelemetry() : null;
+		if (telemetry != null) {
+			telemetry.sampleIfDue(dc, CloudSim.clock());
+		}
 
         if (tag == CloudActionTags.NETWORK_PKT_UP) {
             processPacketUp(ev);
@@ -169,8 +183,11 @@ public class Switch extends SimEntity {
 
 		NetworkHost hs = hostList.get(npkt.receiverHostId);
 		NetworkInterfaceCard nic = hs.getNics().get(npkt.pkt.receiverCloudletId);
+		if (dc.getTelemetry() != null) {
+			dc.getTelemetry().recordPacketArrival(npkt.pkt, CloudSim.clock());
+		}
 
-		nic.getReceivedPkts().add(npkt.pkt);
+		nic.receivePacket(npkt.pkt);
 	}
 
 	/**
@@ -182,18 +199,16 @@ public class Switch extends SimEntity {
 	protected void processPacketDown(SimEvent ev) {
 		NetworkPacket npkt = (NetworkPacket) ev.getData();
 		int recvVMid = npkt.pkt.receiverGuestId;
-		CloudSim.cancelAll(getId(), new PredicateType(CloudActionTags.NETWORK_PKT_FORWARD));
-		schedule(getId(), switchingDelay, CloudActionTags.NETWORK_PKT_FORWARD);
 
 		// packet is to be received by the host
 		if (level == SwitchLevel.EDGE_LEVEL) {
-			int hostid = dc.VmtoHostlist.get(recvVMid);
+			int hostid = dc.getRoutingTable().getHost(recvVMid);
 			npkt.receiverHostId = hostid;
-			pktsToHosts.computeIfAbsent(hostid, k -> new ArrayList<>()).add(npkt);
+			enqueue(hostPorts, hostid, downlinkBw, CloudActionTags.NETWORK_PKT_REACHED_HOST, npkt);
 		} else if (level == SwitchLevel.AGGR_LEVEL) { // From root level to edge level
 			// find the id for edgelevel switch
-			int switchId = dc.VmToSwitchid.get(recvVMid);
-			pktsToDownlinkSwitches.computeIfAbsent(switchId, k -> new ArrayList<>()).add(npkt);
+			int switchId = dc.getRoutingTable().getEdgeSwitch(recvVMid);
+			enqueue(downlinkPorts, switchId, downlinkBw, CloudActionTags.NETWORK_PKT_DOWN, npkt);
 		}
 
 	}
@@ -207,57 +222,47 @@ public class Switch extends SimEntity {
 	protected void processPacketUp(SimEvent ev) {
 		NetworkPacket npkt = (NetworkPacket) ev.getData();
 		int recvVMid = npkt.pkt.receiverGuestId;
-
-		CloudSim.cancelAll(getId(), new PredicateType(CloudActionTags.NETWORK_PKT_FORWARD));
-		schedule(getId(), switchingDelay, CloudActionTags.NETWORK_PKT_FORWARD);
+		int sendVMid = npkt.pkt.senderGuestId;
+		RoutingTable routingTable = dc.getRoutingTable();
 
 		// Packet is to be sent from an host
 		if (level == SwitchLevel.EDGE_LEVEL) {
-			int hostId = dc.VmtoHostlist.get(recvVMid);
+			int hostId = routingTable.getHost(recvVMid);
 			NetworkHost hs = hostList.get(hostId);
 			npkt.receiverHostId = hostId;
 
 			// Receiver host directly connected to the switch -- found!
 			if (hs != null) {
-				pktsToHosts.computeIfAbsent(hostId, k -> new ArrayList<>()).add(npkt);
+				enqueue(hostPorts, hostId, downlinkBw, CloudActionTags.NETWORK_PKT_REACHED_HOST, npkt);
 				return;
 			}
 
-			// Send to aggregate level
-			// ASSUMPTION: EACH EDGE is Connected to one aggregate level switch only
-			Switch sw = uplinkSwitches.getFirst();
-			pktsToUplinkSwitches.computeIfAbsent(sw.getId(), k -> new ArrayList<>()).add(npkt);
+			// Send to aggregate level (ECMP if the edge is connected to several aggregate switches)
+			Switch sw = routingTable.selectUplink(this, sendVMid, recvVMid);
+			enqueue(uplinkPorts, sw.getId(), uplinkBw, CloudActionTags.NETWORK_PKT_UP, npkt);
 		}
 		else if (level == SwitchLevel.AGGR_LEVEL) { // packet received from edge router
 			// find the id for edgelevel switch
-			int switchId = dc.VmToSwitchid.get(recvVMid);
+			int switchId = routingTable.getEdgeSwitch(recvVMid);
 
 			// send to edge (it's not going up, but same level)
-            if (downlinkSwitches.stream().anyMatch(sw -> sw.getId() == switchId)) {
-				pktsToDownlinkSwitches.computeIfAbsent(switchId, k -> new ArrayList<>()).add(npkt);
-			} else {// send to up to root level (ASSUMPTION: EACH EDGE is Connected to one aggregate level switch only)
-				Switch sw = uplinkSwitches.getFirst();
-				pktsToUplinkSwitches.computeIfAbsent(sw.getId(), k -> new ArrayList<>()).add(npkt);
+			if (routingTable.isDownlink(this, switchId)) {
+				enqueue(downlinkPorts, switchId, downlinkBw, CloudActionTags.NETWORK_PKT_DOWN, npkt);
+			} else { // send to up to root level
+				Switch sw = routingTable.selectUplink(this, sendVMid, recvVMid);
+				enqueue(uplinkPorts, sw.getId(), uplinkBw, CloudActionTags.NETWORK_PKT_UP, npkt);
 			}
 		}
 		// @TODO: confusing, this packet is going down, not up!!!
 		else if (level == SwitchLevel.ROOT_LEVEL) { // packet received from aggregate router
 			// get id of edge switch
-			int edgeSwitchId = dc.VmToSwitchid.get(recvVMid);
-			// search which aggregate switch is connected to the edge switch
-			int aggrSwitchId = -1;
-            for (Switch sw : downlinkSwitches) {
-				for (Switch edge : sw.downlinkSwitches) {
-					if (edge.getId() == edgeSwitchId) {
-						aggrSwitchId = sw.getId();
-						break;
-					}
-				}
-			}
-			if (aggrSwitchId < 0) {
+			int edgeSwitchId = routingTable.getEdgeSwitch(recvVMid);
+			// select an aggregate switch connected to the edge switch
+			Switch aggr = routingTable.selectDownlink(this, edgeSwitchId, sendVMid, recvVMid);
+			if (aggr == null) {
 				Log.println(" No destination for this packet");
 			} else {
-				pktsToDownlinkSwitches.computeIfAbsent(aggrSwitchId, k -> new ArrayList<>()).add(npkt);
+				enqueue(downlinkPorts, aggr.getId(), downlinkBw, CloudActionTags.NETWORK_PKT_DOWN, npkt);
 			}
 		} else {
 			throw new IllegalStateException("Unknown switch level " + level);
@@ -300,68 +305,258 @@ public class Switch extends SimEntity {
 	}
 
 	/**
-	 * Forwards the processed packets to their respective destinations:
+	 * Queues a processed packet in an output port. The packet can leave the port once it has
+	 * been processed (after the switching delay) and the packets ahead of it have been
+	 * transmitted; its transmission then takes 8 * size / bandwidth.
+	 *
+	 * @param ports the ports of the same kind, by destination id
+	 * @param destinationId the id of the switch or host connected to the port
+	 * @param bw the port bandwidth
+	 * @param tag the tag of the event sent to the destination when the packet leaves the port
+	 * @param npkt the packet
+	 */
+	protected void enqueue(Map<Integer, Port> ports, int destinationId, long bw, CloudActionTags tag, NetworkPacket npkt) {
+		Port port = ports.computeIfAbsent(destinationId, id -> new Port(id, bw, tag));
+		boolean wasIdle = port.isEmpty();
+		port.add(npkt, CloudSim.clock() + switchingDelay);
+		if (wasIdle) { // the head of line changed
+			busyPorts.add(port);
+			scheduleForward();
+		}
+	}
+
+	/**
+	 * Forwards the packets whose transmission has completed to their respective destinations:
 	 * an host, a downlink switch, or a uplink switch.
 	 *
 	 */
 	protected void forwardProcessedPackets() {
-		// Iterate over the packets in the downlink switch
-		for (Entry<Integer, List<NetworkPacket>> es : pktsToDownlinkSwitches.entrySet()) {
-			int receiverSwitchId = es.getKey();
-			List<NetworkPacket> hspktlist = es.getValue();
-			if (!hspktlist.isEmpty()) {
-				double avband = (double) downlinkBw / hspktlist.size();
-				for (NetworkPacket hspkt : hspktlist) {
-					double delay = 8 * hspkt.pkt.data / avband;
-
-					this.send(receiverSwitchId, delay, CloudActionTags.NETWORK_PKT_DOWN, hspkt);
+		double now = CloudSim.clock();
+		if (now >= nextForwardTime) {
+			nextForwardTime = Double.MAX_VALUE;
+		}
+
+		while (!busyPorts.isEmpty() && busyPorts.peek().getHeadDepartureTime() <= now + Port.TIME_TOLERANCE) {
+			Port port = busyPorts.poll();
+			while (!port.isEmpty() && port.getHeadDepartureTime() <= now + Port.TIME_TOLERANCE) {
+				NetworkPacket npkt = port.poll();
+				if (port.tag == CloudActionTags.NETWORK_PKT_REACHED_HOST) {
+					forwardToHost(npkt);
+				} else {
+					sendNow(port.destinationId, port.tag, npkt);
 				}
-				hspktlist.clear();
+			}
+			if (!port.isEmpty()) {
+				busyPorts.add(port);
 			}
 		}
+		scheduleForward();
+	}
+
+	/**
+	 * Sends a packet that left a port towards a host to the receiver guest.
+	 *
+	 * @param npkt the packet
+	 */
+	private void forwardToHost(NetworkPacket npkt) {
+		NetworkHost hs = hostList.get(npkt.receiverHostId);
 
-		for (Entry<Integer, List<NetworkPacket>> es : pktsToUplinkSwitches.entrySet()) {
-			int receiverSwitchId = es.getKey();
-			List<NetworkPacket> hspktlist = es.getValue();
-			if (!hspktlist.isEmpty()) {
-				// sharing bandwidth between packets
-				double avband = (double) uplinkBw / hspktlist.size();
-				for (NetworkPacket hspkt : hspktlist) {
-					double delay = 8 * hspkt.pkt.data / avband;
+		if (hs == null) { // nested virtualization edge-case
+			for (NetworkHost candidateHs: hostList.values()) {
+				if (candidateHs.getNics().get(npkt.pkt.receiverCloudletId) != null) {
+					hs = candidateHs;
 
-					this.send(receiverSwitchId, delay, CloudActionTags.NETWORK_PKT_UP, hspkt);
+					// Replace packet host
+					npkt.receiverHostId = hs.getId();
+					break;
 				}
-				hspktlist.clear();
 			}
 		}
 
-		for (Entry<Integer, List<NetworkPacket>> es : pktsToHosts.entrySet()) {
-			List<NetworkPacket> hspktlist = es.getValue();
-			if (!hspktlist.isEmpty()) {
-				double avband = (double) downlinkBw / hspktlist.size();
-				for (NetworkPacket npkt : hspktlist) {
-					NetworkHost hs = hostList.get(npkt.receiverHostId);
-
-					if (hs == null) { // nested virtualization edge-case
-						for (NetworkHost candidateHs: hostList.values()) {
-							if (candidateHs.getNics().get(npkt.pkt.receiverCloudletId) != null) {
-								hs = candidateHs;
-
-								// Replace packet host
-								npkt.receiverHostId = hs.getId();
-								break;
-							}
-						}
-					}
-
-					// simulate traversal overhead of the virtualization layers (host -> (nested) receiver guest)
-                    assert hs != null;
-                    int virtOverhead = hs.getTotalVirtualizationOverhead(npkt.getReceiverGuestId(), hs.getGuestList().iterator(), 0);
-					double delay = (8 * npkt.pkt.data / avband) + virtOverhead;
-					this.send(getId(), delay, CloudActionTags.NETWORK_PKT_REACHED_HOST, npkt);
+		// simulate traversal overhead of the virtualization layers (host -> (nested) receiver guest)
+		assert hs != null;
+		int virtOverhead = hs.getTotalVirtualizationOverhead(npkt.getReceiverGuestId());
+		send(getId(), virtOverhead, CloudActionTags.NETWORK_PKT_REACHED_HOST, npkt);
+	}
+
+	/**
+	 * Schedules a forward event when the earliest head-of-line packet leaves its port,
+	 * unless an earlier event is already pending. Stale events are harmless, as
+	 * they only forward the packets that have left their ports.
+	 */
+	private void scheduleForward() {
+		if (busyPorts.isEmpty()) {
+			return;
+		}
+		double next = busyPorts.peek().getHeadDepartureTime();
+		if (next < nextForwardTime) {
+			nextForwardTime = next;
+			schedule(getId(), Math.max(0, next - CloudSim.clock()), CloudActionTags.NETWORK_PKT_FORWARD);
+		}
+	}
+
+	/**
+	 * An output port of a switch, which transmits the packets queued in it one at a time,
+	 * in FIFO order, at the port bandwidth.
+	 */
+	public static class Port {
+
+		/** The tolerance on departure times, to absorb floating-point errors in event times. */
+		private static final double TIME_TOLERANCE = 1e-9;
+
+		/** The id of the switch or host connected to the port. */
+		private final int destinationId;
+
+		/** The port bandwidth (bits/sec). */
+		private final long bw;
+
+		/** The tag of the events sent to the destination. */
+		private final CloudActionTags tag;
+
+		/** The queued packets, in FIFO order. */
+		private final ArrayDeque<NetworkPacket> packets = new ArrayDeque<>();
+
+		/** The departure time of each queued packet, in FIFO order. */
+		private final ArrayDeque<Double> departureTimes = new ArrayDeque<>();
+
+		/** The time the port finishes transmitting the packets queued so far. */
+		private double busyUntil;
+
+		/** The number of bytes queued. */
+		private long queuedBytes;
+
+		/** The number of packets and bytes transmitted. */
+		private long transmittedPackets;
+		private long transmittedBytes;
+
+		/** The time the queue statistics are collected since. */
+		private double statisticsStartTime;
+
+		/** The time the number of queued bytes last changed. */
+		private double lastQueueChangeTime;
+
+		/** The integral of the number of queued bytes over time, since the statistics start time. */
+		private double queuedBytesIntegral;
+
+		/** The highest number of queued bytes since the statistics start time. */
+		private long peakQueuedBytes;
+
+		Port(int destinationId, long bw, CloudActionTags tag) {
+			this.destinationId = destinationId;
+			this.bw = bw;
+			this.tag = tag;
+		}
+
+		/**
+		 * Queues a packet.
+		 *
+		 * @param npkt the packet
+		 * @param readyTime the time the packet can start being transmitted
+		 */
+		void add(NetworkPacket npkt, double readyTime) {
+			busyUntil = Math.max(busyUntil, readyTime) + 8.0 * npkt.pkt.data / bw;
+			packets.add(npkt);
+			departureTimes.add(busyUntil);
+			accumulateQueuedBytes(CloudSim.clock());
+			queuedBytes += npkt.pkt.data;
+			peakQueuedBytes = Math.max(peakQueuedBytes, queuedBytes);
+		}
+
+		/**
+		 * Removes the head-of-line packet.
+		 *
+		 * @return the packet
+		 */
+		NetworkPacket poll() {
+			NetworkPacket npkt = packets.poll();
+			departureTimes.poll();
+			accumulateQueuedBytes(CloudSim.clock());
+			queuedBytes -= npkt.pkt.data;
+			transmittedPackets++;
+			transmittedBytes += npkt.pkt.data;
+			return npkt;
+		}
+
+		private void accumulateQueuedBytes(double now) {
+			queuedBytesIntegral += queuedBytes * (now - lastQueueChangeTime);
+			lastQueueChangeTime = now;
+		}
+
+		/**
+		 * Gets the time-weighted average number of queued bytes since the queue statistics were reset.
+		 *
+		 * @param now the current time
+		 * @return the average number of queued bytes, or the current one if no time has elapsed
+		 */
+		public double getAverageQueuedBytes(double now) {
+			double elapsed = now - statisticsStartTime;
+			if (elapsed <= 0) {
+				return queuedBytes;
+			}
+			return (queuedBytesIntegral + queuedBytes * (now - lastQueueChangeTime)) / elapsed;
+		}
+
+		/**
+		 * Gets the highest number of queued bytes since the queue statistics were reset.
+		 *
+		 * @return the peak number of queued bytes
+		 */
+		public long getPeakQueuedBytes() { return peakQueuedBytes; }
+
+		/**
+		 * Restarts the collection of the average and peak queue occupancy.
+		 *
+		 * @param now the current time
+		 */
+		public void resetQueueStatistics(double now) {
+			statisticsStartTime = now;
+			lastQueueChangeTime = now;
+			queuedBytesIntegral = 0;
+			peakQueuedBytes = queuedBytes;
+		}
+
+		public boolean isEmpty() { return packets.isEmpty(); }
+
+		/**
+		 * Gets the time the head-of-line packet leaves the port.
+		 *
+		 * @return the departure time, or {@link Double#MAX_VALUE} if the port is empty
+		 */
+		public double getHeadDepartureTime() {
+			return packets.isEmpty() ? Double.MAX_VALUE : departureTimes.peek();
+		}
+
+		public int getDestinationId() { return destinationId; }
+
+		public long getBw() { return bw; }
+
+		public int getQueuedPackets() { return packets.size(); }
+
+		public long getQueuedBytes() { return queuedBytes; }
+
+		public long getTransmittedPackets() { return transmittedPackets; }
+
+		public long getTransmittedBytes() { return transmittedBytes; }
+
+		/**
+		 * Gets the number of bytes transmitted up to a given time, including the part
+		 * already sent of the packets being transmitted.
+		 *
+		 * @param now the current time
+		 * @return the number of bytes transmitted
+		 */
+		public long getTransmittedBytes(double now) {
+			long bytes = transmittedBytes;
+			Iterator<Double> departures = departureTimes.iterator();
+			for (NetworkPacket npkt : packets) {
+				double duration = 8.0 * npkt.pkt.data / bw;
+				double start = departures.next() - duration;
+				if (start >= now) {
+					break;
 				}
-				hspktlist.clear();
+				bytes += (long) (npkt.pkt.data * Math.min(1, (now - start) / duration));
 			}
+			return bytes;
 		}
 	}
 
@@ -0,0 +1,262 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.PowerHostEntity;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+
+/**
+ * Integrates the energy consumed by a set of hosts, recording their power only when
+ * their CPU utilization changes.
+ *
+ * <p>Between two consecutive changes, the utilization of a host is constant, therefore
+ * its power consumption is constant as well and is accounted for in a datacenter-wide
+ * running power sum. When the utilization changes, the power is linearly interpolated
+ * between the previous and the new utilization over the last time frame, as done by
+ * {@link PowerHostEntity#getEnergyLinearInterpolation(double, double, double)}.
+ * As in that method, a host does not consume energy during a time frame that starts with
+ * zero utilization, i.e. it is considered switched off.</p>
+ *
+ * <p>This way, advancing the clock costs O(1) regardless of the number of hosts, and each host
+ * costs O(1) only at the times its utilization changes.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class EnergyIntegrator {
+
+	/** The indices of the changed hosts sharing a power model. */
+	private static final class HostGroup {
+		private int[] indices;
+		private int size;
+
+		private void add(int index) {
+			indices[size++] = index;
+		}
+	}
+
+	/** The time each host utilization was last recorded, indexed by host id. */
+	private double[] lastChangeTime = new double[0];
+
+	/** The host utilization since the last change, indexed by host id. */
+	private double[] lastUtilization = new double[0];
+
+	/** The host power consumption since the last change, indexed by host id.
+	 * It is zero when the host is switched off. */
+	private double[] lastPower = new double[0];
+
+	/** The host energy consumed until the last change, indexed by host id. */
+	private double[] hostEnergy = new double[0];
+
+	/** The sum of the current power consumption of all hosts. */
+	private double totalPower;
+
+	/** The energy consumed by all hosts until {@link #lastTime}. */
+	private double totalEnergy;
+
+	/** The time the total energy was last updated. */
+	private double lastTime;
+
+	/**
+	 * Advances the datacenter-wide energy until a given time, assuming that
+	 * the power of every host has been constant since the last advance.
+	 * It has to be called before the changes that occur at that time are recorded.
+	 *
+	 * @param time the current time
+	 */
+	public void advance(double time) {
+		if (time > lastTime) {
+			totalEnergy += totalPower * (time - lastTime);
+			lastTime = time;
+		}
+	}
+
+	/**
+	 * Records the utilization of a host at the current time, as reported by the
+	 * host at the end of the time frame starting at the previous time.
+	 * Nothing is done if the utilization has not changed.
+	 *
+	 * @param host the host
+	 * @param previousTime the start time of the last time frame
+	 * @param previousUtilization the host utilization at the start of the last time frame
+	 * @param utilization the current host utilization
+	 * @return true if the utilization of the host has changed; false otherwise
+	 */
+	public boolean update(PowerHostEntity host, double previousTime, double previousUtilization, double utilization) {
+		int id = host.getId();
+		growIfNeeded(id);
+		if (!isChanged(id, previousUtilization, utilization)) {
+			return false;
+		}
+		record(id, previousTime, previousUtilization, utilization,
+				host.getPower(previousUtilization), host.getPower(utilization));
+		return true;
+	}
+
+	/**
+	 * Records the utilization of a set of hosts at the current time, as
+	 * {@link #update(PowerHostEntity, double, double, double)} does for each of them.
+	 * The power of the hosts whose utilization has changed is computed with one
+	 * {@link PowerModel#getPower(double[], double[])} call per power model.
+	 *
+	 * @param hosts the hosts
+	 * @param previousTime the start time of the last time frame
+	 * @param previousUtilizations the utilization of each host at the start of the last time frame,
+	 * at the same index as the host
+	 * @param utilizations the current utilization of each host, at the same index as the host
+	 * @param changed the array where it is stored whether the utilization of each host has changed,
+	 * at the same index as the host
+	 * @return the number of hosts whose utilization has changed
+	 */
+	public int update(List<? extends PowerHostEntity> hosts, double previousTime,
+			double[] previousUtilizations, double[] utilizations, boolean[] changed) {
+		// the changed hosts, grouped by power model: the groups are counted first and then
+		// filled, so that they take O(changed hosts) memory however many models there are
+		Map<PowerModel, HostGroup> groups = new IdentityHashMap<>();
+		int changedCount = 0;
+		for (int i = 0; i < hosts.size(); i++) {
+			PowerHostEntity host = hosts.get(i);
+			int id = host.getId();
+			growIfNeeded(id);
+			changed[i] = isChanged(id, previousUtilizations[i], utilizations[i]);
+			if (changed[i]) {
+				groups.computeIfAbsent(host.getPowerModel(), model -> new HostGroup()).size++;
+				changedCount++;
+			}
+		}
+		for (HostGroup group : groups.values()) {
+			group.indices = new int[group.size];
+			group.size = 0;
+		}
+		for (int i = 0; i < hosts.size(); i++) {
+			if (changed[i]) {
+				groups.get(hosts.get(i).getPowerModel()).add(i);
+			}
+		}
+
+		for (Map.Entry<PowerModel, HostGroup> entry : groups.entrySet()) {
+			HostGroup group = entry.getValue();
+			double[] from = new double[group.size];
+			double[] to = new double[group.size];
+			for (int j = 0; j < group.size; j++) {
+				from[j] = previousUtilizations[group.indices[j]];
+				to[j] = utilizations[group.indices[j]];
+			}
+			double[] fromPower = new double[group.size];
+			double[] toPower = new double[group.size];
+			entry.getKey().getPower(from, fromPower);
+			entry.getKey().getPower(to, toPower);
+			for (int j = 0; j < group.size; j++) {
+				record(hosts.get(group.indices[j]).getId(), previousTime, from[j], to[j], fromPower[j], toPower[j]);
+			}
+		}
+		return changedCount;
+	}
+
+	private boolean isChanged(int id, double previousUtilization, double utilization) {
+		return utilization != lastUtilization[id] || previousUtilization != lastUtilization[id];
+	}
+
+	/**
+	 * Records a change of the utilization of a host.
+	 *
+	 * @param id the host id
+	 * @param previousTime the start time of the last time frame
+	 * @param previousUtilization the host utilization at the start of the last time frame
+	 * @param utilization the current host utilization
+	 * @param fromPower the host power at the previous utilization
+	 * @param toPower the host power at the current utilization
+	 */
+	private void record(int id, double previousTime, double previousUtilization, double utilization,
+			double fromPower, double toPower) {
+
+		// the power has been constant since the last change
+		hostEnergy[id] += lastPower[id] * (previousTime - lastChangeTime[id]);
+
+		// during the last time frame the power has changed linearly, instead of staying constant
+		double timeFrame = lastTime - previousTime;
+		double frameEnergy = 0;
+		if (previousUtilization != 0) {
+			frameEnergy = (fromPower + (toPower - fromPower) / 2) * timeFrame;
+		}
+		hostEnergy[id] += frameEnergy;
+		totalEnergy += frameEnergy - lastPower[id] * timeFrame;
+
+		double power = utilization == 0 ? 0 : toPower;
+		totalPower += power - lastPower[id];
+		lastPower[id] = power;
+		lastUtilization[id] = utilization;
+		lastChangeTime[id] = lastTime;
+	}
+
+	/**
+	 * Gets the energy consumed by all hosts until the last advance.
+	 *
+	 * @return the total energy (in W*sec)
+	 */
+	public double getTotalEnergy() {
+		return totalEnergy;
+	}
+
+	/**
+	 * Gets the current power consumption of all hosts.
+	 *
+	 * @return the total power (in W)
+	 */
+	public double getTotalPower() {
+		return totalPower;
+	}
+
+	/**
+	 * Gets the energy consumed by a host until the last advance.
+	 *
+	 * @param hostId the host id
+	 * @return the host energy (in W*sec)
+	 */
+	public double getHostEnergy(int hostId) {
+		if (hostId >= hostEnergy.length) {
+			return 0;
+		}
+		return hostEnergy[hostId] + lastPower[hostId] * (lastTime - lastChangeTime[hostId]);
+	}
+
+	/**
+	 * Gets the time the utilization of a host was last recorded to change.
+	 *
+	 * @param hostId the host id
+	 * @return the time of the last change
+	 */
+	public double getLastChangeTime(int hostId) {
+		if (hostId >= lastChangeTime.length) {
+			return 0;
+		}
+		return lastChangeTime[hostId];
+	}
+
+	/**
+	 * Grows the per-host arrays to hold a given host id.
+	 *
+	 * @param id the host id
+	 */
+	private void growIfNeeded(int id) {
+		if (id < lastUtilization.length) {
+			return;
+		}
+		int length = Math.max(id + 1, lastUtilization.length * 2);
+		lastChangeTime = Arrays.copyOf(lastChangeTime, length);
+		lastUtilization = Arrays.copyOf(lastUtilization, length);
+		lastPower = Arrays.copyOf(lastPower, length);
+		hostEnergy = Arrays.copyOf(hostEnergy, length);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.VmAllocationPolicy.GuestMapping;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.network.FairShareFlowModel;
+import org.cloudbus.cloudsim.network.FairShareFlowModel.Flow;
+
+/**
+ * Models the transfer of the memory of migrating VMs as network flows that
+ * share the bandwidth of the hosts NICs and, optionally, of the switches the hosts are
+ * attached to. Concurrent migrations get a max-min fair share of every link they cross,
+ * so the migration time depends on how many migrations are in progress at the same time.
+ *
+ * <p>Each host has a transmit and a receive link, whose capacity is a fraction of the
+ * host bandwidth (by default half of it, the other half being left for VM communication).
+ * When two hosts are attached to different switches, the migration also crosses the
+ * uplink of the source switch and the downlink of the target switch.
+ * A migration alone on the network takes RAM / (BW / 2) seconds, as in the
+ * fixed-delay model of {@link PowerDatacenter}.</p>
+ *
+ * <p>Bandwidth values are expressed in the same unit as {@link HostEntity#getBw()},
+ * i.e. kbit/s, and the RAM of VMs in MB.</p>
+ *
+ * @see PowerDatacenter#setMigrationTransport(MigrationTransport)
+ * @since CloudSim Toolkit 7.0
+ */
+public class MigrationTransport {
+
+	/** The number of kbit in a MB. */
+	private static final double KBIT_PER_MB = 8000;
+
+	/** The flows of the migrations in progress, whose sizes are in MB. */
+	private final FairShareFlowModel<GuestMapping> flowModel = new FairShareFlowModel<>();
+
+	/** The fraction of the host bandwidth available for migrations. */
+	private final double migrationBwFraction;
+
+	/** The transmit and receive link ids of each host, indexed by host. */
+	private final Map<HostEntity, int[]> hostLinks = new HashMap<>();
+
+	/** The switch each host is attached to, indexed by host. */
+	private final Map<HostEntity, Integer> hostSwitch = new HashMap<>();
+
+	/** The uplink and downlink ids of each switch, indexed by switch id. */
+	private final List<int[]> switchLinks = new ArrayList<>();
+
+	/**
+	 * Instantiates a new migration transport where half of the host
+	 * bandwidth is available for migrations.
+	 */
+	public MigrationTransport() {
+		this(0.5);
+	}
+
+	/**
+	 * Instantiates a new migration transport.
+	 *
+	 * @param migrationBwFraction the fraction of the host bandwidth available for migrations
+	 */
+	public MigrationTransport(double migrationBwFraction) {
+		if (migrationBwFraction <= 0 || migrationBwFraction > 1) {
+			throw new IllegalArgumentException("Migration bandwidth fraction must be between (0 and 1]");
+		}
+		this.migrationBwFraction = migrationBwFraction;
+	}
+
+	/**
+	 * Adds a switch that is shared by the migrations of the hosts attached to it.
+	 *
+	 * @param uplinkBw the bandwidth available for migrations leaving the switch
+	 * @param downlinkBw the bandwidth available for migrations entering the switch
+	 * @return the switch id
+	 */
+	public int addSwitch(double uplinkBw, double downlinkBw) {
+		switchLinks.add(new int[] {
+				flowModel.addLink(uplinkBw / KBIT_PER_MB),
+				flowModel.addLink(downlinkBw / KBIT_PER_MB) });
+		return switchLinks.size() - 1;
+	}
+
+	/**
+	 * Attaches a host to a switch.
+	 *
+	 * @param host the host
+	 * @param switchId the switch id
+	 */
+	public void attachHost(HostEntity host, int switchId) {
+		if (switchId < 0 || switchId >= switchLinks.size()) {
+			throw new IllegalArgumentException("Unknown switch #" + switchId);
+		}
+		hostSwitch.put(host, switchId);
+	}
+
+	/**
+	 * Starts the memory transfer of a migrating VM.
+	 *
+	 * @param migration the VM and its target host
+	 * @param source the host the VM is migrating from, or null if the VM has no host
+	 * @param time the current time
+	 * @return the migrations whose transfer completed until the given time
+	 */
+	public List<GuestMapping> startMigration(GuestMapping migration, HostEntity source, double time) {
+		List<GuestMapping> completed = getMigrations(flowModel.advance(time));
+		HostEntity target = migration.host();
+
+		List<Integer> path = new ArrayList<>();
+		if (source != null) {
+			path.add(getHostLinks(source)[0]);
+		}
+		path.add(getHostLinks(target)[1]);
+		Integer sourceSwitch = source == null ? null : hostSwitch.get(source);
+		Integer targetSwitch = hostSwitch.get(target);
+		if (sourceSwitch != null && !sourceSwitch.equals(targetSwitch)) {
+			path.add(switchLinks.get(sourceSwitch)[0]);
+		}
+		if (targetSwitch != null && !targetSwitch.equals(sourceSwitch)) {
+			path.add(switchLinks.get(targetSwitch)[1]);
+		}
+
+		flowModel.startFlow(migration, migration.vm().getRam(),
+				path.stream().mapToInt(Integer::intValue).toArray(), time);
+		return completed;
+	}
+
+	/**
+	 * Progresses the transfers until a given time.
+	 *
+	 * @param time the current time
+	 * @return the migrations whose transfer completed until the given time, in starting order
+	 */
+	public List<GuestMapping> advance(double time) {
+		return getMigrations(flowModel.advance(time));
+	}
+
+	/**
+	 * Gets the time the next transfer completes, if no other migration starts in the meantime.
+	 *
+	 * @return the next completion time, or {@link Double#MAX_VALUE} if there are no transfers in progress
+	 */
+	public double getNextCompletionTime() {
+		return flowModel.getNextCompletionTime();
+	}
+
+	/**
+	 * Gets the number of transfers in progress.
+	 *
+	 * @return the number of transfers in progress
+	 */
+	public int getMigrationCount() {
+		return flowModel.getFlowCount();
+	}
+
+	/**
+	 * Gets the underlying flow model.
+	 *
+	 * @return the flow model, whose sizes are in MB and rates in MB/s
+	 */
+	public FairShareFlowModel<GuestMapping> getFlowModel() {
+		return flowModel;
+	}
+
+	/**
+	 * Gets the transmit and receive links of a host, creating them on first use.
+	 *
+	 * @param host the host
+	 * @return the transmit and receive link ids
+	 */
+	private int[] getHostLinks(HostEntity host) {
+		return hostLinks.computeIfAbsent(host, h -> {
+			double bw = h.getBw() * migrationBwFraction / KBIT_PER_MB;
+			return new int[] { flowModel.addLink(bw), flowModel.addLink(bw) };
+		});
+	}
+
+	private static List<GuestMapping> getMigrations(List<Flow<GuestMapping>> flows) {
+		List<GuestMapping> migrations = new ArrayList<>(flows.size());
+		for (Flow<GuestMapping> flow : flows) {
+			migrations.add(flow.getData());
+		}
+		return migrations;
+	}
+
+}
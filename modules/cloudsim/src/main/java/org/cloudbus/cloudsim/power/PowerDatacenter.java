@@ -41,6 +41,12 @@ import org.cloudbus.cloudsim.core.predicates.PredicateType;
  */
 public class PowerDatacenter extends Datacenter {
 
+	/** The log of the migration starts, which can be sampled in large simulations. */
+	private static final Log.Site MIGRATION_START_LOG = Log.site("PowerDatacenter.migrationStart");
+
+	/** The log of the host utilization changes, which can be sampled in large simulations. */
+	private static final Log.Site UTILIZATION_LOG = Log.site("PowerDatacenter.utilization");
+
 	/** The datacenter consumed power. */
 	private double power;
 
@@ -53,6 +59,16 @@ public class PowerDatacenter extends Datacenter {
 	/** The VM migration count. */
 	private int migrationCount;
 
+	/** The integrator of the energy consumed by the hosts. */
+	private final EnergyIntegrator energyIntegrator = new EnergyIntegrator();
+
+	/** The model of the memory transfer of migrating VMs, or null
+         * to use a fixed migration delay. */
+	private MigrationTransport migrationTransport;
+
+	/** The time of the earliest pending {@link CloudActionTags#VM_MIGRATE_TRANSFER} event. */
+	private double nextMigrationTransferTime = Double.MAX_VALUE;
+
 	/**
 	 * Instantiates a new PowerDatacenter.
 	 * 
@@ -88,7 +104,7 @@ public class PowerDatacenter extends Datacenter {
 
 		// if some time passed since last processing
 		if (currentTime > getLastProcessTime()) {
-			Log.print(currentTime + " ");
+			Log.print(Log.Level.INFO, () -> currentTime + " ");
 
 			double minTime = updateCloudetProcessingWithoutSchedulingFutureEventsForce();
 
@@ -103,23 +119,28 @@ public class PowerDatacenter extends Datacenter {
 						PowerHost oldHost = (PowerHost) vm.getHost();
 
 						if (oldHost == null) {
-							Log.formatLine(
+							MIGRATION_START_LOG.println(Log.Level.INFO, () -> String.format(
 									"%.2f: Migration of VM #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
-									targetHost.getId());
+									targetHost.getId()));
 						} else {
-							Log.formatLine(
+							MIGRATION_START_LOG.println(Log.Level.INFO, () -> String.format(
 									"%.2f: Migration of VM #%d from Host #%d to Host #%d is started",
 									currentTime,
 									vm.getId(),
 									oldHost.getId(),
-									targetHost.getId());
+									targetHost.getId()));
 						}
 
 						targetHost.addMigratingInGuest(vm);
 						incrementMigrationCount();
 
+						if (getMigrationTransport() != null) {
+							startMigrationTransfer(migrate, oldHost);
+							continue;
+						}
+
 						/** VM migration delay = RAM / bandwidth **/
 						// we use BW / 2 to model BW available for migration purposes, the other
 						// half of BW is for VM communication
@@ -130,6 +151,7 @@ public class PowerDatacenter extends Datacenter {
 								CloudActionTags.VM_MIGRATE,
 								migrate);
 					}
+					scheduleMigrationTransfer();
 				}
 			}
 
@@ -174,57 +196,55 @@ public class PowerDatacenter extends Datacenter {
 		double timeFrameDatacenterEnergy = 0.0;
 
 		Log.println("\n\n--------------------------------------------------------------\n\n");
-		Log.formatLine("New resource usage for the time frame starting at %.2f:", currentTime);
+		Log.println(Log.Level.INFO, () -> String.format("New resource usage for the time frame starting at %.2f:", currentTime));
 
-		for (PowerHost host : this.<PowerHost> getHostList()) {
-			Log.println();
+		double previousTime = getLastProcessTime();
+		double totalEnergy = getEnergyIntegrator().getTotalEnergy();
+		getEnergyIntegrator().advance(currentTime);
 
+		List<PowerHost> hosts = getHostList();
+		double[] previousUtilizations = new double[hosts.size()];
+		double[] utilizations = new double[hosts.size()];
+		for (int i = 0; i < hosts.size(); i++) {
+			PowerHost host = hosts.get(i);
 			double time = host.updateCloudletsProcessing(currentTime); // inform VMs to update processing
 			if (time < minTime) {
 				minTime = time;
 			}
-
-			Log.formatLine(
-					"%.2f: [Host #%d] utilization is %.2f%%",
-					currentTime,
-					host.getId(),
-					host.getUtilizationOfCpu() * 100);
+			previousUtilizations[i] = host.getPreviousUtilizationOfCpu();
+			utilizations[i] = host.getUtilizationOfCpu();
 		}
 
+		boolean[] changed = new boolean[hosts.size()];
+		getEnergyIntegrator().update(hosts, previousTime, previousUtilizations, utilizations, changed);
+
 		if (timeDiff > 0) {
-			Log.formatLine(
-					"\nEnergy consumption for the last time frame from %.2f to %.2f:",
-					getLastProcessTime(),
-					currentTime);
-
-			for (PowerHost host : this.<PowerHost> getHostList()) {
-				double previousUtilizationOfCpu = host.getPreviousUtilizationOfCpu();
-				double utilizationOfCpu = host.getUtilizationOfCpu();
-				double timeFrameHostEnergy = host.getEnergyLinearInterpolation(
-						previousUtilizationOfCpu,
-						utilizationOfCpu,
-						timeDiff);
-				timeFrameDatacenterEnergy += timeFrameHostEnergy;
-
-				Log.println();
-				Log.formatLine(
+			for (int i = 0; i < hosts.size(); i++) {
+				if (!changed[i]) {
+					continue;
+				}
+				int hostId = hosts.get(i).getId();
+				double previousUtilizationOfCpu = previousUtilizations[i];
+				double utilizationOfCpu = utilizations[i];
+				UTILIZATION_LOG.println(Log.Level.INFO, () -> String.format(
 						"%.2f: [Host #%d] utilization at %.2f was %.2f%%, now is %.2f%%",
 						currentTime,
-						host.getId(),
-						getLastProcessTime(),
+						hostId,
+						previousTime,
 						previousUtilizationOfCpu * 100,
-						utilizationOfCpu * 100);
-				Log.formatLine(
-						"%.2f: [Host #%d] energy is %.2f W*sec",
-						currentTime,
-						host.getId(),
-						timeFrameHostEnergy);
+						utilizationOfCpu * 100));
 			}
+		}
 
-			Log.formatLine(
-					"\n%.2f: Data center's energy is %.2f W*sec\n",
+		if (timeDiff > 0) {
+			timeFrameDatacenterEnergy = getEnergyIntegrator().getTotalEnergy() - totalEnergy;
+			double energy = timeFrameDatacenterEnergy;
+			Log.println(Log.Level.INFO, () -> String.format(
+					"\n%.2f: Data center's energy for the time frame from %.2f to %.2f is %.2f W*sec\n",
 					currentTime,
-					timeFrameDatacenterEnergy);
+					previousTime,
+					currentTime,
+					energy));
 		}
 
 		setPower(getPower() + timeFrameDatacenterEnergy);
@@ -236,7 +256,7 @@ public class PowerDatacenter extends Datacenter {
 			for (GuestEntity vm : host.getCompletedVms()) {
 				getVmAllocationPolicy().deallocateHostForGuest(vm);
 				getVmList().remove(vm);
-				Log.println("VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
+				Log.println(Log.Level.INFO, () -> "VM #" + vm.getId() + " has been deallocated from host #" + host.getId());
 			}
 		}
 
@@ -256,12 +276,95 @@ public class PowerDatacenter extends Datacenter {
 		}
 	}
 
+	@Override
+	protected void processOtherEvent(SimEvent ev) {
+		if (ev != null && ev.getTag() == CloudActionTags.VM_MIGRATE_TRANSFER) {
+			processMigrationTransfer();
+		} else {
+			super.processOtherEvent(ev);
+		}
+	}
+
+	/**
+	 * Starts the memory transfer of a migrating VM on the {@link #migrationTransport}.
+	 *
+	 * @param migrate the VM and its target host
+	 * @param oldHost the host the VM is migrating from
+	 */
+	protected void startMigrationTransfer(GuestMapping migrate, PowerHost oldHost) {
+		for (GuestMapping completed : getMigrationTransport().startMigration(migrate, oldHost, CloudSim.clock())) {
+			sendNow(getId(), CloudActionTags.VM_MIGRATE, completed);
+		}
+	}
+
+	/**
+	 * Processes the completion of memory transfers, completing the migration of the
+	 * corresponding VMs.
+	 */
+	protected void processMigrationTransfer() {
+		if (CloudSim.clock() >= nextMigrationTransferTime) {
+			nextMigrationTransferTime = Double.MAX_VALUE;
+		}
+		for (GuestMapping completed : getMigrationTransport().advance(CloudSim.clock())) {
+			sendNow(getId(), CloudActionTags.VM_MIGRATE, completed);
+		}
+		scheduleMigrationTransfer();
+	}
+
+	/**
+	 * Schedules a {@link CloudActionTags#VM_MIGRATE_TRANSFER} event at the next completion
+	 * time of the memory transfers, unless an earlier event is already pending.
+	 * Pending events that turn out to be too early, because new transfers slowed down
+	 * the ongoing ones, are simply processed as no-ops.
+	 */
+	protected void scheduleMigrationTransfer() {
+		if (getMigrationTransport() == null) {
+			return;
+		}
+		double next = getMigrationTransport().getNextCompletionTime();
+		if (next == Double.MAX_VALUE || next >= nextMigrationTransferTime) {
+			return;
+		}
+		nextMigrationTransferTime = next;
+		schedule(getId(), Math.max(0, next - CloudSim.clock()), CloudActionTags.VM_MIGRATE_TRANSFER);
+	}
+
 	@Override
 	protected void processCloudletSubmit(SimEvent ev, boolean ack) {
 		super.processCloudletSubmit(ev, ack);
 		setCloudletSubmitted(CloudSim.clock());
 	}
 
+	/**
+	 * Gets the energy integrator, which holds the energy consumed by each host.
+	 *
+	 * @return the energy integrator
+	 */
+	public EnergyIntegrator getEnergyIntegrator() {
+		return energyIntegrator;
+	}
+
+	/**
+	 * Gets the model of the memory transfer of migrating VMs.
+	 *
+	 * @return the migration transport, or null if a fixed migration delay is used
+	 */
+	public MigrationTransport getMigrationTransport() {
+		return migrationTransport;
+	}
+
+	/**
+	 * Sets the model of the memory transfer of migrating VMs. When it is set,
+	 * concurrent migrations share the available bandwidth and a VM migration completes
+	 * when its memory has been transferred; otherwise, every migration takes
+	 * RAM / (BW / 2) seconds of the target host.
+	 *
+	 * @param migrationTransport the migration transport, or null to use a fixed migration delay
+	 */
+	public void setMigrationTransport(MigrationTransport migrationTransport) {
+		this.migrationTransport = migrationTransport;
+	}
+
 	/**
 	 * Gets the power.
 	 * 
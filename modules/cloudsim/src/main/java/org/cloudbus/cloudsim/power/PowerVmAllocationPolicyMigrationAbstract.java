@@ -9,12 +9,16 @@
 package org.cloudbus.cloudsim.power;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 import org.cloudbus.cloudsim.*;
 import org.cloudbus.cloudsim.core.CloudSim;
@@ -95,6 +99,16 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
          */
 	private final List<Double> executionTimeHistoryTotal = new ArrayList<>();
 
+	/** Whether over-utilization detection and target host scoring are
+         * fanned out to {@link #consolidationPool}. Disabled by default.
+         * @see #setParallelConsolidation(boolean)
+         */
+	private boolean parallelConsolidation = false;
+
+	/** The pool used when {@link #parallelConsolidation} is enabled;
+         * the common pool is used when it is null. */
+	private ForkJoinPool consolidationPool;
+
 	/**
 	 * Instantiates a new PowerVmAllocationPolicyMigrationAbstract.
 	 * 
@@ -193,7 +207,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 			}
 
 			Log.print("Reallocation of VMs from the under-utilized host: ");
-			if (!Log.isDisabled()) {
+			if (Log.isEnabled(Log.Level.INFO)) {
 				for (GuestEntity vm : vmsToMigrateFromUnderUtilizedHost) {
 					Log.print(vm.getId() + " ");
 				}
@@ -221,13 +235,14 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @param overUtilizedHosts the over utilized hosts
 	 */
 	protected void printOverUtilizedHosts(List<PowerHost> overUtilizedHosts) {
-		if (!Log.isDisabled()) {
-			Log.println("Over-utilized hosts:");
+		Log.print(Log.Level.INFO, () -> {
+			String lineSeparator = System.lineSeparator();
+			StringBuilder text = new StringBuilder("Over-utilized hosts:").append(lineSeparator);
 			for (PowerHost host : overUtilizedHosts) {
-				Log.printlnConcat("Host #", host.getId());
+				text.append("Host #").append(host.getId()).append(lineSeparator);
 			}
-			Log.println();
-		}
+			return text.append(lineSeparator);
+		});
 	}
 
 	/**
@@ -241,6 +256,10 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 * @return the host found to host the VM
 	 */
 	public PowerHost findHostForGuest(GuestEntity vm, Set<? extends HostEntity> excludedHosts) {
+		if (isParallelConsolidation()) {
+			return findHostForGuestInParallel(vm, excludedHosts);
+		}
+
 		double minPower = Double.MAX_VALUE;
 		PowerHost allocatedHost = null;
 
@@ -269,6 +288,72 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		return allocatedHost;
 	}
 
+	/**
+	 * Parallel counterpart of {@link #findHostForGuest(GuestEntity, Set)} that selects exactly
+	 * the same host. The power increase of every candidate host is computed concurrently
+	 * (these are read-only computations), then the candidates are visited in ascending
+	 * order of power increase (ties broken by position in the host list) and the first one
+	 * that passes the suitability and over-utilization checks is selected. These two checks
+	 * tentatively place the VM on the host, so they are run sequentially and only until a
+	 * host is found.
+	 *
+	 * @param vm the VM
+	 * @param excludedHosts the excluded hosts
+	 * @return the host found to host the VM
+	 */
+	protected PowerHost findHostForGuestInParallel(GuestEntity vm, Set<? extends HostEntity> excludedHosts) {
+		List<PowerHost> hosts = new ArrayList<>(this.<PowerHost> getHostList());
+		HostScore[] scores = new HostScore[hosts.size()];
+		// the requested MIPS may be lazily cached by the cloudlet scheduler, so fill the cache before sharing the VM
+		vm.getCurrentRequestedTotalMips();
+
+		runInParallel(hosts.size(), i -> {
+			PowerHost host = hosts.get(i);
+			// a VM that doesn't fit could not have passed the sequential checks
+			if (excludedHosts.contains(host) || getMaxUtilizationAfterAllocation(host, vm) > 1) {
+				return;
+			}
+			try {
+				double powerAfterAllocation = getPowerAfterAllocation(host, vm);
+				if (powerAfterAllocation != -1) {
+					scores[i] = new HostScore(i, host, powerAfterAllocation - host.getPower(),
+							getUtilizationOfCpuMips(host) != 0);
+				}
+			} catch (Exception e) {
+			}
+		});
+
+		List<HostScore> candidates = new ArrayList<>();
+		for (HostScore score : scores) {
+			if (score != null) {
+				candidates.add(score);
+			}
+		}
+		candidates.sort(Comparator.comparingDouble(HostScore::powerDiff).thenComparingInt(HostScore::index));
+
+		for (HostScore candidate : candidates) {
+			PowerHost host = candidate.host();
+			if (!host.isSuitableForGuest(vm)) {
+				continue;
+			}
+			if (candidate.checkOverUtilization() && isHostOverUtilizedAfterAllocation(host, vm)) {
+				continue;
+			}
+			return host;
+		}
+		return null;
+	}
+
+	/**
+	 * The power increase of placing a VM on a candidate host.
+	 *
+	 * @param index the position of the host in the host list
+	 * @param host the candidate host
+	 * @param powerDiff the power increase after placing the VM
+	 * @param checkOverUtilization whether the host has to be checked for over-utilization after placement
+	 */
+	protected record HostScore(int index, PowerHost host, double powerDiff, boolean checkOverUtilization) {}
+
 	/**
 	 * Checks if a host will be over utilized after placing of a candidate VM.
 	 * 
@@ -324,7 +409,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
 				allocatedHost.guestCreate(vm);
-				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				Log.println(Log.Level.INFO, () -> "VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			}
 		}
@@ -347,7 +432,7 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 			PowerHost allocatedHost = findHostForGuest(vm, excludedHosts);
 			if (allocatedHost != null) {
 				allocatedHost.guestCreate(vm);
-				Log.printlnConcat("VM #", vm.getId(), " allocated to host #", allocatedHost.getId());
+				Log.println(Log.Level.INFO, () -> "VM #" + vm.getId() + " allocated to host #" + allocatedHost.getId());
 				migrationMap.add(new GuestMapping(vm, allocatedHost));
 			} else {
 				Log.println("Not all VMs can be reallocated from the host, reallocation cancelled");
@@ -409,6 +494,22 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 	 */
 	protected List<PowerHost> getOverUtilizedHosts() {
 		List<PowerHost> overUtilizedHosts = new LinkedList<>();
+		if (isParallelConsolidation()) {
+			List<PowerHost> hosts = new ArrayList<>(this.<PowerHost> getHostList());
+			boolean[] overUtilized = new boolean[hosts.size()];
+			for (PowerHost host : hosts) {
+				for (GuestEntity vm : host.getGuestList()) {
+					vm.getCurrentRequestedTotalMips();
+				}
+			}
+			runInParallel(hosts.size(), i -> overUtilized[i] = isHostOverUtilized(hosts.get(i)));
+			for (int i = 0; i < overUtilized.length; i++) {
+				if (overUtilized[i]) {
+					overUtilizedHosts.add(hosts.get(i));
+				}
+			}
+			return overUtilizedHosts;
+		}
 		for (PowerHost host : this.<PowerHost> getHostList()) {
 			if (isHostOverUtilized(host)) {
 				overUtilizedHosts.add(host);
@@ -475,19 +576,33 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 
 	/**
 	 * Checks if host is over utilized.
+	 * When parallel consolidation is enabled, this method is called concurrently
+	 * for different hosts and therefore must not modify shared state
+	 * (other than through {@link #addHistoryEntry(HostDynamicWorkload, double)}).
 	 * 
 	 * @param host the host
 	 * @return true, if the host is over utilized; false otherwise
 	 */
 	protected abstract boolean isHostOverUtilized(PowerHost host);
 
+	/**
+	 * Runs a task for each index in [0, size), on the consolidation pool.
+	 *
+	 * @param size the number of indexes
+	 * @param task the task to run for each index
+	 */
+	protected void runInParallel(int size, IntConsumer task) {
+		ForkJoinPool pool = getConsolidationPool() != null ? getConsolidationPool() : ForkJoinPool.commonPool();
+		pool.submit(() -> IntStream.range(0, size).parallel().forEach(task)).join();
+	}
+
 	/**
 	 * Adds an entry for each history map of a host.
 	 * 
 	 * @param host the host to add metric history entries
 	 * @param metric the metric to be added to the metric history map
 	 */
-	protected void addHistoryEntry(HostDynamicWorkload host, double metric) {
+	protected synchronized void addHistoryEntry(HostDynamicWorkload host, double metric) {
 		int hostId = host.getId();
 		growIfNeeded(timeHistory, hostId);
 		if (timeHistory.get(hostId) == null) {
@@ -697,4 +812,43 @@ public abstract class PowerVmAllocationPolicyMigrationAbstract extends VmAllocat
 		return executionTimeHistoryTotal;
 	}
 
+	/**
+	 * Checks if parallel consolidation is enabled.
+	 *
+	 * @return true, if over-utilization detection and target host scoring run on multiple cores
+	 */
+	public boolean isParallelConsolidation() {
+		return parallelConsolidation;
+	}
+
+	/**
+	 * Enables or disables parallel consolidation. When enabled, the over-utilization
+	 * detection of every host and the scoring of candidate target hosts are performed
+	 * on a {@link ForkJoinPool}. The resulting migration map is the same as
+	 * the one produced sequentially.
+	 *
+	 * @param parallelConsolidation true to enable parallel consolidation
+	 */
+	public void setParallelConsolidation(boolean parallelConsolidation) {
+		this.parallelConsolidation = parallelConsolidation;
+	}
+
+	/**
+	 * Gets the pool used for parallel consolidation.
+	 *
+	 * @return the pool, or null if the common pool is used
+	 */
+	public ForkJoinPool getConsolidationPool() {
+		return consolidationPool;
+	}
+
+	/**
+	 * Sets the pool used for parallel consolidation.
+	 *
+	 * @param consolidationPool the pool, or null to use the common pool
+	 */
+	public void setConsolidationPool(ForkJoinPool consolidationPool) {
+		this.consolidationPool = consolidationPool;
+	}
+
 }
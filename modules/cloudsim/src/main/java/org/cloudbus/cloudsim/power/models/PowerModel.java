@@ -39,4 +39,19 @@ public interface PowerModel {
 	 */
 	double getPower(double utilization) throws IllegalArgumentException;
 
+	/**
+	 * Gets the power consumption for a batch of utilization percentages,
+	 * such as the utilization of every host of a datacenter.
+	 *
+	 * @param utilizations the utilization percentages (between [0 and 1])
+	 * @param out the array where the power consumption for each utilization is stored,
+	 * at the same index; it must be at least as long as utilizations
+	 * @throws IllegalArgumentException when some utilization percentage is not between [0 and 1]
+	 */
+	default void getPower(double[] utilizations, double[] out) throws IllegalArgumentException {
+		for (int i = 0; i < utilizations.length; i++) {
+			out[i] = getPower(utilizations[i]);
+		}
+	}
+
 }
@@ -0,0 +1,139 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power.models;
+
+/**
+ * A power model compiled from another {@link PowerModel} into a piecewise-linear lookup table.
+ * The wrapped model is sampled once at construction time, at a fixed number of
+ * equally spaced utilization points; afterwards, the power for any utilization is
+ * obtained by a single table lookup and a linear interpolation, with no calls to the
+ * wrapped model.
+ *
+ * <p>The table reproduces exactly (up to floating-point rounding) piecewise-linear models whose
+ * breakpoints lie on the table grid, such as the {@link PowerModelSpecPower} models when the
+ * resolution is a multiple of 10, and {@link PowerModelLinear}. Other models, such as
+ * {@link PowerModelCubic} or {@link PowerModelSqrt}, are approximated with an error that
+ * decreases quadratically with the resolution.</p>
+ *
+ * <p>The power at zero utilization is kept apart from the table, since many models
+ * (e.g. {@link PowerModelLinear}) consume no power at all when the host is idle
+ * but consume their static power as soon as there is some load.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class PowerModelLookupTable implements PowerModel {
+
+	/** The default number of table intervals, i.e. one point every 0.1% of utilization. */
+	public static final int DEFAULT_RESOLUTION = 1000;
+
+	/** The model the table has been compiled from. */
+	private final PowerModel powerModel;
+
+	/** The number of intervals the utilization range [0, 1] is split into. */
+	private final int resolution;
+
+	/** The power consumption at zero utilization. */
+	private final double idlePower;
+
+	/**
+	 * The power consumption at each point of the table. The first entry is the power consumption
+	 * right above zero utilization; an extra entry equal to the last one is appended so that
+	 * the full utilization does not need a special case.
+	 */
+	private final double[] power;
+
+	/** The slope of each interval of the table, in W per table interval. */
+	private final double[] slope;
+
+	/**
+	 * Compiles a power model with the {@link #DEFAULT_RESOLUTION default resolution}.
+	 *
+	 * @param powerModel the power model to compile
+	 */
+	public PowerModelLookupTable(PowerModel powerModel) {
+		this(powerModel, DEFAULT_RESOLUTION);
+	}
+
+	/**
+	 * Compiles a power model into a lookup table.
+	 *
+	 * @param powerModel the power model to compile
+	 * @param resolution the number of intervals the utilization range [0, 1] is split into
+	 * @throws IllegalArgumentException when the resolution is not positive
+	 */
+	public PowerModelLookupTable(PowerModel powerModel, int resolution) throws IllegalArgumentException {
+		if (resolution <= 0) {
+			throw new IllegalArgumentException("Resolution must be greater than 0");
+		}
+		this.powerModel = powerModel;
+		this.resolution = resolution;
+		this.idlePower = powerModel.getPower(0);
+
+		power = new double[resolution + 2];
+		slope = new double[resolution + 2];
+		power[0] = powerModel.getPower(Double.MIN_VALUE);
+		for (int i = 1; i <= resolution; i++) {
+			power[i] = powerModel.getPower(Math.min((double) i / resolution, 1));
+		}
+		power[resolution + 1] = power[resolution];
+		for (int i = 0; i <= resolution; i++) {
+			slope[i] = power[i + 1] - power[i];
+		}
+	}
+
+	@Override
+	public double getPower(double utilization) throws IllegalArgumentException {
+		if (utilization < 0 || utilization > 1) {
+			throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+		}
+		return utilization == 0 ? idlePower : interpolate(utilization);
+	}
+
+	@Override
+	public void getPower(double[] utilizations, double[] out) throws IllegalArgumentException {
+		for (int i = 0; i < utilizations.length; i++) {
+			double utilization = utilizations[i];
+			if (utilization < 0 || utilization > 1) {
+				throw new IllegalArgumentException("Utilization value must be between 0 and 1");
+			}
+			out[i] = utilization == 0 ? idlePower : interpolate(utilization);
+		}
+	}
+
+	/**
+	 * Interpolates the table at a given utilization.
+	 *
+	 * @param utilization the utilization percentage, between (0 and 1]
+	 * @return the power consumption
+	 */
+	private double interpolate(double utilization) {
+		double x = utilization * resolution;
+		int i = (int) x;
+		return power[i] + (x - i) * slope[i];
+	}
+
+	/**
+	 * Gets the model the table has been compiled from.
+	 *
+	 * @return the power model
+	 */
+	public PowerModel getPowerModel() {
+		return powerModel;
+	}
+
+	/**
+	 * Gets the number of intervals the utilization range [0, 1] is split into.
+	 *
+	 * @return the resolution
+	 */
+	public int getResolution() {
+		return resolution;
+	}
+
+}
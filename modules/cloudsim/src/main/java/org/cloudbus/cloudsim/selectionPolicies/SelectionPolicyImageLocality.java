@@ -0,0 +1,49 @@
+/*
+ * Title: CloudSim Toolkit Description: CloudSim (Cloud Simulation) Toolkit for Modeling and
+ * Simulation of Clouds Licence: GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.selectionPolicies;
+
+import org.cloudbus.cloudsim.container.core.Container;
+import org.cloudbus.cloudsim.container.core.ContainerVm;
+import org.cloudbus.cloudsim.core.HostEntity;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Image-Locality policy: selects the VM that has to pull the least data to start the container,
+ * that is, the VM whose image layer cache holds most of the container image. Ties are broken
+ * in the order of the candidates, as in First Fit.
+ *
+ * @see org.cloudbus.cloudsim.container.core.ContainerImageCache#getMissingSize(org.cloudbus.cloudsim.container.core.ContainerImage)
+ * @since CloudSim toolkit 7.0
+ */
+public class SelectionPolicyImageLocality<T extends HostEntity> implements SelectionPolicy<T> {
+    @Override
+    public T select(List<T> candidates, Object obj, Set<T> excludedCandidates) {
+        long minMissingSize = Long.MAX_VALUE;
+        T selectedHost = null;
+
+        for (T hostCandidate : candidates) {
+            if (excludedCandidates.contains(hostCandidate)) {
+                continue;
+            }
+
+            long missingSize = 0;
+            if (obj instanceof Container container && container.getImage() != null
+                    && hostCandidate instanceof ContainerVm vm) {
+                missingSize = vm.getImageCache().getMissingSize(container.getImage());
+            }
+
+            if (missingSize < minMissingSize) {
+                minMissingSize = missingSize;
+                selectedHost = hostCandidate;
+            }
+        }
+        return selectedHost;
+    }
+}
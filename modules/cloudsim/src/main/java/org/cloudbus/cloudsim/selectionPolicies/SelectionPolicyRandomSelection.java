@@ -20,12 +20,15 @@ import java.util.Set;
  * @since CloudSim toolkit 7.0
  */
 public class SelectionPolicyRandomSelection<CandidateEntity> implements SelectionPolicy<CandidateEntity> {
+    /** The generator of this policy, kept from one selection to the next. */
+    private final RandomGen random = new RandomGen();
+
     @Override
     public CandidateEntity select(List<CandidateEntity> candidates, Object obj, Set<CandidateEntity> excludedCandidates) {
         CandidateEntity selectedHost = null;
         while (true) {
             if (!candidates.isEmpty()) {
-                int randomNum = new RandomGen().getNum(candidates.size());
+                int randomNum = random.getNum(candidates.size());
                 selectedHost = candidates.get(randomNum);
                 if (excludedCandidates.contains(selectedHost)) {
                     continue;
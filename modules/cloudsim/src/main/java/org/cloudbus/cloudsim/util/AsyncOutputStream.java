@@ -0,0 +1,260 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An output stream that buffers the bytes written to it and writes them to another stream on a
+ * background thread, so that writing, typically a log line given to
+ * {@link org.cloudbus.cloudsim.Log#setOutput(OutputStream) Log}, does not wait for the disk.
+ *
+ * <p>The bytes are gathered into chunks, which are handed to the background thread when they fill
+ * up. The number of chunks waiting to be written is bounded: when the target stream cannot keep
+ * up, writing blocks until a chunk has been written. Buffered bytes reach the target stream on
+ * {@link #flush()} and {@link #close()}, and when the JVM exits.</p>
+ *
+ * <p>Write errors happen on the background thread: they are thrown by the next call to a method
+ * of the stream.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class AsyncOutputStream extends OutputStream {
+
+	/** The default number of bytes buffered before handing them to the background thread. */
+	public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	/** The maximum number of chunks waiting to be written. */
+	private static final int QUEUE_CAPACITY = 64;
+
+	/** How long the JVM exit waits for the bytes to be written, in seconds. */
+	private static final long EXIT_TIMEOUT = 10;
+
+	/**
+	 * An operation run by the background thread.
+	 *
+	 * @param data the bytes to write, or null
+	 * @param length the number of bytes to write
+	 * @param close whether to close the target stream afterwards
+	 * @param done completed once the operation has run, or null
+	 */
+	private record Chunk(byte[] data, int length, boolean close, CompletableFuture<Void> done) {
+	}
+
+	/** The stream the bytes are written to; only used by the background thread. */
+	private final OutputStream out;
+
+	/** The bytes not yet handed to the background thread. */
+	private byte[] buffer;
+
+	private int count;
+
+	private final BlockingQueue<Chunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+	private final Thread exitHook;
+
+	/** The first error raised by the background thread, not yet thrown. */
+	private volatile IOException failure;
+
+	private boolean closed;
+
+	/**
+	 * Creates a stream writing to another one in chunks of {@link #DEFAULT_CHUNK_SIZE} bytes.
+	 *
+	 * @param out the stream to write to
+	 */
+	public AsyncOutputStream(OutputStream out) {
+		this(out, DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Creates a stream writing to another one.
+	 *
+	 * @param out the stream to write to
+	 * @param chunkSize the number of bytes buffered before handing them to the background thread
+	 */
+	public AsyncOutputStream(OutputStream out, int chunkSize) {
+		if (out == null) {
+			throw new IllegalArgumentException("The target stream cannot be null");
+		}
+		if (chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive: " + chunkSize);
+		}
+		this.out = out;
+		this.buffer = new byte[chunkSize];
+
+		Thread thread = new Thread(this::run, "AsyncOutputStream");
+		thread.setDaemon(true);
+		thread.start();
+		exitHook = new Thread(this::flushOnExit, "AsyncOutputStream-exit");
+		Runtime.getRuntime().addShutdownHook(exitHook);
+	}
+
+	@Override
+	public synchronized void write(int b) throws IOException {
+		checkOpen();
+		if (count == buffer.length) {
+			handOff();
+		}
+		buffer[count++] = (byte) b;
+	}
+
+	@Override
+	public synchronized void write(byte[] b, int off, int len) throws IOException {
+		checkOpen();
+		if (len > buffer.length - count) {
+			handOff();
+		}
+		if (len >= buffer.length) {
+			submit(new Chunk(Arrays.copyOfRange(b, off, off + len), len, false, null));
+			return;
+		}
+		System.arraycopy(b, off, buffer, count, len);
+		count += len;
+	}
+
+	/**
+	 * Writes the buffered bytes to the target stream, flushes it, and waits until it is done.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public synchronized void flush() throws IOException {
+		checkOpen();
+		handOff();
+		await(new Chunk(null, 0, false, new CompletableFuture<>()));
+		throwFailure();
+	}
+
+	/**
+	 * Writes the buffered bytes to the target stream and closes it. Closing a closed stream has
+	 * no effect.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		throwFailure();
+		handOff();
+		closed = true;
+		await(new Chunk(null, 0, true, new CompletableFuture<>()));
+		try {
+			Runtime.getRuntime().removeShutdownHook(exitHook);
+		} catch (IllegalStateException e) {
+			// the JVM is exiting
+		}
+		throwFailure();
+	}
+
+	/**
+	 * Hands the buffered bytes to the background thread.
+	 */
+	private void handOff() throws IOException {
+		if (count > 0) {
+			submit(new Chunk(buffer, count, false, null));
+			buffer = new byte[buffer.length];
+			count = 0;
+		}
+	}
+
+	private void submit(Chunk chunk) throws IOException {
+		try {
+			queue.put(chunk);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing");
+		}
+	}
+
+	private void await(Chunk chunk) throws IOException {
+		submit(chunk);
+		try {
+			chunk.done().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while writing");
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+	}
+
+	private void checkOpen() throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		throwFailure();
+	}
+
+	private void throwFailure() throws IOException {
+		IOException e = failure;
+		if (e != null) {
+			failure = null;
+			throw e;
+		}
+	}
+
+	private void flushOnExit() {
+		try {
+			CompletableFuture<Void> done = new CompletableFuture<>();
+			synchronized (this) {
+				if (closed) {
+					return;
+				}
+				handOff();
+				queue.put(new Chunk(null, 0, false, done));
+			}
+			done.get(EXIT_TIMEOUT, TimeUnit.SECONDS);
+		} catch (IOException | InterruptedException | ExecutionException | TimeoutException e) {
+			System.err.println("Couldn't write the buffered output: " + e);
+		}
+	}
+
+	private void run() {
+		while (true) {
+			Chunk chunk;
+			try {
+				chunk = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				if (chunk.data() != null) {
+					out.write(chunk.data(), 0, chunk.length());
+				}
+				if (chunk.close()) {
+					out.close();
+				} else if (chunk.done() != null) {
+					out.flush();
+				}
+			} catch (IOException e) {
+				if (failure == null) {
+					failure = e;
+				}
+			}
+			if (chunk.done() != null) {
+				chunk.done().complete(null);
+			}
+			if (chunk.close()) {
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,393 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a file written by a {@link ColumnarMetricsWriter}, one row group at a time, as
+ * primitive arrays.
+ *
+ * <p>The columns of a row group are decompressed and decoded only when requested, so that
+ * reading a few columns of a wide file does not pay for the others. Typical use:</p>
+ * <pre>
+ * try (ColumnarMetricsReader reader = new ColumnarMetricsReader(path)) {
+ *     int utilization = reader.getColumnIndex("utilization");
+ *     while (reader.nextRowGroup()) {
+ *         double[] values = reader.getDoubles(utilization);
+ *         for (int row = 0; row &lt; reader.getRowCount(); row++) { ... }
+ *     }
+ * }
+ * </pre>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class ColumnarMetricsReader implements Closeable {
+
+	private final DataInputStream in;
+
+	private final List<MetricsColumn> columns;
+
+	/** The strings of each STRING column, by code minus one. */
+	private final List<List<String>> dictionaries = new ArrayList<>();
+
+	/** The raw (decompressed) length of each column chunk of the current row group. */
+	private final int[] rawLengths;
+
+	/** The compressed column chunks of the current row group. */
+	private final byte[][] compressedChunks;
+
+	private final int[] compressedLengths;
+
+	/** Whether the chunk of each column has been decoded in the current row group. */
+	private final boolean[] decoded;
+
+	private final long[][] longValues;
+
+	private final double[][] doubleValues;
+
+	private final String[][] stringValues;
+
+	private final Inflater inflater = new Inflater();
+
+	private byte[] raw = new byte[0];
+
+	/** The read position and the end of the decompressed chunk in the raw bytes. */
+	private int position;
+	private int limit;
+
+	private int rowCount;
+
+	private boolean finished;
+
+	/**
+	 * Opens a file.
+	 *
+	 * @param path the file path
+	 * @throws IOException if the file cannot be read or is not a columnar metrics file
+	 */
+	public ColumnarMetricsReader(String path) throws IOException {
+		this(new BufferedInputStream(new FileInputStream(path)));
+	}
+
+	/**
+	 * Reads from a stream.
+	 *
+	 * @param in the stream, closed by {@link #close()}
+	 * @throws IOException if the stream cannot be read or is not a columnar metrics stream
+	 */
+	public ColumnarMetricsReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(in);
+		try {
+			if (this.in.readInt() != ColumnarMetricsWriter.MAGIC) {
+				throw new IOException("Not a columnar metrics file");
+			}
+			int version = this.in.readInt();
+			if (version != ColumnarMetricsWriter.VERSION) {
+				throw new IOException("Unsupported columnar metrics version " + version);
+			}
+			int columnCount = this.in.readInt();
+			MetricsColumn.Type[] types = MetricsColumn.Type.values();
+			List<MetricsColumn> columns = new ArrayList<>(columnCount);
+			for (int i = 0; i < columnCount; i++) {
+				String name = this.in.readUTF();
+				int type = this.in.readUnsignedByte();
+				if (type >= types.length) {
+					throw new IOException("Unknown type of column " + name);
+				}
+				columns.add(new MetricsColumn(name, types[type]));
+				dictionaries.add(types[type] == MetricsColumn.Type.STRING ? new ArrayList<>() : null);
+			}
+			this.columns = Collections.unmodifiableList(columns);
+		} catch (IOException e) {
+			this.in.close();
+			throw e;
+		}
+
+		int columnCount = columns.size();
+		rawLengths = new int[columnCount];
+		compressedChunks = new byte[columnCount][0];
+		compressedLengths = new int[columnCount];
+		decoded = new boolean[columnCount];
+		longValues = new long[columnCount][];
+		doubleValues = new double[columnCount][];
+		stringValues = new String[columnCount][];
+	}
+
+	/**
+	 * Gets the columns of the file.
+	 *
+	 * @return the columns, in order
+	 */
+	public List<MetricsColumn> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * Gets the index of a column.
+	 *
+	 * @param name the column name
+	 * @return the column index
+	 * @throws IllegalArgumentException if there is no such column
+	 */
+	public int getColumnIndex(String name) {
+		for (int i = 0; i < columns.size(); i++) {
+			if (columns.get(i).name().equals(name)) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException("No column " + name);
+	}
+
+	/**
+	 * Reads the next row group.
+	 *
+	 * @return false if there are no more row groups
+	 * @throws IOException if reading fails or the file is truncated
+	 */
+	public boolean nextRowGroup() throws IOException {
+		if (finished) {
+			return false;
+		}
+		rowCount = in.readInt();
+		if (rowCount < 0) {
+			throw new IOException("Corrupt row group");
+		}
+		if (rowCount == 0) {
+			finished = true;
+			return false;
+		}
+		for (int i = 0; i < columns.size(); i++) {
+			rawLengths[i] = in.readInt();
+			compressedLengths[i] = in.readInt();
+			if (compressedChunks[i].length < compressedLengths[i]) {
+				compressedChunks[i] = new byte[compressedLengths[i]];
+			}
+			in.readFully(compressedChunks[i], 0, compressedLengths[i]);
+			decoded[i] = false;
+		}
+		// dictionaries grow from one row group to the next
+		for (int i = 0; i < columns.size(); i++) {
+			if (columns.get(i).type() == MetricsColumn.Type.STRING) {
+				decode(i);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of rows of the current row group.
+	 *
+	 * @return the number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Gets the values of an INT column in the current row group.
+	 *
+	 * @param column the column index
+	 * @return the values; only the first {@link #getRowCount()} are valid
+	 * @throws IOException if the row group is corrupt
+	 */
+	public int[] getInts(int column) throws IOException {
+		checkType(column, MetricsColumn.Type.INT);
+		decode(column);
+		int[] values = new int[rowCount];
+		for (int row = 0; row < rowCount; row++) {
+			values[row] = (int) longValues[column][row];
+		}
+		return values;
+	}
+
+	/**
+	 * Gets the values of a LONG column in the current row group.
+	 *
+	 * @param column the column index
+	 * @return the values; only the first {@link #getRowCount()} are valid
+	 * @throws IOException if the row group is corrupt
+	 */
+	public long[] getLongs(int column) throws IOException {
+		checkType(column, MetricsColumn.Type.LONG);
+		decode(column);
+		return longValues[column];
+	}
+
+	/**
+	 * Gets the values of a DOUBLE column in the current row group.
+	 *
+	 * @param column the column index
+	 * @return the values; only the first {@link #getRowCount()} are valid
+	 * @throws IOException if the row group is corrupt
+	 */
+	public double[] getDoubles(int column) throws IOException {
+		checkType(column, MetricsColumn.Type.DOUBLE);
+		decode(column);
+		return doubleValues[column];
+	}
+
+	/**
+	 * Gets the values of a STRING column in the current row group; equal strings are the same instance.
+	 *
+	 * @param column the column index
+	 * @return the values; only the first {@link #getRowCount()} are valid
+	 */
+	public String[] getStrings(int column) {
+		checkType(column, MetricsColumn.Type.STRING);
+		return stringValues[column];
+	}
+
+	private void checkType(int column, MetricsColumn.Type type) {
+		if (columns.get(column).type() != type) {
+			throw new IllegalArgumentException("Column " + columns.get(column).name() + " is of type "
+					+ columns.get(column).type() + ", not " + type);
+		}
+		if (rowCount == 0) {
+			throw new IllegalStateException("No current row group");
+		}
+	}
+
+	private void decode(int column) throws IOException {
+		if (decoded[column]) {
+			return;
+		}
+		inflate(column);
+		switch (columns.get(column).type()) {
+			case INT, LONG -> decodeLongs(column);
+			case DOUBLE -> decodeDoubles(column);
+			case STRING -> decodeStrings(column);
+		}
+		if (position != limit) {
+			throw new IOException("Corrupt chunk of column " + columns.get(column).name());
+		}
+		decoded[column] = true;
+	}
+
+	private void inflate(int column) throws IOException {
+		int length = rawLengths[column];
+		if (raw.length < length) {
+			raw = new byte[length];
+		}
+		inflater.reset();
+		inflater.setInput(compressedChunks[column], 0, compressedLengths[column]);
+		try {
+			int inflated = 0;
+			while (inflated < length && !inflater.finished()) {
+				int n = inflater.inflate(raw, inflated, length - inflated);
+				if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					break;
+				}
+				inflated += n;
+			}
+			if (inflated != length) {
+				throw new EOFException("Truncated chunk of column " + columns.get(column).name());
+			}
+		} catch (DataFormatException e) {
+			throw new IOException("Corrupt chunk of column " + columns.get(column).name(), e);
+		}
+		position = 0;
+		limit = length;
+	}
+
+	private void decodeLongs(int column) throws IOException {
+		long[] values = ensureLongs(column);
+		long previous = 0;
+		for (int row = 0; row < rowCount; row++) {
+			long zigzag = readVarLong();
+			previous += (zigzag >>> 1) ^ -(zigzag & 1);
+			values[row] = previous;
+		}
+	}
+
+	private void decodeDoubles(int column) throws IOException {
+		if (rawLengths[column] != 8 * rowCount) {
+			throw new IOException("Corrupt chunk of column " + columns.get(column).name());
+		}
+		double[] values = doubleValues[column];
+		if (values == null || values.length < rowCount) {
+			values = doubleValues[column] = new double[rowCount];
+		}
+		for (int row = 0; row < rowCount; row++) {
+			long bits = 0;
+			for (int b = 0; b < 8; b++) {
+				bits = (bits << 8) | (raw[b * rowCount + row] & 0xFF);
+			}
+			values[row] = Double.longBitsToDouble(bits);
+		}
+		position = 8 * rowCount;
+	}
+
+	private void decodeStrings(int column) throws IOException {
+		List<String> dictionary = dictionaries.get(column);
+		long newStrings = readVarLong();
+		for (long i = 0; i < newStrings; i++) {
+			int length = (int) readVarLong();
+			if (length < 0 || position + length > limit) {
+				throw new IOException("Corrupt chunk of column " + columns.get(column).name());
+			}
+			dictionary.add(new String(raw, position, length, StandardCharsets.UTF_8));
+			position += length;
+		}
+		String[] values = stringValues[column];
+		if (values == null || values.length < rowCount) {
+			values = stringValues[column] = new String[rowCount];
+		}
+		for (int row = 0; row < rowCount; row++) {
+			long code = readVarLong();
+			if (code > dictionary.size()) {
+				throw new IOException("Corrupt chunk of column " + columns.get(column).name());
+			}
+			values[row] = code == 0 ? null : dictionary.get((int) code - 1);
+		}
+		Arrays.fill(values, rowCount, values.length, null);
+	}
+
+	private long[] ensureLongs(int column) {
+		long[] values = longValues[column];
+		if (values == null || values.length < rowCount) {
+			values = longValues[column] = new long[rowCount];
+		}
+		return values;
+	}
+
+	private long readVarLong() throws IOException {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			if (position >= limit) {
+				throw new EOFException("Truncated chunk");
+			}
+			byte b = raw[position++];
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+		throw new IOException("Malformed variable-length integer");
+	}
+
+	@Override
+	public void close() throws IOException {
+		inflater.end();
+		in.close();
+	}
+}
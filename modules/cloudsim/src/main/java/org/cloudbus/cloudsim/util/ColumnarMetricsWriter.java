@@ -0,0 +1,383 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Writes simulation metrics, such as per-host utilization and power samples, to a compact
+ * binary file in which values are stored column by column, to be loaded back with a
+ * {@link ColumnarMetricsReader} without any text parsing.
+ *
+ * <p>Rows are written in a streaming fashion: they are buffered in memory, column by column,
+ * and every {@code rowGroupSize} rows the buffered columns are encoded according to their
+ * {@link MetricsColumn.Type type} and compressed (deflate) as a row group; the memory used
+ * therefore does not depend on the number of rows.
+ * Integer columns are delta-encoded as zigzag variable-length integers, so that sorted ids and
+ * regularly spaced counts take about one byte per value; the bytes of double columns are
+ * split by significance (all the first bytes, then all the second bytes, ...), which lets the
+ * compression exploit the exponents shared by nearby values; string columns are
+ * dictionary-encoded, each distinct string being stored once in the file.</p>
+ *
+ * <p>For each row, the values are set by column index, then the row is ended with
+ * {@link #endRow()}; a value not set in a row is 0, or null for strings.</p>
+ *
+ * <pre>
+ * file      := magic version columnCount (name type)* rowGroup* 0
+ * rowGroup  := rowCount (rawLength compressedLength deflatedChunk)*   one chunk per column
+ * </pre>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class ColumnarMetricsWriter implements Closeable {
+
+	/** The first 4 bytes of a columnar metrics file: "CSMF". */
+	static final int MAGIC = 0x43534D46;
+
+	static final int VERSION = 1;
+
+	/** The default number of rows per row group. */
+	public static final int DEFAULT_ROW_GROUP_SIZE = 65536;
+
+	private final DataOutputStream out;
+
+	private final MetricsColumn[] columns;
+
+	private final int rowGroupSize;
+
+	/** The values of the INT and LONG columns in the current row group, by column. */
+	private final long[][] longValues;
+
+	/** The values of the DOUBLE columns in the current row group, by column. */
+	private final double[][] doubleValues;
+
+	/** The dictionary codes of the STRING columns in the current row group, 0 standing for null. */
+	private final int[][] stringCodes;
+
+	/** The code of each string, from 1, by column. */
+	private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+
+	/** The strings not yet written to the file, in code order, by column. */
+	private final String[][] newStrings;
+
+	private final int[] newStringCount;
+
+	/** The number of rows in the current row group. */
+	private int rows;
+
+	private long totalRows;
+
+	private final ChunkBuffer chunk = new ChunkBuffer();
+
+	private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+
+	private byte[] compressed = new byte[0];
+
+	private boolean closed;
+
+	/**
+	 * Creates a writer to a file, replacing it if it exists.
+	 *
+	 * @param path the file path
+	 * @param columns the columns of the rows
+	 * @throws IOException if the file cannot be created
+	 */
+	public ColumnarMetricsWriter(String path, MetricsColumn... columns) throws IOException {
+		this(openFile(path), DEFAULT_ROW_GROUP_SIZE, columns);
+	}
+
+	/**
+	 * Creates a writer to a stream.
+	 *
+	 * @param out where to write; closed by {@link #close()}
+	 * @param rowGroupSize the number of rows compressed together
+	 * @param columns the columns of the rows
+	 * @throws IOException if writing the header fails
+	 */
+	public ColumnarMetricsWriter(OutputStream out, int rowGroupSize, MetricsColumn... columns) throws IOException {
+		if (rowGroupSize <= 0) {
+			throw new IllegalArgumentException("Row group size must be positive");
+		}
+		if (columns.length == 0) {
+			throw new IllegalArgumentException("At least one column is required");
+		}
+		this.out = new DataOutputStream(out);
+		this.columns = columns.clone();
+		this.rowGroupSize = rowGroupSize;
+		longValues = new long[columns.length][];
+		doubleValues = new double[columns.length][];
+		stringCodes = new int[columns.length][];
+		newStrings = new String[columns.length][];
+		newStringCount = new int[columns.length];
+		for (int i = 0; i < columns.length; i++) {
+			dictionaries.add(columns[i].type() == MetricsColumn.Type.STRING ? new HashMap<>() : null);
+			switch (columns[i].type()) {
+				case INT, LONG -> longValues[i] = new long[rowGroupSize];
+				case DOUBLE -> doubleValues[i] = new double[rowGroupSize];
+				case STRING -> {
+					stringCodes[i] = new int[rowGroupSize];
+					newStrings[i] = new String[16];
+				}
+			}
+		}
+
+		this.out.writeInt(MAGIC);
+		this.out.writeInt(VERSION);
+		this.out.writeInt(columns.length);
+		for (MetricsColumn column : columns) {
+			this.out.writeUTF(column.name());
+			this.out.writeByte(column.type().ordinal());
+		}
+	}
+
+	private static OutputStream openFile(String path) throws IOException {
+		File parent = new File(path).getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.exists() && !parent.mkdirs()) {
+			throw new IOException("Couldn't create dir: " + parent);
+		}
+		return new BufferedOutputStream(new FileOutputStream(path));
+	}
+
+	private void checkType(int column, MetricsColumn.Type type) {
+		if (columns[column].type() != type) {
+			throw new IllegalArgumentException("Column " + columns[column].name() + " is of type "
+					+ columns[column].type() + ", not " + type);
+		}
+	}
+
+	/**
+	 * Sets the value of an INT column in the current row.
+	 *
+	 * @param column the column index
+	 * @param value the value
+	 */
+	public void setInt(int column, int value) {
+		checkType(column, MetricsColumn.Type.INT);
+		longValues[column][rows] = value;
+	}
+
+	/**
+	 * Sets the value of a LONG column in the current row.
+	 *
+	 * @param column the column index
+	 * @param value the value
+	 */
+	public void setLong(int column, long value) {
+		checkType(column, MetricsColumn.Type.LONG);
+		longValues[column][rows] = value;
+	}
+
+	/**
+	 * Sets the value of a DOUBLE column in the current row.
+	 *
+	 * @param column the column index
+	 * @param value the value
+	 */
+	public void setDouble(int column, double value) {
+		checkType(column, MetricsColumn.Type.DOUBLE);
+		doubleValues[column][rows] = value;
+	}
+
+	/**
+	 * Sets the value of a STRING column in the current row.
+	 *
+	 * @param column the column index
+	 * @param value the value, possibly null
+	 */
+	public void setString(int column, String value) {
+		checkType(column, MetricsColumn.Type.STRING);
+		if (value == null) {
+			stringCodes[column][rows] = 0;
+			return;
+		}
+		Map<String, Integer> dictionary = dictionaries.get(column);
+		Integer code = dictionary.get(value);
+		if (code == null) {
+			code = dictionary.size() + 1;
+			dictionary.put(value, code);
+			if (newStringCount[column] == newStrings[column].length) {
+				newStrings[column] = Arrays.copyOf(newStrings[column], 2 * newStrings[column].length);
+			}
+			newStrings[column][newStringCount[column]++] = value;
+		}
+		stringCodes[column][rows] = code;
+	}
+
+	/**
+	 * Ends the current row, writing the row group if it is full.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	public void endRow() throws IOException {
+		if (closed) {
+			throw new IOException("Writer closed");
+		}
+		rows++;
+		totalRows++;
+		if (rows == rowGroupSize) {
+			writeRowGroup();
+		}
+	}
+
+	private void writeRowGroup() throws IOException {
+		out.writeInt(rows);
+		for (int i = 0; i < columns.length; i++) {
+			chunk.reset();
+			switch (columns[i].type()) {
+				case INT, LONG -> encodeLongs(longValues[i]);
+				case DOUBLE -> encodeDoubles(doubleValues[i]);
+				case STRING -> encodeStrings(i);
+			}
+			writeCompressedChunk();
+		}
+
+		for (int i = 0; i < columns.length; i++) {
+			switch (columns[i].type()) {
+				case INT, LONG -> Arrays.fill(longValues[i], 0, rows, 0);
+				case DOUBLE -> Arrays.fill(doubleValues[i], 0, rows, 0);
+				case STRING -> Arrays.fill(stringCodes[i], 0, rows, 0);
+			}
+		}
+		rows = 0;
+	}
+
+	private void encodeLongs(long[] values) {
+		long previous = 0;
+		for (int row = 0; row < rows; row++) {
+			long delta = values[row] - previous;
+			chunk.writeVarLong((delta << 1) ^ (delta >> 63));
+			previous = values[row];
+		}
+	}
+
+	private void encodeDoubles(double[] values) {
+		chunk.ensureCapacity(8 * rows);
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			for (int row = 0; row < rows; row++) {
+				chunk.writeByte((int) (Double.doubleToRawLongBits(values[row]) >>> shift));
+			}
+		}
+	}
+
+	private void encodeStrings(int column) {
+		// the strings first used in this row group, then the codes
+		chunk.writeVarLong(newStringCount[column]);
+		for (int i = 0; i < newStringCount[column]; i++) {
+			byte[] bytes = newStrings[column][i].getBytes(StandardCharsets.UTF_8);
+			chunk.writeVarLong(bytes.length);
+			chunk.write(bytes);
+			newStrings[column][i] = null;
+		}
+		newStringCount[column] = 0;
+		int[] codes = stringCodes[column];
+		for (int row = 0; row < rows; row++) {
+			chunk.writeVarLong(codes[row]);
+		}
+	}
+
+	private void writeCompressedChunk() throws IOException {
+		deflater.reset();
+		deflater.setInput(chunk.bytes, 0, chunk.length);
+		deflater.finish();
+		int length = 0;
+		while (!deflater.finished()) {
+			if (length == compressed.length) {
+				compressed = Arrays.copyOf(compressed, Math.max(1024, 2 * compressed.length));
+			}
+			length += deflater.deflate(compressed, length, compressed.length - length);
+		}
+		out.writeInt(chunk.length);
+		out.writeInt(length);
+		out.write(compressed, 0, length);
+	}
+
+	/**
+	 * Gets the number of rows written so far.
+	 *
+	 * @return the number of rows
+	 */
+	public long getRowCount() {
+		return totalRows;
+	}
+
+	/**
+	 * Writes the buffered rows and closes the file. Closing a closed writer has no effect.
+	 *
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (rows > 0) {
+				writeRowGroup();
+			}
+			out.writeInt(0);
+		} finally {
+			deflater.end();
+			out.close();
+		}
+	}
+
+	/**
+	 * A growable byte array holding a column chunk before compression.
+	 */
+	private static final class ChunkBuffer {
+
+		private byte[] bytes = new byte[1024];
+
+		private int length;
+
+		void reset() {
+			length = 0;
+		}
+
+		void ensureCapacity(int extra) {
+			if (length + extra > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(length + extra, 2 * bytes.length));
+			}
+		}
+
+		void writeByte(int b) {
+			ensureCapacity(1);
+			bytes[length++] = (byte) b;
+		}
+
+		void write(byte[] b) {
+			ensureCapacity(b.length);
+			System.arraycopy(b, 0, bytes, length, b.length);
+			length += b.length;
+		}
+
+		void writeVarLong(long value) {
+			ensureCapacity(10);
+			while ((value & ~0x7FL) != 0) {
+				bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			bytes[length++] = (byte) value;
+		}
+	}
+}
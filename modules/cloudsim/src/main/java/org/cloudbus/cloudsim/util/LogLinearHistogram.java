@@ -0,0 +1,189 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of non-negative values in a fixed amount of memory, whatever the number of
+ * recorded values, used to compute percentiles with a bounded relative error.
+ *
+ * <p>Values are counted in buckets whose width grows with the value: each power of two
+ * above the lowest distinguished value is split into the same number of linear
+ * sub-buckets, so that a percentile is off by at most 1 / subBuckets of its value.
+ * Values below the lowest distinguished value share the first bucket, and values above
+ * the highest one share the last bucket. The count, sum, minimum and maximum are exact.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public class LogLinearHistogram {
+
+	/** The lowest value distinguished from 0. */
+	private final double lowestValue;
+
+	/** The number of linear sub-buckets per power of two. */
+	private final int subBuckets;
+
+	/** The number of powers of two covered above the lowest value. */
+	private final int powers;
+
+	/** The number of values in each bucket; bucket 0 holds the values below the lowest value. */
+	private final long[] counts;
+
+	private long count;
+
+	private double sum;
+
+	private double min = Double.MAX_VALUE;
+
+	private double max;
+
+	/**
+	 * Creates a histogram covering from 1 ns to more than 10^10 s with a 1/32 relative
+	 * error, which is suited to network latencies in seconds.
+	 */
+	public LogLinearHistogram() {
+		this(1e-9, 64, 32);
+	}
+
+	/**
+	 * Creates a histogram.
+	 *
+	 * @param lowestValue the lowest value distinguished from 0
+	 * @param powers the number of powers of two covered above the lowest value
+	 * @param subBuckets the number of linear sub-buckets per power of two
+	 */
+	public LogLinearHistogram(double lowestValue, int powers, int subBuckets) {
+		if (lowestValue <= 0 || powers <= 0 || subBuckets <= 0) {
+			throw new IllegalArgumentException("Histogram parameters must be positive");
+		}
+		this.lowestValue = lowestValue;
+		this.powers = powers;
+		this.subBuckets = subBuckets;
+		counts = new long[1 + powers * subBuckets];
+	}
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value the value, negative values being counted as 0
+	 */
+	public void record(double value) {
+		value = Math.max(0, value);
+		counts[getBucket(value)]++;
+		count++;
+		sum += value;
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Gets the bucket of a value.
+	 */
+	private int getBucket(double value) {
+		double scaled = value / lowestValue;
+		if (scaled < 1) {
+			return 0;
+		}
+		int power = Math.getExponent(scaled);
+		if (power >= powers) {
+			return counts.length - 1;
+		}
+		// the position in [2^power, 2^(power + 1)), in [0, 1)
+		double fraction = Math.scalb(scaled, -power) - 1;
+		int subBucket = Math.min(subBuckets - 1, (int) (fraction * subBuckets));
+		return 1 + power * subBuckets + subBucket;
+	}
+
+	/**
+	 * Gets the upper bound of the values of a bucket.
+	 */
+	private double getBucketUpperBound(int bucket) {
+		if (bucket == 0) {
+			return lowestValue;
+		}
+		if (bucket == counts.length - 1) {
+			// also holds the values above the highest one
+			return Double.MAX_VALUE;
+		}
+		int power = (bucket - 1) / subBuckets;
+		int subBucket = (bucket - 1) % subBuckets;
+		return Math.scalb(lowestValue, power) * (1 + (subBucket + 1.0) / subBuckets);
+	}
+
+	/**
+	 * Gets a percentile of the recorded values, as the upper bound of the bucket holding
+	 * it, capped by the maximum value.
+	 *
+	 * @param percentile the percentile, between 0 and 100
+	 * @return the value below which the given percentage of values fall, or 0 if there are no values
+	 */
+	public double getPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100");
+		}
+		if (count == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			seen += counts[bucket];
+			if (seen >= rank) {
+				return Math.max(min, Math.min(max, getBucketUpperBound(bucket)));
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Adds the values recorded in another histogram with the same parameters.
+	 *
+	 * @param other the other histogram
+	 */
+	public void add(LogLinearHistogram other) {
+		if (other.lowestValue != lowestValue || other.powers != powers || other.subBuckets != subBuckets) {
+			throw new IllegalArgumentException("Histograms have different parameters");
+		}
+		for (int bucket = 0; bucket < counts.length; bucket++) {
+			counts[bucket] += other.counts[bucket];
+		}
+		count += other.count;
+		sum += other.sum;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * Removes all the recorded values.
+	 */
+	public void reset() {
+		Arrays.fill(counts, 0);
+		count = 0;
+		sum = 0;
+		min = Double.MAX_VALUE;
+		max = 0;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return count == 0 ? 0 : sum / count;
+	}
+
+	public double getMin() {
+		return count == 0 ? 0 : min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+/**
+ * A typed column of a columnar metrics file.
+ *
+ * @param name the column name
+ * @param type the type of the column values
+ * @see ColumnarMetricsWriter
+ * @see ColumnarMetricsReader
+ * @since CloudSim Toolkit 7.0
+ */
+public record MetricsColumn(String name, Type type) {
+
+	/**
+	 * The type of the values of a column, which determines their encoding.
+	 */
+	public enum Type {
+		/** 32-bit integers, such as ids or counts, delta-encoded as variable-length integers. */
+		INT,
+		/** 64-bit integers, delta-encoded as variable-length integers. */
+		LONG,
+		/** Doubles, such as times or utilizations, stored with their bytes split by significance. */
+		DOUBLE,
+		/** Strings, such as experiment or policy names, dictionary-encoded. */
+		STRING
+	}
+
+	public MetricsColumn {
+		if (name == null || type == null) {
+			throw new IllegalArgumentException("Column name and type are required");
+		}
+	}
+}
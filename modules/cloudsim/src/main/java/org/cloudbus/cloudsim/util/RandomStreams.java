@@ -0,0 +1,130 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The source of the random numbers drawn by the simulation classes that are not given a seed
+ * explicitly, such as {@link org.cloudbus.cloudsim.UtilizationModelStochastic}, the
+ * {@link org.cloudbus.cloudsim.distributions distributions} and the random selection policies.
+ *
+ * <p>All the streams derive from a single master seed: a stream is identified by a name, usually
+ * that of the class drawing from it, and an index, such as an entity id, and its seed is a hash
+ * of the master seed, the name and the index. Streams are therefore independent of the order in
+ * which they are created and of the draws made from other streams, and each consumer owns its
+ * {@link SplittableRandom}, so that drawing requires no synchronization.
+ * Setting the master seed before building a scenario makes a run reproducible; running the
+ * replicas of an experiment with different master seeds gives them independent streams.</p>
+ *
+ * <p>The classes that are not given a seed draw from the next stream ({@link #nextStream(String)})
+ * named after their simple name, e.g. "UniformDistr". The ones that expose a
+ * {@link java.util.Random}, such as {@link org.cloudbus.cloudsim.UtilizationModelStochastic},
+ * seed it from that stream, so that it can still be reseeded.</p>
+ *
+ * <p>The master seed is read from the {@code cloudsim.seed} system property if it is set;
+ * otherwise it is chosen at random, and can be retrieved with {@link #getMasterSeed()} to
+ * reproduce the run.</p>
+ *
+ * @since CloudSim Toolkit 7.0
+ */
+public final class RandomStreams {
+
+	/** The increment of the golden-ratio Weyl sequence used by {@link SplittableRandom}. */
+	private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+	private static volatile long masterSeed = initialMasterSeed();
+
+	/** The index of the next stream returned by {@link #nextStream(String)}, by name. */
+	private static final Map<String, AtomicLong> nextIndexes = new ConcurrentHashMap<>();
+
+	private RandomStreams() {
+	}
+
+	private static long initialMasterSeed() {
+		String seed = System.getProperty("cloudsim.seed");
+		if (seed != null) {
+			return Long.parseLong(seed.trim());
+		}
+		return mix64(System.nanoTime() ^ System.currentTimeMillis() * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * Sets the master seed, from which all the streams derive, and restarts the numbering of
+	 * the streams returned by {@link #nextStream(String)}.
+	 * Streams obtained before keep drawing from their former seeds.
+	 *
+	 * @param seed the master seed
+	 */
+	public static void setMasterSeed(long seed) {
+		masterSeed = seed;
+		nextIndexes.clear();
+	}
+
+	/**
+	 * Gets the master seed.
+	 *
+	 * @return the master seed
+	 */
+	public static long getMasterSeed() {
+		return masterSeed;
+	}
+
+	/**
+	 * Gets a new generator of a given stream; generators of the same stream obtained under the
+	 * same master seed produce the same sequence.
+	 *
+	 * @param name the stream name, e.g. the simple name of the class drawing from it
+	 * @param index the stream index, e.g. the id of the entity drawing from it
+	 * @return the generator
+	 */
+	public static SplittableRandom stream(String name, long index) {
+		return new SplittableRandom(seed(name, index));
+	}
+
+	/**
+	 * Gets a new generator of the next stream of a given name. The first call after the master
+	 * seed is set returns the stream of index 0, the second the stream of index 1 and so on, so
+	 * objects that are created in the same order get the same streams from one run to the next.
+	 *
+	 * @param name the stream name, e.g. the simple name of the class drawing from it
+	 * @return the generator
+	 */
+	public static SplittableRandom nextStream(String name) {
+		long index = nextIndexes.computeIfAbsent(name, k -> new AtomicLong()).getAndIncrement();
+		return stream(name, index);
+	}
+
+	/**
+	 * Gets the seed of a stream.
+	 *
+	 * @param name the stream name
+	 * @param index the stream index
+	 * @return the seed
+	 */
+	public static long seed(String name, long index) {
+		long hash = 0;
+		for (int i = 0; i < name.length(); i++) {
+			hash = 31 * hash + name.charAt(i);
+		}
+		return mix64(mix64(masterSeed ^ mix64(hash)) + (index + 1) * GOLDEN_GAMMA);
+	}
+
+	/**
+	 * The 64-bit finalizer of {@link SplittableRandom} (variant 13 of Stafford's mixers).
+	 */
+	private static long mix64(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+}
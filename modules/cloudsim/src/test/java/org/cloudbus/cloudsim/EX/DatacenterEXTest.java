@@ -0,0 +1,97 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.EX;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.EX.delay.ConstantVmBootDelay;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DatacenterEXTest {
+
+	private static final double BOOT_DELAY = 100;
+
+	@BeforeEach
+	public void setUp() {
+		CloudSim.init(1, Calendar.getInstance(), false);
+	}
+
+	@Test
+	public void testVmsBootBeforeRunningCloudlets() throws Exception {
+		assertCloudletsStartAfterBoot(false);
+	}
+
+	@Test
+	public void testBatchCreatedVmsBootBeforeRunningCloudlets() throws Exception {
+		assertCloudletsStartAfterBoot(true);
+	}
+
+	private void assertCloudletsStartAfterBoot(boolean batchVmCreation) throws Exception {
+		List<Host> hostList = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hostList.add(new Host(i, new RamProvisionerSimple(2048), new BwProvisionerSimple(10000), 1000000,
+					peList, new VmSchedulerTimeShared(peList)));
+		}
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new DatacenterEX("Datacenter", characteristics, new VmAllocationPolicySimple(hostList),
+				new LinkedList<>(), 0, new ConstantVmBootDelay(BOOT_DELAY));
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		broker.setBatchVmCreation(batchVmCreation);
+		List<Vm> vmList = new ArrayList<>();
+		List<Cloudlet> cloudletList = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 512, 1000, 1000, "Xen",
+					new CloudletSchedulerTimeShared()));
+			Cloudlet cloudlet = new Cloudlet(i, 10000, 1, 300, 300, new UtilizationModelFull(),
+					new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudletList.add(cloudlet);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		for (Vm vm : vmList) {
+			assertFalse(vm.isBeingInstantiated());
+		}
+		assertEquals(cloudletList.size(), broker.getCloudletReceivedList().size());
+		for (Cloudlet cloudlet : cloudletList) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+			assertTrue(cloudlet.getExecStartTime() >= BOOT_DELAY);
+		}
+	}
+}
@@ -0,0 +1,201 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.EX.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.ErrorManager;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncBufferedHandlerTest {
+
+	/** Each record takes 4 bytes: "%03d\n". */
+	private static final int BUFFER_SIZE = 40;
+
+	/**
+	 * A stream whose first write waits until it is released, so that the
+	 * writer thread is busy while the records are published.
+	 */
+	private static class StalledStream extends ByteArrayOutputStream {
+		private final CountDownLatch release = new CountDownLatch(1);
+
+		@Override
+		public synchronized void write(byte[] b, int off, int len) {
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			super.write(b, off, len);
+		}
+	}
+
+	private static AsyncBufferedHandler createHandler(StalledStream out, AsyncBufferedHandler.OverflowPolicy policy) {
+		AsyncBufferedHandler handler = new AsyncBufferedHandler(out, BUFFER_SIZE, policy);
+		handler.setFormatter(new Formatter() {
+			@Override
+			public String format(LogRecord record) {
+				return record.getMessage() + "\n";
+			}
+		});
+		return handler;
+	}
+
+	private static void publish(AsyncBufferedHandler handler, int from, int to) {
+		for (int i = from; i < to; i++) {
+			handler.publish(new LogRecord(Level.INFO, String.format("%03d", i)));
+		}
+	}
+
+	private static List<Integer> lines(ByteArrayOutputStream out) {
+		List<Integer> result = new ArrayList<>();
+		for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+			result.add(Integer.parseInt(line));
+		}
+		return result;
+	}
+
+	private static List<Integer> range(int from, int to) {
+		List<Integer> result = new ArrayList<>();
+		for (int i = from; i < to; i++) {
+			result.add(i);
+		}
+		return result;
+	}
+
+	@Test
+	public void testRecordsAreWrittenInOrder() throws IOException {
+		StalledStream out = new StalledStream();
+		out.release.countDown();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.BLOCK);
+		publish(handler, 0, 500);
+		handler.flush();
+		assertEquals(range(0, 500), lines(out));
+
+		// records larger than a buffer
+		String large = "9".repeat(2 * BUFFER_SIZE);
+		handler.publish(new LogRecord(Level.INFO, large));
+		publish(handler, 500, 510);
+		handler.close();
+		String[] written = out.toString(StandardCharsets.UTF_8).split("\n");
+		assertEquals(511, written.length);
+		assertEquals(large, written[500]);
+		assertEquals("509", written[510]);
+		assertEquals(0, handler.getDroppedCount());
+	}
+
+	@Test
+	public void testBlock() throws InterruptedException {
+		StalledStream out = new StalledStream();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.BLOCK);
+		Thread publisher = new Thread(() -> publish(handler, 0, 100));
+		publisher.start();
+		publisher.join(200);
+		// stalled after filling both buffers
+		assertTrue(publisher.isAlive());
+
+		out.release.countDown();
+		publisher.join();
+		handler.close();
+		assertEquals(range(0, 100), lines(out));
+	}
+
+	@Test
+	public void testInterruptedBlockDropsTheRecords() throws InterruptedException {
+		StalledStream out = new StalledStream();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.BLOCK);
+		List<Integer> errors = new ArrayList<>();
+		handler.setErrorManager(new ErrorManager() {
+			@Override
+			public synchronized void error(String msg, Exception ex, int code) {
+				errors.add(code);
+			}
+		});
+		Thread publisher = new Thread(() -> publish(handler, 0, 100));
+		publisher.start();
+		publisher.join(200);
+		assertTrue(publisher.isAlive());
+
+		// the waiting record and, as the thread stays interrupted, the next ones are dropped
+		publisher.interrupt();
+		publisher.join();
+		out.release.countDown();
+		handler.close();
+		assertEquals(range(0, 20), lines(out));
+		assertEquals(80, handler.getDroppedCount());
+		assertEquals(80, errors.size());
+		assertEquals(ErrorManager.GENERIC_FAILURE, errors.get(0));
+	}
+
+	@Test
+	public void testDropOldest() {
+		StalledStream out = new StalledStream();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.DROP_OLDEST);
+		// the first 11 records fill a buffer and reach the writer, the others overflow the second buffer
+		publish(handler, 0, 100);
+		out.release.countDown();
+		handler.close();
+
+		List<Integer> expected = range(0, 10);
+		expected.addAll(range(90, 100));
+		assertEquals(expected, lines(out));
+		assertEquals(80, handler.getDroppedCount());
+	}
+
+	@Test
+	public void testSample() {
+		StalledStream out = new StalledStream();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.SAMPLE);
+		handler.setSampling(5);
+		publish(handler, 0, 100);
+		out.release.countDown();
+		handler.close();
+
+		// a buffer and more than half of the next one, then one record out of five
+		List<Integer> expected = range(0, 16);
+		expected.addAll(Arrays.asList(16, 21, 26, 31));
+		assertEquals(expected, lines(out));
+		assertEquals(80, handler.getDroppedCount());
+		assertThrows(IllegalArgumentException.class, () -> handler.setSampling(0));
+	}
+
+	@Test
+	public void testSpill() {
+		StalledStream out = new StalledStream();
+		AsyncBufferedHandler handler = createHandler(out, AsyncBufferedHandler.OverflowPolicy.SPILL);
+		publish(handler, 0, 500);
+		out.release.countDown();
+		publish(handler, 500, 600);
+		handler.close();
+
+		assertEquals(range(0, 600), lines(out));
+		assertEquals(0, handler.getDroppedCount());
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		StalledStream out = new StalledStream();
+		assertThrows(IllegalArgumentException.class,
+				() -> new AsyncBufferedHandler(out, 0, AsyncBufferedHandler.OverflowPolicy.BLOCK));
+		assertThrows(IllegalArgumentException.class, () -> new AsyncBufferedHandler(out, BUFFER_SIZE, null));
+	}
+}
@@ -0,0 +1,91 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.EX.util;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TextUtilTest {
+
+	public enum State {
+		ON, STANDBY
+	}
+
+	@Textualize(properties = { "Name", "Load", "State" })
+	public static class Server {
+		public String getName() {
+			return "srv";
+		}
+
+		public double getLoad() {
+			return 0.125;
+		}
+
+		public State getState() {
+			return State.ON;
+		}
+
+		public int getIgnored() {
+			return 1;
+		}
+	}
+
+	public static class Machine {
+		public int getId() {
+			return 42;
+		}
+
+		public boolean isUp() {
+			return true;
+		}
+
+		public long getFailing() {
+			throw new IllegalStateException();
+		}
+	}
+
+	@Test
+	public void testDoublesAreFormattedAsByTheDecimalFormat() {
+		double[] numbers = { 0, -0.0, 0.005, 0.015, 0.125, 0.135, 1.005, 2.675, -0.001, -12.345, 99.995,
+				999999999.995, 1e9, 1e20, 1e-320, Double.NaN, Double.NEGATIVE_INFINITY };
+		for (double number : numbers) {
+			assertEquals(TextUtil.DEC_FORMAT.format(number), TextUtil.formatDouble(number));
+		}
+
+		Random random = new Random(1);
+		for (int i = 0; i < 100000; i++) {
+			double number = (random.nextDouble() - 0.3) * Math.pow(10, random.nextInt(12) - 3);
+			if (i % 2 == 0) {
+				// a multiple of 0.005, often halfway between two hundredths
+				number = Math.round(number * 200) / 200.0;
+			}
+			assertEquals(TextUtil.DEC_FORMAT.format(number), TextUtil.formatDouble(number));
+		}
+	}
+
+	@Test
+	public void testLinesFollowTheAnnotation() {
+		assertEquals("                Name;      Load;  State", TextUtil.getCaptionLine(Server.class));
+		assertEquals("                 srv;      0.12;     ON", TextUtil.getTxtLine(new Server()));
+		assertEquals("Load=      0.12,Name=                 srv",
+				TextUtil.getTxtLine(new Server(), ",", new String[] { "Load", "Name" }, true));
+	}
+
+	@Test
+	public void testLinesOfAllGetters() {
+		assertEquals("Failing;     Id;Up;Class", TextUtil.getCaptionLine(Machine.class));
+		assertEquals("            ERR null;     42;true;Machine", TextUtil.getTxtLine(new Machine()));
+		// the layout is cached per set of properties
+		assertEquals("     Id", TextUtil.getCaptionLine(Machine.class, new String[] { "Id" }));
+		assertEquals("     42", TextUtil.getTxtLine(new Machine(), new String[] { "Id" }));
+	}
+}
@@ -15,6 +15,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.text.DecimalFormatSymbols;
 import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +34,9 @@ public class LogTest {
 	@BeforeEach
 	public void setUp() throws Exception {
 		Log.setOutput(OUTPUT);
+		Log.enable();
+		Log.setLevel(Log.Level.INFO);
+		OUTPUT.reset();
 	}
 
 	@Test
@@ -174,4 +178,74 @@ public class LogTest {
 		OUTPUT.reset();
 	}
 
+	@Test
+	public void testLevel() throws IOException {
+		Log.setLevel(Log.Level.WARN);
+		assertFalse(Log.isEnabled(Log.Level.INFO));
+		assertTrue(Log.isEnabled(Log.Level.ERROR));
+
+		Log.println("test test");
+		Log.println(Log.Level.INFO, () -> "test test");
+		assertEquals("", OUTPUT.toString());
+
+		Log.println(Log.Level.WARN, () -> "test test");
+		assertEquals("test test" + LINE_SEPARATOR, OUTPUT.toString());
+		OUTPUT.reset();
+
+		Log.disable();
+		assertFalse(Log.isEnabled(Log.Level.ERROR));
+		Log.print(Log.Level.ERROR, () -> "test test");
+		assertEquals("", OUTPUT.toString());
+	}
+
+	@Test
+	public void testMessagesAreBuiltOnlyIfPrinted() throws IOException {
+		AtomicInteger built = new AtomicInteger();
+		Log.println(Log.Level.DEBUG, () -> "test " + built.incrementAndGet());
+		assertEquals(0, built.get());
+		assertEquals("", OUTPUT.toString());
+
+		Log.println(Log.Level.INFO, () -> "test " + built.incrementAndGet());
+		assertEquals(1, built.get());
+		assertEquals("test 1" + LINE_SEPARATOR, OUTPUT.toString());
+	}
+
+	@Test
+	public void testSiteSampling() throws IOException {
+		Log.Site site = Log.site("LogTest.sampling");
+		assertSame(site, Log.site("LogTest.sampling"));
+		site.setSampling(3);
+
+		AtomicInteger built = new AtomicInteger();
+		for (int i = 0; i < 7; i++) {
+			int message = i;
+			site.println(Log.Level.INFO, () -> {
+				built.incrementAndGet();
+				return "message " + message;
+			});
+		}
+		assertEquals("message 0" + LINE_SEPARATOR + "message 3" + LINE_SEPARATOR + "message 6" + LINE_SEPARATOR,
+				OUTPUT.toString());
+		assertEquals(3, built.get());
+		assertEquals(4, site.getSuppressedCount());
+		assertThrows(IllegalArgumentException.class, () -> site.setSampling(0));
+	}
+
+	@Test
+	public void testSiteRateLimit() throws IOException {
+		Log.Site site = Log.site("LogTest.rateLimit");
+		site.setRateLimit(2, 10);
+		for (int i = 0; i < 5; i++) {
+			site.println(Log.Level.INFO, () -> "test");
+		}
+		assertEquals(("test" + LINE_SEPARATOR).repeat(2), OUTPUT.toString());
+		assertEquals(3, site.getSuppressedCount());
+
+		site.setRateLimit(0, 0);
+		OUTPUT.reset();
+		site.println(Log.Level.INFO, () -> "test");
+		assertEquals("test" + LINE_SEPARATOR, OUTPUT.toString());
+		assertThrows(IllegalArgumentException.class, () -> site.setRateLimit(1, 0));
+	}
+
 }
@@ -0,0 +1,195 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.core.CloudActionTags;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class NetworkTransferManagerTest {
+
+	/** Three nodes in a line: 0 -(1 s, 8 Mbit/s)- 1 -(2 s, 16 Mbit/s)- 2. */
+	private static final String BRITE = """
+			Nodes: ( 3 )
+			0\t0\t0
+			1\t1\t0
+			2\t2\t0
+
+			Edges: ( 2 )
+			0\t0\t1\t1.0\t1.0\t8.0
+			1\t1\t2\t1.0\t2.0\t16.0
+			""";
+
+	/** The entities mapped to the topology, which is static. */
+	private static final int[] mappedIds = new int[2];
+
+	@AfterEach
+	public void tearDown() {
+		NetworkTopology.setTransferManager(null);
+		for (int id : mappedIds) {
+			NetworkTopology.unmapNode(id);
+		}
+	}
+
+	@Test
+	public void testConcurrentTransfersShareTheBottleneck(@TempDir Path dir) throws Exception {
+		Map<Integer, Double> arrivals = simulate(dir, new double[] {0, 0});
+		// 8 Mbit at half of 8 Mbit/s each, then the latency of the path
+		assertEquals(5.0, arrivals.get(0), 1e-9);
+		assertEquals(5.0, arrivals.get(1), 1e-9);
+		// without payload, only the latency
+		assertEquals(3.0, arrivals.get(-1), 1e-9);
+	}
+
+	@Test
+	public void testOverlappingTransfers(@TempDir Path dir) throws Exception {
+		Map<Integer, Double> arrivals = simulate(dir, new double[] {0, 0.5});
+		// alone for 0.5 s (4 Mbit), then both at 4 Mbit/s: the first ends at 1.5 s,
+		// the second transfers its last 4 Mbit alone at 8 Mbit/s
+		assertEquals(4.5, arrivals.get(0), 1e-9);
+		assertEquals(5.0, arrivals.get(1), 1e-9);
+	}
+
+	@Test
+	public void testVmCreationRequestsTransferTheImage(@TempDir Path dir) throws Exception {
+		// 1 MB = 8 Mbit
+		Vm vm = new Vm(0, 0, 1000, 1, 512, 1000, 1, "Xen", new CloudletSchedulerTimeShared());
+		List<Message> messages = List.of(
+				new Message(0, CloudActionTags.VM_CREATE_ACK, vm),
+				new Message(0, CloudActionTags.VM_CREATE_ACK, new int[] {0, vm.getId(), CloudSimTags.TRUE}));
+		Map<Integer, Double> arrivals = simulate(dir, messages, 1);
+		// the request carries the image: 8 Mbit at 8 Mbit/s, then the latency of the path
+		assertEquals(4.0, arrivals.get(vm.getId()), 1e-9);
+		// the ack of the datacenter, only the latency
+		assertEquals(3.0, arrivals.get(-1), 1e-9);
+	}
+
+	@Test
+	public void testClearedWithTheSimulation(@TempDir Path dir) throws Exception {
+		simulate(dir, new double[] {0});
+		assertNull(NetworkTopology.getTransferManager());
+
+		CloudSim.init(1, Calendar.getInstance(), false);
+		NetworkTransferManager transfers = new NetworkTransferManager("Transfers");
+		assertSame(transfers, NetworkTopology.getTransferManager());
+		CloudSim.init(1, Calendar.getInstance(), false);
+		assertNull(NetworkTopology.getTransferManager());
+	}
+
+	private static Map<Integer, Double> simulate(Path dir, double[] startTimes) throws Exception {
+		List<Message> messages = new ArrayList<>();
+		for (int i = 0; i < startTimes.length; i++) {
+			// 1 MB = 8 Mbit
+			Cloudlet cloudlet = new Cloudlet(i, 1000, 1, 1_000_000, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			messages.add(new Message(startTimes[i], CloudActionTags.CLOUDLET_SUBMIT, cloudlet));
+		}
+		messages.add(new Message(0, CloudActionTags.BLANK, null));
+		return simulate(dir, messages, startTimes.length);
+	}
+
+	private static Map<Integer, Double> simulate(Path dir, List<Message> messages, int transferCount)
+			throws Exception {
+		Path file = dir.resolve("line.brite");
+		Files.writeString(file, BRITE);
+
+		CloudSim.init(1, Calendar.getInstance(), false);
+		NetworkTopology.buildNetworkTopology(file.toString());
+		NetworkTransferManager transfers = new NetworkTransferManager("Transfers");
+		Receiver receiver = new Receiver("Receiver");
+		Sender sender = new Sender("Sender", receiver.getId(), messages);
+		NetworkTopology.mapNode(sender.getId(), 0);
+		NetworkTopology.mapNode(receiver.getId(), 2);
+		mappedIds[0] = sender.getId();
+		mappedIds[1] = receiver.getId();
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		assertEquals(transferCount, transfers.getCompletedTransfers());
+		assertEquals(0, transfers.getTransferCount());
+		return receiver.arrivals;
+	}
+
+	private record Message(double time, CloudSimTags tag, Object data) {
+	}
+
+	private static class Sender extends SimEntity {
+
+		private final int receiverId;
+
+		private final List<Message> messages;
+
+		Sender(String name, int receiverId, List<Message> messages) {
+			super(name);
+			this.receiverId = receiverId;
+			this.messages = messages;
+		}
+
+		@Override
+		public void startEntity() {
+			for (Message message : messages) {
+				send(receiverId, message.time(), message.tag(), message.data());
+			}
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+
+	private static class Receiver extends SimEntity {
+
+		private final Map<Integer, Double> arrivals = new HashMap<>();
+
+		Receiver(String name) {
+			super(name);
+		}
+
+		@Override
+		public void startEntity() {
+		}
+
+		@Override
+		public void processEvent(SimEvent ev) {
+			int id = -1;
+			if (ev.getData() instanceof Cloudlet cloudlet) {
+				id = cloudlet.getCloudletId();
+			} else if (ev.getData() instanceof Vm vm) {
+				id = vm.getId();
+			}
+			arrivals.put(id, CloudSim.clock());
+		}
+
+		@Override
+		public void shutdownEntity() {
+		}
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.VmAllocationPolicyBinPacking.Heuristic;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.HostEntity;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VmAllocationPolicyBinPackingTest {
+
+	private static final int HOSTS = 30;
+
+	private static final int VMS = 160;
+
+	@BeforeEach
+	public void setUp() {
+		CloudSim.init(1, Calendar.getInstance(), false);
+	}
+
+	@Test
+	public void testFirstFitDecreasingMatchesSequentialPlacement() throws Exception {
+		assertBatchMatchesSequential(Heuristic.FIRST_FIT_DECREASING);
+	}
+
+	@Test
+	public void testBestFitDecreasingMatchesSequentialPlacement() throws Exception {
+		assertBatchMatchesSequential(Heuristic.BEST_FIT_DECREASING);
+	}
+
+	@Test
+	public void testBatchVmCreation() throws Exception {
+		List<Host> hostList = createHosts();
+		createDatacenter(hostList, new VmAllocationPolicyBinPacking(hostList));
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		broker.setBatchVmCreation(true);
+
+		List<Vm> vmList = createVms(broker.getId(), 40);
+		List<Cloudlet> cloudletList = new ArrayList<>();
+		for (Vm vm : vmList) {
+			Cloudlet cloudlet = new Cloudlet(vm.getId(), 10000, 1, 300, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudletList.add(cloudlet);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		assertEquals(cloudletList.size(), broker.getCloudletReceivedList().size());
+		for (Cloudlet cloudlet : cloudletList) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+		}
+	}
+
+	private void assertBatchMatchesSequential(Heuristic heuristic) throws Exception {
+		List<Host> batchHosts = createHosts();
+		List<Host> sequentialHosts = createHosts();
+		VmAllocationPolicyBinPacking batchPolicy = new VmAllocationPolicyBinPacking(batchHosts, heuristic);
+		VmAllocationPolicyBinPacking sequentialPolicy = new VmAllocationPolicyBinPacking(sequentialHosts, heuristic);
+		createDatacenter(batchHosts, batchPolicy);
+		createDatacenter(sequentialHosts, sequentialPolicy);
+
+		List<Vm> batchVms = createVms(0, VMS);
+		List<Vm> sequentialVms = createVms(0, VMS);
+
+		boolean[] results = batchPolicy.allocateHostsForGuests(batchVms);
+
+		sequentialVms.sort(Comparator.comparingDouble((Vm vm) -> -vm.getCurrentRequestedTotalMips())
+				.thenComparingDouble(vm -> -vm.getCurrentRequestedRam()));
+		for (Vm vm : sequentialVms) {
+			sequentialPolicy.allocateHostForGuest(vm);
+		}
+
+		int allocated = 0;
+		for (int i = 0; i < VMS; i++) {
+			Vm batchVm = batchVms.get(i);
+			HostEntity batchHost = batchPolicy.getHost(batchVm);
+			HostEntity sequentialHost = sequentialPolicy.getHost(batchVm.getId(), 0);
+			assertEquals(results[i], batchHost != null);
+			if (batchHost == null) {
+				assertSame(null, sequentialHost);
+			} else {
+				assertEquals(sequentialHost.getId(), batchHost.getId());
+				allocated++;
+			}
+		}
+		assertTrue(allocated > 0);
+		assertNotEquals(VMS, allocated);
+	}
+
+	private static List<Host> createHosts() {
+		List<Host> hostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(2000 + 500 * (i % 3))));
+			peList.add(new Pe(1, new PeProvisionerSimple(2000 + 500 * (i % 3))));
+			hostList.add(new Host(i, new RamProvisionerSimple(4096 * (1 + i % 2)), new BwProvisionerSimple(100000),
+					1000000, peList, new VmSchedulerTimeShared(peList)));
+		}
+		return hostList;
+	}
+
+	private static List<Vm> createVms(int userId, int count) {
+		Random random = new Random(11);
+		List<Vm> vmList = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			vmList.add(new Vm(i, userId, 250 * (1 + random.nextInt(8)), 1, 256 * (1 + random.nextInt(8)), 1000,
+					1000, "Xen", new CloudletSchedulerTimeShared()));
+		}
+		return vmList;
+	}
+
+	private static void createDatacenter(List<Host> hostList, VmAllocationPolicy policy) throws Exception {
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new Datacenter("Datacenter_" + CloudSim.getNumEntities(), characteristics, policy,
+				new LinkedList<Storage>(), 0);
+	}
+}
@@ -0,0 +1,204 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmAllocationPolicyBinPacking;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.CloudSimTags;
+import org.cloudbus.cloudsim.core.SimEntity;
+import org.cloudbus.cloudsim.core.SimEvent;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class ContainerDatacenterTest {
+
+	private static final int VMS = 2;
+
+	/** The MIPS of each of the 2 PEs of a VM. */
+	private static final double VM_PE_MIPS = 1000;
+
+	private static final double CONTAINER_MIPS = 500;
+
+	private ContainerDatacenterBroker broker;
+
+	private List<ContainerVm> vmList;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		broker = new ContainerDatacenterBroker("Broker", 80);
+		vmList = new ArrayList<>();
+		for (int i = 0; i < VMS; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(VM_PE_MIPS)));
+			peList.add(new Pe(1, new PeProvisionerSimple(VM_PE_MIPS)));
+			vmList.add(new ContainerVm(i, broker.getId(), VM_PE_MIPS, 1024, 1000, 10000, "Xen",
+					new VmSchedulerTimeShared(peList), new RamProvisionerSimple(1024),
+					new BwProvisionerSimple(1000), peList));
+		}
+	}
+
+	@Test
+	public void testBatchPlacementFirstFitDecreasing() throws Exception {
+		List<Container> containers = runContainers(6,
+				new VmAllocationPolicyBinPacking(vmList, VmAllocationPolicyBinPacking.Heuristic.FIRST_FIT_DECREASING));
+
+		Map<Integer, Integer> containersPerVm = new HashMap<>();
+		for (Container container : containers) {
+			containersPerVm.merge(container.getHost().getId(), 1, Integer::sum);
+		}
+		assertEquals(4, containersPerVm.get(0));
+		assertEquals(2, containersPerVm.get(1));
+		assertEquals(6, broker.getContainersCreated());
+		assertEquals(6, broker.getContainersAcks());
+	}
+
+	@Test
+	public void testBatchPlacementReportsFailures() throws Exception {
+		List<Container> containers = runContainers(10, new VmAllocationPolicySimple(vmList));
+
+		int placed = 0;
+		for (Container container : containers) {
+			if (container.getHost() != null) {
+				placed++;
+			} else {
+				assertNull(broker.getContainersToVmsMap().get(container.getId()));
+			}
+		}
+		// 4 containers of 500 MIPS fit in each VM
+		assertEquals(8, placed);
+		assertEquals(8, broker.getContainersCreated());
+		assertEquals(10, broker.getContainersAcks());
+		assertEquals(8, broker.getCloudletReceivedList().size());
+	}
+
+	@Test
+	public void testBatchAckIgnoresUnknownContainers() throws Exception {
+		// an ack for a container the broker never submitted, before the real ones
+		new SimEntity("Sender") {
+			@Override
+			public void startEntity() {
+				sendNow(broker.getId(), ContainerCloudSimTags.CONTAINER_CREATE_BATCH_ACK,
+						new int[] {getId(), 99, CloudSimTags.TRUE});
+			}
+
+			@Override
+			public void processEvent(SimEvent ev) {
+			}
+
+			@Override
+			public void shutdownEntity() {
+			}
+		};
+		runContainers(2, new VmAllocationPolicySimple(vmList));
+
+		assertEquals(2, broker.getContainersCreated());
+		assertEquals(2, broker.getContainersAcks());
+		assertEquals(2, broker.getCloudletReceivedList().size());
+		assertNull(broker.getContainersToVmsMap().get(99));
+	}
+
+	@Test
+	public void testContainersStartOnceTheirImageIsPulled() throws Exception {
+		ContainerImage.Layer base = new ContainerImage.Layer("base", 50);
+		ContainerImage app = new ContainerImage("app", List.of(base, new ContainerImage.Layer("app", 50)));
+		List<Container> containers = createContainers(4);
+		for (Container container : containers) {
+			container.setImage(app);
+		}
+		// 10 MB/s: each VM pulls the 100 MB image in 10 seconds, once
+		List<Cloudlet> cloudlets = runContainers(containers, new VmAllocationPolicySimple(vmList), 80);
+
+		assertEquals(4, broker.getCloudletReceivedList().size());
+		for (int i = 0; i < containers.size(); i++) {
+			// placed right after the VMs are created
+			assertEquals(10, containers.get(i).getStartTime(), 0.1);
+			assertEquals(containers.get(i).getStartTime(), cloudlets.get(i).getExecStartTime(), 1e-9);
+		}
+		for (ContainerVm vm : vmList) {
+			assertEquals(100, vm.getImageCache().getPulledSize());
+			assertEquals(2, vm.getImageCache().getMissCount());
+			assertEquals(2, vm.getImageCache().getHitCount());
+		}
+	}
+
+	/**
+	 * Runs one cloudlet in each of {@code count} containers and returns the containers.
+	 */
+	private List<Container> runContainers(int count, VmAllocationPolicy containerPolicy) throws Exception {
+		List<Container> containers = createContainers(count);
+		runContainers(containers, containerPolicy, Double.POSITIVE_INFINITY);
+		return containers;
+	}
+
+	private List<Container> createContainers(int count) {
+		List<Container> containers = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			containers.add(new Container(i, broker.getId(), CONTAINER_MIPS, 1, 128, 10, 100, "Docker",
+					new CloudletSchedulerTimeShared()));
+		}
+		return containers;
+	}
+
+	/**
+	 * Runs one cloudlet in each container and returns the cloudlets.
+	 */
+	private List<Cloudlet> runContainers(List<Container> containers, VmAllocationPolicy containerPolicy,
+			double registryBandwidth) throws Exception {
+		List<Pe> peList = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(VM_PE_MIPS)));
+		}
+		List<Host> hostList = new ArrayList<>();
+		hostList.add(new Host(0, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 1000000,
+				peList, new VmSchedulerTimeShared(peList)));
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		ContainerDatacenter datacenter = new ContainerDatacenter("Datacenter", characteristics,
+				new VmAllocationPolicySimple(hostList), containerPolicy, new LinkedList<>(), 0, "test", null);
+		datacenter.setRegistryBandwidth(registryBandwidth);
+
+		List<Cloudlet> cloudlets = new ArrayList<>();
+		for (int i = 0; i < containers.size(); i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 1000, 1, 300, 300, new UtilizationModelFull(),
+					new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudlets.add(cloudlet);
+		}
+		broker.submitCloudletList(cloudlets);
+		broker.submitContainerList(containers);
+		broker.submitGuestList(vmList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+		return cloudlets;
+	}
+}
@@ -0,0 +1,68 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.core;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ContainerImageCacheTest {
+
+	/** 10 MB/s. */
+	private static final double BANDWIDTH = 80;
+
+	private static final ContainerImage.Layer BASE = new ContainerImage.Layer("base", 100);
+
+	private static final ContainerImage WEB = new ContainerImage("web",
+			List.of(BASE, new ContainerImage.Layer("web", 50)));
+
+	private static final ContainerImage DB = new ContainerImage("db",
+			List.of(BASE, new ContainerImage.Layer("db", 20)));
+
+	@Test
+	public void testPullsShareTheRegistryLinkAndTheLayers() {
+		ContainerImageCache cache = new ContainerImageCache(1000);
+		assertEquals(15, cache.pull(WEB, 0, BANDWIDTH, Set.of()), 1e-9);
+		// the base layer is pulled at 10, the db layer once the link is free
+		assertEquals(17, cache.pull(DB, 5, BANDWIDTH, Set.of()), 1e-9);
+		assertEquals(0, cache.getMissingSize(DB));
+		assertEquals(30, cache.pull(DB, 30, BANDWIDTH, Set.of()), 1e-9);
+
+		assertEquals(170, cache.getPulledSize());
+		assertEquals(170, cache.getUsedSize());
+		assertEquals(3, cache.getMissCount());
+		assertEquals(3, cache.getHitCount());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedUnpinnedLayersAreEvicted() {
+		ContainerImageCache cache = new ContainerImageCache(200);
+		cache.pull(WEB, 0, BANDWIDTH, Set.of());
+		ContainerImage other = new ContainerImage("other", List.of(new ContainerImage.Layer("other", 60)));
+		// the web layer is the least recently used, but pinned
+		cache.pull(DB, 20, BANDWIDTH, Set.of());
+		cache.pull(other, 30, BANDWIDTH, Set.of("web"));
+		assertTrue(cache.contains("web"));
+		assertFalse(cache.contains("base"));
+		assertTrue(cache.contains("db"));
+		assertEquals(130, cache.getUsedSize());
+		assertEquals(100, cache.getMissingSize(WEB));
+
+		// a layer larger than the cache is pulled but not kept
+		ContainerImage big = new ContainerImage("big", List.of(new ContainerImage.Layer("big", 300)));
+		assertEquals(70, cache.pull(big, 40, BANDWIDTH, Set.of()), 1e-9);
+		assertFalse(cache.contains("big"));
+		assertEquals(130, cache.getUsedSize());
+	}
+}
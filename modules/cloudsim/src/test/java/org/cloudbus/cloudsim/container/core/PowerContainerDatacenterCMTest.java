@@ -0,0 +1,124 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.core;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.core.GuestEntity;
+import org.cloudbus.cloudsim.power.PowerHost;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class PowerContainerDatacenterCMTest {
+
+	private static final double VM_PE_MIPS = 1000;
+
+	@Test
+	public void testMigrationPullsTheImageOnce(@TempDir Path dir) throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		ContainerDatacenterBroker broker = new ContainerDatacenterBroker("Broker", 80);
+
+		List<ContainerVm> vmList = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(VM_PE_MIPS)));
+			peList.add(new Pe(1, new PeProvisionerSimple(VM_PE_MIPS)));
+			vmList.add(new ContainerVm(i, broker.getId(), VM_PE_MIPS, 1024, 1000, 10000, "Xen",
+					new VmSchedulerTimeShared(peList), new RamProvisionerSimple(1024),
+					new BwProvisionerSimple(1000), peList));
+		}
+
+		// both images share their base layer
+		ContainerImage.Layer base = new ContainerImage.Layer("base", 50);
+		List<Container> containers = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			Container container = new Container(i, broker.getId(), 500, 1, 128, 10, 100, "Docker",
+					new CloudletSchedulerTimeShared());
+			container.setImage(new ContainerImage("app" + i, List.of(base, new ContainerImage.Layer("app" + i, 50))));
+			containers.add(container);
+		}
+		Container migrated = containers.get(0);
+
+		List<Pe> peList = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			peList.add(new Pe(i, new PeProvisionerSimple(VM_PE_MIPS)));
+		}
+		List<PowerHost> hostList = new ArrayList<>();
+		hostList.add(new PowerHost(0, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 1000000,
+				peList, new VmSchedulerTimeShared(peList), new PowerModelLinear(200, 0.5)));
+
+		// moves the first container to the other vm once it has started
+		ContainerVm[] source = new ContainerVm[1];
+		VmAllocationPolicySimple vmPolicy = new VmAllocationPolicySimple(hostList) {
+			@Override
+			public List<GuestMapping> optimizeAllocation(List<? extends GuestEntity> guests) {
+				List<GuestMapping> migrations = new ArrayList<>();
+				if (source[0] == null && migrated.getHost() instanceof ContainerVm vm
+						&& migrated.getStartTime() < CloudSim.clock()) {
+					source[0] = vm;
+					ContainerVm target = vmList.get(0) == vm ? vmList.get(1) : vmList.get(0);
+					migrations.add(new GuestMapping(target, hostList.get(0), migrated));
+				}
+				return migrations;
+			}
+		};
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		PowerContainerDatacenterCM datacenter = new PowerContainerDatacenterCM("Datacenter", characteristics,
+				vmPolicy, new VmAllocationPolicySimple(vmList), new LinkedList<>(), 10, "test_1",
+				dir.toString(), 0, 0);
+		// 10 MB/s: each layer is pulled in 5 seconds
+		datacenter.setRegistryBandwidth(80);
+
+		List<Cloudlet> cloudlets = new ArrayList<>();
+		for (int i = 0; i < containers.size(); i++) {
+			Cloudlet cloudlet = new Cloudlet(i, 100000, 1, 300, 300, new UtilizationModelFull(),
+					new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudlets.add(cloudlet);
+		}
+		broker.submitCloudletList(cloudlets);
+		broker.submitContainerList(containers);
+		broker.submitGuestList(vmList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		assertEquals(1, datacenter.getContainerMigrationCount());
+		ContainerVm target = vmList.get(0) == source[0] ? vmList.get(1) : vmList.get(0);
+		assertSame(target, migrated.getHost());
+
+		// the source vm only pulled the image of the migrated container
+		assertEquals(2, source[0].getImageCache().getMissCount());
+		assertEquals(0, source[0].getImageCache().getHitCount());
+		// the target vm pulled its own image, then only the missing layer of the migrated one
+		assertEquals(3, target.getImageCache().getMissCount());
+		assertEquals(1, target.getImageCache().getHitCount());
+		assertEquals(150, target.getImageCache().getPulledSize());
+	}
+}
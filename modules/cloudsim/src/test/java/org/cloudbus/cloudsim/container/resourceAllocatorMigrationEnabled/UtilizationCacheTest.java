@@ -0,0 +1,141 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.resourceAllocatorMigrationEnabled;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.container.core.Container;
+import org.cloudbus.cloudsim.container.core.ContainerVm;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class UtilizationCacheTest {
+
+	private static final int USER_ID = 0;
+
+	private List<Host> hostList;
+
+	private VmAllocationPolicy policy;
+
+	private UtilizationCache cache;
+
+	private int computations;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		hostList = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+			hostList.add(new Host(i, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 1000000,
+					peList, new VmSchedulerTimeShared(peList)));
+		}
+		policy = new VmAllocationPolicySimple(hostList);
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		new Datacenter("Datacenter", characteristics, policy, new LinkedList<>(), 0);
+		cache = new UtilizationCache();
+		computations = 0;
+	}
+
+	@Test
+	public void testValuesAreComputedAgainOnlyWhenTheirHostChanges() {
+		ContainerVm vm0 = createVm(0);
+		ContainerVm vm1 = createVm(1);
+		assertTrue(policy.allocateHostForGuest(vm0, hostList.get(0)));
+		assertTrue(policy.allocateHostForGuest(vm1, hostList.get(1)));
+		cache.start();
+
+		assertEquals(1, hostCpuMips(hostList.get(0)));
+		assertEquals(1, hostCpuMips(hostList.get(0)));
+		assertEquals(2, nestedGuestsCpuMips(vm0));
+		assertEquals(2, computations);
+
+		// a placement on the other host leaves the values of the first one valid
+		assertTrue(vm1.guestCreate(createContainer(0)));
+		assertEquals(1, hostCpuMips(hostList.get(0)));
+		assertEquals(2, computations);
+
+		// a placement on the host invalidates its values, whether on the host or in its VMs
+		Container container = createContainer(1);
+		assertTrue(vm0.guestCreate(container));
+		assertEquals(3, hostCpuMips(hostList.get(0)));
+		assertEquals(4, nestedGuestsCpuMips(vm0));
+
+		// an undone placement does not
+		long mark = cache.mark(vm0);
+		assertTrue(vm0.guestCreate(createContainer(2)));
+		vm0.guestDestroy(vm0.getGuestList().getLast());
+		cache.undone(vm0, mark);
+		assertEquals(3, hostCpuMips(hostList.get(0)));
+		assertEquals(4, nestedGuestsCpuMips(vm0));
+
+		vm0.guestDestroy(container);
+		assertEquals(5, hostCpuMips(hostList.get(0)));
+
+		cache.stop();
+		assertEquals(6, hostCpuMips(hostList.get(0)));
+		assertEquals(7, hostCpuMips(hostList.get(0)));
+	}
+
+	@Test
+	public void testValuesOfUnplacedGuestsAreNotCached() {
+		Container container = createContainer(0);
+		cache.start();
+		assertEquals(1, cache.get(UtilizationCache.Kind.GUEST_CPU_MIPS, container, container.getHost(), count()));
+		assertEquals(2, cache.get(UtilizationCache.Kind.GUEST_CPU_MIPS, container, container.getHost(), count()));
+	}
+
+	private double hostCpuMips(Host host) {
+		return cache.get(UtilizationCache.Kind.HOST_CPU_MIPS, host, host, count());
+	}
+
+	private double nestedGuestsCpuMips(ContainerVm vm) {
+		return cache.get(UtilizationCache.Kind.NESTED_GUESTS_CPU_MIPS, vm, vm, count());
+	}
+
+	/**
+	 * @return a supplier returning the number of values computed so far
+	 */
+	private DoubleSupplier count() {
+		return () -> ++computations;
+	}
+
+	private ContainerVm createVm(int id) {
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		return new ContainerVm(id, USER_ID, 1000, 1024, 1000, 10000, "Xen", new VmSchedulerTimeShared(peList),
+				new RamProvisionerSimple(1024), new BwProvisionerSimple(1000), peList);
+	}
+
+	private Container createContainer(int id) {
+		return new Container(id, USER_ID, 250, 1, 128, 10, 100, "Docker", new CloudletSchedulerTimeShared());
+	}
+}
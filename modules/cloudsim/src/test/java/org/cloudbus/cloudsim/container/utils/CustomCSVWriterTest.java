@@ -0,0 +1,87 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.container.utils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomCSVWriterTest {
+
+	@Test
+	public void testRowsAreWrittenOnFlushAndClose(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("logs/energy.csv");
+		CustomCSVWriter writer = new CustomCSVWriter(file.toString());
+		assertFalse(writer.fileExistedAlready());
+
+		writer.writeTofile(new String[] {"time", "power"}, false);
+		writer.writeRow(300.0, 1.5e7);
+		writer.writeRow(600.0, 2);
+		writer.flush();
+		assertEquals(List.of("time,power", "300.0,1.5E7", "600.0,2"), Files.readAllLines(file));
+
+		writer.writeTofile(new String[] {"a,b", null, "say \"hi\""});
+		writer.close();
+		writer.close();
+		assertEquals("a\",b,,say \"\"hi\"\"", Files.readAllLines(file).get(3));
+		assertThrows(IOException.class, () -> writer.writeRow(1.0));
+	}
+
+	@Test
+	public void testTruncateAndAppend(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("migrations.csv");
+		Files.writeString(file, "previous run\n");
+		CustomCSVWriter writer = new CustomCSVWriter(file.toString());
+		assertTrue(writer.fileExistedAlready());
+
+		// rows beyond the buffer size are handed to the background thread before the flush
+		for (int i = 0; i < 100_000; i++) {
+			writer.writeRow(i, i);
+		}
+		writer.flush();
+		List<String> lines = Files.readAllLines(file);
+		assertEquals(100_001, lines.size());
+		assertEquals("previous run", lines.get(0));
+		assertEquals("99999.0,99999", lines.get(100_000));
+
+		writer.writeTofile(new String[] {"header"}, false);
+		writer.close();
+		assertEquals(List.of("header"), Files.readAllLines(file));
+	}
+
+	@Test
+	public void testRowsAreWrittenWhenTheJvmExits(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("exit.csv");
+		Process process = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+				"-cp", System.getProperty("java.class.path"), ExitWithoutClose.class.getName(), file.toString())
+				.inheritIO().start();
+		assertEquals(0, process.waitFor());
+		assertEquals(List.of("1.0,2", "a,b"), Files.readAllLines(file));
+	}
+
+	/**
+	 * Writes rows without closing the writer, then exits.
+	 */
+	public static class ExitWithoutClose {
+		public static void main(String[] args) throws IOException {
+			CustomCSVWriter writer = new CustomCSVWriter(args[0]);
+			writer.writeRow(1.0, 2L);
+			writer.writeTofile(new String[] {"a", "b"});
+		}
+	}
+}
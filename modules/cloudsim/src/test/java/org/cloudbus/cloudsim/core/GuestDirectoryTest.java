@@ -0,0 +1,165 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.core;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.Datacenter;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Host;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmAllocationPolicy;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.container.core.Container;
+import org.cloudbus.cloudsim.container.core.ContainerVm;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GuestDirectoryTest {
+
+	private static final int USER_ID = 0;
+
+	private List<Host> hostList;
+
+	private VmAllocationPolicy policy;
+
+	private GuestDirectory directory;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		hostList = new ArrayList<>();
+		for (int i = 0; i < 2; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			peList.add(new Pe(1, new PeProvisionerSimple(1000)));
+			hostList.add(new Host(i, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 1000000,
+					peList, new VmSchedulerTimeShared(peList)));
+		}
+		policy = new VmAllocationPolicySimple(hostList);
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		directory = new Datacenter("Datacenter", characteristics, policy, new LinkedList<>(), 0)
+				.getGuestDirectory();
+	}
+
+	@Test
+	public void testNestedGuestsFollowTheirVm() {
+		ContainerVm vm = createVm(0);
+		vm.setVirtualizationOverhead(5);
+		// container ids may overlap with vm ids
+		Container container0 = createContainer(0);
+		Container container1 = createContainer(1);
+		container1.setVirtualizationOverhead(3);
+
+		assertTrue(policy.allocateHostForGuest(vm, hostList.get(0)));
+		assertTrue(vm.guestCreate(container0));
+		assertTrue(vm.guestCreate(container1));
+
+		assertEquals(3, directory.size());
+		assertSame(vm, directory.getGuest(0, USER_ID));
+		assertSame(container0, directory.getGuest(0, 0, USER_ID));
+		assertSame(container1, directory.getGuest(1, USER_ID));
+		assertSame(container1, directory.getGuest(0, 1, USER_ID));
+		assertNull(directory.getGuest(1, 1, USER_ID));
+		assertNull(directory.getGuest(0, 2, USER_ID));
+
+		GuestDirectory.Location location = directory.getLocation(0, 1, USER_ID);
+		assertSame(vm, location.getDirectHost());
+		assertSame(hostList.get(0), location.getHost());
+		assertEquals(8, location.getTotalVirtualizationOverhead());
+		assertEquals(8, hostList.get(0).getTotalVirtualizationOverhead(1));
+
+		// migrate the vm
+		policy.deallocateHostForGuest(vm);
+		assertEquals(0, directory.size());
+		assertTrue(policy.allocateHostForGuest(vm, hostList.get(1)));
+		assertSame(hostList.get(1), directory.getLocation(0, 1, USER_ID).getHost());
+		assertEquals(8, hostList.get(1).getTotalVirtualizationOverhead(1));
+		assertEquals(0, hostList.get(0).getTotalVirtualizationOverhead(1));
+
+		vm.guestDestroy(container1);
+		assertNull(directory.getGuest(0, 1, USER_ID));
+		assertEquals(2, directory.size());
+	}
+
+	@Test
+	public void testVmAndContainerWithTheSameIdOnOneHost() {
+		ContainerVm vm = createVm(0);
+		vm.setVirtualizationOverhead(5);
+		Container container = createContainer(0);
+		container.setVirtualizationOverhead(3);
+		assertTrue(policy.allocateHostForGuest(vm, hostList.get(0)));
+		assertTrue(vm.guestCreate(container));
+
+		// the vm is found first, as when walking the guest lists
+		assertEquals(5, hostList.get(0).getTotalVirtualizationOverhead(0));
+		assertEquals(5, hostList.get(0).getTotalVirtualizationOverhead(0, hostList.get(0).getGuestList().iterator(), 0));
+
+		vm.guestDestroy(container);
+		assertEquals(5, hostList.get(0).getTotalVirtualizationOverhead(0));
+		assertTrue(vm.guestCreate(container));
+		hostList.get(0).guestDestroy(vm);
+		assertEquals(0, hostList.get(0).getTotalVirtualizationOverhead(0));
+	}
+
+	@Test
+	public void testRemovalListeners() {
+		List<GuestEntity> removed = new ArrayList<>();
+		directory.addRemovalListener(location -> removed.add(location.getGuest()));
+		ContainerVm vm = createVm(0);
+		Container container = createContainer(0);
+		assertTrue(policy.allocateHostForGuest(vm, hostList.get(0)));
+		assertTrue(vm.guestCreate(container));
+		assertTrue(removed.isEmpty());
+
+		// the nested guests are removed along with their vm
+		hostList.get(0).guestDestroy(vm);
+		assertEquals(List.of(vm, container), removed);
+	}
+
+	@Test
+	public void testGuestsOfOtherDatacentersAreIgnored() {
+		ContainerVm vm = createVm(0);
+		vm.setVirtualizationOverhead(4);
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		Host detachedHost = new Host(5, new RamProvisionerSimple(4096), new BwProvisionerSimple(10000), 1000000,
+				peList, new VmSchedulerTimeShared(peList));
+
+		assertTrue(detachedHost.guestCreate(vm));
+		assertEquals(0, directory.size());
+		// without a datacenter, the guest lists are walked
+		assertEquals(4, detachedHost.getTotalVirtualizationOverhead(0));
+	}
+
+	private ContainerVm createVm(int id) {
+		List<Pe> peList = new ArrayList<>();
+		peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+		return new ContainerVm(id, USER_ID, 1000, 1024, 1000, 10000, "Xen", new VmSchedulerTimeShared(peList),
+				new RamProvisionerSimple(1024), new BwProvisionerSimple(1000), peList);
+	}
+
+	private Container createContainer(int id) {
+		return new Container(id, USER_ID, 250, 1, 128, 10, 100, "Docker", new CloudletSchedulerTimeShared());
+	}
+}
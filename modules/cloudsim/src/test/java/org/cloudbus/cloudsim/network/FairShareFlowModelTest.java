@@ -0,0 +1,155 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.network.FairShareFlowModel.Flow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FairShareFlowModelTest {
+
+	private FairShareFlowModel<String> flowModel;
+
+	private int linkA;
+
+	private int linkB;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		flowModel = new FairShareFlowModel<>();
+		linkA = flowModel.addLink(10);
+		linkB = flowModel.addLink(4);
+	}
+
+	@Test
+	public void testMaxMinFairRates() {
+		Flow<String> f1 = flowModel.startFlow("f1", 100, new int[] { linkA }, 0);
+		Flow<String> f2 = flowModel.startFlow("f2", 100, new int[] { linkA, linkB }, 0);
+		assertEquals(4, f2.getRate(), 0);
+		assertEquals(6, f1.getRate(), 0);
+		assertEquals(10, flowModel.getLinkLoad(linkA), 0);
+
+		Flow<String> f3 = flowModel.startFlow("f3", 100, new int[] { linkA }, 0);
+		assertEquals(10.0 / 3, f1.getRate(), 1e-12);
+		assertEquals(10.0 / 3, f2.getRate(), 1e-12);
+		assertEquals(10.0 / 3, f3.getRate(), 1e-12);
+	}
+
+	@Test
+	public void testCompletion() {
+		flowModel.startFlow("f1", 60, new int[] { linkA }, 0);
+		flowModel.startFlow("f2", 100, new int[] { linkA }, 0);
+		// both flows get 5 until f1 completes at 12, then f2 gets 10 for the remaining 40
+		assertEquals(12, flowModel.getNextCompletionTime(), 1e-9);
+		assertTrue(flowModel.advance(11).isEmpty());
+
+		List<Flow<String>> completed = flowModel.advance(flowModel.getNextCompletionTime());
+		assertEquals(1, completed.size());
+		assertEquals("f1", completed.getFirst().getData());
+		assertEquals(16, flowModel.getNextCompletionTime(), 1e-9);
+
+		completed = flowModel.advance(16);
+		assertEquals("f2", completed.getFirst().getData());
+		assertEquals(0, flowModel.getFlowCount());
+		assertEquals(Double.MAX_VALUE, flowModel.getNextCompletionTime(), 0);
+	}
+
+	@Test
+	public void testFlowWithoutLinks() {
+		flowModel.startFlow("local", 100, new int[0], 5);
+		assertEquals(5, flowModel.getNextCompletionTime(), 0);
+		assertEquals(1, flowModel.advance(5).size());
+	}
+
+	@Test
+	public void testRatesMatchLinkScan() {
+		FairShareFlowModel<Integer> model = new FairShareFlowModel<>();
+		Random random = new Random(11);
+		int links = 200;
+		double[] capacity = new double[links];
+		for (int link = 0; link < links; link++) {
+			capacity[link] = 1 + random.nextInt(20);
+			model.addLink(capacity[link]);
+		}
+		List<Flow<Integer>> started = new ArrayList<>();
+		for (int i = 0; i < 300; i++) {
+			int[] path = random.ints(0, links).distinct().limit(1 + random.nextInt(4)).toArray();
+			started.add(model.startFlow(i, 1000, path, 0));
+			if (random.nextInt(3) == 0) {
+				model.abortFlow(started.get(random.nextInt(started.size())), 0);
+			}
+		}
+
+		List<Flow<Integer>> active = new ArrayList<>(model.getFlows());
+		double[] expected = scanRates(active, capacity);
+		for (int i = 0; i < active.size(); i++) {
+			assertEquals(expected[i], active.get(i).getRate(), 0);
+		}
+		for (int link = 0; link < links; link++) {
+			assertTrue(model.getLinkLoad(link) <= capacity[link] + 1e-9);
+		}
+	}
+
+	/**
+	 * Computes max-min fair rates by scanning all links at every progressive filling step.
+	 */
+	private static double[] scanRates(List<Flow<Integer>> flows, double[] capacity) {
+		double[] remaining = capacity.clone();
+		int[] unfrozen = new int[capacity.length];
+		for (Flow<Integer> flow : flows) {
+			for (int link : flow.getLinks()) {
+				unfrozen[link]++;
+			}
+		}
+		double[] rates = new double[flows.size()];
+		boolean[] frozen = new boolean[flows.size()];
+		int unassigned = flows.size();
+		while (unassigned > 0) {
+			int bottleneck = -1;
+			double minShare = Double.MAX_VALUE;
+			for (int link = 0; link < capacity.length; link++) {
+				if (unfrozen[link] > 0 && Math.max(0, remaining[link]) / unfrozen[link] < minShare) {
+					minShare = Math.max(0, remaining[link]) / unfrozen[link];
+					bottleneck = link;
+				}
+			}
+			for (int i = 0; i < flows.size(); i++) {
+				int[] path = flows.get(i).getLinks();
+				if (frozen[i] || !contains(path, bottleneck)) {
+					continue;
+				}
+				rates[i] = minShare;
+				frozen[i] = true;
+				unassigned--;
+				for (int link : path) {
+					remaining[link] -= minShare;
+					unfrozen[link]--;
+				}
+			}
+		}
+		return rates;
+	}
+
+	private static boolean contains(int[] path, int link) {
+		for (int l : path) {
+			if (l == link) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class FloydWarshallFloatTest {
+
+	private static final int NODES = 50;
+
+	@Test
+	public void testBlockedMatchesTextbook() {
+		float[][] adjMatrix = createAdjMatrix(new Random(7));
+		float[][] expected = textbook(adjMatrix);
+
+		for (int blockSize : new int[] {1, 7, 16, 64}) {
+			FloydWarshall_Float floyd = new FloydWarshall_Float();
+			floyd.initialize(NODES);
+			floyd.setBlockSize(blockSize);
+			float[][] actual = floyd.allPairsShortestPaths(adjMatrix);
+			for (int i = 0; i < NODES; i++) {
+				for (int j = 0; j < NODES; j++) {
+					assertEquals(expected[i][j], actual[i][j], 1e-3, "delay from " + i + " to " + j);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testPredecessorsFollowShortestPaths() {
+		float[][] adjMatrix = createAdjMatrix(new Random(11));
+		FloydWarshall_Float floyd = new FloydWarshall_Float();
+		floyd.initialize(NODES);
+		floyd.setBlockSize(8);
+		floyd.setPool(new ForkJoinPool(3));
+		float[][] delays = floyd.allPairsShortestPaths(adjMatrix);
+		int[][] pred = floyd.getPK();
+
+		for (int i = 0; i < NODES; i++) {
+			assertEquals(-1, pred[i][i]);
+			for (int j = 0; j < NODES; j++) {
+				if (i == j || delays[i][j] == Float.MAX_VALUE) {
+					continue;
+				}
+				// walking back the predecessors adds up to the delay
+				float length = 0;
+				int node = j;
+				while (node != i) {
+					int previous = pred[i][node];
+					length += adjMatrix[previous][node];
+					node = previous;
+				}
+				assertEquals(delays[i][j], length, 1e-3);
+				assertEquals(pred[i][j], floyd.getPredecessor(i, j));
+			}
+		}
+	}
+
+	@Test
+	public void testWithoutPredecessors() {
+		FloydWarshall_Float floyd = new FloydWarshall_Float();
+		floyd.initialize(NODES);
+		floyd.setTrackPredecessors(false);
+		floyd.allPairsShortestPaths(createAdjMatrix(new Random(13)));
+		assertNull(floyd.getPK());
+	}
+
+	/**
+	 * Creates a random directed adjacency matrix, where 0 means no link;
+	 * the last node is disconnected.
+	 */
+	private static float[][] createAdjMatrix(Random random) {
+		float[][] adjMatrix = new float[NODES][NODES];
+		for (int i = 0; i < NODES - 1; i++) {
+			for (int j = 0; j < NODES - 1; j++) {
+				if (i != j && random.nextInt(10) == 0) {
+					adjMatrix[i][j] = 1 + random.nextInt(100);
+				}
+			}
+		}
+		return adjMatrix;
+	}
+
+	private static float[][] textbook(float[][] adjMatrix) {
+		float[][] d = new float[NODES][NODES];
+		for (int i = 0; i < NODES; i++) {
+			for (int j = 0; j < NODES; j++) {
+				d[i][j] = i == j ? 0 : adjMatrix[i][j] != 0 ? adjMatrix[i][j] : Float.MAX_VALUE;
+			}
+		}
+		for (int k = 0; k < NODES; k++) {
+			for (int i = 0; i < NODES; i++) {
+				for (int j = 0; j < NODES; j++) {
+					if (d[i][k] != Float.MAX_VALUE && d[k][j] != Float.MAX_VALUE && d[i][k] + d[k][j] < d[i][j]) {
+						d[i][j] = d[i][k] + d[k][j];
+					}
+				}
+			}
+		}
+		return d;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SparseDelayMatrixTest {
+
+	private static final int NODES = 80;
+
+	@Test
+	public void testDelaysMatchFloydWarshall() {
+		TopologicalGraph graph = createGraph(new Random(3));
+		DelayMatrix_Float dense = new DelayMatrix_Float(graph, false);
+		SparseDelayMatrix sparse = new SparseDelayMatrix(graph, false, 8);
+
+		for (int src = 0; src < NODES; src++) {
+			for (int dest = 0; dest < NODES; dest++) {
+				assertEquals(dense.getDelay(src, dest), sparse.getDelay(src, dest), 1e-3,
+						"delay from " + src + " to " + dest);
+			}
+		}
+		// the last node is only reachable through a zero-delay link, which is ignored
+		assertEquals(Float.MAX_VALUE, sparse.getDelay(0, NODES - 1));
+		assertEquals(0, sparse.getDelay(NODES - 1, NODES - 1));
+	}
+
+	@Test
+	public void testDefaultCacheSizeIsBoundedByMemory() {
+		assertEquals(SparseDelayMatrix.DEFAULT_CACHE_SIZE, SparseDelayMatrix.getDefaultCacheSize(NODES));
+		assertEquals(335, SparseDelayMatrix.getDefaultCacheSize(50_000));
+		assertTrue(4L * 50_000 * SparseDelayMatrix.getDefaultCacheSize(50_000) <= SparseDelayMatrix.DEFAULT_CACHE_BYTES);
+		assertEquals(1, SparseDelayMatrix.getDefaultCacheSize(Integer.MAX_VALUE));
+
+		SparseDelayMatrix sparse = new SparseDelayMatrix(createGraph(new Random(5)), false);
+		for (int src = 0; src < NODES; src++) {
+			sparse.getDelay(src, src);
+		}
+		assertEquals(NODES, sparse.getCachedSourceNum());
+	}
+
+	@Test
+	public void testCacheIsBounded() {
+		SparseDelayMatrix sparse = new SparseDelayMatrix(createGraph(new Random(5)), false, 4);
+
+		for (int src = 0; src < 10; src++) {
+			sparse.getDelay(src, 20);
+		}
+		assertEquals(4, sparse.getCachedSourceNum());
+		assertEquals(10, sparse.getComputations());
+
+		// cached sources, and symmetric lookups of cached destinations, are not recomputed
+		sparse.getDelay(9, 30);
+		sparse.getDelay(30, 8);
+		assertEquals(10, sparse.getComputations());
+
+		sparse.getDelay(0, 30);
+		assertEquals(11, sparse.getComputations());
+		assertThrows(ArrayIndexOutOfBoundsException.class, () -> sparse.getDelay(0, NODES));
+	}
+
+	/**
+	 * Creates a connected random graph, plus a node connected through a zero-delay link.
+	 */
+	private static TopologicalGraph createGraph(Random random) {
+		TopologicalGraph graph = new TopologicalGraph();
+		for (int i = 0; i < NODES; i++) {
+			graph.addNode(new TopologicalNode(i));
+		}
+		Set<Long> links = new HashSet<>();
+		for (int i = 1; i < NODES - 1; i++) {
+			addLink(graph, links, random.nextInt(i), i, 1 + random.nextInt(50));
+		}
+		for (int i = 0; i < 2 * NODES; i++) {
+			addLink(graph, links, random.nextInt(NODES - 1), random.nextInt(NODES - 1), 1 + random.nextInt(50));
+		}
+		graph.addLink(new TopologicalLink(0, NODES - 1, 0, 1000));
+		return graph;
+	}
+
+	private static void addLink(TopologicalGraph graph, Set<Long> links, int src, int dest, float delay) {
+		// without parallel links, which the dense matrix overwrites
+		if (src != dest && links.add((long) Math.min(src, dest) * NODES + Math.max(src, dest))) {
+			graph.addLink(new TopologicalLink(src, dest, delay, 1000));
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TopologyCacheTest {
+
+	private static final String BRITE = """
+			Topology: ( 5 Nodes, 8 Edges )
+			Model (1 - RTWaxman):  5 5 5 1  2  0.15000000596046448 0.20000000298023224 1 1 10.0 1024.0
+
+			Nodes: ( 5 )
+			0\t1\t3\t3\t3\t-1\tRT_NODE
+			1\t0\t3\t3\t3\t-1\tRT_NODE
+			2\t4\t3\t3\t3\t-1\tRT_NODE
+			3\t3\t1\t3\t3\t-1\tRT_NODE
+			4\t3\t3\t4\t4\t-1\tRT_NODE
+
+
+			Edges: ( 8 )
+			0\t2\t0\t3.0\t\t\t1.1\t10.0\t-1\t-1\tE_RT\tU
+			1\t2\t1\t4.0\t\t\t2.1\t10.0\t-1\t-1\tE_RT\tU
+			2\t3\t0\t2.8284271247461903\t3.9\t10.0\t-1\t-1\tE_RT\tU
+			3\t3\t1\t3.605551275463989\t4.1\t10.0\t-1\t-1\tE_RT\tU
+			4\t4\t3\t2.0\t\t\t5.0\t10.0\t-1\t-1\tE_RT\tU
+			5\t4\t2\t1.0\t\t\t4.0\t10.0\t-1\t-1\tE_RT\tU
+			6\t0\t4\t2.0\t\t\t3.0\t12.5\t-1\t-1\tE_RT\tU
+			7\t1\t4\t3.0\t\t\t4.1\t10.0\t-1\t-1\tE_RT\tU""";
+
+	@Test
+	public void testStreamingReader(@TempDir Path dir) throws Exception {
+		// with Windows line separators, and without a final one
+		Path file = dir.resolve("topology.brite");
+		Files.writeString(file, BRITE.replace("\n", "\r\n"));
+
+		CompactTopologicalGraph graph = new GraphReaderBrite().readCompactGraph(file.toString());
+		assertEquals(5, graph.getNumberOfNodes());
+		assertEquals(8, graph.getNumberOfLinks());
+		assertEquals(3, graph.getNodeID(3));
+		assertEquals(3, graph.getNodeX(3));
+		assertEquals(1, graph.getNodeY(3));
+		assertEquals(3, graph.getLinkSrc(2));
+		assertEquals(0, graph.getLinkDest(2));
+		assertEquals(3.9f, graph.getLinkDelay(2));
+		// the bandwidth is truncated to an integer
+		assertEquals(12, graph.getLinkBw(6));
+		assertEquals(4.1f, graph.getLinkDelay(7));
+
+		TopologicalGraph topologicalGraph = new GraphReaderBrite().readGraphFile(file.toString());
+		assertEquals(5, topologicalGraph.getNumberOfNodes());
+		assertEquals(8, topologicalGraph.getNumberOfLinks());
+	}
+
+	@Test
+	public void testFieldsMatchStandardParsers(@TempDir Path dir) throws Exception {
+		Random random = new Random(7);
+		List<String> delays = new ArrayList<>();
+		List<String> bandwidths = new ArrayList<>();
+		for (int i = 0; i < 20000; i++) {
+			float f = random.nextFloat() * (float) Math.pow(10, random.nextInt(12) - 6);
+			switch (i % 6) {
+				case 0 -> delays.add(Double.toString(random.nextDouble() * 100));
+				case 1 -> delays.add(Float.toString(f));
+				case 2 -> delays.add(String.format(Locale.ROOT, "%.3f", random.nextDouble() * 10));
+				// halfway between two floats
+				case 3 -> delays.add(new BigDecimal(f).add(new BigDecimal(Math.nextUp(f)))
+						.divide(BigDecimal.valueOf(2)).toPlainString());
+				case 4 -> delays.add("-" + new BigDecimal(random.nextDouble()).toPlainString());
+				default -> delays.add(random.nextInt(1000) + "." + random.nextInt(1000) + "e-2");
+			}
+			bandwidths.add(String.valueOf(random.nextInt(Integer.MAX_VALUE)));
+		}
+		StringBuilder brite = new StringBuilder("Nodes: ( 0 )\nEdges: ( 0 )\n");
+		for (int i = 0; i < delays.size(); i++) {
+			brite.append(i).append("\t-").append(i).append("\t+").append(i).append("\t0\t")
+					.append(delays.get(i)).append('\t').append(bandwidths.get(i)).append('\n');
+		}
+		Path file = dir.resolve("topology.brite");
+		Files.writeString(file, brite);
+
+		CompactTopologicalGraph graph = new GraphReaderBrite().readCompactGraph(file.toString());
+		assertEquals(delays.size(), graph.getNumberOfLinks());
+		for (int i = 0; i < delays.size(); i++) {
+			assertEquals(-i, graph.getLinkSrc(i));
+			assertEquals(i, graph.getLinkDest(i));
+			assertEquals(Float.floatToIntBits(Float.parseFloat(delays.get(i))),
+					Float.floatToIntBits(graph.getLinkDelay(i)), delays.get(i));
+			assertEquals((int) Float.parseFloat(bandwidths.get(i)), graph.getLinkBw(i), bandwidths.get(i));
+		}
+	}
+
+	@Test
+	public void testEmptyGraphGrows() {
+		CompactTopologicalGraph graph = new CompactTopologicalGraph(new int[0], new int[0], new int[0],
+				new int[0], new int[0], new float[0], new float[0]);
+		graph.addNode(4, 1, 2);
+		graph.addLink(4, 5, 0.5f, 10);
+		assertEquals(4, graph.getNodeID(0));
+		assertEquals(0.5f, graph.getLinkDelay(0));
+	}
+
+	@Test
+	public void testCacheHitAndInvalidation(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("topology.brite");
+		Files.writeString(file, BRITE);
+		String cacheDir = dir.resolve("cache").toString();
+		DelayMatrix_Float expected = new DelayMatrix_Float(
+				new GraphReaderBrite().readGraphFile(file.toString()), false);
+
+		TopologyCache cache = new TopologyCache(cacheDir);
+		TopologyCache.Topology parsed = cache.load(file.toString(), true);
+		assertEquals(0, cache.getHits());
+		assertEquals(1, cache.getMisses());
+
+		// a new cache, as in a later run, maps the cache file
+		TopologyCache later = new TopologyCache(cacheDir);
+		TopologyCache.Topology cached = later.load(file.toString(), true);
+		assertEquals(1, later.getHits());
+		assertEquals(0, later.getMisses());
+		assertEquals(8, cached.graph().getNumberOfLinks());
+		for (int i = 0; i < 8; i++) {
+			assertEquals(parsed.graph().getLinkSrc(i), cached.graph().getLinkSrc(i));
+			assertEquals(parsed.graph().getLinkDest(i), cached.graph().getLinkDest(i));
+			assertEquals(parsed.graph().getLinkDelay(i), cached.graph().getLinkDelay(i));
+			assertEquals(parsed.graph().getLinkBw(i), cached.graph().getLinkBw(i));
+		}
+		for (int src = 0; src < 5; src++) {
+			for (int dest = 0; dest < 5; dest++) {
+				assertEquals(expected.getDelay(src, dest), cached.delayMatrix().getDelay(src, dest));
+			}
+		}
+
+		// a changed file is parsed again
+		Files.writeString(file, BRITE.replace("3\t0\t2.8284271247461903\t3.9", "3\t0\t2.8284271247461903\t0.5"));
+		TopologyCache.Topology changed = later.load(file.toString(), true);
+		assertEquals(1, later.getMisses());
+		assertEquals(0.5f, changed.delayMatrix().getDelay(0, 3));
+	}
+}
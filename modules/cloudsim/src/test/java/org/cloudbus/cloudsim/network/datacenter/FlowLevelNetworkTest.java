@@ -0,0 +1,215 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.util.LogLinearHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FlowLevelNetworkTest {
+
+	private static final int HOSTS = 4;
+
+	/** Bandwidth of the VMs and the switch ports, in bits per second. */
+	private static final long BW = 1000000;
+
+	/** Data sent by each cloudlet, in bytes (8 seconds at full bandwidth). */
+	private static final long DATA = 1000000;
+
+	@Test
+	public void testShuffleSharesEdgeUplinks() throws Exception {
+		double[] packetLevel = runShuffle(false);
+		double[] flowLevel = runShuffle(true);
+
+		for (int i = 0; i < HOSTS; i++) {
+			// 1s of execution, then both flows of an edge switch share its uplink (16s),
+			// then 1s of execution; switches add a few ms and the scheduler 0.01s
+			assertEquals(18.0, flowLevel[i], 0.05);
+			// packets are stored and forwarded as a whole at each hop
+			assertTrue(packetLevel[i] >= flowLevel[i]);
+		}
+	}
+
+	@Test
+	public void testPacketLevelSerializesPortsInFifoOrder() throws Exception {
+		double[] packetLevel = runShuffle(false);
+		Arrays.sort(packetLevel);
+
+		// both packets of an edge switch reach it at 9s, then each of them is transmitted
+		// (8s) by the edge uplink, the aggregate downlink and the edge downlink in turn:
+		// the first one arrives at 9 + 3 * 8 = 33s, the second one is queued behind it
+		// at each port and arrives 8s later; then 1s of execution
+		assertEquals(34.0, packetLevel[0], 0.05);
+		assertEquals(34.0, packetLevel[1], 0.05);
+		assertEquals(42.0, packetLevel[2], 0.05);
+		assertEquals(42.0, packetLevel[3], 0.05);
+	}
+
+	@Test
+	public void testTelemetry() throws Exception {
+		for (boolean flowLevel : new boolean[] {false, true}) {
+			NetworkTelemetry telemetry = new NetworkTelemetry(1.0);
+			runShuffle(flowLevel, telemetry);
+
+			// each packet crosses an edge uplink, an aggregate downlink and an edge downlink
+			long bytes = 0;
+			long peakQueuedBytes = 0;
+			double peakUtilization = 0;
+			for (NetworkTelemetry.PortSample sample : telemetry.getSamples()) {
+				bytes += sample.bytes();
+				peakQueuedBytes = Math.max(peakQueuedBytes, sample.peakQueuedBytes());
+				peakUtilization = Math.max(peakUtilization, sample.utilization());
+			}
+			assertEquals(3 * HOSTS * DATA, bytes);
+			// the bytes of the packets being transmitted are counted whole bytes at a time
+			assertTrue(peakUtilization <= 1 + 1e-4);
+			assertEquals(HOSTS * DATA, telemetry.getReceivedBytes());
+
+			LogLinearHistogram latencies = telemetry.getPacketLatencies();
+			assertEquals(HOSTS, latencies.getCount());
+			if (flowLevel) {
+				// all the packets share the edge uplinks for 16s
+				assertEquals(16.0, latencies.getPercentile(50), 0.5);
+			} else {
+				// both packets of an edge switch are queued in its uplink
+				assertEquals(2 * DATA, peakQueuedBytes);
+				assertEquals(32.0, latencies.getPercentile(50), 1.0);
+				assertEquals(40.0, latencies.getMax(), 0.05);
+			}
+
+			List<NetworkTelemetry.FlowRecord> flows = telemetry.getFlows();
+			assertEquals(HOSTS, flows.size());
+			for (NetworkTelemetry.FlowRecord flow : flows) {
+				assertEquals(DATA, flow.bytes());
+				assertTrue(flow.senderGuestId() != flow.receiverGuestId());
+				assertTrue(flow.finishTime() > flow.startTime());
+			}
+			assertEquals(latencies.getMax(), flows.stream()
+					.mapToDouble(NetworkTelemetry.FlowRecord::completionTime).max().orElseThrow(), 0.05);
+
+			StringBuilder csv = new StringBuilder();
+			telemetry.writeCsv(csv);
+			assertEquals(telemetry.getSamples().size() + 1, csv.toString().split("\n").length);
+			csv.setLength(0);
+			telemetry.writeFlowsCsv(csv);
+			assertEquals(HOSTS + 1, csv.toString().split("\n").length);
+		}
+	}
+
+	@Test
+	public void testTelemetryKeepsTheLatestRecords() throws Exception {
+		NetworkTelemetry telemetry = new NetworkTelemetry(1.0, 2);
+		runShuffle(false, telemetry);
+
+		assertEquals(2, telemetry.getSamples().size());
+		assertTrue(telemetry.getDroppedSamples() > 0);
+		assertEquals(2, telemetry.getFlows().size());
+		assertEquals(HOSTS - 2, telemetry.getDroppedFlows());
+		// the histogram still covers all the flows
+		assertEquals(HOSTS, telemetry.getPacketLatencies().getCount());
+
+		List<NetworkTelemetry.PortSample> samples = telemetry.getSamples();
+		assertTrue(samples.get(0).time() <= samples.get(1).time());
+		List<NetworkTelemetry.FlowRecord> flows = telemetry.getFlows();
+		assertTrue(flows.get(0).finishTime() <= flows.get(1).finishTime());
+	}
+
+	/**
+	 * Runs a shuffle where cloudlet i sends data to the cloudlet on the host
+	 * attached to the other edge switch, and waits for data from it.
+	 *
+	 * @return the finish time of each cloudlet
+	 */
+	private static double[] runShuffle(boolean flowLevel) throws Exception {
+		return runShuffle(flowLevel, null);
+	}
+
+	private static double[] runShuffle(boolean flowLevel, NetworkTelemetry telemetry) throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+
+		List<NetworkHost> hostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hostList.add(new NetworkHost(i, new RamProvisionerSimple(1024), new BwProvisionerSimple(BW),
+					1000000, peList, new VmSchedulerTimeShared(peList)));
+		}
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		NetworkDatacenter dc = new NetworkDatacenter("Datacenter", characteristics,
+				new VmAllocationPolicySimple(hostList), new LinkedList<Storage>(), 0);
+		dc.setFlowLevelNetwork(flowLevel);
+		dc.setTelemetry(telemetry);
+
+		Switch aggr = new Switch("Aggr", 2, Switch.SwitchLevel.AGGR_LEVEL, 0.001, BW, BW, dc);
+		dc.registerSwitch(aggr);
+		for (int e = 0; e < 2; e++) {
+			Switch edge = new Switch("Edge" + e, 2, Switch.SwitchLevel.EDGE_LEVEL, 0.001, BW, BW, dc);
+			dc.registerSwitch(edge);
+			dc.attachSwitchToSwitch(edge, aggr);
+			dc.attachSwitchToHost(edge, hostList.get(2 * e));
+			dc.attachSwitchToHost(edge, hostList.get(2 * e + 1));
+		}
+
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		List<Vm> vmList = new ArrayList<>();
+		List<NetworkCloudlet> cloudletList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 1024, BW, 1000, "Xen", new CloudletSchedulerTimeShared()));
+			NetworkCloudlet cloudlet = new NetworkCloudlet(i, 0, 1, 300, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudlet.setGuestId(i);
+			cloudletList.add(cloudlet);
+		}
+		for (int i = 0; i < HOSTS; i++) {
+			NetworkCloudlet peer = cloudletList.get((i + 2) % HOSTS);
+			cloudletList.get(i).addExecutionStage(1000);
+			cloudletList.get(i).addSendStage(DATA, peer);
+			cloudletList.get(i).addRecvStage(peer);
+			cloudletList.get(i).addExecutionStage(1000);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		assertEquals(HOSTS * DATA, dc.totalDataTransfer, 0);
+		double[] finishTimes = new double[HOSTS];
+		for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+			finishTimes[cloudlet.getCloudletId()] = cloudlet.getExecFinishTime();
+		}
+		assertEquals(HOSTS, broker.getCloudletReceivedList().size());
+		return finishTimes;
+	}
+}
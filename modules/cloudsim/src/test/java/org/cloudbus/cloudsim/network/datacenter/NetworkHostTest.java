@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkHostTest {
+
+	private static final long BW = 1000000;
+
+	private NetworkDatacenter dc;
+
+	private List<NetworkHost> hosts;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		LeafSpineTopologyBuilder topology = new LeafSpineTopologyBuilder(2, 1, 1, BW, 1, 0.001);
+		hosts = topology.createHosts(id -> {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			return new NetworkHost(id, new RamProvisionerSimple(1024), new BwProvisionerSimple(BW),
+					1000000, peList, new VmSchedulerTimeShared(peList));
+		});
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hosts, 10.0, 3.0, 0.05, 0.001, 0.0);
+		dc = new NetworkDatacenter("Datacenter", characteristics, new VmAllocationPolicySimple(hosts),
+				new LinkedList<Storage>(), 0);
+		topology.build(dc);
+	}
+
+	@Test
+	public void testRemotePacketsDoNotRebuildGuestIndex() {
+		NetworkHost senderHost = hosts.get(0);
+		Vm senderVm = createVm(0);
+		Vm receiverVm = createVm(1);
+		assertTrue(dc.getVmAllocationPolicy().allocateHostForGuest(senderVm, senderHost));
+		assertTrue(dc.getVmAllocationPolicy().allocateHostForGuest(receiverVm, hosts.get(1)));
+
+		NetworkCloudlet receiver = createCloudlet(0, receiverVm);
+		NetworkCloudlet sender = createCloudlet(1, senderVm);
+		sender.addSendStage(1000, receiver);
+		senderHost.getNics().put(sender.getCloudletId(), sender.getNic());
+
+		for (int i = 0; i < 100; i++) {
+			sender.getNic().getPktsToSend().add(new HostPacket(sender, 0));
+			senderHost.sendPackets();
+		}
+		assertEquals(1, senderHost.getGuestIndexBuildCount());
+		assertEquals(100 * 1000, dc.totalDataTransfer, 0);
+
+		// the index follows the guest list
+		assertNull(senderHost.getGuestById(receiverVm.getId()));
+		dc.getVmAllocationPolicy().deallocateHostForGuest(receiverVm);
+		assertTrue(dc.getVmAllocationPolicy().allocateHostForGuest(receiverVm, senderHost));
+		assertSame(receiverVm, senderHost.getGuestById(receiverVm.getId()));
+		assertEquals(2, senderHost.getGuestIndexBuildCount());
+		dc.getVmAllocationPolicy().deallocateHostForGuest(senderVm);
+		assertNull(senderHost.getGuestById(senderVm.getId()));
+	}
+
+	private static Vm createVm(int id) {
+		return new Vm(id, 0, 400, 1, 128, 1000, 1000, "Xen", new CloudletSchedulerTimeShared());
+	}
+
+	private static NetworkCloudlet createCloudlet(int id, Vm vm) {
+		NetworkCloudlet cloudlet = new NetworkCloudlet(id, 0, 1, 300, 300,
+				new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+		cloudlet.setGuestId(vm.getId());
+		return cloudlet;
+	}
+}
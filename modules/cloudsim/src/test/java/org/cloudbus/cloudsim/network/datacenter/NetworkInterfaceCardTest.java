@@ -0,0 +1,96 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkInterfaceCardTest {
+
+	private static final int SENDERS = 3;
+
+	private NetworkCloudlet receiver;
+
+	private List<NetworkCloudlet> senders;
+
+	@BeforeEach
+	public void setUp() {
+		receiver = createCloudlet(0);
+		senders = new ArrayList<>();
+		for (int i = 1; i <= SENDERS; i++) {
+			NetworkCloudlet sender = createCloudlet(i);
+			sender.addSendStage(100, receiver);
+			sender.addSendStage(200, receiver);
+			senders.add(sender);
+		}
+	}
+
+	@Test
+	public void testPacketsAreMatchedBySender() {
+		NetworkInterfaceCard nic = receiver.getNic();
+		// the last sender is the first one to deliver
+		HostPacket last = new HostPacket(senders.get(2), 0);
+		HostPacket firstA = new HostPacket(senders.get(0), 0);
+		HostPacket firstB = new HostPacket(senders.get(0), 1);
+		nic.receivePacket(last);
+		nic.receivePacket(firstA);
+		nic.receivePacket(firstB);
+		assertEquals(3, nic.getReceivedPktCount());
+
+		assertNull(nic.pollReceivedPkt(senders.get(1).getCloudletId()));
+		assertSame(firstA, nic.pollReceivedPkt(senders.get(0).getCloudletId()));
+		assertSame(firstB, nic.pollReceivedPkt(senders.get(0).getCloudletId()));
+		assertNull(nic.pollReceivedPkt(senders.get(0).getCloudletId()));
+		assertSame(last, nic.pollReceivedPkt(senders.get(2).getCloudletId()));
+		assertEquals(0, nic.getReceivedPktCount());
+	}
+
+	@Test
+	public void testOnlyAwaitedSenderWakesReceiver() {
+		NetworkInterfaceCard nic = receiver.getNic();
+		assertFalse(nic.receivePacket(new HostPacket(senders.get(0), 0)));
+
+		nic.setAwaitedSenderCloudletId(senders.get(1).getCloudletId());
+		assertFalse(nic.receivePacket(new HostPacket(senders.get(2), 0)));
+		assertTrue(nic.receivePacket(new HostPacket(senders.get(1), 0)));
+	}
+
+	@Test
+	public void testReceiveStagesConsumeQueuedPackets() {
+		for (NetworkCloudlet sender : senders) {
+			receiver.addRecvStage(sender);
+		}
+		receiver.addExecutionStage(1000);
+
+		// the packets arrive in the reverse order of the receive stages
+		for (int i = SENDERS - 1; i >= 0; i--) {
+			receiver.getNic().receivePacket(new HostPacket(senders.get(i), 0));
+		}
+		receiver.updateCloudlet(null);
+
+		assertEquals(SENDERS, receiver.currStageNum);
+		assertEquals(0, receiver.getNic().getReceivedPktCount());
+		assertEquals(NetworkInterfaceCard.NONE, receiver.getNic().getAwaitedSenderCloudletId());
+	}
+
+	private static NetworkCloudlet createCloudlet(int id) {
+		return new NetworkCloudlet(id, 0, 1, 300, 300,
+				new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+	}
+}
@@ -0,0 +1,188 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.Cloudlet;
+import org.cloudbus.cloudsim.CloudletSchedulerTimeShared;
+import org.cloudbus.cloudsim.DatacenterBroker;
+import org.cloudbus.cloudsim.DatacenterCharacteristics;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.Storage;
+import org.cloudbus.cloudsim.UtilizationModelFull;
+import org.cloudbus.cloudsim.Vm;
+import org.cloudbus.cloudsim.VmAllocationPolicySimple;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NetworkTopologyBuilderTest {
+
+	private static final long BW = 1000000;
+
+	@BeforeEach
+	public void setUp() {
+		CloudSim.init(1, Calendar.getInstance(), false);
+	}
+
+	@Test
+	public void testFatTreeStructure() throws Exception {
+		FatTreeTopologyBuilder topology = new FatTreeTopologyBuilder(4, 0.001, BW);
+		assertEquals(16, topology.getHostCount());
+		assertEquals(20, topology.getSwitchCount());
+
+		NetworkDatacenter dc = createDatacenter(topology);
+		List<Switch> switchList = topology.build(dc);
+		assertEquals(20, dc.getSwitchList().size());
+		assertEquals(8, dc.getEdgeSwitch().size());
+
+		RoutingTable routingTable = dc.getRoutingTable();
+		for (Switch sw : switchList) {
+			switch (sw.level) {
+				case ROOT_LEVEL -> {
+					// one aggregate switch per pod
+					assertEquals(4, sw.downlinkSwitches.size());
+					assertEquals(0, sw.uplinkSwitches.size());
+				}
+				case AGGR_LEVEL -> {
+					assertEquals(2, sw.downlinkSwitches.size());
+					assertEquals(2, sw.uplinkSwitches.size());
+				}
+				case EDGE_LEVEL -> {
+					assertEquals(2, sw.hostList.size());
+					assertEquals(2, sw.uplinkSwitches.size());
+				}
+			}
+		}
+		for (NetworkHost host : dc.<NetworkHost>getHostList()) {
+			assertEquals(host.getSwitch().getId(), routingTable.getHostEdgeSwitch(host.getId()));
+		}
+
+		// all the core switches are used between two pods
+		Switch srcEdge = dc.<NetworkHost>getHostList().get(0).getSwitch();
+		Set<Switch> cores = new HashSet<>();
+		for (int sender = 0; sender < 64; sender++) {
+			Switch aggr = routingTable.selectUplink(srcEdge, sender, 1000);
+			cores.add(routingTable.selectUplink(aggr, sender, 1000));
+		}
+		assertEquals(4, cores.size());
+	}
+
+	@Test
+	public void testLeafSpineOversubscription() throws Exception {
+		LeafSpineTopologyBuilder topology = new LeafSpineTopologyBuilder(4, 2, 8, BW, 2, 0.001);
+		assertEquals(32, topology.getHostCount());
+		// 8 hosts at BW share 2 uplinks at twice less than their total bandwidth
+		assertEquals(2 * BW, topology.getUplinkBw());
+
+		NetworkDatacenter dc = createDatacenter(topology);
+		List<Switch> switchList = topology.build(dc);
+		for (Switch sw : switchList) {
+			if (sw.level == Switch.SwitchLevel.EDGE_LEVEL) {
+				assertEquals(8, sw.hostList.size());
+				assertEquals(2, sw.uplinkSwitches.size());
+				assertEquals(BW, sw.downlinkBw);
+				assertEquals(2 * BW, sw.uplinkBw);
+			} else {
+				assertEquals(4, sw.downlinkSwitches.size());
+			}
+		}
+	}
+
+	@Test
+	public void testHostCountMismatch() throws Exception {
+		NetworkDatacenter dc = createDatacenter(new FatTreeTopologyBuilder(2, 0.001, BW));
+		assertThrows(IllegalArgumentException.class, () -> new FatTreeTopologyBuilder(4, 0.001, BW).build(dc));
+		assertThrows(IllegalArgumentException.class, () -> new FatTreeTopologyBuilder(3, 0.001, BW));
+	}
+
+	@Test
+	public void testShuffleOverFatTree() throws Exception {
+		FatTreeTopologyBuilder topology = new FatTreeTopologyBuilder(4, 0.001, BW);
+		NetworkDatacenter dc = createDatacenter(topology);
+		topology.build(dc);
+
+		int hosts = topology.getHostCount();
+		DatacenterBroker broker = new DatacenterBroker("Broker");
+		List<Vm> vmList = new ArrayList<>();
+		List<NetworkCloudlet> cloudletList = new ArrayList<>();
+		for (int i = 0; i < hosts; i++) {
+			vmList.add(new Vm(i, broker.getId(), 1000, 1, 1024, BW, 1000, "Xen", new CloudletSchedulerTimeShared()));
+			NetworkCloudlet cloudlet = new NetworkCloudlet(i, 0, 1, 300, 300,
+					new UtilizationModelFull(), new UtilizationModelFull(), new UtilizationModelFull());
+			cloudlet.setUserId(broker.getId());
+			cloudlet.setGuestId(i);
+			cloudletList.add(cloudlet);
+		}
+		for (int i = 0; i < hosts; i++) {
+			// the peer is in another pod
+			NetworkCloudlet peer = cloudletList.get((i + hosts / 2) % hosts);
+			cloudletList.get(i).addExecutionStage(1000);
+			cloudletList.get(i).addSendStage(1000, peer);
+			cloudletList.get(i).addRecvStage(peer);
+			cloudletList.get(i).addExecutionStage(1000);
+		}
+		broker.submitGuestList(vmList);
+		broker.submitCloudletList(cloudletList);
+
+		CloudSim.startSimulation();
+		CloudSim.stopSimulation();
+
+		assertEquals(hosts, broker.getCloudletReceivedList().size());
+		for (Cloudlet cloudlet : broker.getCloudletReceivedList()) {
+			assertEquals(Cloudlet.CloudletStatus.SUCCESS, cloudlet.getStatus());
+		}
+		assertEquals(hosts * 1000, dc.totalDataTransfer, 0);
+
+		// the VMs destroyed at the end of the simulation have left the routing table
+		for (Vm vm : vmList) {
+			assertEquals(RoutingTable.NONE, dc.getRoutingTable().getHost(vm.getId()));
+		}
+	}
+
+	@Test
+	public void testLargeFatTree() throws Exception {
+		// 1024 hosts and 320 switches
+		FatTreeTopologyBuilder topology = new FatTreeTopologyBuilder(16, 0.001, BW);
+		NetworkDatacenter dc = createDatacenter(topology);
+		topology.build(dc);
+
+		assertEquals(320, dc.getSwitchList().size());
+		for (NetworkHost host : dc.<NetworkHost>getHostList()) {
+			assertTrue(host.getSwitch() != null);
+		}
+	}
+
+	private static NetworkDatacenter createDatacenter(NetworkTopologyBuilder topology) throws Exception {
+		List<NetworkHost> hostList = topology.createHosts(id -> {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			return new NetworkHost(id, new RamProvisionerSimple(1024), new BwProvisionerSimple(BW),
+					1000000, peList, new VmSchedulerTimeShared(peList));
+		});
+		DatacenterCharacteristics characteristics = new DatacenterCharacteristics("x86", "Linux", "Xen",
+				hostList, 10.0, 3.0, 0.05, 0.001, 0.0);
+		return new NetworkDatacenter("Datacenter_" + CloudSim.getNumEntities(), characteristics,
+				new VmAllocationPolicySimple(hostList), new LinkedList<Storage>(), 0);
+	}
+}
@@ -0,0 +1,122 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.network.datacenter;
+
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.cloudbus.cloudsim.core.CloudSim;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RoutingTableTest {
+
+	private RoutingTable routingTable;
+
+	private Switch root;
+
+	private Switch aggr0;
+
+	private Switch aggr1;
+
+	private Switch edge0;
+
+	private Switch edge1;
+
+	@BeforeEach
+	public void setUp() {
+		CloudSim.init(1, Calendar.getInstance(), false);
+		root = new Switch("Root", 2, Switch.SwitchLevel.ROOT_LEVEL, 0, 1000, 1000, null);
+		aggr0 = new Switch("Aggr0", 2, Switch.SwitchLevel.AGGR_LEVEL, 0, 1000, 1000, null);
+		aggr1 = new Switch("Aggr1", 2, Switch.SwitchLevel.AGGR_LEVEL, 0, 1000, 1000, null);
+		edge0 = new Switch("Edge0", 2, Switch.SwitchLevel.EDGE_LEVEL, 0, 1000, 1000, null);
+		edge1 = new Switch("Edge1", 2, Switch.SwitchLevel.EDGE_LEVEL, 0, 1000, 1000, null);
+
+		routingTable = new RoutingTable();
+		routingTable.attachSwitch(aggr0, root);
+		routingTable.attachSwitch(aggr1, root);
+		// edge0 is dual-homed, edge1 is only attached to aggr1
+		routingTable.attachSwitch(edge0, aggr0);
+		routingTable.attachSwitch(edge0, aggr1);
+		routingTable.attachSwitch(edge1, aggr1);
+		routingTable.attachHost(0, edge0);
+		routingTable.attachHost(1, edge1);
+	}
+
+	@Test
+	public void testGuestPlacement() {
+		assertEquals(RoutingTable.NONE, routingTable.getHost(5));
+		assertEquals(RoutingTable.NONE, routingTable.getEdgeSwitch(5));
+
+		routingTable.setGuestHost(5, 0);
+		assertEquals(0, routingTable.getHost(5));
+		assertEquals(edge0.getId(), routingTable.getEdgeSwitch(5));
+
+		// migration
+		routingTable.setGuestHost(5, 1);
+		assertEquals(edge1.getId(), routingTable.getEdgeSwitch(5));
+
+		routingTable.removeGuest(5);
+		assertEquals(RoutingTable.NONE, routingTable.getHost(5));
+	}
+
+	@Test
+	public void testRemoveGuestFromHost() {
+		routingTable.setGuestHost(5, 1);
+		// a guest with the same id removed from another host
+		routingTable.removeGuest(5, 0);
+		assertEquals(1, routingTable.getHost(5));
+
+		routingTable.removeGuest(5, 1);
+		assertEquals(RoutingTable.NONE, routingTable.getHost(5));
+		routingTable.removeGuest(100, 1);
+		assertEquals(RoutingTable.NONE, routingTable.getHost(100));
+	}
+
+	@Test
+	public void testDownlinks() {
+		assertTrue(routingTable.isDownlink(aggr0, edge0.getId()));
+		assertFalse(routingTable.isDownlink(aggr0, edge1.getId()));
+		assertTrue(routingTable.isDownlink(root, aggr1.getId()));
+		assertFalse(routingTable.isDownlink(edge0, aggr0.getId()));
+	}
+
+	@Test
+	public void testEcmpUplinks() {
+		Set<Switch> used = new HashSet<>();
+		for (int sender = 0; sender < 32; sender++) {
+			Switch uplink = routingTable.selectUplink(edge0, sender, 100);
+			// all the packets between two guests follow the same path
+			assertSame(uplink, routingTable.selectUplink(edge0, sender, 100));
+			used.add(uplink);
+		}
+		assertEquals(Set.of(aggr0, aggr1), used);
+
+		assertSame(aggr1, routingTable.selectUplink(edge1, 3, 4));
+		assertSame(root, routingTable.selectUplink(aggr0, 3, 4));
+		assertNull(routingTable.selectUplink(root, 3, 4));
+	}
+
+	@Test
+	public void testRootDownlinkReachesEdge() {
+		for (int sender = 0; sender < 32; sender++) {
+			assertSame(aggr1, routingTable.selectDownlink(root, edge1.getId(), sender, 100));
+			Switch aggr = routingTable.selectDownlink(root, edge0.getId(), sender, 100);
+			assertTrue(aggr == aggr0 || aggr == aggr1);
+		}
+		assertNull(routingTable.selectDownlink(root, RoutingTable.NONE, 0, 1));
+	}
+}
@@ -0,0 +1,151 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.power.models.PowerModel;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.power.models.PowerModelSpecPowerIbmX3550XeonX5675;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EnergyIntegratorTest {
+
+	private static final int HOSTS = 10;
+
+	private List<PowerHost> hosts;
+
+	private EnergyIntegrator energyIntegrator;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		hosts = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(1000)));
+			hosts.add(new PowerHost(i, null, null, 0, peList, null,
+					i % 2 == 0 ? new PowerModelLinear(200, 0.3) : new PowerModelSpecPowerIbmX3550XeonX5675()));
+		}
+		energyIntegrator = new EnergyIntegrator();
+	}
+
+	@Test
+	public void testUnchangedUtilization() {
+		PowerHost host = hosts.getFirst();
+		energyIntegrator.advance(10);
+		assertTrue(energyIntegrator.update(host, 0, 0, 0.5));
+		energyIntegrator.advance(20);
+		assertFalse(energyIntegrator.update(host, 10, 0.5, 0.5));
+		energyIntegrator.advance(30);
+		assertFalse(energyIntegrator.update(host, 20, 0.5, 0.5));
+		assertEquals(host.getPower(0.5) * 20, energyIntegrator.getTotalEnergy(), 1e-9);
+		assertEquals(host.getPower(0.5) * 20, energyIntegrator.getHostEnergy(host.getId()), 1e-9);
+		assertEquals(host.getPower(0.5), energyIntegrator.getTotalPower(), 0);
+	}
+
+	@Test
+	public void testMatchesLinearInterpolation() {
+		Random random = new Random(3);
+		double[] utilization = new double[HOSTS];
+		double[] expectedHostEnergy = new double[HOSTS];
+		double expectedEnergy = 0;
+		double time = 0;
+		for (int step = 0; step < 1000; step++) {
+			double nextTime = time + (random.nextInt(5) == 0 ? 0 : random.nextDouble() * 300);
+			energyIntegrator.advance(nextTime);
+			for (PowerHost host : hosts) {
+				int id = host.getId();
+				double previousUtilization = utilization[id];
+				if (random.nextInt(4) == 0) {
+					utilization[id] = random.nextInt(3) == 0 ? 0 : random.nextDouble();
+				}
+				double energy = host.getEnergyLinearInterpolation(previousUtilization, utilization[id], nextTime - time);
+				expectedHostEnergy[id] += energy;
+				expectedEnergy += energy;
+				energyIntegrator.update(host, time, previousUtilization, utilization[id]);
+			}
+			time = nextTime;
+		}
+		assertEquals(expectedEnergy, energyIntegrator.getTotalEnergy(), expectedEnergy * 1e-12);
+		for (PowerHost host : hosts) {
+			assertEquals(expectedHostEnergy[host.getId()], energyIntegrator.getHostEnergy(host.getId()), 1e-6);
+		}
+	}
+
+	@Test
+	public void testBatchUpdateMatchesSingleUpdates() {
+		int[] batchCalls = new int[1];
+		PowerModel linear = new PowerModelLinear(200, 0.3);
+		PowerModel countingModel = new PowerModel() {
+			@Override
+			public double getPower(double utilization) {
+				return linear.getPower(utilization);
+			}
+
+			@Override
+			public void getPower(double[] utilizations, double[] out) {
+				batchCalls[0]++;
+				PowerModel.super.getPower(utilizations, out);
+			}
+		};
+		List<PowerHost> batchHosts = new ArrayList<>();
+		for (PowerHost host : hosts) {
+			batchHosts.add(new PowerHost(host.getId(), null, null, 0, host.getPeList(), null,
+					host.getId() % 2 == 0 ? countingModel : host.getPowerModel()));
+		}
+		EnergyIntegrator batchIntegrator = new EnergyIntegrator();
+
+		Random random = new Random(5);
+		double[] previousUtilizations = new double[HOSTS];
+		double[] utilizations = new double[HOSTS];
+		boolean[] changed = new boolean[HOSTS];
+		double time = 0;
+		for (int step = 0; step < 100; step++) {
+			double nextTime = time + random.nextDouble() * 300;
+			energyIntegrator.advance(nextTime);
+			batchIntegrator.advance(nextTime);
+			boolean[] expectedChanged = new boolean[HOSTS];
+			for (PowerHost host : hosts) {
+				int id = host.getId();
+				previousUtilizations[id] = utilizations[id];
+				if (random.nextInt(4) == 0) {
+					utilizations[id] = random.nextInt(3) == 0 ? 0 : random.nextDouble();
+				}
+				expectedChanged[id] = energyIntegrator.update(host, time, previousUtilizations[id], utilizations[id]);
+			}
+			batchCalls[0] = 0;
+			batchIntegrator.update(batchHosts, time, previousUtilizations, utilizations, changed);
+			assertArrayEquals(expectedChanged, changed);
+			// one call for the previous and one for the current utilizations of the hosts sharing the model
+			boolean evenHostChanged = false;
+			for (int id = 0; id < HOSTS; id += 2) {
+				evenHostChanged |= changed[id];
+			}
+			assertEquals(evenHostChanged ? 2 : 0, batchCalls[0]);
+			time = nextTime;
+		}
+		// the hosts are summed up in a different order
+		assertEquals(energyIntegrator.getTotalEnergy(), batchIntegrator.getTotalEnergy(), 1e-6);
+		assertEquals(energyIntegrator.getTotalPower(), batchIntegrator.getTotalPower(), 1e-9);
+		for (PowerHost host : hosts) {
+			assertEquals(energyIntegrator.getHostEnergy(host.getId()), batchIntegrator.getHostEnergy(host.getId()), 0);
+		}
+	}
+
+}
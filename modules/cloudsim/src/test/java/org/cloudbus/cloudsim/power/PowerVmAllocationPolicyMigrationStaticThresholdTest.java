@@ -0,0 +1,101 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2012, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.cloudbus.cloudsim.CloudletSchedulerDynamicWorkload;
+import org.cloudbus.cloudsim.Pe;
+import org.cloudbus.cloudsim.VmSchedulerTimeShared;
+import org.cloudbus.cloudsim.power.models.PowerModelLinear;
+import org.cloudbus.cloudsim.provisioners.BwProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.PeProvisionerSimple;
+import org.cloudbus.cloudsim.provisioners.RamProvisionerSimple;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyMinimumMigrationTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PowerVmAllocationPolicyMigrationStaticThresholdTest {
+
+	private static final int HOSTS = 40;
+
+	private static final double[] VM_MIPS = { 2500, 2000, 1000, 500 };
+
+	private List<PowerHost> hostList;
+
+	private PowerVmAllocationPolicyMigrationStaticThreshold policy;
+
+	private Random random;
+
+	private int vmId = 0;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		random = new Random(7);
+		hostList = new ArrayList<>();
+		for (int i = 0; i < HOSTS; i++) {
+			List<Pe> peList = new ArrayList<>();
+			peList.add(new Pe(0, new PeProvisionerSimple(2660)));
+			peList.add(new Pe(1, new PeProvisionerSimple(2660)));
+			hostList.add(new PowerHost(i, new RamProvisionerSimple(8192), new BwProvisionerSimple(1000000),
+					1000000, peList, new VmSchedulerTimeShared(peList),
+					new PowerModelLinear(200 + 10 * (i % 3), 0.3 + 0.1 * (i % 2))));
+		}
+		policy = new PowerVmAllocationPolicyMigrationStaticThreshold(hostList,
+				new SelectionPolicyMinimumMigrationTime<>(), 0.8);
+
+		for (PowerHost host : hostList) {
+			int vms = random.nextInt(4);
+			for (int i = 0; i < vms; i++) {
+				host.guestCreate(createVm());
+			}
+		}
+	}
+
+	@Test
+	public void testParallelOverUtilizedHostsMatchSequential() {
+		List<PowerHost> sequential = policy.getOverUtilizedHosts();
+		policy.setParallelConsolidation(true);
+		List<PowerHost> parallel = policy.getOverUtilizedHosts();
+		assertFalse(sequential.isEmpty());
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void testParallelFindHostForGuestMatchesSequential() {
+		int allocated = 0;
+		for (int i = 0; i < 50; i++) {
+			PowerVm vm = createVm();
+			policy.setParallelConsolidation(false);
+			PowerHost sequential = policy.findHostForGuest(vm, new HashSet<>());
+			policy.setParallelConsolidation(true);
+			PowerHost parallel = policy.findHostForGuest(vm, new HashSet<>());
+			assertEquals(sequential, parallel);
+			if (parallel != null) {
+				parallel.guestCreate(vm);
+				allocated++;
+			}
+		}
+		assertTrue(allocated > 0);
+	}
+
+	private PowerVm createVm() {
+		double mips = VM_MIPS[random.nextInt(VM_MIPS.length)];
+		return new PowerVm(vmId++, 0, mips, 1, 613, 100000, 2500, 1, "Xen",
+				new CloudletSchedulerDynamicWorkload(mips, 1), 300);
+	}
+
+}
@@ -0,0 +1,73 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.power.models;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PowerModelLookupTableTest {
+
+	private static final double MAX_POWER = 250;
+	private static final double STATIC_POWER_PERCENT = 0.7;
+
+	@Test
+	public void testGetPowerArgumentOutOfRange() {
+		PowerModel powerModel = new PowerModelLookupTable(new PowerModelLinear(MAX_POWER, STATIC_POWER_PERCENT));
+		assertThrows(IllegalArgumentException.class, () -> powerModel.getPower(-1));
+		assertThrows(IllegalArgumentException.class, () -> powerModel.getPower(2));
+		assertThrows(IllegalArgumentException.class, () -> powerModel.getPower(new double[] { 0.5, 2 }, new double[2]));
+	}
+
+	@Test
+	public void testGetPowerLinear() {
+		PowerModel linear = new PowerModelLinear(MAX_POWER, STATIC_POWER_PERCENT);
+		PowerModel powerModel = new PowerModelLookupTable(linear);
+		assertEquals(0, powerModel.getPower(0), 0);
+		assertEquals(MAX_POWER * STATIC_POWER_PERCENT, powerModel.getPower(1e-9), 1e-6);
+		for (int i = 1; i <= 1000; i++) {
+			double utilization = i / 1000.0 - 0.0003;
+			assertEquals(linear.getPower(utilization), powerModel.getPower(utilization), 1e-9);
+		}
+		assertEquals(MAX_POWER, powerModel.getPower(1), 1e-9);
+	}
+
+	@Test
+	public void testGetPowerSpecPower() {
+		PowerModel specPower = new PowerModelSpecPowerIbmX3550XeonX5675();
+		PowerModel powerModel = new PowerModelLookupTable(specPower, 100);
+		for (int i = 0; i <= 1000; i++) {
+			double utilization = i / 1000.0;
+			assertEquals(specPower.getPower(utilization), powerModel.getPower(utilization), 1e-9);
+		}
+	}
+
+	@Test
+	public void testGetPowerCubic() {
+		PowerModel cubic = new PowerModelCubic(MAX_POWER, STATIC_POWER_PERCENT);
+		PowerModel powerModel = new PowerModelLookupTable(cubic);
+		for (int i = 1; i <= 1000; i++) {
+			double utilization = i / 1000.0 - 0.0005;
+			assertEquals(cubic.getPower(utilization), powerModel.getPower(utilization), 1e-3);
+		}
+	}
+
+	@Test
+	public void testGetPowerBulk() {
+		PowerModel powerModel = new PowerModelLookupTable(new PowerModelSqrt(MAX_POWER, STATIC_POWER_PERCENT));
+		double[] utilizations = { 0, 0.05, 0.33, 0.5, 0.999, 1 };
+		double[] power = new double[utilizations.length];
+		powerModel.getPower(utilizations, power);
+		for (int i = 0; i < utilizations.length; i++) {
+			assertEquals(powerModel.getPower(utilizations[i]), power[i], 0);
+		}
+	}
+
+}
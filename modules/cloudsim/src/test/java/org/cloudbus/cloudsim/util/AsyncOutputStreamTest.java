@@ -0,0 +1,83 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncOutputStreamTest {
+
+	@Test
+	public void testBytesAreWrittenInOrderOnFlush() throws IOException {
+		ByteArrayOutputStream target = new ByteArrayOutputStream();
+		StringBuilder expected = new StringBuilder();
+		try (AsyncOutputStream out = new AsyncOutputStream(target, 16)) {
+			for (int i = 0; i < 100; i++) {
+				String line = "line " + i + "\n";
+				out.write(line.getBytes(StandardCharsets.UTF_8));
+				expected.append(line);
+			}
+			out.write('!');
+			expected.append('!');
+			out.write(new byte[40]);
+			expected.append(new String(new byte[40], StandardCharsets.UTF_8));
+
+			out.flush();
+			assertEquals(expected.toString(), target.toString(StandardCharsets.UTF_8));
+		}
+	}
+
+	@Test
+	public void testCloseClosesTheTargetStream() throws IOException {
+		boolean[] closed = new boolean[1];
+		ByteArrayOutputStream target = new ByteArrayOutputStream() {
+			@Override
+			public void close() {
+				closed[0] = true;
+			}
+		};
+		AsyncOutputStream out = new AsyncOutputStream(target);
+		out.write("test".getBytes(StandardCharsets.UTF_8));
+		out.close();
+		out.close();
+
+		assertTrue(closed[0]);
+		assertEquals("test", target.toString(StandardCharsets.UTF_8));
+		assertThrows(IOException.class, () -> out.write(1));
+	}
+
+	@Test
+	public void testWriteErrorsAreThrownByTheNextCall() throws IOException {
+		OutputStream target = new OutputStream() {
+			@Override
+			public void write(int b) throws IOException {
+				throw new IOException("disk full");
+			}
+		};
+		AsyncOutputStream out = new AsyncOutputStream(target);
+		out.write(1);
+		IOException e = assertThrows(IOException.class, out::flush);
+		assertEquals("disk full", e.getMessage());
+		out.close();
+	}
+
+	@Test
+	public void testInvalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new AsyncOutputStream(null));
+		assertThrows(IllegalArgumentException.class, () -> new AsyncOutputStream(new ByteArrayOutputStream(), 0));
+	}
+}
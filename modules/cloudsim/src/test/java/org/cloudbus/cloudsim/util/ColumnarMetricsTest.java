@@ -0,0 +1,157 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ColumnarMetricsTest {
+
+	private static final MetricsColumn[] COLUMNS = {
+			new MetricsColumn("host", MetricsColumn.Type.INT),
+			new MetricsColumn("time", MetricsColumn.Type.DOUBLE),
+			new MetricsColumn("utilization", MetricsColumn.Type.DOUBLE),
+			new MetricsColumn("migrations", MetricsColumn.Type.LONG),
+			new MetricsColumn("policy", MetricsColumn.Type.STRING)};
+
+	private static final int HOSTS = 100;
+
+	private static final int STEPS = 300;
+
+	@Test
+	public void testRoundTrip(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("metrics/hosts.bin");
+		Random random = new Random(1);
+		double[] utilizations = new double[HOSTS * STEPS];
+		try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(file.toString(), COLUMNS)) {
+			for (int step = 0; step < STEPS; step++) {
+				for (int host = 0; host < HOSTS; host++) {
+					int row = step * HOSTS + host;
+					utilizations[row] = Math.round(random.nextDouble() * 100) / 100.0;
+					writer.setInt(0, host);
+					writer.setDouble(1, step * 300.0);
+					writer.setDouble(2, utilizations[row]);
+					writer.setLong(3, row % 7 == 0 ? -row : row);
+					if (host % 10 != 0) {
+						writer.setString(4, host % 2 == 0 ? "lr" : "mmt");
+					}
+					writer.endRow();
+				}
+			}
+			assertEquals(HOSTS * STEPS, writer.getRowCount());
+		}
+		// far below the 8 bytes per double of a plain binary dump
+		assertTrue(Files.size(file) < HOSTS * STEPS * 8, "size " + Files.size(file));
+
+		try (ColumnarMetricsReader reader = new ColumnarMetricsReader(file.toString())) {
+			assertEquals(Arrays.asList(COLUMNS), reader.getColumns());
+			int utilization = reader.getColumnIndex("utilization");
+			int rows = 0;
+			int groups = 0;
+			while (reader.nextRowGroup()) {
+				groups++;
+				int[] hosts = reader.getInts(0);
+				double[] times = reader.getDoubles(1);
+				double[] values = reader.getDoubles(utilization);
+				long[] migrations = reader.getLongs(3);
+				String[] policies = reader.getStrings(4);
+				for (int i = 0; i < reader.getRowCount(); i++, rows++) {
+					assertEquals(rows % HOSTS, hosts[i]);
+					assertEquals(rows / HOSTS * 300.0, times[i]);
+					assertEquals(utilizations[rows], values[i]);
+					assertEquals(rows % 7 == 0 ? -rows : rows, migrations[i]);
+					if (hosts[i] % 10 == 0) {
+						assertNull(policies[i]);
+					} else {
+						assertEquals(hosts[i] % 2 == 0 ? "lr" : "mmt", policies[i]);
+					}
+				}
+			}
+			assertEquals(HOSTS * STEPS, rows);
+			assertEquals(1, groups);
+			assertFalse(reader.nextRowGroup());
+			assertThrows(IllegalArgumentException.class, () -> reader.getColumnIndex("power"));
+		}
+	}
+
+	@Test
+	public void testDictionarySpansRowGroups() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MetricsColumn[] columns = {new MetricsColumn("vm", MetricsColumn.Type.STRING)};
+		List<String> names = List.of("a", "b", "a", "c", "b", "a", "d");
+		try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(bytes, 3, columns)) {
+			for (String name : names) {
+				writer.setString(0, name);
+				writer.endRow();
+			}
+			assertThrows(IllegalArgumentException.class, () -> writer.setDouble(0, 1));
+		}
+
+		try (ColumnarMetricsReader reader = new ColumnarMetricsReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+			String first = null;
+			int row = 0;
+			int[] groupSizes = {3, 3, 1};
+			for (int groupSize : groupSizes) {
+				assertTrue(reader.nextRowGroup());
+				assertEquals(groupSize, reader.getRowCount());
+				String[] values = reader.getStrings(0);
+				for (int i = 0; i < groupSize; i++, row++) {
+					assertEquals(names.get(row), values[i]);
+					if (values[i].equals("a")) {
+						if (first == null) {
+							first = values[i];
+						}
+						assertSame(first, values[i]);
+					}
+				}
+			}
+			assertFalse(reader.nextRowGroup());
+		}
+	}
+
+	@Test
+	public void testTruncatedAndForeignFiles() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ColumnarMetricsWriter writer = new ColumnarMetricsWriter(bytes, 10, COLUMNS)) {
+			for (int i = 0; i < 25; i++) {
+				writer.setInt(0, i);
+				writer.endRow();
+			}
+		}
+		byte[] file = bytes.toByteArray();
+		byte[] truncated = Arrays.copyOf(file, file.length - 10);
+		try (ColumnarMetricsReader reader = new ColumnarMetricsReader(new ByteArrayInputStream(truncated))) {
+			assertTrue(reader.nextRowGroup());
+			assertArrayEquals(new int[] {0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, reader.getInts(0));
+			assertTrue(reader.nextRowGroup());
+			assertThrows(EOFException.class, reader::nextRowGroup);
+		}
+
+		byte[] text = "time,utilization\n".getBytes();
+		assertThrows(IOException.class, () -> new ColumnarMetricsReader(new ByteArrayInputStream(text)));
+	}
+}
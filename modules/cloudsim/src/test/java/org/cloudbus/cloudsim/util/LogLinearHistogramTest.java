@@ -0,0 +1,65 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LogLinearHistogramTest {
+
+	@Test
+	public void testPercentilesWithinRelativeError() {
+		LogLinearHistogram histogram = new LogLinearHistogram();
+		Random random = new Random(1);
+		double[] values = new double[10000];
+		for (int i = 0; i < values.length; i++) {
+			// from microseconds to seconds
+			values[i] = Math.pow(10, -6 + 6 * random.nextDouble());
+			histogram.record(values[i]);
+		}
+		Arrays.sort(values);
+
+		for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+			double expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			assertEquals(expected, histogram.getPercentile(percentile), expected / 32);
+		}
+		assertEquals(values.length, histogram.getCount());
+		assertEquals(values[0], histogram.getMin());
+		assertEquals(values[values.length - 1], histogram.getMax());
+		assertEquals(values[values.length - 1], histogram.getPercentile(100));
+	}
+
+	@Test
+	public void testOutOfRangeValuesAndMerge() {
+		LogLinearHistogram histogram = new LogLinearHistogram(1, 4, 4);
+		histogram.record(0);
+		histogram.record(0.5);
+		// beyond 2^4, in the last bucket
+		histogram.record(100);
+		// values below the lowest value are reported as the lowest value
+		assertEquals(1, histogram.getPercentile(50));
+		assertEquals(100, histogram.getPercentile(100));
+
+		LogLinearHistogram other = new LogLinearHistogram(1, 4, 4);
+		other.record(3);
+		histogram.add(other);
+		assertEquals(4, histogram.getCount());
+		assertEquals(103.5 / 4, histogram.getMean(), 1e-9);
+
+		histogram.reset();
+		assertEquals(0, histogram.getCount());
+		assertEquals(0, histogram.getPercentile(50));
+		assertThrows(IllegalArgumentException.class, () -> histogram.add(new LogLinearHistogram()));
+	}
+}
@@ -0,0 +1,125 @@
+/*
+ * Title:        CloudSim Toolkit
+ * Description:  CloudSim (Cloud Simulation) Toolkit for Modeling and Simulation of Clouds
+ * Licence:      GPL - http://www.gnu.org/copyleft/gpl.html
+ *
+ * Copyright (c) 2009-2024, The University of Melbourne, Australia
+ */
+
+package org.cloudbus.cloudsim.util;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+import org.cloudbus.cloudsim.UtilizationModelStochastic;
+import org.cloudbus.cloudsim.container.utils.RandomGen;
+import org.cloudbus.cloudsim.distributions.ContinuousDistribution;
+import org.cloudbus.cloudsim.distributions.ExponentialDistr;
+import org.cloudbus.cloudsim.distributions.UniformDistr;
+import org.cloudbus.cloudsim.distributions.ZipfDistr;
+import org.cloudbus.cloudsim.selectionPolicies.SelectionPolicyRandomSelection;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class RandomStreamsTest {
+
+	@Test
+	public void testStreamsAreReproducibleAndIndependent() {
+		RandomStreams.setMasterSeed(42);
+		long[] first = draw(RandomStreams.stream("Host", 3));
+		// drawing from or creating other streams does not change a stream
+		draw(RandomStreams.stream("Host", 2));
+		draw(RandomStreams.nextStream("Host"));
+		assertEquals(List.of(first[0], first[1], first[2]), asList(draw(RandomStreams.stream("Host", 3))));
+
+		assertNotEquals(first[0], RandomStreams.stream("Host", 4).nextLong());
+		assertNotEquals(first[0], RandomStreams.stream("Vm", 3).nextLong());
+
+		RandomStreams.setMasterSeed(43);
+		assertNotEquals(first[0], RandomStreams.stream("Host", 3).nextLong());
+		assertEquals(43, RandomStreams.getMasterSeed());
+	}
+
+	@Test
+	public void testNextStreamRestartsWithMasterSeed() {
+		RandomStreams.setMasterSeed(7);
+		long a = RandomStreams.nextStream("Cloudlet").nextLong();
+		long b = RandomStreams.nextStream("Cloudlet").nextLong();
+		assertNotEquals(a, b);
+		assertEquals(RandomStreams.stream("Cloudlet", 1).nextLong(), b);
+
+		RandomStreams.setMasterSeed(7);
+		assertEquals(a, RandomStreams.nextStream("Cloudlet").nextLong());
+		assertEquals(b, RandomStreams.nextStream("Cloudlet").nextLong());
+	}
+
+	@Test
+	public void testUnseededModelsAreReproducible() {
+		assertEquals(sampleModels(2024), sampleModels(2024));
+		assertNotEquals(sampleModels(2024), sampleModels(2025));
+
+		// two unseeded instances do not share their sequence
+		RandomStreams.setMasterSeed(2024);
+		UtilizationModelStochastic first = new UtilizationModelStochastic();
+		UtilizationModelStochastic second = new UtilizationModelStochastic();
+		assertNotEquals(first.getUtilization(0), second.getUtilization(0));
+	}
+
+	@Test
+	public void testRandomGettersDrawFromTheStreams() {
+		RandomStreams.setMasterSeed(11);
+		Random random = new RandomGen().getRandom();
+		assertEquals(new Random(RandomStreams.stream("RandomGen", 0).nextLong()).nextDouble(), random.nextDouble());
+
+		// the default generators can be reseeded
+		Random reseeded = new UtilizationModelStochastic().getRandomGenerator();
+		reseeded.setSeed(42);
+		assertEquals(new Random(42).nextDouble(), reseeded.nextDouble());
+		random.setSeed(42);
+		assertEquals(new Random(42).nextInt(), random.nextInt());
+
+		// a java.util.Random is kept as is
+		Random seeded = new Random(5);
+		UtilizationModelStochastic utilization = new UtilizationModelStochastic();
+		utilization.setRandomGenerator(seeded);
+		assertSame(seeded, utilization.getRandomGenerator());
+		assertEquals(new Random(5).nextDouble(), utilization.getUtilization(0));
+	}
+
+	private static List<Object> sampleModels(long seed) {
+		RandomStreams.setMasterSeed(seed);
+		UtilizationModelStochastic utilization = new UtilizationModelStochastic();
+		ContinuousDistribution[] distributions = {new ExponentialDistr(10), new UniformDistr(0, 5),
+				new ZipfDistr(1.2, 50)};
+		SelectionPolicyRandomSelection<Integer> selection = new SelectionPolicyRandomSelection<>();
+		List<Integer> candidates = List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+
+		List<Object> samples = new ArrayList<>();
+		for (int i = 0; i < 20; i++) {
+			samples.add(utilization.getUtilization(i));
+			for (ContinuousDistribution distribution : distributions) {
+				samples.add(distribution.sample());
+			}
+			samples.add(selection.select(candidates, null, new HashSet<>()));
+		}
+		return samples;
+	}
+
+	private static long[] draw(SplittableRandom random) {
+		return new long[] {random.nextLong(), random.nextLong(), random.nextLong()};
+	}
+
+	private static List<Long> asList(long[] values) {
+		List<Long> list = new ArrayList<>();
+		for (long value : values) {
+			list.add(value);
+		}
+		return list;
+	}
+}